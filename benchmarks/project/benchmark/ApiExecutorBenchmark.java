@@ -0,0 +1,115 @@
+package project.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import project.api.AdmissionGate;
+import project.api.ApiServer;
+import project.article.HelpArticleDatabase;
+import project.util.config.DatabaseConfig;
+
+/**
+ * <p> ApiExecutorBenchmark class </p>
+ *
+ * <p> Description: Compares the API's request executors under a burst of concurrent
+ * requests that mostly wait. Each request waits ioMillis outside the database (a slow
+ * client or an upstream call), then, holding an AdmissionGate permit as the API does,
+ * runs the JDBC work of GET /api/articles/{id}: the access check and the body, both
+ * uncached, each on a connection borrowed from the pool. A fixed pool of 16 platform
+ * threads finishes the burst no faster than 16 requests per ioMillis plus the queries;
+ * virtual threads are limited only by the gate's permits, one per pooled connection,
+ * during the database part. Needs Java 21 (mvn -Pjava21,benchmarks package) for the
+ * virtual runs, which otherwise fall back to the platform pool. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Dproject.db.url=" + ApiExecutorBenchmark.DB_URL })
+public class ApiExecutorBenchmark {
+    static final String DB_URL = "jdbc:h2:mem:apibenchmark;DB_CLOSE_DELAY=-1";
+    private static final int ARTICLES = 1000;
+    private static final int PLATFORM_THREADS = 16;
+
+    @Param({ "platform", "virtual" })
+    public String executor;
+
+    @Param({ "1000", "10000" })
+    public int requests;
+
+    @Param({ "20" })
+    public int ioMillis;
+
+    private HelpArticleDatabase database;
+    private ExecutorService pool;
+    private AdmissionGate gate;
+
+    @Setup(Level.Trial)
+    public void start() throws SQLException {
+        database = HelpArticleDatabase.getInstance();
+        database.removeAllArticles();
+        database.createHelpArticles(BenchmarkData.articles(ARTICLES, 42L));
+        pool = ApiServer.newExecutor(executor, PLATFORM_THREADS);
+        gate = new AdmissionGate(DatabaseConfig.get().getPool().getMaxSize(), TimeUnit.MINUTES.toMillis(5));
+        if ("virtual".equals(executor) && !ApiServer.isVirtual(pool)) {
+            System.out.println("No virtual threads on this JVM; the virtual runs use platform threads");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws SQLException {
+        pool.shutdownNow();
+        database.removeAllArticles();
+        System.out.println("Peak platform threads: " + ManagementFactory.getThreadMXBean().getPeakThreadCount());
+    }
+
+    /**
+     * Submits the whole burst at once and waits for every request to finish.
+     */
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<String>> pending = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            pending.add(pool.submit(this::request));
+        }
+        int found = 0;
+        for (Future<String> future : pending) {
+            if (future.get() != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private String request() throws Exception {
+        Thread.sleep(ioMillis);
+        return gate.run(() -> {
+            long id = 1 + ThreadLocalRandom.current().nextInt(ARTICLES);
+            database.getSpecialAccessGroup(id);
+            return database.fetchBody(id);
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package project.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import project.article.HelpArticle;
+import project.article.HelpArticleDatabase;
+import project.article.backup.BackupWriter;
+
+/**
+ * <p> BackupBenchmark class </p>
+ *
+ * <p> Description: Measures writing a backup file, reading one back, and restoring it
+ * into an emptied in-memory database. Each call handles the whole file, so these
+ * run as single shots rather than in a timed loop. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx6g", "-Dproject.db.url=" + HelpArticleDatabaseBenchmark.DB_URL })
+public class BackupBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int articles;
+
+    private HelpArticleDatabase database;
+    private List<HelpArticle> dataset;
+    private File backup;
+    private File output;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException, SQLException {
+        database = HelpArticleDatabase.getInstance();
+        dataset = BenchmarkData.articles(articles, 42L);
+        backup = File.createTempFile("benchmark-backup", ".txt");
+        output = File.createTempFile("benchmark-output", ".txt");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(backup))) {
+            BackupWriter.write(dataset, writer);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyDatabase() throws SQLException {
+        database.removeAllArticles();
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() {
+        backup.delete();
+        output.delete();
+    }
+
+    @Benchmark
+    public File writeBackup() throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(output))) {
+            BackupWriter.write(dataset, writer);
+        }
+        return output;
+    }
+
+    @Benchmark
+    public List<HelpArticle> readArticlesFromFile() {
+        return database.readArticlesFromFile(backup);
+    }
+
+    @Benchmark
+    public void restoreArticlesFromBackup() throws SQLException {
+        database.restoreArticlesFromBackup(backup);
+    }
+}
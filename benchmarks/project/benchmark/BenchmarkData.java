@@ -0,0 +1,76 @@
+package project.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import project.article.HelpArticle;
+
+/**
+ * <p> BenchmarkData class </p>
+ *
+ * <p> Description: Builds repeatable sets of help articles for the benchmarks. The same
+ * size and seed always give the same articles, so runs before and after a change
+ * measure the same data. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class BenchmarkData {
+    public static final int GROUPS = 100; // Articles are spread evenly over this many groups
+    private static final String[] LEVELS = { "Beginner", "Intermediate", "Advanced", "Expert" };
+    private static final String[] WORDS = { "database", "query", "index", "recursion", "loop", "array",
+            "object", "class", "method", "stream", "thread", "lock", "cache", "network", "socket",
+            "compile", "debug", "test", "deploy", "schema", "backup", "restore", "group", "access" };
+
+    private BenchmarkData() {
+    }
+
+    public static String groupName(int index) {
+        return "group-" + (index % GROUPS);
+    }
+
+    public static String title(int index) {
+        return "Article " + index;
+    }
+
+    /**
+     * @return count articles with IDs 1..count, titles "Article i" and bodies of a few hundred characters
+     */
+    public static List<HelpArticle> articles(int count, long seed) {
+        Random random = new Random(seed);
+        List<HelpArticle> articles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            articles.add(article(i + 1, i, random));
+        }
+        return articles;
+    }
+
+    public static HelpArticle article(long id, int index, Random random) {
+        return new HelpArticle(id,
+                LEVELS[index % LEVELS.length],
+                groupName(index),
+                "author" + (index % 50),
+                "Public",
+                title(index),
+                words(random, 12),
+                new String[] { WORDS[random.nextInt(WORDS.length)], WORDS[random.nextInt(WORDS.length)] },
+                words(random, 40 + random.nextInt(120)),
+                new String[] { "https://example.com/" + index },
+                "",
+                "");
+    }
+
+    /**
+     * @return a string of the given number of words, without the backup file's ';' delimiter
+     */
+    public static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder(count * 8);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package project.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import project.article.EncryptionUtil;
+
+/**
+ * <p> EncryptionBenchmark class </p>
+ *
+ * <p> Description: Measures EncryptionUtil on article bodies of the given number of characters. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncryptionBenchmark {
+
+    @Param({ "64", "1024", "16384" })
+    public int characters;
+
+    private String plain;
+    private String encrypted;
+
+    @Setup
+    public void prepare() throws Exception {
+        String text = BenchmarkData.words(new Random(42L), characters / 4 + 1);
+        plain = text.substring(0, characters);
+        encrypted = EncryptionUtil.encrypt(plain);
+    }
+
+    @Benchmark
+    public String encrypt() throws Exception {
+        return EncryptionUtil.encrypt(plain);
+    }
+
+    @Benchmark
+    public String decrypt() throws Exception {
+        return EncryptionUtil.decrypt(encrypted);
+    }
+}
@@ -0,0 +1,129 @@
+package project.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import project.article.HelpArticle;
+import project.article.HelpArticleDatabase;
+
+/**
+ * <p> HelpArticleDatabaseBenchmark class </p>
+ *
+ * <p> Description: Measures the article queries against an in-memory H2 database
+ * filled with the given number of articles. The uncached variants clear the
+ * article cache first, so they measure the SQL and row mapping alone. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx6g", "-Dproject.db.url=" + HelpArticleDatabaseBenchmark.DB_URL })
+public class HelpArticleDatabaseBenchmark {
+    static final String DB_URL = "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1";
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int articles;
+
+    private HelpArticleDatabase database;
+    private Random random;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void load() throws SQLException {
+        database = HelpArticleDatabase.getInstance();
+        database.removeAllArticles();
+        try (Connection connection = DriverManager.getConnection(DB_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM group_articles");
+        }
+
+        List<HelpArticle> dataset = BenchmarkData.articles(articles, 42L);
+        for (int from = 0; from < dataset.size(); from += BATCH_SIZE) {
+            database.createHelpArticles(dataset.subList(from, Math.min(dataset.size(), from + BATCH_SIZE)));
+        }
+        linkGroups();
+        random = new Random(7L);
+        nextId = articles + 1L;
+    }
+
+    // Place every article in its general group, as createGroupArticle would
+    private void linkGroups() throws SQLException {
+        String sql = "INSERT INTO group_articles (article_id, group_name, group_type) VALUES (?, ?, 'general')";
+        try (Connection connection = DriverManager.getConnection(DB_URL, "sa", "");
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < articles; i++) {
+                pstmt.setLong(1, i + 1L);
+                pstmt.setString(2, BenchmarkData.groupName(i));
+                pstmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void clear() throws SQLException {
+        database.removeAllArticles();
+    }
+
+    @Benchmark
+    public long createHelpArticle() throws SQLException {
+        long id = nextId++;
+        database.createHelpArticle(BenchmarkData.article(id, (int) id, random));
+        return id;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<HelpArticle> getAllArticles() throws SQLException {
+        return database.getAllArticles();
+    }
+
+    @Benchmark
+    public List<HelpArticle> getArticlesByGroup() throws SQLException {
+        return database.getArticlesByGroup(BenchmarkData.groupName(random.nextInt(BenchmarkData.GROUPS)), "general");
+    }
+
+    @Benchmark
+    public List<HelpArticle> getArticlesByGroupUncached() throws SQLException {
+        HelpArticleDatabase.getCache().invalidateAll();
+        return database.getArticlesByGroup(BenchmarkData.groupName(random.nextInt(BenchmarkData.GROUPS)), "general");
+    }
+
+    @Benchmark
+    public HelpArticle fetchArticleByTitle() throws SQLException {
+        return database.fetchArticleByTitle(BenchmarkData.title(random.nextInt(articles)));
+    }
+
+    @Benchmark
+    public HelpArticle fetchArticleByTitleUncached() throws SQLException {
+        HelpArticleDatabase.getCache().invalidateAll();
+        return database.fetchArticleByTitle(BenchmarkData.title(random.nextInt(articles)));
+    }
+}
@@ -0,0 +1,105 @@
+package project.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import project.article.HelpArticle;
+import project.search.Autocomplete;
+import project.search.Search;
+import project.search.SearchIndex;
+
+/**
+ * <p> SearchBenchmark class </p>
+ *
+ * <p> Description: Measures the in-memory search structures over the given number of
+ * articles, without a database: the suggestions offered on each keystroke, the
+ * words of a search found in the word index against the plain scan over every
+ * summary, a typo-tolerant search through the trigram index against the plain scan
+ * that finds nothing for it, the level and group filters with facet counts over
+ * every article, and a rebuild after a restart that reopens the saved index segment. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int articles;
+
+    private Autocomplete autocomplete;
+    private SearchIndex index;
+    private List<HelpArticle> summaries;
+
+    @Setup
+    public void prepare() {
+        summaries = BenchmarkData.articles(articles, 42L);
+        autocomplete = Autocomplete.get();
+        for (HelpArticle article : summaries) {
+            autocomplete.articleChanged(article);
+        }
+        index = SearchIndex.get();
+        index.invalidate();
+        index.refresh(summaries, Map.of(), Map.of());
+    }
+
+    @Benchmark
+    public List<String> autocompleteShortPrefix() {
+        return autocomplete.complete("a", 8);
+    }
+
+    @Benchmark
+    public List<String> autocompleteLongPrefix() {
+        return autocomplete.complete("article 12", 8);
+    }
+
+    @Benchmark
+    public List<HelpArticle> termScan() {
+        return Search.articles(summaries, "database recursion", "All", null);
+    }
+
+    @Benchmark
+    public Set<Long> termIndex() {
+        return index.containing(List.of("database", "recursion"));
+    }
+
+    @Benchmark
+    public List<HelpArticle> exactScan() {
+        return Search.articles(summaries, "databse recurson", "All", null);
+    }
+
+    @Benchmark
+    public Map<Long, Integer> fuzzyIndex() {
+        return index.fuzzy(List.of("databse", "recurson"));
+    }
+
+    @Benchmark
+    public SearchIndex.Facets facetCounts() {
+        return index.facets(summaries, "Beginner", BenchmarkData.groupName(7), null);
+    }
+
+    @Benchmark
+    public boolean reopenIndex() {
+        index.invalidate();
+        index.refresh(summaries, Map.of(), Map.of());
+        return index.isStale();
+    }
+}
@@ -0,0 +1,214 @@
+package project.JUnitTest;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static project.JUnitTest.ArticleFixtures.sized;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import project.article.ArticleCache;
+import project.article.BodyStore;
+import project.article.FieldDictionary;
+import project.article.HelpArticle;
+
+public class ArticleCacheJUnitTest {
+
+    @Test
+    public void testHitAndMissAreCounted() {
+        ArticleCache cache = new ArticleCache(1024 * 1024);
+        assertNull(cache.get(1L), "Empty cache should miss.");
+        cache.put(sized(1L, "One", "g", 100));
+        assertNotNull(cache.get(1L), "Cached article should hit.");
+        assertEquals(1, cache.stats().getHits(), "Hit count does not match expected.");
+        assertEquals(1, cache.stats().getMisses(), "Miss count does not match expected.");
+    }
+
+    @Test
+    public void testTitleAndGroupLookups() {
+        ArticleCache cache = new ArticleCache(1024 * 1024);
+        HelpArticle first = sized(1L, "Recursion", "cs", 100);
+        HelpArticle second = sized(2L, "Loops", "cs", 100);
+        cache.putTitle("Recursion", first);
+        cache.putGroup("cs", "general", List.of(first, second));
+
+        assertEquals(first.getId(), cache.getByTitle("Recursion").getId(), "Title lookup should return the cached article.");
+        assertEquals(2, cache.getGroup("cs", "general").size(), "Group lookup should return both articles.");
+        assertNull(cache.getGroup("cs", "special_access"), "Other group type should miss.");
+    }
+
+    @Test
+    public void testInvalidateDropsArticleAndGroups() {
+        ArticleCache cache = new ArticleCache(1024 * 1024);
+        HelpArticle first = sized(1L, "Recursion", "cs", 100);
+        cache.putTitle("Recursion", first);
+        cache.putGroup("cs", "general", List.of(first));
+
+        cache.invalidate(1L);
+        assertNull(cache.get(1L), "Invalidated article should miss.");
+        assertNull(cache.getByTitle("Recursion"), "Title of invalidated article should miss.");
+        assertNull(cache.getGroup("cs", "general"), "Groups should be dropped on invalidation.");
+    }
+
+    @Test
+    public void testReadBeforeInvalidateIsNotCached() {
+        ArticleCache cache = new ArticleCache(1024 * 1024);
+        long stamp = cache.stamp(); // A reader misses and starts reading the old row
+        cache.invalidate(1L);       // A writer saves the article meanwhile
+        cache.put(sized(1L, "Old", "cs", 100), stamp);
+        cache.putTitle("Old", sized(1L, "Old", "cs", 100), stamp);
+        cache.putGroup("cs", "general", List.of(sized(1L, "Old", "cs", 100)), stamp);
+        assertNull(cache.get(1L), "A copy read before the invalidate should not be cached.");
+        assertNull(cache.getByTitle("Old"), "Its title should not be cached.");
+        assertNull(cache.getGroup("cs", "general"), "Its group should not be cached.");
+
+        cache.put(sized(1L, "New", "cs", 100), cache.stamp());
+        assertEquals("New", cache.get(1L).getTitle(), "A copy read after the invalidate should be cached.");
+    }
+
+    @Test
+    public void testEditsToReturnedArticlesStayOutOfTheCache() {
+        ArticleCache cache = new ArticleCache(1024 * 1024, new BodyStore(2L * 1024 * 1024),
+                id -> new HelpArticle.Content("fetched", new String[0]));
+        HelpArticle original = sized(1L, "Recursion", "cs", 100);
+        cache.put(original);
+        original.setTitle("Changed after put");
+
+        HelpArticle edited = cache.get(1L);
+        assertNotSame(edited, cache.get(1L), "Every read should get its own copy.");
+        edited.setTitle("Unsaved title");
+        edited.setBody("Unsaved body");
+        HelpArticle reread = cache.get(1L);
+        assertEquals("Recursion", reread.getTitle(), "An unsaved edit should not reach the cache.");
+        assertEquals(100, reread.getBody().length(), "An unsaved body should not reach the cache.");
+    }
+
+    @Test
+    public void testSummaryContentFailsLoudlyAndCanBeFilledIn() {
+        int[] calls = { 0 };
+        HelpArticle summary = HelpArticle.summary(1L, "Beginner", "cs", "Author", "Public", "Recursion", "",
+                new String[0], "", "", Instant.now(), Instant.now(), id -> {
+                    calls[0]++;
+                    throw new SQLException("connection lost");
+                });
+        assertThrows(IllegalStateException.class, summary::getBody, "A failed load should not look like an empty body.");
+        assertThrows(IllegalStateException.class, summary::getBody, "A failed load should be retried.");
+        assertEquals(2, calls[0]);
+
+        summary.setContent(new HelpArticle.Content("batched", new String[]{"https://example.com"}));
+        assertEquals("batched", summary.getBody(), "Content filled in by the caller should be used.");
+        assertEquals(2, calls[0], "Filled in content should not be fetched again.");
+    }
+
+    @Test
+    public void testWeightStaysBounded() {
+        long maximum = 64 * 1024;
+        ArticleCache cache = new ArticleCache(maximum);
+        for (long id = 0; id < 1000; id++) {
+            cache.put(sized(id, "Article " + id, "g", 1000));
+        }
+        assertTrue(cache.stats().getWeight() <= maximum, "Cache weight exceeds its bound.");
+        assertTrue(cache.stats().getEvictions() > 0, "Filling past the bound should evict.");
+    }
+
+    @Test
+    public void testFrequentArticleSurvivesScan() {
+        ArticleCache cache = new ArticleCache(64 * 1024);
+        cache.put(sized(-1L, "Hot", "g", 1000));
+        for (int i = 0; i < 20; i++) {
+            cache.get(-1L);
+        }
+        // A one-off pass over many articles must not flush the frequently read one
+        for (long id = 0; id < 1000; id++) {
+            cache.put(sized(id, "Article " + id, "g", 1000));
+        }
+        assertNotNull(cache.get(-1L), "Frequently read article was evicted by a scan.");
+    }
+
+    @Test
+    public void testBodyStoreKeepsBodiesOffHeap() {
+        BodyStore store = new BodyStore(2L * 1024 * 1024);
+        store.put(1L, "Ünïcödé body");
+        store.put(2L, "second");
+        store.put(1L, "replaced");
+        assertEquals("replaced", store.get(1L), "Stored body should be the latest one.");
+        assertEquals("second", store.get(2L), "Each ID should keep its own body.");
+        store.remove(2L);
+        assertNull(store.get(2L), "Removed body should be gone.");
+
+        // Far more bodies than fit: replacing them over and over must compact the pages
+        char[] chars = new char[10_000];
+        for (int round = 0; round < 20; round++) {
+            for (long id = 0; id < 100; id++) {
+                Arrays.fill(chars, (char) ('a' + (id + round) % 26));
+                assertTrue(store.put(id, new String(chars)), "Replacing a body should find room.");
+            }
+        }
+        assertEquals(String.valueOf((char) ('a' + (42 + 19) % 26)).repeat(10_000), store.get(42L));
+        assertTrue(store.allocatedBytes() <= 2L * 1024 * 1024, "Pages exceed the capacity.");
+        assertFalse(store.put(1000L, "x".repeat(3 * 1024 * 1024)), "A body larger than the store should be refused.");
+    }
+
+    @Test
+    public void testBodyIsRefusedWhenDirectMemoryRunsOut() {
+        BodyStore store = new BodyStore(8L * 1024 * 1024) {
+            @Override
+            protected ByteBuffer allocatePage(int bytes) {
+                if (allocatedBytes() > 0) {
+                    throw new OutOfMemoryError("Cannot reserve " + bytes + " bytes of direct buffer memory");
+                }
+                return super.allocatePage(bytes);
+            }
+        };
+        ArticleCache cache = new ArticleCache(16L * 1024 * 1024, store,
+                id -> new HelpArticle.Content("fetched", new String[0]));
+        for (long id = 1; id <= 200; id++) {
+            cache.put(sized(id, "Article " + id, "g", 10_000)); // Two MB of bodies, one page of direct memory
+        }
+        assertEquals(1024 * 1024, store.allocatedBytes(), "Only the first page should have been allocated.");
+        assertTrue(store.size() > 0 && store.size() < 200, "Bodies past the first page should be refused.");
+        HelpArticle last = cache.get(200L);
+        assertFalse(last.isBodyStored(), "A refused body stays on the heap.");
+        assertEquals(10_000, last.getBody().length(), "A refused body should still be readable.");
+    }
+
+    @Test
+    public void testCachedBodyIsFetchedAgainAfterInvalidation() {
+        BodyStore store = new BodyStore(4L * 1024 * 1024);
+        ArticleCache cache = new ArticleCache(1024 * 1024, store,
+                id -> new HelpArticle.Content("fetched", new String[0]));
+        cache.put(sized(1L, "Recursion", "cs", 5000));
+        HelpArticle first = cache.get(1L);
+        assertTrue(first.isBodyStored(), "Cached body should move off the heap.");
+        assertEquals(5000, first.getBody().length(), "Stored body should decode unchanged.");
+        assertTrue(cache.stats().getWeight() < ArticleCache.weigh(sized(2L, "Recursion", "cs", 5000)),
+                "A stored body should not count towards the heap weight.");
+
+        cache.invalidate(1L);
+        assertEquals("fetched", first.getBody(), "A dropped body should be fetched again.");
+        assertFalse(first.isBodyStored(), "A fetched body stays on the heap.");
+    }
+
+    @Test
+    public void testFewValuedFieldsShareOneStringPerValue() {
+        HelpArticle first = sized(1L, "One", new String("cs101, cs201"), 10);
+        HelpArticle second = sized(2L, "Two", new String("cs101, cs201"), 10);
+        assertSame(first.getGroupIdentifier(), second.getGroupIdentifier(), "Equal values should share one String.");
+        assertEquals(first.getGroupIdentifierCode(), second.getGroupIdentifierCode());
+        assertArrayEquals(new String[]{"cs101", "cs201"}, first.getGroupIdentifierArray());
+
+        second.setLevel("Expert");
+        assertEquals("Expert", second.getLevel(), "A set value should decode unchanged.");
+        assertEquals(FieldDictionary.encode("Expert"), second.getLevelCode());
+        assertTrue(FieldDictionary.codes("beginner"::equalsIgnoreCase).get(first.getLevelCode()),
+                "Codes should be selectable by their value.");
+
+        second.setAuthor(null);
+        assertEquals("Unknown", second.getAuthor(), "A missing author should default to Unknown.");
+        second.setAccess(null);
+        assertNull(second.getAccess(), "Null should round-trip.");
+    }
+}
@@ -0,0 +1,53 @@
+package project.JUnitTest;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import project.article.HelpArticle;
+
+/**
+ * Help articles for the tests, so each test names only the fields it is about and
+ * every other field gets the same placeholder value.
+ */
+final class ArticleFixtures {
+
+    private ArticleFixtures() {
+    }
+
+    /**
+     * @return an article in the group whose body is bodyLength characters long
+     */
+    static HelpArticle sized(long id, String title, String group, int bodyLength) {
+        char[] body = new char[bodyLength];
+        Arrays.fill(body, 'x');
+        return new HelpArticle(id, "Beginner", group, "Author", "Public", title, "A short description",
+                new String[]{"test"}, new String(body), new String[]{"https://example.com"}, "", "");
+    }
+
+    /**
+     * @return one version of the same "Merged Article", last updated at updatedDate
+     */
+    static HelpArticle version(long id, String body, String updatedDate) {
+        HelpArticle article = new HelpArticle(id, "Beginner", "TestGroup", "Author", "Public", "Merged Article",
+                "A short description", new String[]{"test"}, body, new String[]{"https://example.com"}, "", "");
+        article.setCreatedDate(Instant.parse("2024-11-01T10:00:00Z"));
+        article.setUpdatedDate(Instant.parse(updatedDate));
+        return article;
+    }
+
+    /**
+     * @return a general article found by the words of its title and description
+     */
+    static HelpArticle described(long id, String title, String description) {
+        return new HelpArticle(id, "Beginner", "general", "author", "Public", title, description,
+                new String[]{"java"}, "body", new String[0], "", "");
+    }
+
+    /**
+     * @return an article with the level, groups and access the facets count
+     */
+    static HelpArticle faceted(long id, String level, String groups, String access) {
+        return new HelpArticle(id, level, groups, "author", access, "Title " + id, "description",
+                new String[]{"java"}, "body", new String[0], "", "");
+    }
+}
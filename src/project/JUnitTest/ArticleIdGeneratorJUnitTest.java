@@ -0,0 +1,56 @@
+package project.JUnitTest;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import project.article.ArticleIdGenerator;
+import project.article.ContentFingerprint;
+import project.article.HelpArticle;
+
+public class ArticleIdGeneratorJUnitTest {
+
+    @Test
+    public void testIdsAreUniqueAndIncreasing() {
+        ArticleIdGenerator generator = new ArticleIdGenerator(7);
+        Set<Long> seen = new HashSet<>();
+        long previous = -1;
+        for (int i = 0; i < 100_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "IDs should be strictly increasing.");
+            assertTrue(seen.add(id), "Duplicate ID generated.");
+            previous = id;
+        }
+    }
+
+    @Test
+    public void testIdEncodesNodeAndTime() {
+        long before = Instant.now().toEpochMilli();
+        long id = new ArticleIdGenerator(42).nextId();
+        long after = Instant.now().toEpochMilli();
+
+        assertTrue(id > 0, "IDs should be positive.");
+        assertEquals(42, ArticleIdGenerator.nodeOf(id), "Node ID does not match expected.");
+        long millis = ArticleIdGenerator.timestampOf(id).toEpochMilli();
+        assertTrue(millis >= before && millis <= after, "Timestamp does not match generation time.");
+    }
+
+    @Test
+    public void testInvalidNodeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ArticleIdGenerator(1024));
+    }
+
+    @Test
+    public void testFingerprintIsStable() {
+        HelpArticle first = new HelpArticle(1L, "Beginner", "cs", "Author", "Public", "Recursion",
+                "Short", new String[]{"k"}, "Body", new String[]{}, "", "");
+        HelpArticle second = new HelpArticle(2L, "Beginner", "cs", "Other", "Public", "Recursion",
+                "Different", new String[]{}, "Body", new String[]{}, "", "");
+
+        assertEquals(first.contentFingerprint(), second.contentFingerprint(), "Same content should give the same fingerprint.");
+        assertNotEquals(ContentFingerprint.of("ab", "c"), ContentFingerprint.of("a", "bc"), "Field boundaries should matter.");
+    }
+}
@@ -0,0 +1,75 @@
+package project.JUnitTest;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static project.JUnitTest.ArticleFixtures.version;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import project.article.HelpArticle;
+import project.article.HelpArticleDatabase;
+import project.article.backup.ArticleMerger;
+import project.article.backup.MergePolicy;
+import project.util.config.DatabaseConfig;
+
+/**
+ * Runs against an in-memory database; skipped if another test already opened a
+ * database file in this JVM, so it never deletes real articles.
+ */
+public class ArticleMergerJUnitTest {
+    private static final String MEMORY_URL = "jdbc:h2:mem:articlemerger;DB_CLOSE_DELAY=-1";
+
+    private static boolean setUrl;
+    private static HelpArticleDatabase database;
+
+    @BeforeAll
+    public static void useMemoryDatabase() throws SQLException {
+        if (System.getProperty("project.db.url") == null) {
+            System.setProperty("project.db.url", MEMORY_URL);
+            setUrl = true;
+        }
+        assumeTrue(DatabaseConfig.get().getBaseUrl().startsWith("jdbc:h2:mem:"),
+                "Needs an in-memory database, not " + DatabaseConfig.get().getBaseUrl());
+        database = new HelpArticleDatabase();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        if (setUrl) {
+            System.clearProperty("project.db.url");
+        }
+    }
+
+    @BeforeEach
+    public void clearArticles() throws SQLException {
+        database.removeAllArticles();
+    }
+
+    @Test
+    public void testNewerVersionInSameImportIsKept() throws SQLException {
+        List<HelpArticle> backup = List.of(
+                version(2001L, "Old body", "2024-11-10T10:00:00Z"),
+                version(2001L, "New body", "2024-11-20T10:00:00Z"));
+
+        ArticleMerger.Result result = new ArticleMerger(database, MergePolicy.NEWER_WINS).merge(backup);
+
+        assertEquals(1, result.getInserted(), "Inserted count does not match expected.");
+        assertEquals(1, result.getReplaced(), "Replaced count does not match expected.");
+        assertEquals(1, database.getAllArticles().size(), "Both versions should end up as one article.");
+        assertEquals("New body", database.fetchArticleById(2001L).getBody(), "The newer version should be stored.");
+    }
+
+    @Test
+    public void testOlderVersionLaterInImportIsSkipped() throws SQLException {
+        List<HelpArticle> backup = List.of(
+                version(2002L, "New body", "2024-11-20T10:00:00Z"),
+                version(2002L, "Old body", "2024-11-10T10:00:00Z"));
+
+        ArticleMerger.Result result = new ArticleMerger(database, MergePolicy.NEWER_WINS).merge(backup);
+
+        assertEquals(1, result.getSkipped(), "Skipped count does not match expected.");
+        assertEquals("New body", database.fetchArticleById(2002L).getBody(), "The newer version should be stored.");
+    }
+}
@@ -0,0 +1,71 @@
+package project.JUnitTest;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import project.util.config.ConnectionPool;
+
+public class ConnectionPoolJUnitTest {
+    private static final String URL = "jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1";
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private ConnectionPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new ConnectionPool(() -> {
+            opened.incrementAndGet();
+            return DriverManager.getConnection(URL, "sa", "");
+        }, 2, 200, 1000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testReturnedConnectionIsReused() throws SQLException {
+        try (Connection connection = pool.borrow()) {
+            assertFalse(connection.isClosed(), "Borrowed connection should be open");
+            assertEquals(1, pool.getActive(), "Borrowed connection should count as active");
+        }
+        assertEquals(0, pool.getActive(), "Closing should return the connection");
+        assertEquals(1, pool.getIdle(), "Returned connection should be kept idle");
+
+        try (Connection connection = pool.borrow()) {
+            assertFalse(connection.isClosed(), "Borrowed connection should be open");
+        }
+        assertEquals(1, opened.get(), "Second borrow should reuse the idle connection");
+    }
+
+    @Test
+    public void testBorrowTimesOutWhenExhausted() throws SQLException {
+        try (Connection first = pool.borrow(); Connection second = pool.borrow()) {
+            assertNotSame(first, second, "Each borrow should get its own connection");
+            assertThrows(SQLTransientConnectionException.class, pool::borrow,
+                    "Third borrow from a pool of two should time out");
+        }
+        assertEquals(0, pool.getActive(), "Both connections should be back after closing");
+    }
+
+    @Test
+    public void testBrokenConnectionIsReplaced() throws SQLException {
+        try (Connection connection = pool.borrow()) {
+            connection.unwrap(Connection.class).close(); // Simulate the server dropping the connection
+            try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("SELECT 1")) {
+                assertTrue(rs.next(), "Query should run on the replacement connection");
+            }
+        }
+        assertEquals(2, opened.get(), "Broken connection should have been reopened once");
+        assertTrue(pool.checkHealth().isUp(), "Health check should pass");
+    }
+}
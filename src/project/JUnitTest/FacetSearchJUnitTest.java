@@ -0,0 +1,78 @@
+package project.JUnitTest;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static project.JUnitTest.ArticleFixtures.faceted;
+
+import java.util.List;
+import java.util.Map;
+
+import project.article.GroupAccess;
+import project.article.HelpArticle;
+import project.search.SearchIndex;
+
+public class FacetSearchJUnitTest {
+
+    // The tests fill the shared SearchIndex by hand; have the next user rebuild it
+    @AfterEach
+    public void resetIndex() {
+        SearchIndex.get().invalidate();
+    }
+
+    @Test
+    public void testFiltersAndCountsByFacet() {
+        HelpArticle a = faceted(1, "Beginner", "cs101, cs201", "Public");
+        HelpArticle b = faceted(2, "Beginner", "cs201", "Public");
+        HelpArticle c = faceted(3, "Expert", "cs101", "Restricted");
+        SearchIndex index = SearchIndex.get();
+        index.invalidate();
+        index.refresh(List.of(a, b, c), Map.of(), Map.of());
+
+        SearchIndex.Facets facets = index.facets(List.of(a, b, c), "beginner", "CS101", null);
+        assertTrue(facets.contains(1));
+        assertFalse(facets.contains(2));
+        assertFalse(facets.contains(3));
+        // Each facet is counted without its own filter
+        assertEquals(Map.of("Beginner", 1, "Expert", 1), facets.getCounts().get("level"));
+        assertEquals(Map.of("cs101", 1, "cs201", 2), facets.getCounts().get("groupIdentifier"));
+        assertEquals(Map.of("Public", 1), facets.getCounts().get("access"));
+
+        index.articleChanged(faceted(2, "Expert", "cs101", "Public"));
+        facets = index.facets(List.of(a, b, c), "All", "cs101", null);
+        assertEquals(Map.of("Expert", 2, "Beginner", 1), facets.getCounts().get("level"));
+
+        index.articleRemoved(3);
+        facets = index.facets(List.of(a), "Expert", null, null);
+        assertFalse(facets.contains(1));
+        assertEquals(Map.of("Beginner", 1), facets.getCounts().get("level"));
+        assertTrue(facets.getCounts().get("groupIdentifier").isEmpty());
+    }
+
+    @Test
+    public void testHidesSpecialAccessArticlesFromNonViewers() {
+        HelpArticle open = faceted(1, "Beginner", "cs101", "Public");
+        HelpArticle secret = new HelpArticle(2, "Beginner", "cs101", "author", "Restricted", "Exam answers",
+                "The answers", new String[0], "body", new String[0], "Exam overview", "What the exam covers");
+        SearchIndex index = SearchIndex.get();
+        index.invalidate();
+        index.refresh(List.of(open, secret), Map.of(2L, "Staff"),
+                Map.of("Staff", GroupAccess.parse("inst", "inst,ta")));
+
+        assertTrue(index.isRestricted(2));
+        assertFalse(index.facets(List.of(open, secret), "All", null, null).contains(2));
+        assertFalse(index.facets(List.of(open, secret), "All", null, "stud").contains(2));
+        SearchIndex.Facets facets = index.facets(List.of(open, secret), "All", null, "TA");
+        assertTrue(facets.contains(1));
+        assertTrue(facets.contains(2));
+        assertEquals(Map.of("Beginner", 2), facets.getCounts().get("level"));
+
+        // Only the sensitive-free fields are searchable
+        assertTrue(index.fuzzy(List.of("answers")).isEmpty());
+        assertEquals(Map.of(2L, 0), index.fuzzy(List.of("overview")));
+
+        index.groupAccessChanged("staff", GroupAccess.parse("inst", "inst"));
+        assertFalse(index.facets(List.of(secret), "All", null, "ta").contains(2));
+        index.specialAccessChanged(2, null);
+        assertTrue(index.facets(List.of(secret), "All", null, "stud").contains(2));
+    }
+}
@@ -0,0 +1,132 @@
+package project.JUnitTest;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static project.JUnitTest.ArticleFixtures.described;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import project.article.HelpArticle;
+import project.search.EditDistance;
+import project.search.SearchIndex;
+
+public class FuzzySearchJUnitTest {
+
+    // The tests fill the shared SearchIndex by hand; have the next user rebuild it
+    @AfterEach
+    public void resetIndex() {
+        SearchIndex.get().invalidate();
+    }
+
+    @Test
+    public void testBoundedEditDistance() {
+        assertEquals(0, EditDistance.within("recursion", "recursion", 2));
+        assertEquals(1, EditDistance.within("recurion", "recursion", 2));
+        assertEquals(3, EditDistance.within("kitten", "sitting", 3));
+        assertEquals(3, EditDistance.within("kitten", "sitting", 2)); // Over the bound reports max + 1
+        assertEquals(2, EditDistance.within("databse", "datbase", 2));
+
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            String a = randomWord(random, 1 + random.nextInt(70));
+            String b = randomWord(random, 1 + random.nextInt(70));
+            int expected = Math.min(levenshtein(a, b), 6);
+            assertEquals(expected, EditDistance.within(a, b, 5), a + " / " + b);
+        }
+    }
+
+    @Test
+    public void testFuzzyMatchesTyposInEveryWord() {
+        SearchIndex index = SearchIndex.get();
+        index.invalidate();
+        index.refresh(List.of(
+                described(1, "Recursion basics", "Base cases and the call stack"),
+                described(2, "Database indexes", "How a B-tree index speeds up queries"),
+                described(3, "Recursive descent parsers", "Parsing expressions")), Map.of(), Map.of());
+
+        Map<Long, Integer> found = index.fuzzy(List.of("recurion"));
+        assertEquals(Map.of(1L, 1), found);
+
+        found = index.fuzzy(List.of("databse", "indexs"));
+        assertEquals(Map.of(2L, 2), found);
+
+        assertTrue(index.fuzzy(List.of("recursion", "databse")).isEmpty());
+        assertTrue(index.fuzzy(List.of("tre")).isEmpty()); // Short words must match exactly
+    }
+
+    @Test
+    public void testRebuildCatchesUpWithSavedWords() {
+        List<HelpArticle> articles = new ArrayList<>();
+        articles.add(described(1, "Recursion basics", "Base cases"));
+        for (long id = 2; id <= 40; id++) {
+            articles.add(described(id, "Topic " + id, "Filler text"));
+        }
+        SearchIndex index = SearchIndex.get();
+        index.invalidate();
+        index.refresh(articles, Map.of(), Map.of());
+
+        // A restart reads the saved words and re-indexes only what changed since
+        articles.set(0, described(1, "Iteration basics", "Loops"));
+        articles.remove(39);
+        articles.add(described(41, "Graph traversal", "Breadth first"));
+        index.invalidate();
+        index.refresh(articles, Map.of(), Map.of());
+        assertTrue(index.fuzzy(List.of("recurion")).isEmpty());
+        assertEquals(Map.of(1L, 1), index.fuzzy(List.of("iteraton")));
+        assertEquals(Map.of(41L, 1), index.fuzzy(List.of("traversl")));
+        assertEquals(38, index.fuzzy(List.of("filler")).size());
+
+        index.articleChanged(described(2, "Recursion again", "Filler text"));
+        assertEquals(Map.of(2L, 1), index.fuzzy(List.of("recurion")));
+        index.articleRemoved(3);
+        assertEquals(37, index.fuzzy(List.of("filler")).size());
+    }
+
+    @Test
+    public void testIndexFindsWordsInsideIndexedWords() {
+        List<HelpArticle> articles = new ArrayList<>();
+        articles.add(described(1, "Recursion basics", "Base cases and the call stack"));
+        articles.add(described(2, "Database indexes", "How a B-tree index speeds up queries"));
+        for (long id = 3; id <= 20; id++) {
+            articles.add(described(id, "Topic " + id, "Filler text"));
+        }
+        SearchIndex index = SearchIndex.get();
+        index.invalidate();
+        index.refresh(articles, Map.of(), Map.of());
+        // Reopened from the saved segment, with a change kept in memory on top
+        index.invalidate();
+        index.refresh(articles, Map.of(), Map.of());
+        index.articleChanged(described(3, "Recursive descent", "Filler text"));
+
+        assertEquals(Set.of(1L, 3L), index.containing(List.of("curs")));
+        assertEquals(Set.of(1L), index.containing(List.of("curs", "stack")));
+        assertEquals(Set.of(2L), index.containing(List.of("b-tree"))); // A candidate for the caller to check
+        assertEquals(Set.of(12L), index.containing(List.of("12")));
+        assertTrue(index.containing(List.of("curs", "queries")).isEmpty());
+        assertEquals(20, index.containing(List.of()).size());
+        assertNull(index.containing(List.of("++")), "Words without letters or digits need a scan.");
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(3))); // A small alphabet gives close words
+        }
+        return word.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                d[i][j] = i == 0 ? j : j == 0 ? i : Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1),
+                        d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1));
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,46 @@
+package project.JUnitTest;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import project.api.Json;
+
+public class JsonJUnitTest {
+
+    @Test
+    public void testParseNestedValues() {
+        Object parsed = Json.parse(" {\"title\": \"A \\\"quoted\\\" \\u00e9\", \"id\": 12, \"rate\": 0.5,"
+                + " \"roles\": [\"Admin\", true, null], \"empty\": {}} ");
+        Map<?, ?> object = (Map<?, ?>) parsed;
+        assertEquals("A \"quoted\" \u00e9", object.get("title"));
+        assertEquals(12L, object.get("id"));
+        assertEquals(0.5, object.get("rate"));
+        assertEquals(Arrays.asList("Admin", true, null), object.get("roles"));
+        assertTrue(((Map<?, ?>) object.get("empty")).isEmpty());
+    }
+
+    @Test
+    public void testWriteThenParseRoundTrips() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("body", "line one\nline\ttwo \\ \"end\"");
+        object.put("ids", List.of(1L, 2L));
+        object.put("ok", false);
+        object.put("missing", null);
+        String json = Json.write(object);
+        assertEquals("{\"body\":\"line one\\nline\\ttwo \\\\ \\\"end\\\"\",\"ids\":[1,2],\"ok\":false,\"missing\":null}", json);
+        assertEquals(object, Json.parse(json));
+    }
+
+    @Test
+    public void testMalformedJsonIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\": 1"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{a: 1}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[1, 2] extra"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("\"unterminated"));
+    }
+}
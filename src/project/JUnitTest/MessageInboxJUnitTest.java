@@ -0,0 +1,200 @@
+package project.JUnitTest;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import project.account.DatabaseHelper;
+import project.service.MessageInbox;
+import project.service.MessageService;
+import project.util.config.DatabaseConfig;
+
+/**
+ * Runs against an in-memory database; skipped if another test already opened a
+ * database file in this JVM, so it never deletes real messages.
+ */
+public class MessageInboxJUnitTest {
+    private static final String MEMORY_URL = "jdbc:h2:mem:messageinbox;DB_CLOSE_DELAY=-1";
+    private static final String TYPE = MessageService.GENERIC;
+
+    private static boolean setUrl;
+    private final MessageInbox inbox = new MessageInbox();
+
+    @BeforeAll
+    public static void useMemoryDatabase() throws SQLException {
+        if (System.getProperty("project.db.url") == null) {
+            System.setProperty("project.db.url", MEMORY_URL);
+            setUrl = true;
+        }
+        assumeTrue(DatabaseConfig.get().getBaseUrl().startsWith("jdbc:h2:mem:"),
+                "Needs an in-memory database, not " + DatabaseConfig.get().getBaseUrl());
+        DatabaseHelper.connectToDatabase().close(); // Creates the message tables
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        if (setUrl) {
+            System.clearProperty("project.db.url");
+        }
+    }
+
+    @BeforeEach
+    public void clearMessages() throws SQLException {
+        try (Connection connection = DatabaseConfig.get().connect(); Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM help_message_reads");
+            stmt.executeUpdate("DELETE FROM help_messages");
+            stmt.executeUpdate("DELETE FROM help_message_counts");
+        }
+    }
+
+    // Inserts a message with a fixed creation time, around MessageService, and returns its ID
+    private static long insert(String username, Instant createdAt) throws SQLException {
+        String sql = "INSERT INTO help_messages (username, message, type, created_at) VALUES (?, ?, ?, ?)";
+        try (Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, "Question from " + username);
+            pstmt.setString(3, TYPE);
+            pstmt.setTimestamp(4, Timestamp.from(createdAt));
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    private static long count(String sql, String... params) throws SQLException {
+        try (Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setString(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    // Every message of the filter, read a few at a time by following the cursors
+    private List<Long> allPages(String staff, MessageInbox.Filter filter, int limit) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        do {
+            MessageInbox.Page page = inbox.page(TYPE, staff, filter, after, limit);
+            assertTrue(page.getMessages().size() <= limit, "A page should hold at most the limit.");
+            for (MessageService.Message message : page.getMessages()) {
+                ids.add(message.getId());
+            }
+            after = page.getNext();
+        } while (after != null);
+        return ids;
+    }
+
+    private static void assertCountsMatchRows(MessageInbox.Counts counts, String staff) throws SQLException {
+        assertEquals(count("SELECT COUNT(*) FROM help_messages WHERE type = ?", TYPE), counts.getTotal(), "Total");
+        assertEquals(count("SELECT COUNT(*) FROM help_messages m WHERE type = ? AND NOT EXISTS "
+                + "(SELECT 1 FROM help_message_reads r WHERE r.message_id = m.id AND r.staff = ?)", TYPE, staff),
+                counts.getUnread(), "Unread");
+        assertEquals(count("SELECT COUNT(*) FROM help_messages WHERE type = ? AND assigned_to = ?", TYPE, staff),
+                counts.getAssignedToMe(), "Assigned to me");
+        assertEquals(count("SELECT COUNT(*) FROM help_messages WHERE type = ? AND assigned_to IS NULL", TYPE),
+                counts.getUnassigned(), "Unassigned");
+    }
+
+    @Test
+    public void testKeysetPagingAcrossEqualCreatedAt() throws SQLException {
+        Instant same = Instant.parse("2024-11-20T10:00:00Z");
+        List<Long> expected = new ArrayList<>();
+        expected.add(insert("late", same.plusSeconds(60)));
+        List<Long> tied = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            tied.add(insert("tied" + i, same));
+        }
+        tied.sort((a, b) -> Long.compare(b, a)); // Ties are broken by ID, newest first
+        expected.addAll(tied);
+        expected.add(insert("early", same.minusSeconds(60)));
+
+        for (int limit : new int[] { 1, 4, 23, 200 }) {
+            assertEquals(expected, allPages("staff", MessageInbox.Filter.ALL, limit),
+                    "Pages of " + limit + " should list every message once, newest first");
+        }
+    }
+
+    @Test
+    public void testFiltersSelectTheirMessages() throws SQLException {
+        Instant start = Instant.parse("2024-11-20T10:00:00Z");
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ids.add(insert("student" + i, start.plusSeconds(i % 3))); // Some equal times across the filters
+        }
+        inbox.recount();
+        inbox.setRead(ids.get(0), "ann", true);
+        inbox.setRead(ids.get(1), "ann", true);
+        inbox.setRead(ids.get(2), "bob", true);
+        inbox.assign(ids.get(1), "ann");
+        inbox.assign(ids.get(3), "ann");
+        inbox.assign(ids.get(4), "bob");
+
+        assertEquals(Set.copyOf(ids), new HashSet<>(allPages("ann", MessageInbox.Filter.ALL, 3)));
+        Set<Long> unread = new HashSet<>(ids);
+        unread.removeAll(Set.of(ids.get(0), ids.get(1)));
+        assertEquals(unread, new HashSet<>(allPages("ann", MessageInbox.Filter.UNREAD, 3)),
+                "Unread should follow ann's own read state only");
+        assertEquals(Set.of(ids.get(1), ids.get(3)), new HashSet<>(allPages("ann", MessageInbox.Filter.ASSIGNED_TO_ME, 1)));
+        Set<Long> unassigned = new HashSet<>(ids);
+        unassigned.removeAll(Set.of(ids.get(1), ids.get(3), ids.get(4)));
+        assertEquals(unassigned, new HashSet<>(allPages("ann", MessageInbox.Filter.UNASSIGNED, 2)));
+        assertEquals(Set.of(ids.get(4)), new HashSet<>(allPages("bob", MessageInbox.Filter.ASSIGNED_TO_ME, 2)));
+    }
+
+    @Test
+    public void testCountersFollowReadAndAssignToggles() throws SQLException {
+        MessageService messages = new MessageService();
+        for (int i = 0; i < 5; i++) {
+            messages.send("student" + i, TYPE, "Question " + i); // Counted by countSent
+        }
+        assertCountsMatchRows(inbox.counts(TYPE, "ann"), "ann");
+        List<Long> ids = allPages("ann", MessageInbox.Filter.ALL, 10);
+
+        assertTrue(inbox.setRead(ids.get(0), "ann", true));
+        assertFalse(inbox.setRead(ids.get(0), "ann", true), "Reading twice should change nothing.");
+        assertTrue(inbox.setRead(ids.get(1), "ann", true));
+        assertTrue(inbox.setRead(ids.get(1), "ann", false));
+        assertFalse(inbox.setRead(ids.get(2), "ann", false), "An unread message stays unread.");
+        assertTrue(inbox.setRead(ids.get(2), "bob", true));
+
+        assertTrue(inbox.assign(ids.get(0), "ann"));
+        assertFalse(inbox.assign(ids.get(0), "ann"), "Assigning to the same staff should change nothing.");
+        assertTrue(inbox.assign(ids.get(1), "bob"));
+        assertTrue(inbox.assign(ids.get(1), "ann"));
+        assertTrue(inbox.assign(ids.get(2), "bob"));
+        assertTrue(inbox.assign(ids.get(2), null));
+        assertFalse(inbox.assign(ids.get(3), null), "An unassigned message stays unassigned.");
+
+        assertCountsMatchRows(inbox.counts(TYPE, "ann"), "ann");
+        assertCountsMatchRows(inbox.counts(TYPE, "bob"), "bob");
+        MessageInbox.Counts ann = inbox.counts(TYPE, "ann");
+        assertEquals(5, ann.getTotal());
+        assertEquals(4, ann.getUnread());
+        assertEquals(2, ann.getAssignedToMe());
+        assertEquals(3, ann.getUnassigned());
+
+        inbox.recount();
+        assertCountsMatchRows(inbox.counts(TYPE, "ann"), "ann");
+        assertCountsMatchRows(inbox.counts(TYPE, "bob"), "bob");
+    }
+}
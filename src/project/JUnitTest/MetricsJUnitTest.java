@@ -0,0 +1,40 @@
+package project.JUnitTest;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import project.util.metrics.LatencyHistogram;
+import project.util.metrics.Metrics;
+import project.util.metrics.QueryMetrics;
+
+public class MetricsJUnitTest {
+
+    @Test
+    public void testPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000); // 1 us to 100 ms
+        }
+        assertEquals(100_000, histogram.getCount(), "Count does not match expected.");
+        long p50 = histogram.getValueAtPercentile(50);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertEquals(50_000_000, p50, 50_000_000 * 0.04, "Median is outside the bucket precision.");
+        assertEquals(99_000_000, p99, 99_000_000 * 0.04, "99th percentile is outside the bucket precision.");
+        assertEquals(100_000_000, histogram.getMax(), "Max does not match expected.");
+    }
+
+    @Test
+    public void testTimerRecordsRowsAndBytes() {
+        try (Metrics.Timer timer = Metrics.time("MetricsJUnitTest.query")) {
+            timer.rows(3).bytes(120);
+        }
+        try (Metrics.Timer timer = Metrics.time("MetricsJUnitTest.query")) {
+            timer.rows(2);
+        }
+        QueryMetrics metrics = Metrics.get("MetricsJUnitTest.query");
+        assertEquals(2, metrics.getCalls(), "Call count does not match expected.");
+        assertEquals(5, metrics.getRows(), "Row count does not match expected.");
+        assertEquals(120, metrics.getBytes(), "Byte count does not match expected.");
+        assertTrue(Metrics.snapshot().contains("MetricsJUnitTest.query"), "Snapshot should list the query.");
+    }
+}
@@ -0,0 +1,40 @@
+package project.JUnitTest;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import project.search.PrefixTrie;
+
+public class PrefixTrieJUnitTest {
+
+    @Test
+    public void testCompletesHeaviestFirst() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("java", 3);
+        trie.add("javafx setup", 10);
+        trie.add("javadoc", 1);
+        trie.add("junit", 20);
+
+        assertEquals(List.of("javafx setup", "java"), trie.complete("jav", 2));
+        assertEquals(List.of("junit", "javafx setup", "java", "javadoc"), trie.complete("j", 10));
+        assertTrue(trie.complete("python", 5).isEmpty());
+    }
+
+    @Test
+    public void testRemovingWeightUpdatesRanking() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("eclipse", 5);
+        trie.add("eclipse plugins", 4);
+        trie.add("eclipse", -5);
+
+        assertEquals(0, trie.weight("eclipse"));
+        assertEquals(1, trie.size());
+        assertEquals(List.of("eclipse plugins"), trie.complete("ecl", 3));
+
+        trie.add("eclipse plugins", -4);
+        assertEquals(0, trie.size());
+        assertTrue(trie.complete("e", 3).isEmpty());
+    }
+}
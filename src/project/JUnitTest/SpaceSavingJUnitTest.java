@@ -0,0 +1,44 @@
+package project.JUnitTest;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import project.search.SpaceSaving;
+
+public class SpaceSavingJUnitTest {
+
+    @Test
+    public void testKeepsFrequentItemsInFixedSpace() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        for (int i = 0; i < 1000; i++) {
+            sketch.offer("password reset", 1);
+            if (i % 2 == 0) {
+                sketch.offer("eclipse setup", 1);
+            }
+            sketch.offer("rare " + i, 1); // A long tail of one-off queries
+        }
+        assertEquals(10, sketch.size());
+        List<SpaceSaving.Entry> top = sketch.top(2);
+        assertEquals("password reset", top.get(0).getItem());
+        assertEquals("eclipse setup", top.get(1).getItem());
+        assertTrue(top.get(0).getCount() >= 1000);
+        assertTrue(top.get(0).getCount() - top.get(0).getError() <= 1000);
+    }
+
+    @Test
+    public void testRestoreContinuesCounting() {
+        SpaceSaving saved = new SpaceSaving(3);
+        saved.offer("java", 5);
+        saved.offer("junit", 2);
+
+        SpaceSaving sketch = new SpaceSaving(3);
+        for (SpaceSaving.Entry entry : saved.entries()) {
+            sketch.restore(entry.getItem(), entry.getCount(), entry.getError());
+        }
+        sketch.offer("junit", 4);
+        assertEquals("junit", sketch.top(1).get(0).getItem());
+        assertEquals(6, sketch.top(1).get(0).getCount());
+    }
+}
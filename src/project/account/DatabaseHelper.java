@@ -1,87 +1,200 @@
 package project.account;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 
-public class DatabaseHelper {
+import project.service.MessageInbox;
+import project.util.config.DatabaseConfig;
+import project.util.logging.Logger;
+import project.util.metrics.Metrics;
+import project.util.schema.Migration;
+import project.util.schema.SchemaMigrator;
 
-    private static final String JDBC_DRIVER = "org.h2.Driver";
-    private static final String DB_URL = "jdbc:h2:~/database";
+public class DatabaseHelper {
+    private static final Logger log = Logger.get(DatabaseHelper.class);
 
-    private static final String USER = "sa";
-    private static final String PASS = "";
+    // Where the user tables lived before users and articles moved into one store, see DatabaseConfig
+    private static final String LEGACY_URL = "jdbc:h2:~/database";
+    private static final String[] LEGACY_TABLES = { "users", "help_messages", "codes" };
 
-    private static Connection connection = null;
-    private static Statement statement = null;
-    private static PreparedStatement pstmt = null;
+    private static volatile boolean legacyChecked;
 
     /**
-     * Establishes a connection to the database and creates necessary tables.
+     * Borrows a connection to the database and creates or upgrades the tables if needed.
+     * Every other method borrows its own connection per call and gives it back, so
+     * concurrent requests do not queue on one shared connection.
      * 
-     * @return the database connection
+     * @return a pooled connection; close it to give it back
      * @throws SQLException if there is an issue connecting to the database or creating tables
      */
     public static Connection connectToDatabase() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                Class.forName(JDBC_DRIVER);
-                connection = DriverManager.getConnection(DB_URL, USER, PASS);
-                statement = connection.createStatement();
-                createTables();
-                addCurrentSessionColumn(); // Add current_session column if it's missing
-            } catch (ClassNotFoundException e) {
-                System.err.println("JDBC Driver not found: " + e.getMessage());
+        Connection connection = DatabaseConfig.get().connect();
+        try {
+            SchemaMigrator.migrate(connection, "users", MIGRATIONS); // Creates or upgrades the tables, once per database
+            if (!legacyChecked) {
+                importLegacyStore(connection);
+                legacyChecked = true;
             }
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
         }
         return connection;
     }
-    
+
     /**
-     * Closes the database connection and statement.
+     * Copies the user tables out of the old per-user database file the first time the
+     * application starts against a local store file that has no users yet, so an upgrade
+     * keeps its users, codes and messages. Never runs for the in-memory databases of the
+     * tests and benchmarks, and can be turned off with project.db.importLegacy=false.
      */
-    public static void closeConnection() throws SQLException{
-            if (pstmt != null) pstmt.close();
-            if (statement != null) statement.close();
-            if (connection != null) connection.close();
+    private static void importLegacyStore(Connection connection) throws SQLException {
+        Path legacyFile = Paths.get(System.getProperty("user.home"), "database.mv.db");
+        if (!DatabaseConfig.get().isLocalFile() || !Files.isRegularFile(legacyFile)
+                || isSameFile(DatabaseConfig.get().getBaseUrl(), legacyFile) || !isDatabaseEmpty(connection)) {
+            return;
+        }
+        if (!DatabaseConfig.get().isLegacyImport()) {
+            log.warn("{} holds users from an older version, but {} has none and project.db.importLegacy is off; "
+                    + "set it to true to import them", legacyFile, DatabaseConfig.get().getBaseUrl());
+            return;
+        }
+        log.warn("Importing the user tables of {} into {}", LEGACY_URL, DatabaseConfig.get().getBaseUrl());
+        boolean messages = false;
+        for (String table : LEGACY_TABLES) {
+            String linked = "legacy_" + table;
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE LINKED TABLE IF NOT EXISTS " + linked + "('org.h2.Driver', '" + LEGACY_URL
+                        + ";ACCESS_MODE_DATA=r', 'sa', '', 'PUBLIC', '" + table.toUpperCase() + "') READONLY");
+                try {
+                    // Copy the columns both sides have, so an old file missing later columns still imports
+                    String columns = String.join(", ", sharedColumns(connection, table, linked));
+                    int rows = stmt.executeUpdate("INSERT INTO " + table + " (" + columns + ") SELECT " + columns + " FROM " + linked);
+                    try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+                        rs.next();
+                        stmt.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + rs.getLong(1));
+                    }
+                    log.info("Imported {} rows into {}", rows, table);
+                    messages |= table.equals("help_messages") && rows > 0;
+                } finally {
+                    stmt.execute("DROP TABLE IF EXISTS " + linked);
+                }
+            } catch (SQLException e) {
+                if (e.getErrorCode() == 42102) {
+                    log.info("{} has no {} table to import", LEGACY_URL, table); // Created by an older version
+                } else {
+                    log.error("Could not import " + table + " from " + LEGACY_URL, e);
+                }
+            }
+        }
+        if (messages) {
+            try {
+                new MessageInbox().recount(); // The messages were inserted directly, past the inbox counters
+            } catch (SQLException e) {
+                log.error("Could not recount the imported messages", e);
+            }
+        }
+    }
+
+    private static List<String> sharedColumns(Connection connection, String table, String linked) throws SQLException {
+        List<String> target = columnsOf(connection, table);
+        List<String> shared = new ArrayList<>();
+        for (String column : columnsOf(connection, linked)) {
+            if (target.contains(column)) {
+                shared.add(column);
+            }
+        }
+        return shared;
+    }
+
+    private static List<String> columnsOf(Connection connection, String table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (ResultSet rs = connection.getMetaData().getColumns(null, null, table.toUpperCase(), null)) {
+            while (rs.next()) {
+                columns.add(rs.getString("COLUMN_NAME"));
+            }
+        }
+        return columns;
     }
 
+    // True when the configured store already is the legacy file, e.g. -Dproject.db.url=jdbc:h2:~/database
+    private static boolean isSameFile(String url, Path legacyFile) {
+        if (!url.startsWith("jdbc:h2:") || url.startsWith("jdbc:h2:mem:") || url.startsWith("jdbc:h2:tcp:")) {
+            return false;
+        }
+        String path = url.substring("jdbc:h2:".length()).split(";", 2)[0];
+        path = path.startsWith("file:") ? path.substring("file:".length()) : path;
+        if (path.startsWith("~")) {
+            path = System.getProperty("user.home") + path.substring(1);
+        }
+        return Paths.get(path + ".mv.db").toAbsolutePath().normalize().equals(legacyFile.toAbsolutePath().normalize());
+    }
+
+    private static final String USERS_TABLE = "CREATE TABLE IF NOT EXISTS users ("
+            + "id INT AUTO_INCREMENT PRIMARY KEY, "
+            + "username VARCHAR(255) UNIQUE NOT NULL, "
+            + "password VARCHAR(255) NOT NULL, "
+            + "email VARCHAR(255), "
+            + "roles VARCHAR(255), "
+            + "onetime BOOLEAN DEFAULT FALSE, "
+            + "onetimeCode VARCHAR(255), "
+            + "onetimeDate TIMESTAMP, "
+            + "isReset BOOLEAN DEFAULT FALSE, "
+            + "fullName VARCHAR(255), "
+            + "current_session BOOLEAN DEFAULT FALSE)";  // Adding the current_session column
+
+    private static final String HELP_MESSAGES_TABLE = "CREATE TABLE IF NOT EXISTS help_messages ("
+            + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "username VARCHAR(255) NOT NULL, "
+            + "message TEXT NOT NULL, "
+            + "type VARCHAR(50) NOT NULL, "
+            + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+
+    private static final String CODES_TABLE = "CREATE TABLE IF NOT EXISTS codes ("
+            + "id INT AUTO_INCREMENT PRIMARY KEY, "
+            + "code VARCHAR(255) UNIQUE NOT NULL, "
+            + "roles VARCHAR(255))";
+
+    // Schema history of the user tables. Never edit a released migration, add the next version instead.
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create users, help_messages and codes", USERS_TABLE, HELP_MESSAGES_TABLE, CODES_TABLE),
+            new Migration(2, "Add users.current_session to databases created before it existed",
+                    "ALTER TABLE users ADD COLUMN IF NOT EXISTS current_session BOOLEAN DEFAULT FALSE"),
+            new Migration(3, "Index help_messages for the paged inbox, with read, assignment and counter tables",
+                    "ALTER TABLE help_messages ADD COLUMN IF NOT EXISTS assigned_to VARCHAR(255)",
+                    "CREATE INDEX IF NOT EXISTS help_messages_type_created ON help_messages (type, created_at DESC, id DESC)",
+                    "CREATE INDEX IF NOT EXISTS help_messages_assigned ON help_messages (assigned_to, type, created_at DESC, id DESC)",
+                    "CREATE TABLE IF NOT EXISTS help_message_reads ("
+                            + "message_id BIGINT NOT NULL REFERENCES help_messages (id) ON DELETE CASCADE, "
+                            + "staff VARCHAR(255) NOT NULL, "
+                            + "read_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                            + "PRIMARY KEY (message_id, staff))",
+                    "CREATE TABLE IF NOT EXISTS help_message_counts ("
+                            + "type VARCHAR(50) NOT NULL, "
+                            + "staff VARCHAR(255) NOT NULL, " // Empty for the counters of the whole inbox
+                            + "counter VARCHAR(20) NOT NULL, "
+                            + "amount BIGINT NOT NULL, "
+                            + "PRIMARY KEY (type, staff, counter))",
+                    "INSERT INTO help_message_counts SELECT type, '', 'total', COUNT(*) FROM help_messages GROUP BY type",
+                    "INSERT INTO help_message_counts SELECT type, '', 'unassigned', COUNT(*) FROM help_messages GROUP BY type"));
+
     /**
-     * Creates necessary tables in the database if they do not exist.
+     * Creates necessary tables in the database if they do not exist. Connecting runs the
+     * migrations instead; this is for recreating a table after it was dropped.
      */
     public static void createTables() throws SQLException {
-        // Create the users table if it doesn't exist
-        String userTable = "CREATE TABLE IF NOT EXISTS users ("
-                + "id INT AUTO_INCREMENT PRIMARY KEY, "
-                + "username VARCHAR(255) UNIQUE NOT NULL, "
-                + "password VARCHAR(255) NOT NULL, "
-                + "email VARCHAR(255), "
-                + "roles VARCHAR(255), "
-                + "onetime BOOLEAN DEFAULT FALSE, "
-                + "onetimeCode VARCHAR(255), "
-                + "onetimeDate TIMESTAMP, "
-                + "isReset BOOLEAN DEFAULT FALSE, "
-                + "fullName VARCHAR(255), "
-                + "current_session BOOLEAN DEFAULT FALSE)";  // Adding the current_session column
-
-        statement.execute(userTable);
-
-        // Create the help_messages table if it doesn't exist
-        String helpMessagesTable = "CREATE TABLE IF NOT EXISTS help_messages ("
-                + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
-                + "username VARCHAR(255) NOT NULL, "
-                + "message TEXT NOT NULL, "
-                + "type VARCHAR(50) NOT NULL, "
-                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
-        
-        statement.execute(helpMessagesTable);
-
-        // Create the codes table if it doesn't exist
-        String codesTable = "CREATE TABLE IF NOT EXISTS codes ("
-                + "id INT AUTO_INCREMENT PRIMARY KEY, "
-                + "code VARCHAR(255) UNIQUE NOT NULL, "
-                + "roles VARCHAR(255))";
-        statement.execute(codesTable);
+        try (Connection connection = DatabaseConfig.get().connect();
+             Statement statement = connection.createStatement()) {
+            statement.execute(USERS_TABLE);
+            statement.execute(HELP_MESSAGES_TABLE);
+            statement.execute(CODES_TABLE);
+        }
     }
     
     /**
@@ -91,8 +204,15 @@ public class DatabaseHelper {
      * @throws SQLException if there is an issue executing the query
      */
     public static boolean isDatabaseEmpty() throws SQLException {
+        try (Connection connection = DatabaseConfig.get().connect()) {
+            return isDatabaseEmpty(connection);
+        }
+    }
+
+    private static boolean isDatabaseEmpty(Connection connection) throws SQLException {
         String query = "SELECT COUNT(*) AS total FROM users";
-        try (ResultSet resultSet = statement.executeQuery(query)) {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
             if (resultSet.next()) {
                 return resultSet.getInt("total") == 0;
             }
@@ -100,31 +220,16 @@ public class DatabaseHelper {
         return true;
     }
     
-    public static void addCurrentSessionColumn() throws SQLException {
-        // First, check if the column already exists in the users table
-        String checkColumnQuery = "SELECT * FROM INFORMATION_SCHEMA.COLUMNS " +
-                                  "WHERE TABLE_NAME = 'USERS' AND COLUMN_NAME = 'CURRENT_SESSION'";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(checkColumnQuery)) {
-            ResultSet rs = pstmt.executeQuery();
-            if (!rs.next()) {
-                // Column does not exist, so we can add it
-                String alterTableQuery = "ALTER TABLE users ADD COLUMN current_session BOOLEAN DEFAULT FALSE";
-                try (Statement stmt = connection.createStatement()) {
-                    stmt.executeUpdate(alterTableQuery);
-                }
-            }
-        }
-    }
-    
-        
     // Method to get the current username (assuming a session or context where the user is logged in)
     public static String getUsername() throws SQLException {
         String query = "SELECT username FROM users WHERE current_session = TRUE"; // Example query, adjust based on your session handling
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseHelper.getUsername");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
+                timer.rows(1);
                 return rs.getString("username");
             } else {
                 return null; // No logged-in user found
@@ -135,20 +240,30 @@ public class DatabaseHelper {
     public static void updateSessionStatus(String username, boolean status) throws SQLException {
     	String query = "UPDATE users SET current_session = ? WHERE username = ?";
     	
-    	try (PreparedStatement stmt = connection.prepareStatement(query)) {
+    	try (Metrics.Timer timer = Metrics.time("DatabaseHelper.updateSessionStatus");
+    	     Connection connection = DatabaseConfig.get().connect();
+    	     PreparedStatement stmt = connection.prepareStatement(query)) {
     		stmt.setBoolean(1, status);
     		stmt.setString(2, username);
-            stmt.executeUpdate();
+            timer.rows(stmt.executeUpdate());
         }
     }
 
-    public static boolean isInstructor() throws SQLException {
-        // Query to get the roles string for the currently logged-in user
-        String query = "SELECT roles FROM users WHERE current_session = TRUE"; // Assuming current_session marks the logged-in user
-
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+    /**
+     * @param username the user whose roles are checked; not whoever holds a session,
+     *                 since several users can be logged in on the shared store
+     */
+    public static boolean isInstructor(String username) throws SQLException {
+        // Query to get the roles string of the named user
+        String query = "SELECT roles FROM users WHERE username = ?";
+
+        try (Metrics.Timer timer = Metrics.time("DatabaseHelper.isInstructor");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
+                timer.rows(1);
                 // Get the roles as a comma-separated string
                 String rolesString = rs.getString("roles");
 
@@ -170,20 +285,25 @@ public class DatabaseHelper {
 
     public static void storeOneTimeCode(String username, String resetCode, OffsetDateTime expirationDate) throws SQLException {
         String sql = "UPDATE users SET onetimeCode = ?, onetimeDate = ? WHERE username = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseHelper.storeOneTimeCode");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, resetCode);
             pstmt.setTimestamp(2, Timestamp.from(expirationDate.toInstant()));
             pstmt.setString(3, username);
-            pstmt.executeUpdate();
+            timer.rows(pstmt.executeUpdate());
         }
     }
 
     public static boolean validateOneTimeCode(String username, String code) throws SQLException {
         String sql = "SELECT onetimeCode, onetimeDate FROM users WHERE username = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseHelper.validateOneTimeCode");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, username);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
+                    timer.rows(1);
                     String storedCode = rs.getString("onetimeCode");
                     Timestamp expirationTimestamp = rs.getTimestamp("onetimeDate");
                     OffsetDateTime currentDateTime = OffsetDateTime.now(ZoneOffset.UTC);
@@ -199,18 +319,22 @@ public class DatabaseHelper {
 
     public static void clearOneTimeCode(String username) throws SQLException {
         String sql = "UPDATE users SET onetimeCode = NULL, onetimeDate = NULL WHERE username = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseHelper.clearOneTimeCode");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, username);
-            pstmt.executeUpdate();
+            timer.rows(pstmt.executeUpdate());
         }
     }
 
     public static void updatePassword(String username, String newPassword) throws SQLException {
         String sql = "UPDATE users SET password = ?, onetime = FALSE WHERE username = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseHelper.updatePassword");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, newPassword);
             pstmt.setString(2, username);
-            pstmt.executeUpdate();
+            timer.rows(pstmt.executeUpdate());
         }
     }
     
@@ -224,10 +348,12 @@ public class DatabaseHelper {
         String insertUserSQL = "INSERT INTO users (username, roles) VALUES (?, ?)";
         String rolesString = String.join(",", roles); // Convert roles array to a comma-separated string
 
-        try (PreparedStatement pstmt = connection.prepareStatement(insertUserSQL)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseHelper.addUser");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(insertUserSQL)) {
             pstmt.setString(1, username);
             pstmt.setString(2, rolesString);
-            pstmt.executeUpdate();
+            timer.rows(pstmt.executeUpdate());
         }
     }
     
@@ -252,7 +378,9 @@ public class DatabaseHelper {
     	String insertUserSQL = "INSERT INTO users (username, password, email, roles, onetime, onetimeDate, fullName) VALUES (?, ?, ?, ?, ?, ?, ?)";
     	String fullName = String.join(" ", name);  // Concatenate full name from the array
 
-    	try (PreparedStatement pstmt = connection.prepareStatement(insertUserSQL)) {
+    	try (Metrics.Timer timer = Metrics.time("DatabaseHelper.register");
+    	     Connection connection = DatabaseConfig.get().connect();
+    	     PreparedStatement pstmt = connection.prepareStatement(insertUserSQL)) {
     		pstmt.setString(1, username);
     		pstmt.setString(2, password);
     		pstmt.setString(3, email);
@@ -260,7 +388,7 @@ public class DatabaseHelper {
     		pstmt.setBoolean(5, onetime);
     		pstmt.setTimestamp(6, Timestamp.from(date.toInstant()));
     		pstmt.setString(7, fullName);
-    		pstmt.executeUpdate();
+    		timer.rows(pstmt.executeUpdate());
     	}
     }
 
@@ -270,10 +398,12 @@ public class DatabaseHelper {
      */
     public static void registerCode(String code, String[] roles) throws SQLException {
         String sql = "INSERT INTO codes (code, roles) VALUES (?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseHelper.registerCode");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, code);
             pstmt.setObject(2, String.join(",", (CharSequence[]) roles));
-            pstmt.executeUpdate();
+            timer.rows(pstmt.executeUpdate());
         }
     }
 
@@ -282,10 +412,12 @@ public class DatabaseHelper {
      */
     public static void update(String table, String field, String key, String value, Object newValue) throws SQLException {
         String sql = "UPDATE " + table + " SET " + field + " = ? WHERE " + key + " = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseHelper.update " + table + "." + field);
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setObject(1, newValue);
             pstmt.setString(2, value);
-            pstmt.executeUpdate();
+            timer.rows(pstmt.executeUpdate());
         }
     }
 
@@ -294,10 +426,13 @@ public class DatabaseHelper {
      */
     public static Object getValue(String table, String key, String value, String field) throws SQLException {
         String sql = "SELECT " + field + " FROM " + table + " WHERE " + key + " = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseHelper.getValue " + table + "." + field);
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, value);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
+                    timer.rows(1);
                     return rs.getObject(field);
                 }
             }
@@ -310,9 +445,11 @@ public class DatabaseHelper {
      */
     public static void remove(String table, String key, String value) throws SQLException {
         String sql = "DELETE FROM " + table + " WHERE " + key + " = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseHelper.remove " + table);
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, value);
-            pstmt.executeUpdate();
+            timer.rows(pstmt.executeUpdate());
         }
     }
 
@@ -321,7 +458,8 @@ public class DatabaseHelper {
      */
     public static void displayUsersbyAdmin() throws SQLException {
         String sql = "SELECT username, roles, fullName FROM users";
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = DatabaseConfig.get().connect();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 System.out.println("Username: " + rs.getString("username"));
@@ -337,23 +475,11 @@ public class DatabaseHelper {
      */
     public static void dropTable(String table) throws SQLException {
         String sql = "DROP TABLE IF EXISTS " + table;
-        try (Statement stmt = connection.createStatement()) {
+        try (Connection connection = DatabaseConfig.get().connect();
+             Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
-            System.out.println("Table " + table + " has been dropped.");
-        }
-    }
-
-    /**
-     * Gets the current connection to the database.
-     *
-     * @return the active database connection
-     * @throws SQLException if there is an issue with the connection
-     */
-    public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connectToDatabase(); // Ensure the connection is established
+            log.info("Table {} has been dropped.", table);
         }
-        return connection;
     }
 
     /**
@@ -361,13 +487,16 @@ public class DatabaseHelper {
      */
     public static boolean doesExist(String table, String item, Object value) {
         String query = "SELECT COUNT(*) FROM " + table + " WHERE " + item + " = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseHelper.doesExist " + table + "." + item);
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setObject(1, value);
             try (ResultSet rs = pstmt.executeQuery()) {
+                timer.rows(1); // The count
                 return rs.next() && rs.getInt(1) > 0;
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not check {}.{}", table, item, e);
         }
         return false;
     }
@@ -4,47 +4,52 @@ import java.sql.*;
 import java.util.*;
 import java.time.*;
 
+import project.util.config.DatabaseConfig;
+import project.util.logging.Logger;
+import project.util.metrics.Metrics;
+
 public class DatabaseModel {
-    protected Connection connection;
+    private static final Logger log = Logger.get(DatabaseModel.class);
 
     /**
-     * Establishes the connection to the database if needed
+     * Checks that the database is reachable and its tables are current. Each query
+     * borrows a pooled connection and gives it back, so nothing stays open in between.
      * @throws SQLException 
      */
     public void connect() throws SQLException {
         try {
-            if (connection == null || connection.isClosed()) {
-                connection = DatabaseHelper.connectToDatabase();
-            }
+            DatabaseHelper.connectToDatabase().close(); // Only borrowed to create or upgrade the tables
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not connect to the user database", e);
         }
     }
 
     /**
-     * Closes the connection to the database if needed
+     * Nothing stays connected between queries; kept for the pages and tests that call it.
      */
     public void disconnect() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                DatabaseHelper.closeConnection();
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
     }
     
     public void resetSessions() {
     	String query = "SELECT username FROM users";
+    	List<String> usernames = new ArrayList<>();
     	
-    	try (Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery(query)) {
-           while (rs.next()) {
-              DatabaseHelper.updateSessionStatus(rs.getString("username"), false);
-           }
+    	try (Metrics.Timer timer = Metrics.time("DatabaseModel.resetSessions")) {
+    	    try (Connection connection = DatabaseConfig.get().connect();
+    	         Statement stmt = connection.createStatement();
+    	         ResultSet rs = stmt.executeQuery(query)) {
+    	        while (rs.next()) {
+    	            usernames.add(rs.getString("username"));
+    	        }
+    	    }
+    	    // Given back first, so the updates do not hold two connections at once
+    	    for (String username : usernames) {
+    	        DatabaseHelper.updateSessionStatus(username, false);
+    	    }
+    	    timer.rows(usernames.size());
        } catch (SQLException e) {
 		// TODO Auto-generated catch block
-		e.printStackTrace();
+		log.error("Could not reset sessions", e);
 	}
     }
 
@@ -57,13 +62,16 @@ public class DatabaseModel {
         boolean res = true;
 
         String query = "SELECT COUNT(*) FROM users";
-        try (Statement stmt = connection.createStatement();
+        try (Metrics.Timer timer = Metrics.time("DatabaseModel.isDatabaseEmpty");
+             Connection connection = DatabaseConfig.get().connect();
+             Statement stmt = connection.createStatement();
              ResultSet resultSet = stmt.executeQuery(query)) {
             if (resultSet.next()) {
+                timer.rows(1);
                 res = false;
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not count users", e);
         }
 
         return res;
@@ -77,17 +85,20 @@ public class DatabaseModel {
      */
     public String[] getUserRoles(String username) {
         String query = "SELECT roles FROM users WHERE username = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseModel.getUserRoles");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
+                timer.rows(1);
                 String rolesString = rs.getString("roles");
                 if (rolesString != null) {
                     return rolesString.split(","); // Split the roles string into an array
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not read the roles of {}", username, e);
         }
         return new String[0]; // Return an empty array if no roles are found or an error occurs
     }
@@ -97,7 +108,7 @@ public class DatabaseModel {
             String rolesString = String.join(",", roles);
             DatabaseHelper.update("users", "roles", "username", username, rolesString);
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not update the roles of {}", username, e);
         } 
     }
     /**
@@ -105,14 +116,17 @@ public class DatabaseModel {
      */
     public boolean isUserReset(String username) {
         String query = "SELECT isReset FROM users WHERE username = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseModel.isUserReset");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
+                timer.rows(1);
                 return rs.getBoolean("isReset"); // Check the isReset column
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not read the reset flag of {}", username, e);
         }
         return false; // Return false if the user does not exist or if there's an issue
     }
@@ -122,10 +136,13 @@ public class DatabaseModel {
      */
     public boolean validateOneTimeCode(String username, String code) {
         String query = "SELECT onetimeCode, onetimeDate FROM users WHERE username = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseModel.validateOneTimeCode");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
+                timer.rows(1);
                 String storedCode = rs.getString("onetimeCode");
                 OffsetDateTime expirationDate = rs.getObject("onetimeDate", OffsetDateTime.class);
                 
@@ -134,7 +151,7 @@ public class DatabaseModel {
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not validate the one-time code of {}", username, e);
         }
         return false;
     }
@@ -144,12 +161,14 @@ public class DatabaseModel {
      */
     public void updatePassword(String username, String newPassword) {
         String query = "UPDATE users SET password = ?, onetime = false WHERE username = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseModel.updatePassword");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setString(1, newPassword);
             stmt.setString(2, username);
-            stmt.executeUpdate();
+            timer.rows(stmt.executeUpdate());
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not update the password of {}", username, e);
         }
     }
 
@@ -158,11 +177,13 @@ public class DatabaseModel {
      */
     public void clearOneTimeCode(String username) {
         String query = "UPDATE users SET onetimeCode = NULL, onetime = false WHERE username = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseModel.clearOneTimeCode");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setString(1, username);
-            stmt.executeUpdate();
+            timer.rows(stmt.executeUpdate());
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not clear the one-time code of {}", username, e);
         }
     }
 
@@ -171,13 +192,15 @@ public class DatabaseModel {
      */
     public void resetUser(String username, String code, OffsetDateTime expirationDate) {
         String query = "UPDATE users SET onetime = true, onetimeCode = ?, onetimeDate = ? WHERE username = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Metrics.Timer timer = Metrics.time("DatabaseModel.resetUser");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setString(1, code);
             stmt.setObject(2, expirationDate);
             stmt.setString(3, username);
-            stmt.executeUpdate();
+            timer.rows(stmt.executeUpdate());
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not reset {}", username, e);
         }
     }
     
@@ -188,7 +211,7 @@ public class DatabaseModel {
             editUser(username, "onetimeCode", resetCode);
             editUser(username, "onetimeDate", Timestamp.from(expirationDate.toInstant()));
         } else {
-            System.out.println("User does not exist");
+            log.warn("Cannot reset {}, the user does not exist", username);
         }
     }
 
@@ -219,13 +242,13 @@ public class DatabaseModel {
     public void registerUser(String username, String password, String email, Object[] roles,
                              boolean onetime, OffsetDateTime date, String[] name) {
         if (doesUserExist(username)) {
-            System.out.println("User with this username already exists. Choose a different username."); // TODO: Error message popup instead of println
+            log.warn("User {} already exists. Choose a different username.", username); // TODO: Error message popup instead of a log message
             return;
         }
         try {
             DatabaseHelper.register(username, password, email, roles, onetime, date, name);
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not register {}", username, e);
         }
     }
 
@@ -236,7 +259,7 @@ public class DatabaseModel {
         try {
             DatabaseHelper.registerCode(code, roles);
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not register an invitation code", e);
         }
     }
 
@@ -247,7 +270,7 @@ public class DatabaseModel {
         try {
             DatabaseHelper.addUser(username, roles);
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not add {}", username, e);
         }
     }
 
@@ -258,7 +281,7 @@ public class DatabaseModel {
         try {
             DatabaseHelper.update("users", field, "username", username, newValue);
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not update {} of {}", field, username, e);
         }
     }
     
@@ -275,14 +298,14 @@ public class DatabaseModel {
         try {
             rolesString = (String) DatabaseHelper.getValue("codes", "code", code, "roles");
             if (rolesString != null) {
-                System.out.println("Splitting roles string from database");
+                log.debug("Splitting roles string from database");
                 return rolesString.split(",");
             } else {
-                System.out.println("uh oh");
+                log.warn("Invitation code has no roles");
                 return null;
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not read the roles of an invitation code", e);
             return null;
         }
     }
@@ -297,7 +320,7 @@ public class DatabaseModel {
             editUser(username, "password", "1234");
             editUser(username, "onetimeDate", currentTime.plusWeeks(1));
         } else {
-            System.out.println("User does not exist");
+            log.warn("Cannot reset {}, the user does not exist", username);
         }
     }
 
@@ -308,7 +331,7 @@ public class DatabaseModel {
         try {
             return DatabaseHelper.getValue("users", "username", username, field);
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not read {} of {}", field, username, e);
         }
         return null;
     }
@@ -322,7 +345,7 @@ public class DatabaseModel {
         try {
             DatabaseHelper.update("codes", "roles", "code", code, String.join(",", roleSet));
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not update the roles of an invitation code", e);
         }
     }
 
@@ -333,7 +356,7 @@ public class DatabaseModel {
         try {
             DatabaseHelper.remove("users", "username", username);
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not remove {}", username, e);
         }
     }
 
@@ -344,7 +367,7 @@ public class DatabaseModel {
         try {
             DatabaseHelper.remove("codes", "code", code);
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not remove an invitation code", e);
         }
     }
 
@@ -355,7 +378,9 @@ public class DatabaseModel {
         List<String> users = new ArrayList<>();
         String sql = "SELECT * FROM users";
 
-        try (Statement stmt = connection.createStatement();
+        try (Metrics.Timer timer = Metrics.time("DatabaseModel.displayUsersByAdmin");
+             Connection connection = DatabaseConfig.get().connect();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
@@ -366,9 +391,10 @@ public class DatabaseModel {
                 String userInfo = "Username: " + username + ", Roles: " + roles + ", Full Name: " + fullName;
                 users.add(userInfo);
             }
+            timer.rows(users.size());
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not list users", e);
         }
         return users;
     }
@@ -380,7 +406,7 @@ public class DatabaseModel {
         try {
             DatabaseHelper.dropTable("codes");
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not drop the codes table", e);
         }
     }
 
@@ -391,7 +417,7 @@ public class DatabaseModel {
         try {
             DatabaseHelper.dropTable("users");
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not drop the users table", e);
         }
     }
 
@@ -403,7 +429,7 @@ public class DatabaseModel {
         try {
             DatabaseHelper.createTables();
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not recreate the users table", e);
         }
     }
 
@@ -415,7 +441,7 @@ public class DatabaseModel {
         try {
             DatabaseHelper.createTables();
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not recreate the codes table", e);
         }
     }
 
@@ -29,6 +29,7 @@ public class LoginService extends BorderPane {
         stage.setTitle("Login Page");
         
         database.resetSessions();
+        Back.clearCache(); // Cached pages belong to the previous session
 
         Label usernameLabel = new Label("Enter Username:");
         TextField usernameField = new TextField();
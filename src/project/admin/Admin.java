@@ -9,6 +9,7 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import project.account.*;
 import project.article.*;
+import project.service.AccountService;
 import project.util.Back;
 import java.sql.SQLException;
 
@@ -66,12 +67,12 @@ public class Admin extends BorderPane {
         helpArticleManagementButton.setOnAction(event -> {
             HelpArticleDatabase h = null;
             try {
-                h = new HelpArticleDatabase();
+                h = HelpArticleDatabase.getInstance();
             } catch (SQLException e) {
                 // TODO Auto-generated catch block
                 e.printStackTrace();
             }
-            new HelpArticleManagementPage(stage, h, 1);
+            new HelpArticleManagementPage(stage, h, user.username, 1);
         });
         
         // LOG OUT ------------------------------------------------------------
@@ -138,13 +139,6 @@ public class Admin extends BorderPane {
     * @return the generated string
     */
     protected static String generateCode() {
-        // Generate a random 8-character alphanumeric code
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
-        StringBuilder code = new StringBuilder(8);
-        for (int i = 0; i < 8; i++) {
-            int randomIndex = (int) (Math.random() * chars.length());
-            code.append(chars.charAt(randomIndex));
-        }
-        return code.toString();
+        return AccountService.generateCode(); // Random 8-character alphanumeric code
     }
 }
@@ -19,6 +19,7 @@ import javafx.stage.Stage;
 import project.account.DatabaseModel;
 import project.account.LoginService;
 import project.account.User;
+import project.service.AccountService;
 import project.util.Back;
 
 public class AdminInviteUser extends BorderPane {
@@ -38,9 +39,6 @@ public class AdminInviteUser extends BorderPane {
         copyButton.setDisable(true);
         
         generateInviteButton.setOnAction(e -> {
-            // Generate a unique invite code
-            String inviteCode = Admin.generateCode();
-            
             java.util.List<String> rolesList = new java.util.ArrayList<>(); // TODO: THIS **stuff** DONT WORK RIGHT
             
             // Collect selected roles
@@ -51,8 +49,8 @@ public class AdminInviteUser extends BorderPane {
             String[] roles = rolesList.toArray(new String[0]);
             
             if (roles.length > 0) {
-                // Register the invite code with associated roles
-                database.registerCode(inviteCode, roles);
+                // Register a unique invite code with associated roles
+                String inviteCode = new AccountService(database).invite(roles);
                 
                 // Display the invite code and add a copy button
                 feedbackLabel.setText("Invite code created: " + inviteCode);
@@ -1,7 +1,6 @@
 package project.admin;
 
 import java.sql.SQLException;
-import java.util.List;
 
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -21,6 +20,7 @@ import project.account.DatabaseModel;
 import project.account.LoginService;
 import project.account.User;
 import project.util.Back;
+import project.util.BackgroundTasks;
 
 public class AdminListUsers extends BorderPane {
     public AdminListUsers(Stage stage, User user, DatabaseModel database) {
@@ -28,13 +28,16 @@ public class AdminListUsers extends BorderPane {
         ScrollPane scrollPane = new ScrollPane();
         stage.setTitle("List Users");
         VBox usersBox = new VBox();
-        // Fetch and display users using an instance of DatabaseModel
-        List<String> users = database.displayUsersByAdmin(); // Call on the instance, not the class
-        if (users.isEmpty()) {
-            feedbackLabel.setText("No users registered.");
-        } else {
-            users.forEach(userInfo -> usersBox.getChildren().addAll(new Text(userInfo), new Text())); // Renamed to userInfo
-        }
+        // Fetch users on the data-access thread and display them once loaded
+        feedbackLabel.setText("Loading users...");
+        BackgroundTasks.run(() -> database.displayUsersByAdmin(), users -> {
+            if (users.isEmpty()) {
+                feedbackLabel.setText("No users registered.");
+            } else {
+                feedbackLabel.setText("");
+                users.forEach(userInfo -> usersBox.getChildren().addAll(new Text(userInfo), new Text())); // Renamed to userInfo
+            }
+        }, error -> feedbackLabel.setText("Error loading users: " + error.getMessage()));
 
         scrollPane.setContent(usersBox);
         
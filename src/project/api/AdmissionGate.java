@@ -0,0 +1,108 @@
+package project.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpHandler;
+
+import project.util.metrics.Metrics;
+
+/**
+ * <p> AdmissionGate class </p>
+ *
+ * <p> Description: Limits how many requests use the database at once. With a virtual
+ * thread per request there is no thread pool to cap concurrency, so thousands of
+ * requests could pile onto a connection pool of ten. The gate holds one permit per
+ * pooled connection; the rest wait here, parked without holding a carrier thread,
+ * and give up with 503 after the timeout. It also keeps the number of virtual threads
+ * pinned inside the H2 driver's synchronized code at most the number of permits. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class AdmissionGate {
+    private final Semaphore permits;
+    private final int size;
+    private final long timeoutMillis;
+
+    /**
+     * @param permits       requests allowed in at once, normally the connection pool size
+     * @param timeoutMillis how long a request waits for a permit before it is turned away
+     */
+    public AdmissionGate(int permits, long timeoutMillis) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("permits must be at least 1");
+        }
+        this.permits = new Semaphore(permits, true); // Fair, so waiting requests are served in order
+        this.size = permits;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Runs work while holding a permit.
+     *
+     * @throws RejectedExecutionException if no permit was free within the timeout
+     */
+    public <T> T run(Callable<T> work) throws Exception {
+        boolean acquired;
+        try (Metrics.Timer timer = Metrics.time("AdmissionGate.wait")) {
+            acquired = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+            timer.rows(acquired ? 1 : 0); // Requests admitted; the rest were answered 503
+        }
+        if (!acquired) {
+            throw new RejectedExecutionException("No database capacity free after " + timeoutMillis + " ms");
+        }
+        try {
+            return work.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * @return a handler that runs the given one under a permit, answering 503 when
+     *         none is free in time
+     */
+    HttpHandler wrap(HttpHandler handler) {
+        return exchange -> {
+            try {
+                run(() -> {
+                    handler.handle(exchange);
+                    return null;
+                });
+            } catch (RejectedExecutionException e) {
+                byte[] body = Json.write(ApiHandler.object("error", "Server busy, try again")).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                exchange.sendResponseHeaders(503, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+                exchange.close();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        };
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * @return an estimate of the requests waiting for a permit
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+}
@@ -0,0 +1,248 @@
+package project.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import project.util.logging.Logger;
+import project.util.metrics.Metrics;
+
+/**
+ * <p> ApiHandler class </p>
+ *
+ * <p> Description: The common part of every API endpoint. It parses the request into
+ * a Request, calls the endpoint, and writes whatever the endpoint returns as JSON.
+ * An ApiException becomes its HTTP status, a bad argument or malformed JSON becomes
+ * 400, and anything else is logged and answered with 500, so one failing request
+ * never takes the server down. Each endpoint is timed in Metrics. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+abstract class ApiHandler implements HttpHandler {
+    private static final Logger log = Logger.get(ApiHandler.class);
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    private final String name;
+
+    /**
+     * @param name the endpoint name used in the metrics, e.g. "articles"
+     */
+    ApiHandler(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Handles one request.
+     *
+     * @return the JSON body of a 200 response, or a Response for any other status
+     */
+    abstract Object handle(Request request) throws Exception;
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        Response response;
+        try (Metrics.Timer timer = Metrics.time("Api." + name + "." + exchange.getRequestMethod())) {
+            try {
+                Object result = handle(new Request(exchange));
+                response = result instanceof Response ? (Response) result : new Response(200, result);
+            } catch (ApiException e) {
+                response = Response.error(e.status, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                response = Response.error(400, e.getMessage());
+            } catch (Exception e) {
+                log.error("{} {} failed", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+                response = Response.error(500, "Internal error");
+            }
+            timer.bytes(send(exchange, response));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static long send(HttpExchange exchange, Response response) throws IOException {
+        if (response.body == null) {
+            exchange.sendResponseHeaders(response.status, -1);
+            return 0;
+        }
+        byte[] bytes = Json.write(response.body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        return bytes.length;
+    }
+
+    /**
+     * @return a JSON object with the given alternating keys and values
+     */
+    static Map<String, Object> object(Object... keysAndValues) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < keysAndValues.length; i += 2) {
+            object.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return object;
+    }
+
+    /**
+     * An error answered with its HTTP status.
+     */
+    static class ApiException extends Exception {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        static ApiException notFound(String what) {
+            return new ApiException(404, what + " not found");
+        }
+
+        static ApiException forbidden() {
+            return new ApiException(403, "Not allowed");
+        }
+
+        static ApiException methodNotAllowed(String method) {
+            return new ApiException(405, method + " is not supported here");
+        }
+    }
+
+    /**
+     * A status and JSON body to send.
+     */
+    static class Response {
+        final int status;
+        final Object body;
+
+        Response(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Response created(Object body) {
+            return new Response(201, body);
+        }
+
+        static Response noContent() {
+            return new Response(204, null);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, object("error", message));
+        }
+    }
+
+    /**
+     * One parsed request: the method, the decoded path segments after the endpoint's
+     * context, the query parameters, the authenticated user and the JSON body.
+     */
+    static class Request {
+        final String method;
+        final List<String> path;
+        final Map<String, String> query;
+        final String username;
+        private final HttpExchange exchange;
+        private Map<String, Object> body;
+
+        Request(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.method = exchange.getRequestMethod();
+            this.username = exchange.getPrincipal() != null ? exchange.getPrincipal().getUsername() : null;
+            this.path = segments(exchange.getRequestURI().getRawPath(), exchange.getHttpContext().getPath());
+            this.query = parameters(exchange.getRequestURI().getRawQuery());
+        }
+
+        private static List<String> segments(String rawPath, String context) {
+            List<String> segments = new ArrayList<>();
+            String rest = rawPath.length() > context.length() ? rawPath.substring(context.length()) : "";
+            for (String segment : rest.split("/")) {
+                if (!segment.isEmpty()) {
+                    segments.add(URLDecoder.decode(segment, StandardCharsets.UTF_8));
+                }
+            }
+            return segments;
+        }
+
+        private static Map<String, String> parameters(String rawQuery) {
+            if (rawQuery == null || rawQuery.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            Map<String, String> parameters = new HashMap<>();
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                String key = eq < 0 ? pair : pair.substring(0, eq);
+                String value = eq < 0 ? "" : pair.substring(eq + 1);
+                parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+            return parameters;
+        }
+
+        String param(String name) {
+            return query.get(name);
+        }
+
+        int intParam(String name, int fallback, int max) {
+            String value = query.get(name);
+            return value == null ? fallback : Math.max(0, Math.min(max, Integer.parseInt(value)));
+        }
+
+        /**
+         * @return the request body as a JSON object, read on first use
+         */
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body() throws IOException {
+            if (body == null) {
+                String text = read(exchange.getRequestBody());
+                Object parsed = text.isBlank() ? new LinkedHashMap<>() : Json.parse(text);
+                if (!(parsed instanceof Map)) {
+                    throw new IllegalArgumentException("Request body must be a JSON object");
+                }
+                body = (Map<String, Object>) parsed;
+            }
+            return body;
+        }
+
+        /**
+         * @return a string field of the body, or null if it is absent
+         */
+        String string(String field) throws IOException {
+            Object value = body().get(field);
+            return value == null ? null : value.toString();
+        }
+
+        String requiredString(String field) throws IOException {
+            String value = string(field);
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException("Missing field " + field);
+            }
+            return value;
+        }
+
+        private static String read(InputStream in) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+                if (out.size() > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("Request body is larger than " + MAX_BODY_BYTES + " bytes");
+                }
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
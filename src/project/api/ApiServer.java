@@ -0,0 +1,195 @@
+package project.api;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.InetSocketAddress;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.BasicAuthenticator;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpServer;
+
+import project.account.DatabaseModel;
+import project.article.HelpArticleDatabase;
+import project.search.SearchAnalytics;
+import project.service.AccountService;
+import project.service.ArticleService;
+import project.service.MessageInbox;
+import project.service.MessageService;
+import project.util.config.ConnectionPool;
+import project.util.config.DatabaseConfig;
+import project.util.logging.Logger;
+
+/**
+ * <p> ApiServer class </p>
+ *
+ * <p> Description: Serves the help system over HTTP with JSON, so it can run headless
+ * next to (or instead of) the JavaFX client. It uses the JDK's built-in HTTP server,
+ * and every endpoint except /api/health needs HTTP Basic authentication with a help
+ * system username and password. It listens on project.api.host (127.0.0.1) and
+ * project.api.port (8080); Basic credentials are only safe behind a TLS proxy, so
+ * expose it beyond localhost only that way. </p>
+ *
+ * <p> Threads: project.api.executor=virtual runs each request on its own virtual
+ * thread (Java 21, build with -Pjava21), so thousands of requests blocked on JDBC cost
+ * no more than their stacks; project.api.executor=platform uses a fixed pool of
+ * project.api.threads (16). The default, auto, picks virtual threads when the JVM has
+ * them. Either way an AdmissionGate lets at most project.api.dbPermits requests (the
+ * connection pool size) use the database at once; the others wait up to
+ * project.api.admissionTimeoutMillis (5000) and are then answered with 503. </p>
+ *
+ * <p> Endpoints: /api/health, /api/articles, /api/articles/{id}, /api/groups,
+ * /api/groups/{name}/acl, /api/messages, /api/invites and /api/search/insights. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class ApiServer {
+    private static final Logger log = Logger.get(ApiServer.class);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Binds the server; call start() to begin serving.
+     *
+     * @param port     the port to listen on, or 0 for any free port
+     * @param executor runs the requests, e.g. from newExecutor; stopped by stop()
+     * @param gate     bounds the requests using the database at once
+     */
+    public ApiServer(String host, int port, ExecutorService executor, AdmissionGate gate,
+                     DatabaseModel users, HelpArticleDatabase articleDatabase) throws IOException {
+        AccountService accounts = new AccountService(users);
+        ArticleService articles = new ArticleService(articleDatabase);
+        MessageService messages = new MessageService();
+
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        BasicAuthenticator authenticator = new BasicAuthenticator("help-system") {
+            @Override
+            public boolean checkCredentials(String username, String password) {
+                try {
+                    return gate.run(() -> accounts.authenticate(username, password));
+                } catch (RejectedExecutionException e) {
+                    return false; // Busy; the client retries like after a failed login
+                } catch (Exception e) {
+                    log.error("Could not check the credentials of {}", username, e);
+                    return false;
+                }
+            }
+        };
+        server.createContext("/api/health", new HealthHandler(gate));
+        secure(server.createContext("/api/articles", gate.wrap(new ArticlesHandler(articles, accounts))), authenticator);
+        secure(server.createContext("/api/groups", gate.wrap(new GroupsHandler(articles, accounts))), authenticator);
+        secure(server.createContext("/api/messages", gate.wrap(new MessagesHandler(messages, new MessageInbox(), accounts))), authenticator);
+        secure(server.createContext("/api/invites", gate.wrap(new InvitesHandler(accounts))), authenticator);
+        secure(server.createContext("/api/search/insights", gate.wrap(new SearchInsightsHandler(SearchAnalytics.get(), accounts))), authenticator);
+
+        this.executor = executor;
+        server.setExecutor(executor);
+    }
+
+    private static void secure(HttpContext context, BasicAuthenticator authenticator) {
+        context.setAuthenticator(authenticator);
+    }
+
+    /**
+     * Creates the executor requests run on.
+     *
+     * @param kind    virtual, platform, or auto for virtual when this JVM has virtual threads
+     * @param threads the pool size for platform threads
+     */
+    public static ExecutorService newExecutor(String kind, int threads) {
+        String chosen = kind == null ? "auto" : kind.trim().toLowerCase(Locale.ROOT);
+        if (!"platform".equals(chosen)) {
+            ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+            if (virtual != null) {
+                return virtual;
+            }
+            if ("virtual".equals(chosen)) {
+                log.warn("Virtual threads need Java 21, this is Java {}; using {} platform threads",
+                        Runtime.version().feature(), threads);
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "api-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Looked up at run time, so the same sources still build for Java 11
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            return (ExecutorService) factory.invokeExact();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not create the virtual thread executor", e);
+        }
+    }
+
+    /**
+     * @return true if executor runs each task on a new virtual thread
+     */
+    public static boolean isVirtual(ExecutorService executor) {
+        return executor.getClass().getName().contains("ThreadPerTaskExecutor");
+    }
+
+    public void start() {
+        server.start();
+        log.info("API listening on {} ({} threads)", server.getAddress(), isVirtual(executor) ? "virtual" : "platform");
+    }
+
+    /**
+     * Stops accepting requests, gives running ones a few seconds to finish, and
+     * stops the executor.
+     */
+    public void stop() {
+        server.stop(2);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info("API stopped");
+    }
+
+    /**
+     * @return the port the server is bound to
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Runs the API on its own, without the JavaFX client.
+     */
+    public static void main(String[] args) throws Exception {
+        DatabaseModel users = new DatabaseModel();
+        users.connect();
+        HelpArticleDatabase articleDatabase = HelpArticleDatabase.getInstance();
+        ConnectionPool pool = DatabaseConfig.get().getPool();
+
+        ExecutorService executor = newExecutor(System.getProperty("project.api.executor", "auto"),
+                Integer.getInteger("project.api.threads", 16));
+        AdmissionGate gate = new AdmissionGate(Integer.getInteger("project.api.dbPermits", pool.getMaxSize()),
+                Long.getLong("project.api.admissionTimeoutMillis", 5000));
+        ApiServer api = new ApiServer(System.getProperty("project.api.host", "127.0.0.1"),
+                Integer.getInteger("project.api.port", 8080), executor, gate, users, articleDatabase);
+        Runtime.getRuntime().addShutdownHook(new Thread(api::stop, "api-shutdown"));
+        api.start();
+    }
+}
@@ -0,0 +1,187 @@
+package project.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import project.article.HelpArticle;
+import project.search.Search;
+import project.service.AccountService;
+import project.service.ArticleService;
+
+/**
+ * <p> ArticlesHandler class </p>
+ *
+ * <p> Description: /api/articles searches and creates articles, and
+ * /api/articles/{id} reads, updates and deletes one. Search results are summaries
+ * without bodies, with the hit counts by level, groupIdentifier and access under
+ * "facets". Reading a special access article needs the user to be on its
+ * group's viewable list, and changing articles needs the Admin or Instructor role
+ * (plus group admin rights for special access articles), as in the article pages.
+ * Article IDs are written as JSON strings: they are larger than 2^53, so clients
+ * that read numbers as doubles, e.g. JavaScript, would round them. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+class ArticlesHandler extends ApiHandler {
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+
+    private final ArticleService articles;
+    private final AccountService accounts;
+
+    ArticlesHandler(ArticleService articles, AccountService accounts) {
+        super("articles");
+        this.articles = articles;
+        this.accounts = accounts;
+    }
+
+    @Override
+    Object handle(Request request) throws Exception {
+        if (request.path.isEmpty()) {
+            switch (request.method) {
+                case "GET":
+                    return search(request);
+                case "POST":
+                    return create(request);
+                default:
+                    throw ApiException.methodNotAllowed(request.method);
+            }
+        }
+        if (request.path.size() > 1) {
+            throw ApiException.notFound("Resource");
+        }
+        long id = Long.parseLong(request.path.get(0));
+        switch (request.method) {
+            case "GET":
+                return read(request, id);
+            case "PUT":
+                return update(request, id);
+            case "DELETE":
+                return delete(request, id);
+            default:
+                throw ApiException.methodNotAllowed(request.method);
+        }
+    }
+
+    private Object search(Request request) throws Exception {
+        int limit = request.intParam("limit", DEFAULT_LIMIT, MAX_LIMIT);
+        Search.Results found = articles.search(request.param("q"), request.param("level"), request.param("group"),
+                request.username);
+        List<HelpArticle> hits = found.getArticles();
+        List<Object> results = new ArrayList<>();
+        for (HelpArticle article : hits.subList(0, Math.min(limit, hits.size()))) {
+            results.add(summary(article));
+        }
+        return object("total", hits.size(), "articles", results, "facets", found.getFacets());
+    }
+
+    private Object create(Request request) throws Exception {
+        requireAuthor(request.username);
+        String groupType = request.string("groupType");
+        HelpArticle article = ArticleService.draft(request.string("level"), request.username,
+                request.requiredString("title"), request.string("shortDescription"),
+                csv(request.body().get("keywords")), request.requiredString("body"),
+                csv(request.body().get("referenceLinks")));
+        articles.create(article, request.requiredString("group"), groupType == null ? ArticleService.GENERAL : groupType,
+                request.username, accounts.hasRole(request.username, "Instructor"));
+        return Response.created(object("id", id(article.getId())));
+    }
+
+    private Object read(Request request, long id) throws Exception {
+        HelpArticle article = find(id);
+        if (!articles.canRead(id, request.username)) {
+            throw ApiException.forbidden();
+        }
+        Map<String, Object> json = summary(article);
+        json.put("body", articles.readableBody(article));
+        json.put("referenceLinks", Arrays.asList(article.getReferenceLinks()));
+        json.put("specialAccessGroup", articles.specialAccessGroup(id));
+        return json;
+    }
+
+    // Fields left out of the body keep their current values
+    private Object update(Request request, long id) throws Exception {
+        requireAuthor(request.username);
+        HelpArticle article = find(id);
+        if (!articles.canEdit(id, request.username)) {
+            throw ApiException.forbidden();
+        }
+        Map<String, Object> body = request.body();
+        if (body.containsKey("title")) {
+            article.setTitle(request.string("title"));
+        }
+        if (body.containsKey("level")) {
+            String level = request.string("level");
+            article.setLevel(level == null ? null : ArticleService.level(level));
+        }
+        if (body.containsKey("shortDescription")) {
+            article.setShortDescription(request.string("shortDescription"));
+        }
+        if (body.containsKey("keywords")) {
+            article.setKeywords(csv(body.get("keywords")).split(","));
+        }
+        if (body.containsKey("referenceLinks")) {
+            article.setReferenceLinks(csv(body.get("referenceLinks")).split(","));
+        }
+        boolean bodyChanged = body.containsKey("body");
+        if (bodyChanged) {
+            article.setBody(request.string("body"));
+        }
+        articles.update(article, bodyChanged);
+        return object("id", id(id));
+    }
+
+    private Object delete(Request request, long id) throws Exception {
+        requireAuthor(request.username);
+        find(id);
+        if (!articles.canEdit(id, request.username)) {
+            throw ApiException.forbidden();
+        }
+        articles.delete(id);
+        return Response.noContent();
+    }
+
+    private HelpArticle find(long id) throws Exception {
+        HelpArticle article = articles.get(id);
+        if (article == null) {
+            throw ApiException.notFound("Article " + id);
+        }
+        return article;
+    }
+
+    private void requireAuthor(String username) throws ApiException {
+        if (!accounts.hasRole(username, "Admin") && !accounts.hasRole(username, "Instructor")) {
+            throw ApiException.forbidden();
+        }
+    }
+
+    private static Map<String, Object> summary(HelpArticle article) {
+        return object("id", id(article.getId()), "title", article.getTitle(), "author", article.getAuthor(),
+                "level", article.getLevel(), "shortDescription", article.getShortDescription(),
+                "groups", article.getGroupIdentifier() == null ? List.of() : Arrays.asList(article.getGroupIdentifierArray()),
+                "keywords", Arrays.asList(article.getKeywords()),
+                "createdDate", article.getCreatedDate(), "updatedDate", article.getUpdatedDate());
+    }
+
+    // As a string, so it survives clients that parse JSON numbers as doubles
+    private static String id(long id) {
+        return Long.toString(id);
+    }
+
+    // Lists may be sent as a JSON array or as one comma-separated string
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof List) {
+            List<String> items = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                items.add(String.valueOf(item));
+            }
+            return String.join(",", items);
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package project.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import project.article.GroupAccess;
+import project.article.HelpArticleDatabase;
+import project.service.AccountService;
+import project.service.ArticleService;
+
+/**
+ * <p> GroupsHandler class </p>
+ *
+ * <p> Description: /api/groups lists the article groups, and
+ * /api/groups/{name}/acl reads and edits the admin and viewer lists of a special
+ * access group. A special access group is only listed for its viewers and for users
+ * with the Admin role, and only its admins (or an Admin) may see or change its lists. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+class GroupsHandler extends ApiHandler {
+    private final ArticleService articles;
+    private final AccountService accounts;
+
+    GroupsHandler(ArticleService articles, AccountService accounts) {
+        super("groups");
+        this.articles = articles;
+        this.accounts = accounts;
+    }
+
+    @Override
+    Object handle(Request request) throws Exception {
+        if (request.path.isEmpty()) {
+            if (!"GET".equals(request.method)) {
+                throw ApiException.methodNotAllowed(request.method);
+            }
+            return list(request.username);
+        }
+        if (request.path.size() < 2 || !"acl".equals(request.path.get(1))) {
+            throw ApiException.notFound("Resource");
+        }
+        String group = request.path.get(0);
+        if (!accounts.hasRole(request.username, "Admin") && !HelpArticleDatabase.isUserAdminInGroup(group, request.username)) {
+            throw ApiException.forbidden();
+        }
+        GroupAccess access;
+        switch (request.method) {
+            case "GET":
+                access = articles.access(group);
+                break;
+            case "POST":
+                access = articles.grant(group, request.requiredString("username"), isTrue(request.body().get("admin")));
+                break;
+            case "DELETE":
+                if (request.path.size() != 3) {
+                    throw new IllegalArgumentException("Give the user to remove: /api/groups/{name}/acl/{username}");
+                }
+                access = articles.revoke(group, request.path.get(2), isTrue(request.param("admin")));
+                break;
+            default:
+                throw ApiException.methodNotAllowed(request.method);
+        }
+        if (access == null) {
+            throw ApiException.notFound("Special access group " + group);
+        }
+        return object("group", group, "admins", access.getAdmins(), "viewers", access.getViewers());
+    }
+
+    private Object list(String username) throws Exception {
+        boolean admin = accounts.hasRole(username, "Admin");
+        List<Object> groups = new ArrayList<>();
+        for (Map.Entry<String, String> group : articles.groups().entrySet()) {
+            boolean special = ArticleService.SPECIAL_ACCESS.equals(group.getValue());
+            if (!special || admin || HelpArticleDatabase.isUserViewableInGroup(group.getKey(), username)) {
+                groups.add(object("name", group.getKey(), "type", group.getValue()));
+            }
+        }
+        return object("groups", groups);
+    }
+
+    private static boolean isTrue(Object value) {
+        return value != null && Boolean.parseBoolean(value.toString());
+    }
+}
@@ -0,0 +1,41 @@
+package project.api;
+
+import project.article.ArticleCache;
+import project.article.HelpArticleDatabase;
+import project.util.config.ConnectionPool;
+import project.util.config.DatabaseConfig;
+
+/**
+ * <p> HealthHandler class </p>
+ *
+ * <p> Description: GET /api/health reports the database connection pool, the
+ * article cache and the admission gate, and answers 503 while the database is unreachable, for load
+ * balancers and monitoring. It needs no login. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+class HealthHandler extends ApiHandler {
+    private final AdmissionGate gate;
+
+    HealthHandler(AdmissionGate gate) {
+        super("health");
+        this.gate = gate;
+    }
+
+    @Override
+    Object handle(Request request) throws Exception {
+        if (!"GET".equals(request.method)) {
+            throw ApiException.methodNotAllowed(request.method);
+        }
+        ConnectionPool.Health health = DatabaseConfig.get().getPool().checkHealth();
+        ArticleCache.Stats cache = HelpArticleDatabase.getCache().stats();
+        Object body = object("status", health.isUp() ? "UP" : "DOWN",
+                "database", object("latencyMicros", health.getLatencyMicros(), "active", health.getActive(),
+                        "idle", health.getIdle(), "error", health.getError()),
+                "articleCache", object("size", cache.getSize(), "hitRate", cache.getHitRate(),
+                        "evictions", cache.getEvictions(), "offHeapBytes", cache.getOffHeapBytes()),
+                "admission", object("permits", gate.getSize(), "available", gate.getAvailable(),
+                        "waiting", gate.getWaiting()));
+        return health.isUp() ? body : new Response(503, body);
+    }
+}
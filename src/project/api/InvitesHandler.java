@@ -0,0 +1,43 @@
+package project.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import project.service.AccountService;
+
+/**
+ * <p> InvitesHandler class </p>
+ *
+ * <p> Description: POST /api/invites with {"roles": ["Student", ...]} registers an
+ * invitation code for those roles, like the admin invite page. Admins only. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+class InvitesHandler extends ApiHandler {
+    private final AccountService accounts;
+
+    InvitesHandler(AccountService accounts) {
+        super("invites");
+        this.accounts = accounts;
+    }
+
+    @Override
+    Object handle(Request request) throws Exception {
+        if (!"POST".equals(request.method)) {
+            throw ApiException.methodNotAllowed(request.method);
+        }
+        if (!accounts.hasRole(request.username, "Admin")) {
+            throw ApiException.forbidden();
+        }
+        Object value = request.body().get("roles");
+        List<String> roles = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object role : (List<?>) value) {
+                roles.add(String.valueOf(role));
+            }
+        } else if (value != null) {
+            roles.add(value.toString());
+        }
+        return Response.created(object("code", accounts.invite(roles.toArray(new String[0]))));
+    }
+}
@@ -0,0 +1,94 @@
+package project.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import project.service.AccountService;
+import project.service.MessageInbox;
+import project.service.MessageService;
+
+/**
+ * <p> MessagesHandler class </p>
+ *
+ * <p> Description: /api/messages sends a help message as the signed-in user, and is
+ * the inbox of users with the Admin or Instructor role: GET pages through the messages
+ * of one type newest first (?type=&filter=all|unread|assigned_to_me|unassigned&limit=,
+ * then &after= with the "next" cursor of the previous page),
+ * GET /api/messages/counts?type= gives the inbox counters, and
+ * PUT /api/messages/{id}/read {"read": true} and
+ * PUT /api/messages/{id}/assignee {"username": "..."} (null to unassign) change the
+ * signed-in staff member's read state and the message's assignment. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+class MessagesHandler extends ApiHandler {
+    private static final int DEFAULT_LIMIT = 50;
+
+    private final MessageService messages;
+    private final MessageInbox inbox;
+    private final AccountService accounts;
+
+    MessagesHandler(MessageService messages, MessageInbox inbox, AccountService accounts) {
+        super("messages");
+        this.messages = messages;
+        this.inbox = inbox;
+        this.accounts = accounts;
+    }
+
+    @Override
+    Object handle(Request request) throws Exception {
+        if (request.path.isEmpty() && "POST".equals(request.method)) {
+            messages.send(request.username, request.requiredString("type"), request.requiredString("message"));
+            return Response.created(object("sent", true));
+        }
+        if (!accounts.hasRole(request.username, "Admin") && !accounts.hasRole(request.username, "Instructor")) {
+            throw ApiException.forbidden();
+        }
+        String type = request.param("type") == null ? MessageService.GENERIC : request.param("type");
+        if (request.path.isEmpty()) {
+            if (!"GET".equals(request.method)) {
+                throw ApiException.methodNotAllowed(request.method);
+            }
+            return page(request, type);
+        }
+        if (request.path.size() == 1 && "counts".equals(request.path.get(0)) && "GET".equals(request.method)) {
+            MessageInbox.Counts counts = inbox.counts(type, request.username);
+            return object("type", type, "total", counts.getTotal(), "unread", counts.getUnread(),
+                    "assignedToMe", counts.getAssignedToMe(), "unassigned", counts.getUnassigned());
+        }
+        if (request.path.size() != 2 || !"PUT".equals(request.method)) {
+            throw ApiException.notFound("Resource");
+        }
+        long id = Long.parseLong(request.path.get(0));
+        switch (request.path.get(1)) {
+            case "read":
+                Object read = request.body().get("read");
+                boolean changed = inbox.setRead(id, request.username, read == null || Boolean.parseBoolean(read.toString()));
+                return object("id", id, "changed", changed);
+            case "assignee":
+                String assignee = request.string("username");
+                if (assignee != null && !accounts.hasRole(assignee, "Admin") && !accounts.hasRole(assignee, "Instructor")) {
+                    throw new IllegalArgumentException(assignee + " is not a staff member");
+                }
+                return object("id", id, "assignedTo", assignee, "changed", inbox.assign(id, assignee));
+            default:
+                throw ApiException.notFound("Resource");
+        }
+    }
+
+    private Object page(Request request, String type) throws Exception {
+        String filter = request.param("filter");
+        MessageInbox.Page page = inbox.page(type, request.username,
+                filter == null ? MessageInbox.Filter.ALL : MessageInbox.Filter.valueOf(filter.toUpperCase(Locale.ROOT)),
+                request.param("after"), request.intParam("limit", DEFAULT_LIMIT, MessageInbox.MAX_PAGE_SIZE));
+        List<Object> results = new ArrayList<>();
+        for (MessageService.Message message : page.getMessages()) {
+            results.add(object("id", message.getId(), "username", message.getUsername(),
+                    "type", message.getType(), "message", message.getMessage(),
+                    "createdAt", message.getCreatedAt(), "assignedTo", message.getAssignedTo(),
+                    "read", message.isRead()));
+        }
+        return object("messages", results, "next", page.getNext());
+    }
+}
@@ -0,0 +1,67 @@
+package project.api;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import project.search.SearchAnalytics;
+import project.search.SpaceSaving;
+import project.service.AccountService;
+
+/**
+ * <p> SearchInsightsHandler class </p>
+ *
+ * <p> Description: GET /api/search/insights?days=7&amp;limit=20 reports the most frequent
+ * searches, the most frequent searches that found nothing, and the terms trending this
+ * week against the four weeks before, from the aggregated search log. Counts come from
+ * the hourly sketches, so they are estimates up to the reported error, and searches
+ * of the last minute may not be in them yet. Admins and instructors only. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+class SearchInsightsHandler extends ApiHandler {
+    private static final int MAX_DAYS = 365;
+    private static final int MAX_LIMIT = 100;
+    private static final int TRENDING_MINIMUM = 5;
+
+    private final SearchAnalytics analytics;
+    private final AccountService accounts;
+
+    SearchInsightsHandler(SearchAnalytics analytics, AccountService accounts) {
+        super("searchInsights");
+        this.analytics = analytics;
+        this.accounts = accounts;
+    }
+
+    @Override
+    Object handle(Request request) throws Exception {
+        if (!"GET".equals(request.method)) {
+            throw ApiException.methodNotAllowed(request.method);
+        }
+        if (!accounts.hasRole(request.username, "Admin") && !accounts.hasRole(request.username, "Instructor")) {
+            throw ApiException.forbidden();
+        }
+        Duration window = Duration.ofDays(Math.max(1, request.intParam("days", 7, MAX_DAYS)));
+        int limit = request.intParam("limit", 20, MAX_LIMIT);
+        SearchAnalytics.Totals totals = analytics.totals(window);
+
+        List<Object> trending = new ArrayList<>();
+        for (SearchAnalytics.Trend trend : analytics.trendingTerms(Duration.ofDays(7), Duration.ofDays(28), TRENDING_MINIMUM, limit)) {
+            trending.add(object("term", trend.getTerm(), "recent", trend.getRecent(),
+                    "baseline", trend.getBaseline(), "score", trend.getScore()));
+        }
+        return object("days", window.toDays(), "searches", totals.getSearches(),
+                "zeroResults", totals.getZeroResults(), "zeroResultRate", totals.getZeroResultRate(),
+                "topQueries", entries(analytics.topQueries(window, limit)),
+                "topZeroResultQueries", entries(analytics.topZeroResultQueries(window, limit)),
+                "trendingTerms", trending);
+    }
+
+    private static List<Object> entries(List<SpaceSaving.Entry> entries) {
+        List<Object> items = new ArrayList<>();
+        for (SpaceSaving.Entry entry : entries) {
+            items.add(object("query", entry.getItem(), "count", entry.getCount(), "error", entry.getError()));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,488 @@
+package project.article;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p> ArticleCache class </p>
+ *
+ * <p> Description: An in-memory cache of fully loaded help articles keyed by article ID,
+ * with secondary title and group lookups, sitting in front of HelpArticleDatabase.
+ * Its size is bounded by the estimated bytes of the cached articles rather than by
+ * their count. It keeps its own copies of the articles it is given and hands out
+ * copies again, so a caller editing an article cannot change what other readers see
+ * before the edit is saved. </p>
+ *
+ * <p> Eviction follows W-TinyLFU: new articles enter a small LRU window, and when
+ * they age out of it they only displace an article in the main area if the
+ * FrequencySketch says they are used more often. The main area is split into a
+ * probation and a protected segment so a single scan over all articles cannot
+ * flush the ones that are read repeatedly. </p>
+ *
+ * <p> Given a BodyStore, the cache moves the bodies of the articles it admits off the
+ * heap and removes them from the store again when it evicts or drops the articles,
+ * so its weight only counts their small fields and many more articles fit. </p>
+ *
+ * <p> A read-through takes a stamp() before reading the database and hands it to
+ * put, putTitle or putGroup. Every invalidation moves the stamp on, so a copy read
+ * before a concurrent write and its invalidate is dropped instead of being cached
+ * after it. </p>
+ *
+ * <p> When other instances share the database, validate() is called with the shared
+ * articles version before each lookup and drops everything unless the cache reflects
+ * that version; written() moves the cache along with the writes of this instance. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class ArticleCache {
+    private static final double WINDOW_SHARE = 0.01;    // Share of the weight given to the admission window
+    private static final double PROTECTED_SHARE = 0.80; // Share of the main area kept for re-read articles
+
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+
+    // Each segment is kept in LRU order, eldest first
+    private final LinkedHashMap<Long, HelpArticle> window = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, HelpArticle> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, HelpArticle> protectedSegment = new LinkedHashMap<>();
+    private final Map<Long, Long> weights = new HashMap<>();
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    private final Map<String, Long> titleIndex = new HashMap<>();
+    private final Map<Long, String> titles = new HashMap<>(); // The reverse of titleIndex, to prune it with its article
+    private final Map<String, long[]> groupIndex = new HashMap<>();
+    private final FrequencySketch sketch;
+    private final BodyStore bodies;
+    private final HelpArticle.ContentLoader loader;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long generation; // Moved on by every invalidation, see stamp()
+    private long version = -1; // The articles version the cached copies reflect, -1 if unknown
+
+    /**
+     * @param maximumWeight the most bytes, as estimated by weigh(), the cache may hold
+     */
+    public ArticleCache(long maximumWeight) {
+        this(maximumWeight, null, null);
+    }
+
+    /**
+     * @param maximumWeight the most bytes, as estimated by weigh(), the cache may hold
+     * @param bodies        where the bodies of cached articles are kept, or null for the heap
+     * @param loader        fetches a body again if an article outlives its cache entry
+     */
+    public ArticleCache(long maximumWeight, BodyStore bodies, HelpArticle.ContentLoader loader) {
+        this.bodies = bodies;
+        this.loader = loader;
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_SHARE));
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * PROTECTED_SHARE);
+        // Assume articles of a few kilobytes when sizing the frequency sketch
+        this.sketch = new FrequencySketch((int) Math.min(1 << 20, Math.max(64, maximumWeight / 4096)));
+    }
+
+    /**
+     * Estimates the heap bytes held by an article: object headers plus two bytes per
+     * character. A body kept in a BodyStore and the shared dictionary values are not
+     * counted.
+     */
+    public static long weigh(HelpArticle article) {
+        // HelpArticle object, its fields and the two Instants; level, group, author and
+        // access are FieldDictionary codes whose Strings every article shares
+        long weight = 96;
+        weight += weigh(article.getTitle()) + weigh(article.getShortDescription())
+                + weigh(article.getSensitiveTitle()) + weigh(article.getSensitiveDescription());
+        weight += weigh(article.getKeywords());
+        if (article.isContentLoaded()) {
+            weight += (article.isBodyStored() ? 0 : weigh(article.getBody())) + weigh(article.getReferenceLinks());
+        }
+        return weight;
+    }
+
+    private static long weigh(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+
+    private static long weigh(Object[] values) {
+        if (values == null) {
+            return 0;
+        }
+        long weight = 16 + 8L * values.length;
+        for (Object value : values) {
+            weight += value == null ? 0 : weigh(value.toString());
+        }
+        return weight;
+    }
+
+    /**
+     * @return a copy of the cached article, or null on a miss
+     */
+    public synchronized HelpArticle get(long id) {
+        sketch.increment(id);
+        HelpArticle article = touch(id);
+        if (article == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return article.copy();
+    }
+
+    /**
+     * @return a copy of the cached article last fetched under this exact title, or null on a miss
+     */
+    public synchronized HelpArticle getByTitle(String title) {
+        Long id = titleIndex.get(title);
+        if (id == null) {
+            misses++;
+            return null;
+        }
+        return get(id);
+    }
+
+    /**
+     * @return copies of the articles of the group if every one of them is still cached, otherwise null
+     */
+    public synchronized List<HelpArticle> getGroup(String groupName, String groupType) {
+        long[] ids = groupIndex.get(groupKey(groupName, groupType));
+        if (ids == null) {
+            misses++;
+            return null;
+        }
+        List<HelpArticle> articles = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            sketch.increment(id);
+            HelpArticle article = touch(id);
+            if (article == null) {
+                groupIndex.remove(groupKey(groupName, groupType)); // Partially evicted, reload the whole group
+                misses++;
+                return null;
+            }
+            articles.add(article.copy());
+        }
+        hits++;
+        return articles;
+    }
+
+    /**
+     * @return the stamp to take before reading an article from the database and to
+     *         pass to put, putTitle or putGroup afterwards
+     */
+    public synchronized long stamp() {
+        return generation;
+    }
+
+    /**
+     * Adds or replaces an article with a copy of it. Summaries whose body is not loaded
+     * are not cached.
+     */
+    public synchronized void put(HelpArticle article) {
+        put(article, generation);
+    }
+
+    /**
+     * Adds or replaces an article read after taking the stamp, unless the cache was
+     * invalidated since.
+     */
+    public synchronized void put(HelpArticle article, long stamp) {
+        if (article == null || !article.isContentLoaded() || stamp != generation) {
+            return;
+        }
+        article = article.copy();
+        long id = article.getId();
+        remove(id);
+        if (bodies != null) {
+            article.storeBody(bodies, loader); // Replaces any body stored for the ID before
+        }
+        long weight = weigh(article);
+        if (weight > maximumWeight - windowMaximum) {
+            drop(id);
+            return; // Would evict everything else
+        }
+        window.put(id, article);
+        weights.put(id, weight);
+        windowWeight += weight;
+        evict();
+    }
+
+    /**
+     * Caches an article and remembers it as the result for its title.
+     */
+    public synchronized void putTitle(String title, HelpArticle article) {
+        putTitle(title, article, generation);
+    }
+
+    public synchronized void putTitle(String title, HelpArticle article, long stamp) {
+        put(article, stamp);
+        if (article != null && weights.containsKey(article.getId())) {
+            forgetTitle(article.getId());
+            Long other = titleIndex.put(title, article.getId());
+            if (other != null) {
+                titles.remove(other); // The title now finds this article instead
+            }
+            titles.put(article.getId(), title);
+        }
+    }
+
+    /**
+     * Caches the articles of a group and remembers which IDs make up the group.
+     */
+    public synchronized void putGroup(String groupName, String groupType, List<HelpArticle> articles) {
+        putGroup(groupName, groupType, articles, generation);
+    }
+
+    public synchronized void putGroup(String groupName, String groupType, List<HelpArticle> articles, long stamp) {
+        if (stamp != generation) {
+            return;
+        }
+        long[] ids = new long[articles.size()];
+        for (int i = 0; i < ids.length; i++) {
+            put(articles.get(i));
+            ids[i] = articles.get(i).getId();
+        }
+        groupIndex.put(groupKey(groupName, groupType), ids);
+    }
+
+    /**
+     * Drops an article after it was changed or deleted. Group listings are dropped too,
+     * because a change can move an article between groups.
+     */
+    public synchronized void invalidate(long id) {
+        generation++;
+        drop(id);
+        groupIndex.clear();
+    }
+
+    /**
+     * Drops every article unless the cache reflects the given articles version, read
+     * from the database before the lookup.
+     */
+    public synchronized void validate(long current) {
+        if (current != version) {
+            invalidateAll();
+            version = current;
+        }
+    }
+
+    /**
+     * Records the articles version a write of this instance produced, after the write
+     * invalidated what it changed. Any version but the next means another instance
+     * wrote in between, and the next validate() drops everything.
+     */
+    public synchronized void written(long produced) {
+        version = produced == version + 1 && version >= 0 ? produced : -1;
+    }
+
+    /**
+     * Drops every article, e.g. after a restore replaced the table.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        if (bodies != null) {
+            bodies.clear();
+        }
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        weights.clear();
+        titleIndex.clear();
+        titles.clear();
+        groupIndex.clear();
+        windowWeight = 0;
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, weights.size(), windowWeight + probationWeight + protectedWeight,
+                bodies == null ? 0 : bodies.allocatedBytes());
+    }
+
+    // Find an article and record the access in its segment's LRU order
+    private HelpArticle touch(long id) {
+        HelpArticle article = window.remove(id);
+        if (article != null) {
+            window.put(id, article);
+            return article;
+        }
+        article = protectedSegment.remove(id);
+        if (article != null) {
+            protectedSegment.put(id, article);
+            return article;
+        }
+        article = probation.remove(id);
+        if (article != null) {
+            // Read again while on probation: promote, demoting the eldest protected articles if needed
+            long weight = weights.get(id);
+            probationWeight -= weight;
+            protectedSegment.put(id, article);
+            protectedWeight += weight;
+            while (protectedWeight > protectedMaximum && protectedSegment.size() > 1) {
+                Map.Entry<Long, HelpArticle> eldest = protectedSegment.entrySet().iterator().next();
+                long eldestWeight = weights.get(eldest.getKey());
+                protectedSegment.remove(eldest.getKey());
+                protectedWeight -= eldestWeight;
+                probation.put(eldest.getKey(), eldest.getValue());
+                probationWeight += eldestWeight;
+            }
+        }
+        return article;
+    }
+
+    // Move articles out of the window, admitting each only if it is used more than the main area's victim
+    private void evict() {
+        while (windowWeight > windowMaximum) {
+            Iterator<Map.Entry<Long, HelpArticle>> it = window.entrySet().iterator();
+            Map.Entry<Long, HelpArticle> candidate = it.next();
+            it.remove();
+            long candidateId = candidate.getKey();
+            long candidateWeight = weights.get(candidateId);
+            windowWeight -= candidateWeight;
+
+            int candidateFrequency = sketch.frequency(candidateId);
+            boolean admitted = true;
+            while (windowWeight + probationWeight + protectedWeight + candidateWeight > maximumWeight) {
+                Map.Entry<Long, HelpArticle> victim = eldest(probation);
+                boolean fromProbation = victim != null;
+                if (victim == null) {
+                    victim = eldest(protectedSegment);
+                }
+                if (victim == null || sketch.frequency(victim.getKey()) >= candidateFrequency) {
+                    admitted = false;
+                    break;
+                }
+                long victimWeight = weights.remove(victim.getKey());
+                removeBody(victim.getKey());
+                forgetTitle(victim.getKey());
+                if (fromProbation) {
+                    probation.remove(victim.getKey());
+                    probationWeight -= victimWeight;
+                } else {
+                    protectedSegment.remove(victim.getKey());
+                    protectedWeight -= victimWeight;
+                }
+                evictions++;
+            }
+
+            if (admitted) {
+                probation.put(candidateId, candidate.getValue());
+                probationWeight += candidateWeight;
+            } else {
+                weights.remove(candidateId);
+                removeBody(candidateId);
+                forgetTitle(candidateId);
+                evictions++;
+            }
+        }
+    }
+
+    private static Map.Entry<Long, HelpArticle> eldest(LinkedHashMap<Long, HelpArticle> segment) {
+        return segment.isEmpty() ? null : segment.entrySet().iterator().next();
+    }
+
+    // Remove an article, its stored body and its title
+    private void drop(long id) {
+        remove(id);
+        removeBody(id);
+        forgetTitle(id);
+    }
+
+    private void forgetTitle(long id) {
+        String title = titles.remove(id);
+        if (title != null) {
+            titleIndex.remove(title);
+        }
+    }
+
+    private void removeBody(long id) {
+        if (bodies != null) {
+            bodies.remove(id);
+        }
+    }
+
+    private void remove(long id) {
+        Long weight = weights.remove(id);
+        if (weight == null) {
+            return;
+        }
+        if (window.remove(id) != null) {
+            windowWeight -= weight;
+        } else if (probation.remove(id) != null) {
+            probationWeight -= weight;
+        } else if (protectedSegment.remove(id) != null) {
+            protectedWeight -= weight;
+        }
+    }
+
+    private static String groupKey(String groupName, String groupType) {
+        return groupType + ":" + groupName;
+    }
+
+    /**
+     * A point-in-time view of the cache counters.
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final long weight;
+        private final long offHeapBytes;
+
+        Stats(long hits, long misses, long evictions, int size, long weight, long offHeapBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.weight = weight;
+            this.offHeapBytes = offHeapBytes;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        /**
+         * @return the direct memory held by the BodyStore pages
+         */
+        public long getOffHeapBytes() {
+            return offHeapBytes;
+        }
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d hitRate=%.2f evictions=%d size=%d weight=%d offHeapBytes=%d",
+                    hits, misses, getHitRate(), evictions, size, weight, offHeapBytes);
+        }
+    }
+}
@@ -5,17 +5,23 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Collectors;
 
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.BorderPane;
@@ -26,8 +32,13 @@ import project.account.DatabaseHelper;
 import project.account.DatabaseModel;
 import project.account.LoginService;
 import project.account.User;
+import project.search.Autocomplete;
+import project.search.Search;
 import project.student.HelpFAQ;
 import project.util.Back;
+import project.util.BackgroundTasks;
+import project.util.Disposable;
+import project.util.logging.Logger;
 
 /**
  * <p> ArticleHome Class </p>
@@ -40,7 +51,13 @@ import project.util.Back;
  * 
  * @version 1.00        2024-11-16 Class Created
  */
-public class ArticleHome extends BorderPane {
+public class ArticleHome extends BorderPane implements Disposable {
+    private static final Logger log = Logger.get(ArticleHome.class);
+    private static final int SUGGESTIONS = 8;
+
+    private final ContextMenu suggestions = new ContextMenu();
+    private Task<Search.Results> search; // The search still running, if any
+
     /**
      * This method displays all options for searching or displaying articles
      */
@@ -77,8 +94,17 @@ public class ArticleHome extends BorderPane {
         Button searchButton = new Button("Search");
         searchButton.setDisable(true);
 
+        // Suggest completions from memory while typing; the trie is loaded once in the background
+        BackgroundTasks.run(() -> {
+            Search.loadIndexes(helpArticleDatabase);
+            return null;
+        }, loaded -> { }, error -> log.warn("Could not load the search indexes", error));
+
         // Enable search button if search criteria is provided
-        searchTerm.textProperty().addListener((observable, oldValue, newValue) -> toggleSearchButton(searchButton, searchTerm, groupNameInput, contentLevelSelect));
+        searchTerm.textProperty().addListener((observable, oldValue, newValue) -> {
+            toggleSearchButton(searchButton, searchTerm, groupNameInput, contentLevelSelect);
+            showSuggestions(suggestions, searchTerm, newValue);
+        });
 
         groupNameInput.textProperty().addListener((observable, oldValue, newValue) -> toggleSearchButton(searchButton, searchTerm, groupNameInput, contentLevelSelect));
 
@@ -103,64 +129,68 @@ public class ArticleHome extends BorderPane {
             if (title.isEmpty() && groupName.isEmpty() && "All".equals(level)) {
                 showError("Please provide at least one search criterion.");
             } else {
-                try {
-                 // Fetch all articles
-                    List<HelpArticle> articles = helpArticleDatabase.getAllArticles();
+                // Fetch all articles on the data-access thread so the window stays responsive
+                searchButton.setDisable(true);
+                search = BackgroundTasks.run(() -> {
+                    // Filter on summaries, then fetch bodies only for the matches while still off the FX thread
+                    Search.Results results = Search.search(helpArticleDatabase, title, level, groupName, user.username);
+                    helpArticleDatabase.loadContents(results.getArticles());
+                    return results;
+                }, results -> {
+                    searchButton.setDisable(false);
                     vbox.getChildren().clear(); // Clear existing articles
                     vbox.getChildren().add(back);
-
-                    // Filter articles based on the group IDs
-                    for (HelpArticle article : articles) {
-                    	
-                    	if (article.getTitle().equalsIgnoreCase(title) && article.getLevel().equalsIgnoreCase(level) && article.getGroupIdentifier().equalsIgnoreCase(groupName)) {
-                    		// Convert Object[] to String for keywords
-                            Object[] keywordsArray = article.getKeywords();
-                            String keywordsString = Arrays.stream(keywordsArray)
-                                                          .map(Object::toString)
-                                                          .collect(Collectors.joining(", "));
-
-                            // Convert Object[] to String for reference links
-                            Object[] referenceLinksArray = article.getReferenceLinks();
-                            String referencesString = Arrays.stream(referenceLinksArray)
-                                                            .map(Object::toString)
-                                                            .collect(Collectors.joining(", "));
-
-                            // Create a formatted string for each article
-                            String articleDetails = String.format(
-                                "Title: %s\nLevel: %s\nGroup Identifier: %s\nShort Description: %s\nKeywords: %s\nBody: %s\nReference Links: %s\n\n",
-                                article.getTitle(),
-                                article.getLevel(),
-                                article.getGroupIdentifier(),
-                                article.getShortDescription(),
-                                keywordsString,
-                                article.getBody(),
-                                referencesString
-                            );
-
-                            // Create a Label for each article
-                            Label articleLabel = new Label(articleDetails);
-                            articleLabel.setWrapText(true);
-                            vbox.getChildren().add(articleLabel);
-                    	}
-                        
+                    vbox.getChildren().add(new Label(facetSummary(results.getFacets())));
+
+                    for (HelpArticle article : results.getArticles()) {
+                        // Convert Object[] to String for keywords
+                        Object[] keywordsArray = article.getKeywords();
+                        String keywordsString = Arrays.stream(keywordsArray)
+                                                      .map(Object::toString)
+                                                      .collect(Collectors.joining(", "));
+
+                        // Convert Object[] to String for reference links
+                        Object[] referenceLinksArray = article.getReferenceLinks();
+                        String referencesString = Arrays.stream(referenceLinksArray)
+                                                        .map(Object::toString)
+                                                        .collect(Collectors.joining(", "));
+
+                        // Create a formatted string for each article
+                        String articleDetails = String.format(
+                            "Title: %s\nLevel: %s\nGroup Identifier: %s\nShort Description: %s\nKeywords: %s\nBody: %s\nReference Links: %s\n\n",
+                            article.getTitle(),
+                            article.getLevel(),
+                            article.getGroupIdentifier(),
+                            article.getShortDescription(),
+                            keywordsString,
+                            article.getBody(),
+                            referencesString
+                        );
+
+                        // Create a Label for each article
+                        Label articleLabel = new Label(articleDetails);
+                        articleLabel.setWrapText(true);
+                        vbox.getChildren().add(articleLabel);
                     }
 
                     // If no articles found for the group IDs
-                    if (vbox.getChildren().isEmpty()) {
+                    if (results.getArticles().isEmpty()) {
                         Label noArticlesLabel = new Label("No articles found");
                         vbox.getChildren().add(noArticlesLabel);
                     }
 
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                    showError("Error performing search: " + e.getMessage());
-                }
-                
-                ScrollPane scrollPane = new ScrollPane(vbox);
-                scrollPane.setFitToWidth(true);
-                scrollPane.setPannable(true);
+                    ScrollPane scrollPane = new ScrollPane(vbox);
+                    scrollPane.setFitToWidth(true);
+                    scrollPane.setPannable(true);
 
-                setCenter(scrollPane);
+                    setCenter(scrollPane);
+                }, error -> {
+                    searchButton.setDisable(false);
+                    if (error instanceof CancellationException) {
+                        return; // The page was disposed
+                    }
+                    showError("Error performing search: " + error.getMessage());
+                });
             }
         });
 
@@ -194,13 +224,13 @@ public class ArticleHome extends BorderPane {
 		// HELP BUTTON --------------------------------------------------------
 		Button helpButton = new Button("Help");
 		helpButton.setOnAction(event -> {
-			new HelpFAQ(stage, user, database);
+			Back.show(stage, "HelpFAQ", () -> new HelpFAQ(stage, user, database));
 		});
 
 		// LIST ARTICLES BUTTON -----------------------------------------------
 		Button listArticlesButton = new Button("Articles");
 		listArticlesButton.setOnAction(event -> {
-			new ArticleHome(stage, user, database, helpArticleDatabase);
+			Back.show(stage, "ArticleHome", () -> new ArticleHome(stage, user, database, helpArticleDatabase));
 		});
             
 		// STAGE SETUP --------------------------------------------------------
@@ -247,6 +277,54 @@ public class ArticleHome extends BorderPane {
         searchButton.setDisable(!enableButton);
     }
 
+    // One line per facet, e.g. "Level: Beginner (3), Expert (1)"; a facet's counts ignore its own filter
+    private static String facetSummary(Map<String, Map<String, Integer>> facets) {
+        String[][] names = { { "level", "Level" }, { "groupIdentifier", "Group" }, { "access", "Access" } };
+        StringBuilder summary = new StringBuilder();
+        for (String[] name : names) {
+            Map<String, Integer> counts = facets.getOrDefault(name[0], Map.of());
+            String values = counts.entrySet().stream()
+                    .map(count -> count.getKey() + " (" + count.getValue() + ")")
+                    .collect(Collectors.joining(", "));
+            summary.append(name[1]).append(": ").append(values.isEmpty() ? "none" : values).append('\n');
+        }
+        return summary.toString().trim();
+    }
+
+    /**
+     * Called once the page drops out of the back history and the page cache: closes
+     * the suggestion popup and stops a search that would only fill a page no one sees.
+     */
+    @Override
+    public void dispose() {
+        suggestions.hide();
+        if (search != null) {
+            search.cancel();
+        }
+    }
+
+    // Lists the top completions of the typed text under the search field
+    private void showSuggestions(ContextMenu suggestions, TextField searchTerm, String typed) {
+        List<String> completions = Autocomplete.get().complete(typed, SUGGESTIONS);
+        suggestions.getItems().clear();
+        for (String completion : completions) {
+            if (completion.equalsIgnoreCase(typed.trim())) {
+                continue; // Already typed in full
+            }
+            MenuItem item = new MenuItem(completion);
+            item.setOnAction(event -> {
+                searchTerm.setText(completion);
+                searchTerm.positionCaret(completion.length());
+            });
+            suggestions.getItems().add(item);
+        }
+        if (suggestions.getItems().isEmpty() || !searchTerm.isFocused()) {
+            suggestions.hide();
+        } else if (!suggestions.isShowing()) {
+            suggestions.show(searchTerm, Side.BOTTOM, 0, 0);
+        }
+    }
+
     private void displaySearchResults(ResultSet rs, String groupName, String selectedLevel) throws SQLException {
         VBox searchResultsBox = new VBox();
         searchResultsBox.setSpacing(10);
@@ -0,0 +1,110 @@
+package project.article;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Instant;
+
+import project.util.config.DatabaseConfig;
+import project.util.logging.Logger;
+
+/**
+ * <p> ArticleIdGenerator class </p>
+ *
+ * <p> Description: Hands out 64-bit article IDs that are unique and ordered by creation
+ * time, in the Snowflake layout: 41 bits of milliseconds since 2024-01-01, 10 bits of
+ * node ID and a 12-bit sequence for IDs made in the same millisecond. Because new IDs
+ * only grow, inserts land at the right edge of the primary key index instead of at
+ * random pages. </p>
+ *
+ * <p> The node ID comes from the "project.node.id" setting, a system property or an
+ * entry in database.properties, and every app instance sharing one database must have
+ * its own. Without it, it is hashed from the host name and process ID into 1024 slots,
+ * where two instances can land on the same node and generate equal IDs, so a warning is
+ * logged. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class ArticleIdGenerator {
+    private static final Logger log = Logger.get(ArticleIdGenerator.class);
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static ArticleIdGenerator defaultGenerator;
+
+    private final long node;
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    public ArticleIdGenerator(long node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+    }
+
+    /**
+     * @return the generator used for new articles in this process
+     */
+    public static synchronized ArticleIdGenerator getDefault() {
+        if (defaultGenerator == null) {
+            defaultGenerator = new ArticleIdGenerator(defaultNode());
+        }
+        return defaultGenerator;
+    }
+
+    /**
+     * @return a new ID, greater than every ID this generator returned before
+     */
+    public synchronized long nextId() {
+        long now = Math.max(System.currentTimeMillis(), lastTimestamp); // Never step back if the clock does
+        if (now == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // 4096 IDs used up this millisecond, wait for the next one
+                while (now <= lastTimestamp) {
+                    Thread.onSpinWait();
+                    now = System.currentTimeMillis();
+                }
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = now;
+        return ((now - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * @return when the ID was generated
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH);
+    }
+
+    /**
+     * @return the node that generated the ID
+     */
+    public static long nodeOf(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE;
+    }
+
+    private static long defaultNode() {
+        int configured = DatabaseConfig.get().getNodeId();
+        if (configured >= 0) {
+            return configured;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "localhost";
+        }
+        String identity = host + "/" + ManagementFactory.getRuntimeMXBean().getName(); // "pid@host"
+        long node = (identity.hashCode() & 0x7fffffff) % (MAX_NODE + 1);
+        log.warn("project.node.id is not set, using node {} hashed from {}; instances sharing a database "
+                + "may hash to the same node, so give each its own project.node.id (0-{})", node, identity, MAX_NODE);
+        return node;
+    }
+}
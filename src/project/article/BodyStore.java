@@ -0,0 +1,354 @@
+package project.article;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import project.util.logging.Logger;
+
+/**
+ * <p> BodyStore class </p>
+ *
+ * <p> Description: Keeps article bodies as UTF-8 outside the Java heap, in direct
+ * ByteBuffer pages of one megabyte, so cached articles cost the heap and the garbage
+ * collector only their small fields. Each body is appended to the newest page after
+ * its article ID and length; a body larger than a page gets a page of its own. An
+ * open-addressing table of primitive longs maps every article ID to the page and
+ * offset of its body. </p>
+ *
+ * <p> A replaced or removed body leaves a hole in its page. A page is released once
+ * it is all holes; when the store reaches its capacity, the live bodies of the
+ * emptiest pages are moved to the newest one to release those pages. If that frees
+ * no room, or the JVM has no direct memory left for another page, put() refuses the
+ * body and the caller keeps it on the heap. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class BodyStore {
+    private static final Logger log = Logger.get(BodyStore.class);
+    static final int PAGE_BYTES = 1 << 20;
+    private static final int HEADER_BYTES = Long.BYTES + Integer.BYTES; // Article ID and body length
+    private static final long EMPTY = Long.MIN_VALUE; // Marks a free slot and a missing location
+
+    private final long capacity;
+    private final List<Page> pages = new ArrayList<>(); // Released pages leave a null to reuse
+    private Page newest;
+    private long allocated;
+    private long live;
+    private boolean exhausted; // Warned that direct memory ran out
+
+    // The offset table: article ID to page index << 32 | offset, with linear probing
+    private long[] keys = new long[64];
+    private long[] locations = new long[64];
+    private int size;
+
+    /**
+     * @param capacity the most bytes of direct memory the pages may take
+     */
+    public BodyStore(long capacity) {
+        this.capacity = capacity;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * @return the direct memory this JVM allows: -XX:MaxDirectMemorySize, or the
+     *         maximum heap size it defaults to
+     */
+    public static long maxDirectMemory() {
+        try {
+            HotSpotDiagnosticMXBean vm = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            long configured = Long.parseLong(vm.getVMOption("MaxDirectMemorySize").getValue());
+            if (configured > 0) {
+                return configured;
+            }
+        } catch (RuntimeException e) {
+            // Not a HotSpot JVM; assume its default
+        }
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    /**
+     * Stores the body of an article, replacing any it had.
+     *
+     * @return false if there is no room, in which case the article has no body stored
+     */
+    public synchronized boolean put(long id, String body) {
+        remove(id);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Integer.MAX_VALUE - HEADER_BYTES || !reserve(HEADER_BYTES + bytes.length)) {
+            return false;
+        }
+        append(id, bytes);
+        return true;
+    }
+
+    /**
+     * @return the body of the article, decoded anew, or null if it is not stored
+     */
+    public synchronized String get(long id) {
+        long location = location(id);
+        if (location == EMPTY) {
+            return null;
+        }
+        Page page = pages.get((int) (location >>> 32));
+        int offset = (int) location;
+        byte[] bytes = new byte[page.buffer.getInt(offset + Long.BYTES)];
+        ByteBuffer view = page.buffer.duplicate();
+        view.position(offset + HEADER_BYTES);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public synchronized boolean contains(long id) {
+        return location(id) != EMPTY;
+    }
+
+    public synchronized void remove(long id) {
+        long location = removeLocation(id);
+        if (location == EMPTY) {
+            return;
+        }
+        int index = (int) (location >>> 32);
+        Page page = pages.get(index);
+        int length = HEADER_BYTES + page.buffer.getInt((int) location + Long.BYTES);
+        page.live -= length;
+        live -= length;
+        if (page.live == 0 && page != newest) {
+            release(index);
+        }
+    }
+
+    /**
+     * Releases every page.
+     */
+    public synchronized void clear() {
+        pages.clear();
+        newest = null;
+        allocated = 0;
+        live = 0;
+        keys = new long[64];
+        locations = new long[64];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * @return how many bodies are stored
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the bytes of the stored bodies and their headers
+     */
+    public synchronized long liveBytes() {
+        return live;
+    }
+
+    /**
+     * @return the bytes of direct memory held by the pages
+     */
+    public synchronized long allocatedBytes() {
+        return allocated;
+    }
+
+    // Makes sure the newest page has room for length bytes, adding or compacting pages
+    private boolean reserve(int length) {
+        if (newest != null && newest.buffer.capacity() - newest.used >= length) {
+            return true;
+        }
+        int pageBytes = Math.max(PAGE_BYTES, length);
+        while (allocated + pageBytes > capacity) {
+            if (!compact()) {
+                return false;
+            }
+            if (newest != null && newest.buffer.capacity() - newest.used >= length) {
+                return true; // Compaction left the room in the newest page
+            }
+        }
+        ByteBuffer buffer;
+        try {
+            buffer = allocatePage(pageBytes);
+        } catch (OutOfMemoryError e) {
+            // Other direct buffers took what the capacity assumed was free
+            if (!exhausted) {
+                exhausted = true;
+                log.warn("Direct memory ran out with {} bytes of bodies stored; further bodies stay on the heap: {}",
+                        allocated, e.getMessage());
+            }
+            return false;
+        }
+        int index = pages.indexOf(null);
+        newest = new Page(index < 0 ? pages.size() : index, buffer);
+        allocated += pageBytes;
+        if (index < 0) {
+            pages.add(newest);
+        } else {
+            pages.set(index, newest);
+        }
+        return true;
+    }
+
+    // Moves the live bodies of the emptiest full page to the newest page and releases it
+    private boolean compact() {
+        int emptiest = -1;
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            if (page != null && page != newest && page.live <= page.buffer.capacity() / 2
+                    && (emptiest < 0 || page.live < pages.get(emptiest).live)) {
+                emptiest = i;
+            }
+        }
+        if (emptiest < 0) {
+            return false;
+        }
+        Page page = pages.get(emptiest);
+        List<Long> ids = new ArrayList<>();
+        List<byte[]> bodies = new ArrayList<>();
+        for (int offset = 0; offset < page.used; ) {
+            long id = page.buffer.getLong(offset);
+            byte[] bytes = new byte[page.buffer.getInt(offset + Long.BYTES)];
+            if (location(id) == ((long) emptiest << 32 | offset)) {
+                ByteBuffer view = page.buffer.duplicate();
+                view.position(offset + HEADER_BYTES);
+                view.get(bytes);
+                ids.add(id);
+                bodies.add(bytes);
+            }
+            offset += HEADER_BYTES + bytes.length;
+        }
+        for (long id : ids) {
+            removeLocation(id);
+        }
+        live -= page.live;
+        release(emptiest);
+        for (int i = 0; i < ids.size(); i++) {
+            // At most half a page moves, into the page just released if the newest one is full
+            if (!reserve(HEADER_BYTES + bodies.get(i).length)) {
+                return false; // No direct memory for the new page; the rest are dropped and read again when needed
+            }
+            append(ids.get(i), bodies.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Allocates the direct buffer of a new page.
+     *
+     * @throws OutOfMemoryError if the JVM has no direct memory left for it
+     */
+    protected ByteBuffer allocatePage(int bytes) {
+        return ByteBuffer.allocateDirect(bytes);
+    }
+
+    private void append(long id, byte[] bytes) {
+        int offset = newest.used;
+        newest.buffer.putLong(offset, id);
+        newest.buffer.putInt(offset + Long.BYTES, bytes.length);
+        ByteBuffer view = newest.buffer.duplicate();
+        view.position(offset + HEADER_BYTES);
+        view.put(bytes);
+        int length = HEADER_BYTES + bytes.length;
+        newest.used += length;
+        newest.live += length;
+        live += length;
+        putLocation(id, (long) newest.index << 32 | offset);
+    }
+
+    private void release(int index) {
+        Page page = pages.set(index, null);
+        allocated -= page.buffer.capacity();
+        if (page == newest) {
+            newest = null;
+        }
+    }
+
+    private long location(long id) {
+        for (int slot = slot(id); ; slot = (slot + 1) & (keys.length - 1)) {
+            if (keys[slot] == id) {
+                return locations[slot];
+            }
+            if (keys[slot] == EMPTY) {
+                return EMPTY;
+            }
+        }
+    }
+
+    private void putLocation(long id, long location) {
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        int slot = slot(id);
+        while (keys[slot] != EMPTY && keys[slot] != id) {
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        if (keys[slot] == EMPTY) {
+            size++;
+        }
+        keys[slot] = id;
+        locations[slot] = location;
+    }
+
+    // Removes with backward shifting, so lookups never need tombstones
+    private long removeLocation(long id) {
+        int mask = keys.length - 1;
+        int slot = slot(id);
+        while (keys[slot] != id) {
+            if (keys[slot] == EMPTY) {
+                return EMPTY;
+            }
+            slot = (slot + 1) & mask;
+        }
+        long location = locations[slot];
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            // Move the entry back unless its home lies cyclically after the hole
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                locations[hole] = locations[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        size--;
+        return location;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldLocations = locations;
+        keys = new long[oldKeys.length * 2];
+        locations = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                putLocation(oldKeys[i], oldLocations[i]);
+            }
+        }
+    }
+
+    private int slot(long id) {
+        long hash = id * 0x9e3779b97f4a7c15L;
+        return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+    }
+
+    private static class Page {
+        final int index;
+        final ByteBuffer buffer;
+        int used;
+        int live;
+
+        Page(int index, ByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+    }
+}
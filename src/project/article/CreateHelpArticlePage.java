@@ -5,6 +5,7 @@ import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.TilePane;
 import javafx.stage.Stage;
+import project.service.ArticleService;
 import project.util.Back;
 
 /**
@@ -64,22 +65,10 @@ public class CreateHelpArticlePage extends TilePane {
 
         Button submitButton = new Button("Create Article");
         submitButton.setOnAction(e -> {
-            String level = contentLevelSelect.getValue();
-            String groupIdentifier = "";
-            String author = authorField.getText();
-            String access = "";
-            String title = titleField.getText();
-            String shortDescription = shortDescriptionField.getText();
-            String[] keywords = keywordsField.getText().split(",");
-            String body = bodyField.getText();
-            String[] referenceLinks = referenceLinksField.getText().split(",");
-
-            // Create the HelpArticle object
-            HelpArticle article = new HelpArticle(0, level, groupIdentifier, author, access, title, shortDescription, keywords, body, referenceLinks, "", "");
-
-            // Generate a unique ID for the article
-            long uniqueId = article.generateUniqueId();
-            article.setId(uniqueId);
+            // Create the HelpArticle object with a unique ID; the group is chosen next
+            HelpArticle article = ArticleService.draft(contentLevelSelect.getValue(), authorField.getText(),
+                    titleField.getText(), shortDescriptionField.getText(), keywordsField.getText(),
+                    bodyField.getText(), referenceLinksField.getText());
 
             // After article creation, redirect to group selection page
             new SelectGroupPage(stage, article, helpArticleDatabase, username, isInstructor);
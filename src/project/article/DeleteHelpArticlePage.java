@@ -34,23 +34,22 @@ public class DeleteHelpArticlePage extends VBox {
 
         // Create a List of HelpArticles with the specified title
         try {
-            List<HelpArticle> articles = helpArticleDatabase.getAllArticles(); // Fetch all articles
+            // The picker only needs the title and ID, so bodies are never fetched here
+            List<HelpArticle> articles = helpArticleDatabase.getArticleSummariesByTitle(title);
             VBox articlesBox = new VBox();
             articlesBox.setSpacing(10); // Add spacing between articles
 
             // Create radio buttons for each article
             ToggleGroup toggleGroup = new ToggleGroup();
             for (HelpArticle article : articles) {
-                if (article.getTitle().equalsIgnoreCase(title)) { // Check if the article title matches
-                    RadioButton radioButton = new RadioButton(
-                            String.format("Title: %s\nShort Description: %s\nBody: %s",
-                                    article.getTitle(),
-                                    article.getShortDescription(),
-                                    article.getBody()));
-                    radioButton.setUserData(article.getId()); // Set user data to the article ID
-                    radioButton.setToggleGroup(toggleGroup); // Add to the toggle group
-                    articlesBox.getChildren().add(radioButton); // Add radio button to the VBox
-                }
+                RadioButton radioButton = new RadioButton(
+                        String.format("Title: %s\nShort Description: %s\nID: %d",
+                                article.getTitle(),
+                                article.getShortDescription(),
+                                article.getId()));
+                radioButton.setUserData(article.getId()); // Set user data to the article ID
+                radioButton.setToggleGroup(toggleGroup); // Add to the toggle group
+                articlesBox.getChildren().add(radioButton); // Add radio button to the VBox
             }
 
             // Button to confirm deletion
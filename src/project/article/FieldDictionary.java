@@ -0,0 +1,115 @@
+package project.article;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * <p> FieldDictionary class </p>
+ *
+ * <p> Description: The shared dictionary that HelpArticle encodes its few-valued
+ * fields with: level, access, groupIdentifier and author. Each distinct value gets a
+ * small int code the first time it is seen, and every article holding it stores only
+ * the code, so thousands of articles share one String per value instead of each row
+ * keeping its own copy. Filters can turn a condition on the value into the set of
+ * matching codes once, then test each article with an int lookup. Codes are never
+ * reused or removed, so the dictionary stops at MAX_CODES values: groups and authors
+ * come from user input, and past that encode() returns UNCODED and the article keeps
+ * the raw String instead. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public final class FieldDictionary {
+    /** The code of a null value. */
+    public static final int NULL = 0;
+    /** The code of a value the full dictionary did not take; the article keeps it as a String. */
+    public static final int UNCODED = -1;
+
+    private static final int MAX_CODES = 4096; // Far above the levels, groups and authors of a course
+
+    private static final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private static volatile String[] values = new String[64];
+    private static volatile String[][] parts = new String[64][];
+    private static int size = 1; // Code 0 is null
+
+    private FieldDictionary() {
+    }
+
+    /**
+     * @return the code of the value, adding it to the dictionary if it is new, or
+     *         UNCODED if it is new and the dictionary is full
+     */
+    public static int encode(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (FieldDictionary.class) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (size == MAX_CODES) {
+                return UNCODED;
+            }
+            if (size == values.length) {
+                parts = Arrays.copyOf(parts, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            parts[size] = split(value);
+            values[size] = value; // Stored before the code is published through the map
+            codes.put(value, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @return the value of a code, the same String instance for every article
+     */
+    public static String decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * @return the comma-separated parts of a value, trimmed, as for group identifiers;
+     *         the array is shared, so it must not be modified
+     */
+    static String[] parts(int code) {
+        return parts[code];
+    }
+
+    /**
+     * @return the codes of every value the condition accepts, for filtering by code
+     */
+    public static BitSet codes(Predicate<String> condition) {
+        String[] current;
+        int count;
+        synchronized (FieldDictionary.class) {
+            current = values;
+            count = size;
+        }
+        BitSet matching = new BitSet(count);
+        for (int code = 1; code < count; code++) {
+            if (condition.test(current[code])) {
+                matching.set(code);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * @return how many distinct values have codes
+     */
+    public static synchronized int size() {
+        return size - 1;
+    }
+
+    static String[] split(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).toArray(String[]::new);
+    }
+}
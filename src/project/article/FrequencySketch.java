@@ -0,0 +1,95 @@
+package project.article;
+
+/**
+ * <p> FrequencySketch class </p>
+ *
+ * <p> Description: A count-min sketch of 4-bit counters that estimates how often each
+ * article ID has been accessed recently. The ArticleCache uses it to decide whether a
+ * new article is worth admitting over the one it would evict (TinyLFU). All counters
+ * are halved once enough accesses have been recorded, so old popularity fades. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+class FrequencySketch {
+    private static final long RESET_MASK = 0x7777777777777777L; // Drops the low bit of every 4-bit counter after a shift
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+    private final long[] table; // 16 counters per long
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedEntries roughly how many entries the cache holds
+     */
+    FrequencySketch(int expectedEntries) {
+        int size = Integer.highestOneBit(Math.max(16, expectedEntries) - 1) << 1;
+        table = new long[size];
+        tableMask = size - 1;
+        sampleSize = 10 * Math.max(16, expectedEntries);
+    }
+
+    /**
+     * @return the estimated number of recent accesses, at most 15
+     */
+    int frequency(long key) {
+        int hash = spread(key);
+        int min = 15;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = counterOffset(hash, i);
+            min = Math.min(min, (int) ((table[index] >>> offset) & 0xfL));
+        }
+        return min;
+    }
+
+    /**
+     * Records one access to the key.
+     */
+    void increment(long key) {
+        int hash = spread(key);
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), counterOffset(hash, i));
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int offset) {
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    // Halve every counter so the sketch tracks recent rather than all-time popularity
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions - (odd >>> 2)) >>> 1;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    private int counterOffset(int hash, int row) {
+        return (((hash >>> (row << 3)) & 3) << 2) + (row << 4);
+    }
+
+    private static int spread(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
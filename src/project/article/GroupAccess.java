@@ -0,0 +1,95 @@
+package project.article;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p> GroupAccess class </p>
+ *
+ * <p> Description: The admins and viewers of a special access group. In the database
+ * both are comma-separated username lists on each group_articles row; this class
+ * parses and rebuilds them so callers never edit the strings by hand. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class GroupAccess {
+    private final Set<String> admins = new LinkedHashSet<>();
+    private final Set<String> viewers = new LinkedHashSet<>();
+
+    /**
+     * Parses the adminRights and viewable columns of a group_articles row.
+     */
+    public static GroupAccess parse(String adminRights, String viewable) {
+        GroupAccess access = new GroupAccess();
+        addAll(access.admins, adminRights);
+        addAll(access.viewers, viewable);
+        return access;
+    }
+
+    private static void addAll(Set<String> names, String list) {
+        if (list == null) {
+            return;
+        }
+        for (String name : list.split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+    }
+
+    /**
+     * @return a new access list with the admins and viewers of both
+     */
+    public GroupAccess merge(GroupAccess other) {
+        GroupAccess merged = new GroupAccess();
+        merged.admins.addAll(admins);
+        merged.admins.addAll(other.admins);
+        merged.viewers.addAll(viewers);
+        merged.viewers.addAll(other.viewers);
+        return merged;
+    }
+
+    /**
+     * Grants viewing, and admin rights if asked. Admins can always view.
+     */
+    public void grant(String username, boolean admin) {
+        viewers.add(username);
+        if (admin) {
+            admins.add(username);
+        }
+    }
+
+    /**
+     * Takes away admin rights, or all access if admin is false.
+     */
+    public void revoke(String username, boolean admin) {
+        admins.remove(username);
+        if (!admin) {
+            viewers.remove(username);
+        }
+    }
+
+    public List<String> getAdmins() {
+        return new ArrayList<>(admins);
+    }
+
+    public List<String> getViewers() {
+        return new ArrayList<>(viewers);
+    }
+
+    /**
+     * @return the admins as stored in the adminRights column
+     */
+    public String getAdminRights() {
+        return String.join(",", admins);
+    }
+
+    /**
+     * @return the viewers as stored in the viewable column
+     */
+    public String getViewable() {
+        return String.join(",", viewers);
+    }
+}
@@ -1,9 +1,7 @@
 package project.article;
 
 import java.time.Instant;
-import java.security.*;
-import java.util.Arrays;
-import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 
 
 /**
@@ -16,10 +14,17 @@ import java.nio.charset.StandardCharsets;
 
 public class HelpArticle {
     private long id; // Unique identifier
-    private String level; // e.g., beginner, intermediate, advanced, expert
-    private String groupIdentifier; // Grouping identifier for related articles
-    private String author;
-    private String access; // Who has access to the article
+    // Few-valued fields are kept as FieldDictionary codes, sharing one String per value
+    private int level; // e.g., beginner, intermediate, advanced, expert
+    private int groupIdentifier; // Grouping identifier for related articles
+    private int author;
+    private int access; // Who has access to the article
+    private String[] uncoded; // By field, the values the full dictionary did not take; usually null
+    // Indexes of the few-valued fields in uncoded
+    private static final int LEVEL = 0;
+    private static final int GROUP_IDENTIFIER = 1;
+    private static final int AUTHOR = 2;
+    private static final int ACCESS = 3;
     private String title; // Title of the article
     private String shortDescription; // Short description or abstract
     private Object[] keywords; // Keywords for searching
@@ -29,14 +34,46 @@ public class HelpArticle {
     private String sensitiveDescription; // Description without sensitive information
     private Instant createdDate; // Date of creation
     private Instant updatedDate; // Date of last update
+    private boolean contentLoaded = true; // False for summaries until body and reference links are fetched
+    private ContentLoader contentLoader; // Fetches the deferred content of a summary
+    private BodyStore bodyStore; // Holds the body off the heap while set; the article ID is its handle
+
+    /**
+     * Loads the deferred body and reference links of a summary article.
+     */
+    @FunctionalInterface
+    public interface ContentLoader {
+        Content load(long id) throws SQLException;
+    }
+
+    /**
+     * The large columns of an article that summaries leave out.
+     */
+    public static class Content {
+        private final String body;
+        private final Object[] referenceLinks;
+
+        public Content(String body, Object[] referenceLinks) {
+            this.body = body;
+            this.referenceLinks = referenceLinks;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public Object[] getReferenceLinks() {
+            return referenceLinks;
+        }
+    }
 
     // Getters and setters can be added here
     public HelpArticle(long id, String level, String groupIdentifier, String author, String access, String title, String shortDescription, Object[] keywords, String body, Object[] referenceLinks, String sensitiveTitle, String sensitiveDescription) {
     	this.id = id;
-    	this.level = level;
-    	this.groupIdentifier = groupIdentifier;
-    	this.author = author;
-    	this.access = access;
+    	this.level = code(LEVEL, level);
+    	this.groupIdentifier = code(GROUP_IDENTIFIER, groupIdentifier);
+    	this.author = code(AUTHOR, author);
+    	this.access = code(ACCESS, access);
     	this.title = title;
     	this.shortDescription = shortDescription;
     	this.keywords = keywords;
@@ -51,10 +88,10 @@ public class HelpArticle {
     // Constructor that includes createdDate and updatedDate
     public HelpArticle(long id, String level, String groupIdentifier, String author, String access, String title, String shortDescription, Object[] keywords, String body, Object[] referenceLinks, String sensitiveTitle, String sensitiveDescription, String createdDate, String updatedDate) {
     	this.id = id;
-    	this.level = level;
-    	this.groupIdentifier = groupIdentifier;
-    	this.author = author;
-    	this.access = access;
+    	this.level = code(LEVEL, level);
+    	this.groupIdentifier = code(GROUP_IDENTIFIER, groupIdentifier);
+    	this.author = code(AUTHOR, author);
+    	this.access = code(ACCESS, access);
     	this.title = title;
     	this.shortDescription = shortDescription;
     	this.keywords = keywords;
@@ -66,46 +103,206 @@ public class HelpArticle {
     	this.updatedDate = Instant.parse(updatedDate);
     }
 
-    // Method to generate a unique ID based on the article's content
-    public long generateUniqueId() {
-        String combined = level + groupIdentifier + access + title; // Combine relevant fields
+    /**
+     * Builds a summary article that carries everything but the body and reference links.
+     * Those are fetched through the loader the first time either is read.
+     */
+    public static HelpArticle summary(long id, String level, String groupIdentifier, String author, String access, String title, String shortDescription, Object[] keywords, String sensitiveTitle, String sensitiveDescription, Instant createdDate, Instant updatedDate, ContentLoader loader) {
+        HelpArticle article = new HelpArticle(id, level, groupIdentifier, author, access, title, shortDescription, keywords, null, null, sensitiveTitle, sensitiveDescription);
+        article.createdDate = createdDate;
+        article.updatedDate = updatedDate;
+        article.contentLoaded = false;
+        article.contentLoader = loader;
+        return article;
+    }
+
+    /**
+     * @return a separate article with the same content, so that edits to it do not reach
+     *         the original; a stored or deferred body is still read on demand
+     */
+    public synchronized HelpArticle copy() {
+        HelpArticle copy = new HelpArticle(id, null, null, null, null, title, shortDescription,
+                keywords == null ? null : keywords.clone(), body,
+                referenceLinks == null ? null : referenceLinks.clone(), sensitiveTitle, sensitiveDescription);
+        copy.level = level;
+        copy.groupIdentifier = groupIdentifier;
+        copy.author = author;
+        copy.access = access;
+        copy.uncoded = uncoded == null ? null : uncoded.clone();
+        copy.createdDate = createdDate;
+        copy.updatedDate = updatedDate;
+        copy.contentLoaded = contentLoaded;
+        copy.contentLoader = contentLoader;
+        copy.bodyStore = bodyStore;
+        return copy;
+    }
+
+    /**
+     * @return true once the body and reference links are present in memory
+     */
+    public synchronized boolean isContentLoaded() {
+        return contentLoaded;
+    }
+
+    /**
+     * Fills in the body and reference links of a summary fetched by the caller, e.g. for
+     * many articles in one query. Does nothing once they are loaded.
+     *
+     * @param content the content, or null if the article no longer exists
+     */
+    public synchronized void setContent(Content content) {
+        if (contentLoaded) {
+            return;
+        }
+        if (content != null) {
+            body = content.getBody();
+            referenceLinks = content.getReferenceLinks();
+        } else {
+            body = "";
+            referenceLinks = new String[0];
+        }
+        contentLoaded = true;
+        contentLoader = null;
+    }
+
+    // Fetch the body and reference links of a summary on first access; on failure the
+    // summary stays unloaded, so the next access retries. Pages must not rely on this:
+    // they call HelpArticleDatabase.loadContents through BackgroundTasks before showing summaries
+    private synchronized void loadContent() {
+        if (contentLoaded) {
+            return;
+        }
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(combined.getBytes(StandardCharsets.UTF_8));
-            return Math.abs(hash.hashCode()); // Use the hash code as a unique ID
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-            return -1; // Return an invalid ID in case of error
+            setContent(contentLoader.load(id));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not load the body of article " + id, e);
+        }
+    }
+
+    /**
+     * Moves the loaded body into the off-heap store, keeping only the article ID as its
+     * handle; getBody() then decodes it from the store on every call. Should the store
+     * drop it later, the loader fetches it again.
+     *
+     * @return true if the body is now in the store, false if it stays on the heap
+     */
+    public synchronized boolean storeBody(BodyStore store, ContentLoader loader) {
+        if (bodyStore == store && store.contains(id)) {
+            return true;
+        }
+        if (!contentLoaded || body == null || loader == null || !store.put(id, body)) {
+            return false;
         }
+        body = null;
+        bodyStore = store;
+        contentLoader = loader;
+        return true;
+    }
+
+    /**
+     * @return true while the body is kept in a BodyStore rather than on the heap
+     */
+    public synchronized boolean isBodyStored() {
+        return bodyStore != null;
+    }
+
+    // Bring a stored body back onto the heap, or mark it for fetching if the store dropped it
+    private void unstoreBody() {
+        if (bodyStore == null) {
+            return;
+        }
+        body = bodyStore.get(id);
+        bodyStore = null;
+        if (body == null) {
+            contentLoaded = false;
+        }
+    }
+
+    // Method to generate a unique, time-ordered ID for a new article
+    public long generateUniqueId() {
+        return ArticleIdGenerator.getDefault().nextId();
+    }
+
+    /**
+     * Fingerprints the identifying content of the article: the fields the old content-based
+     * ID was built from, plus the body. Unlike the ID it is the same for the same content.
+     */
+    public long contentFingerprint() {
+        return ContentFingerprint.of(getLevel(), getGroupIdentifier(), getAccess(), title, getBody());
+    }
+
+    /**
+     * Fingerprints the title and body ignoring case and whitespace. Used to recognise the
+     * same article in backups from different departments, whatever group or ID it has.
+     */
+    public long normalizedFingerprint() {
+        return ContentFingerprint.ofNormalized(title, getBody());
     }
     
     public String[] getGroupIdentifierArray() {
-        // Assuming groupIdentifier is a String that may contain "a, b, c"
-        String groupIdentifier = this.groupIdentifier; // Adjust based on how you store it
-        return Arrays.stream(groupIdentifier.split(","))
-                     .map(String::trim) // Trim whitespace
-                     .toArray(String[]::new); // Convert to String array
+        // The groupIdentifier may contain "a, b, c"; the dictionary splits each value once
+        if (groupIdentifier == FieldDictionary.NULL) {
+            throw new NullPointerException("The article has no group identifier");
+        }
+        if (groupIdentifier == FieldDictionary.UNCODED) {
+            return FieldDictionary.split(uncoded[GROUP_IDENTIFIER]);
+        }
+        return FieldDictionary.parts(groupIdentifier).clone();
     }
     
+    // The code of a field's new value; a value the dictionary cannot take is kept in uncoded
+    private int code(int field, String value) {
+        int code = FieldDictionary.encode(value);
+        if (code == FieldDictionary.UNCODED) {
+            if (uncoded == null) {
+                uncoded = new String[4];
+            }
+            uncoded[field] = value;
+        } else if (uncoded != null) {
+            uncoded[field] = null;
+        }
+        return code;
+    }
+
+    private String value(int field, int code) {
+        return code == FieldDictionary.UNCODED ? uncoded[field] : FieldDictionary.decode(code);
+    }
+
     // Getter methods
     public long getId() {
     	return id;
     }
 
     public String getLevel() {
-    	return level;
+    	return value(LEVEL, level);
     }
 
     public String getGroupIdentifier() {
-        return groupIdentifier;
+        return value(GROUP_IDENTIFIER, groupIdentifier);
     }
 
     public String getAuthor() {
-        return author;
+        return value(AUTHOR, author);
     }
 
     public String getAccess() {
-        return access;
+        return value(ACCESS, access);
+    }
+
+    /**
+     * @return the FieldDictionary code of the level, for filtering by int compares;
+     *         UNCODED if the article keeps the level as a String
+     */
+    public int getLevelCode() {
+        return level;
+    }
+
+    /**
+     * @return the FieldDictionary code of the group identifier, for filtering by int compares;
+     *         UNCODED if the article keeps the group identifier as a String
+     */
+    public int getGroupIdentifierCode() {
+        return groupIdentifier;
     }
 
     public String getTitle() {
@@ -121,10 +318,21 @@ public class HelpArticle {
     }
 
     public String getBody() {
+        synchronized (this) {
+            if (bodyStore != null) {
+                String stored = bodyStore.get(id);
+                if (stored != null) {
+                    return stored;
+                }
+                unstoreBody(); // Dropped from the store since; fetch it again
+            }
+        }
+        loadContent();
         return body;
     }
 
     public Object[] getReferenceLinks() {
+        loadContent();
         return referenceLinks;
     }
 
@@ -145,28 +353,29 @@ public class HelpArticle {
     }
     
  // Setters
-    public void setId(long id) {
+    public synchronized void setId(long id) {
+        unstoreBody(); // The store knows the body by the old ID
         this.id = id;
     }
 
     public void setLevel(String level) {
-        this.level = level;
+        this.level = code(LEVEL, level);
     }
 
     public void setGroupIdentifier(String groupIdentifier) {
-        this.groupIdentifier = groupIdentifier;
+        this.groupIdentifier = code(GROUP_IDENTIFIER, groupIdentifier);
     }
     
     public void setAuthor(String author) {
         if (author == null || author.isEmpty()) {
-            this.author = "Unknown"; // Default value
+            this.author = code(AUTHOR, "Unknown"); // Default value
         } else {
-            this.author = author;
+            this.author = code(AUTHOR, author);
         }
     }
 
     public void setAccess(String access) {
-        this.access = access;
+        this.access = code(ACCESS, access);
     }
 
     public void setTitle(String title) {
@@ -181,11 +390,14 @@ public class HelpArticle {
         this.keywords = keywords;
     }
 
-    public void setBody(String body) {
+    public synchronized void setBody(String body) {
+        bodyStore = null;
+        loadContent(); // Keep the reference links of a summary before the content counts as loaded
         this.body = body;
     }
 
-    public void setReferenceLinks(String[] referenceLinks) {
+    public synchronized void setReferenceLinks(String[] referenceLinks) {
+        loadContent();
         this.referenceLinks = referenceLinks;
     }
     
@@ -4,15 +4,27 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
-import javafx.scene.control.Alert;
-import javafx.scene.control.ButtonType;
-import project.account.DatabaseHelper;
 import project.account.DatabaseModel;
+import project.search.Search;
+import project.util.config.DatabaseConfig;
+import project.util.logging.Logger;
+import project.util.metrics.Metrics;
+import project.util.schema.Migration;
+import project.util.schema.SchemaMigrator;
+import project.article.backup.ArticleMerger;
+import project.article.backup.MergePolicy;
 
 import java.time.Instant;
 
@@ -27,130 +39,251 @@ import java.time.Instant;
 
 
 public class HelpArticleDatabase extends DatabaseModel {
-    private static Connection connection;
+    private static final Logger log = Logger.get(HelpArticleDatabase.class);
+    // The connection of the merge transaction running on this thread, see borrow()
+    private static final ThreadLocal<Connection> transaction = new ThreadLocal<>();
+    // The connection this thread has borrowed and not yet closed, see borrow()
+    private static final ThreadLocal<Connection> held = new ThreadLocal<>();
+    private static HelpArticleDatabase instance; // Shared by every page, see getInstance()
+    private static final long CACHE_BYTES = 32L * 1024 * 1024; // Estimated heap the article cache may use
+    // Direct memory for the bodies of cached articles, -Dproject.cache.bodyBytes (256 MB, but at most half of
+    // what the JVM allows, so a small -Xmx leaves room for other direct buffers; 0 keeps them on the heap)
+    private static final long BODY_BYTES = Long.getLong("project.cache.bodyBytes",
+            Math.min(256L * 1024 * 1024, BodyStore.maxDirectMemory() / 2));
+    private static final ArticleCache cache = new ArticleCache(CACHE_BYTES,
+            BODY_BYTES > 0 ? new BodyStore(BODY_BYTES) : null, HelpArticleDatabase::fetchCachedContent);
+    // Other instances may change cached articles, so lookups check the articles version first
+    private static final boolean SHARED = DatabaseConfig.get().isShared();
     // private static Statement statement;
 
-    private static final String JDBC_DRIVER = "org.h2.Driver"; // H2 JDBC driver
-    private static final String DB_URL = "jdbc:h2:./database"; // H2 database URL (relative path to database file)
-    private static final String USER = "sa"; // Default user for H2
-    private static final String PASS = ""; // Default password for H2 (empty string for embedded mode)
+    private static final String HELP_ARTICLES_TABLE = "CREATE TABLE IF NOT EXISTS help_articles ("
+            + "id BIGINT PRIMARY KEY, "
+            + "level VARCHAR(255), "
+            + "groupIdentifier VARCHAR(255), "
+            + "author VARCHAR(255),"
+            + "access VARCHAR(255), "
+            + "title VARCHAR(255), "
+            + "shortDescription VARCHAR(255), "
+            + "keywords VARCHAR(255), "
+            + "body TEXT, "
+            + "referenceLinks VARCHAR(255), "
+            + "sensitiveTitle VARCHAR(255), "
+            + "sensitiveDescription VARCHAR(255), "
+            + "createdDate TIMESTAMP, "
+            + "updatedDate TIMESTAMP)";
+
+    private static final String GROUP_ARTICLES_TABLE = "CREATE TABLE IF NOT EXISTS group_articles ("
+            + "article_id BIGINT, "
+            + "group_name VARCHAR(255), "
+            + "group_type VARCHAR(50), " // 'general' or 'special_access'
+            + "adminRights VARCHAR(255), "  // Store admin rights as a comma-separated string
+            + "viewable VARCHAR(255), "      // Store viewable users as a comma-separated string
+            + "isInstructor BOOLEAN, "        // Flag to check if the first instructor is added
+            + "PRIMARY KEY (article_id, group_name))";
+
+    // Schema history of the article tables. Never edit a released migration, add the next version instead.
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create help_articles and group_articles", HELP_ARTICLES_TABLE, GROUP_ARTICLES_TABLE),
+            new Migration(2, "Add the group_articles access columns to databases created before them",
+                    "ALTER TABLE group_articles ADD COLUMN IF NOT EXISTS adminRights VARCHAR(255)",
+                    "ALTER TABLE group_articles ADD COLUMN IF NOT EXISTS viewable VARCHAR(255)",
+                    "ALTER TABLE group_articles ADD COLUMN IF NOT EXISTS isInstructor BOOLEAN"),
+            new Migration(3, "Add the search log and the hourly search insight buckets",
+                    "CREATE TABLE IF NOT EXISTS search_log ("
+                            + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                            + "username VARCHAR(255), "
+                            + "query VARCHAR(255) NOT NULL, "
+                            + "level VARCHAR(50), "
+                            + "group_name VARCHAR(255), "
+                            + "results INT NOT NULL, "
+                            + "searched_at TIMESTAMP NOT NULL)",
+                    "CREATE INDEX IF NOT EXISTS search_log_user ON search_log (username, id DESC)",
+                    "CREATE TABLE IF NOT EXISTS search_stats ("
+                            + "bucket TIMESTAMP PRIMARY KEY, "
+                            + "searches BIGINT NOT NULL, "
+                            + "zero_results BIGINT NOT NULL)",
+                    "CREATE TABLE IF NOT EXISTS search_heavy_hitters ("
+                            + "bucket TIMESTAMP NOT NULL, "
+                            + "kind VARCHAR(20) NOT NULL, "
+                            + "item VARCHAR(255) NOT NULL, "
+                            + "hits BIGINT NOT NULL, "
+                            + "error BIGINT NOT NULL, "
+                            + "PRIMARY KEY (bucket, kind, item))",
+                    "CREATE INDEX IF NOT EXISTS search_heavy_hitters_kind ON search_heavy_hitters (kind, bucket)",
+                    "CREATE TABLE IF NOT EXISTS search_aggregation ("
+                            + "name VARCHAR(50) PRIMARY KEY, "
+                            + "last_id BIGINT NOT NULL)",
+                    "INSERT INTO search_aggregation (name, last_id) VALUES ('search_log', 0)"),
+            new Migration(4, "Index help_articles by update time for the search version check",
+                    "CREATE INDEX IF NOT EXISTS help_articles_updated ON help_articles (updatedDate)"),
+            new Migration(5, "Index search_log by query for counting who searched a suggestion",
+                    "CREATE INDEX IF NOT EXISTS search_log_query ON search_log (query, username)"),
+            new Migration(6, "Add the articles version, bumped with every article and group write",
+                    "CREATE TABLE IF NOT EXISTS data_version ("
+                            + "name VARCHAR(50) PRIMARY KEY, "
+                            + "version BIGINT NOT NULL)",
+                    "INSERT INTO data_version (name, version) SELECT 'articles', 0 FROM DUAL "
+                            + "WHERE NOT EXISTS (SELECT 1 FROM data_version WHERE name = 'articles')"));
+
+    // One write to the article tables, run by versioned() together with the version bump
+    @FunctionalInterface
+    private interface ArticleWrite {
+        void run() throws SQLException;
+    }
+
+    private static final int IN_LIST_SIZE = 500; // IDs per IN (...) list when fetching many articles
+
+    // Every column except body and referenceLinks, which summaries load lazily
+    private static final String SUMMARY_COLUMNS = "id, level, groupIdentifier, author, access, title, shortDescription, "
+            + "keywords, sensitiveTitle, sensitiveDescription, createdDate, updatedDate";
     
     public HelpArticleDatabase() throws SQLException {
-        connect();
-        try {
-            createTables(); // Ensure the tables are created on initialization
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        connect(); // Also creates or upgrades the tables
     }
     
     /**
-     * Establishes a connection to the database and creates necessary tables.
+     * Returns the application-wide article database, creating it on first use.
+     * Pages share this instance instead of reconnecting on every click.
+     */
+    public static synchronized HelpArticleDatabase getInstance() throws SQLException {
+        if (instance == null) {
+            instance = new HelpArticleDatabase();
+        }
+        return instance;
+    }
+
+    /**
+     * @return the read-through cache shared by all article queries, e.g. for its hit/miss stats
+     */
+    public static ArticleCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Creates or upgrades the tables. Nothing stays connected afterwards: every query
+     * borrows a pooled connection, see borrow().
      * @throws SQLException 
      */
+    @Override
     public void connect() throws SQLException {
-        try {
-            // Load the JDBC driver for H2
-            Class.forName(JDBC_DRIVER);
-            System.out.println("Connecting to database...");
-            
-            // Establish the connection
-            connection = DriverManager.getConnection(DB_URL, USER, PASS);
-            // statement = connection.createStatement();
-            
-            // Create tables if not already present
-            createTables();
-        } catch (ClassNotFoundException e) {
-            System.err.println("JDBC Driver not found: " + e.getMessage());
+        // The same store as the user tables, see DatabaseConfig
+        try (Connection connection = borrow()) {
+            // Create or upgrade the tables; costs one version read once they are current
+            SchemaMigrator.migrate(connection, "articles", MIGRATIONS);
         }
     }
-    
-    // Create the help_articles table if it doesn't exist
-    private void createTables() throws SQLException {
-        // Create the help_articles table if it doesn't exist
-        String helpArticlesTable = "CREATE TABLE IF NOT EXISTS help_articles ("
-                + "id BIGINT PRIMARY KEY, "
-                + "level VARCHAR(255), "
-                + "groupIdentifier VARCHAR(255), "
-                + "author VARCHAR(255),"
-                + "access VARCHAR(255), "
-                + "title VARCHAR(255), "
-                + "shortDescription VARCHAR(255), "
-                + "keywords VARCHAR(255), "
-                + "body TEXT, "
-                + "referenceLinks VARCHAR(255), "
-                + "sensitiveTitle VARCHAR(255), "
-                + "sensitiveDescription VARCHAR(255), "
-                + "createdDate TIMESTAMP, "
-                + "updatedDate TIMESTAMP)";
-        
-        // Log the SQL query to confirm table creation
-        System.out.println("Executing SQL: " + helpArticlesTable);
-
-        // Create the group_articles table if it doesn't exist
-        String groupArticlesTable = "CREATE TABLE IF NOT EXISTS group_articles ("
-                + "article_id BIGINT, "
-                + "group_name VARCHAR(255), "
-                + "group_type VARCHAR(50), " // 'general' or 'special_access'
-                + "adminRights VARCHAR(255), "  // Store admin rights as a comma-separated string
-                + "viewable VARCHAR(255), "      // Store viewable users as a comma-separated string
-                + "isInstructor BOOLEAN, "        // Flag to check if the first instructor is added
-                + "PRIMARY KEY (article_id, group_name))";
-
-        // Execute the table creation statements
-        try (Statement stmt = connection.createStatement()) {
-            // Create help_articles table
-            stmt.execute(helpArticlesTable);
-            // Create group_articles table
-            stmt.execute(groupArticlesTable);
-         // Check if the adminRights and viewable columns already exist in group_articles table
-            String checkColumnsQuery = "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS "
-                                     + "WHERE TABLE_NAME = 'GROUP_ARTICLES' "
-                                     + "AND (COLUMN_NAME = 'ADMINRIGHTS' OR COLUMN_NAME = 'VIEWABLE' OR COLUMN_NAME = 'ISINSTRUCTOR')";
-
-            try (PreparedStatement pstmt = connection.prepareStatement(checkColumnsQuery)) {
-                ResultSet rs = pstmt.executeQuery();
-
-                boolean adminRightsExists = false;
-                boolean viewableExists = false;
-                boolean isInstructorExists = false;
 
-                while (rs.next()) {
-                    String columnName = rs.getString("COLUMN_NAME");
-                    if ("ADMINRIGHTS".equalsIgnoreCase(columnName)) {
-                        adminRightsExists = true;
-                    } else if ("VIEWABLE".equalsIgnoreCase(columnName)) {
-                        viewableExists = true;
-                    } else if ("ISINSTRUCTOR".equalsIgnoreCase(columnName)) {
-                        isInstructorExists = true;
+    /**
+     * Borrows a pooled connection for one operation; closing it gives it back, so
+     * concurrent requests each run on their own connection. Inside a merge it is the
+     * merge's transaction instead, which closing leaves open. A borrow made while this
+     * thread already holds a connection, e.g. a summary's getBody() fetching its content
+     * in the middle of an insert, shares that connection instead of taking a second one,
+     * which could wait forever on a pool that admitted requests have used up.
+     */
+    private static Connection borrow() throws SQLException {
+        Connection current = transaction.get();
+        if (current == null) {
+            current = held.get();
+        }
+        if (current != null) {
+            return sharing(current, null); // Committed, rolled back or closed by its owner
+        }
+        Connection connection = DatabaseConfig.get().connect();
+        held.set(connection);
+        return sharing(connection, () -> {
+            if (held.get() == connection) { // Closing twice must not return it twice
+                held.remove();
+                connection.close();
+            }
+        });
+    }
+
+    // A view of the connection whose close() runs onClose, or does nothing if that is null
+    private static Connection sharing(Connection connection, Closer onClose) {
+        return (Connection) Proxy.newProxyInstance(HelpArticleDatabase.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && (args == null || args.length == 0)) {
+                        if (onClose != null) {
+                            onClose.close();
+                        }
+                        return null;
                     }
-                }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
 
-                // Add columns if they do not exist
-                if (!adminRightsExists) {
-                    String alterTableAdminRights = "ALTER TABLE group_articles ADD COLUMN adminRights VARCHAR(255)";
-                    stmt.executeUpdate(alterTableAdminRights);
-                }
+    private interface Closer {
+        void close() throws SQLException;
+    }
 
-                if (!viewableExists) {
-                    String alterTableViewable = "ALTER TABLE group_articles ADD COLUMN viewable VARCHAR(255)";
-                    stmt.executeUpdate(alterTableViewable);
-                }
+    /**
+     * Runs a write to help_articles or group_articles and bumps the articles version in
+     * the same transaction, so every instance sharing the store sees the change and the
+     * new version together.
+     *
+     * @return the version the write produced, or 0 inside a transaction the caller
+     *         commits, e.g. a merge, whose end invalidates everything anyway
+     */
+    private static long versioned(Connection connection, ArticleWrite write) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            write.run();
+            bumpVersion(connection);
+            return 0;
+        }
+        connection.setAutoCommit(false);
+        try {
+            write.run();
+            long version = bumpVersion(connection);
+            connection.commit();
+            return version;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
 
-                if (!isInstructorExists) {
-                    String alterTableIsInstructor = "ALTER TABLE group_articles ADD COLUMN isInstructor BOOLEAN";
-                    stmt.executeUpdate(alterTableIsInstructor);
-                }
+    // The row stays locked until the transaction ends, so the version read back is this write's
+    private static long bumpVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("UPDATE data_version SET version = version + 1 WHERE name = 'articles'");
+            try (ResultSet rs = stmt.executeQuery("SELECT version FROM data_version WHERE name = 'articles'")) {
+                rs.next();
+                return rs.getLong(1);
             }
         }
     }
 
+    // Tells the cache and the search index which version a write of this instance produced, after its hooks ran
+    private static void written(long version) {
+        if (version > 0) {
+            cache.written(version);
+            Search.articlesWritten(version);
+        }
+    }
+
+    // Drops the cached articles if another instance sharing the store changed any since
+    private void validateCache() throws SQLException {
+        if (SHARED) {
+            cache.validate(getArticlesVersion());
+        }
+    }
+    
     public void createHelpArticle(HelpArticle article) throws SQLException {
         String sql = "INSERT INTO help_articles (id, level, groupIdentifier, author, access, title, " +
                      "shortDescription, keywords, body, referenceLinks, sensitiveTitle, sensitiveDescription, createdDate, updatedDate) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        long version;
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.createHelpArticle");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setLong(1, article.getId());
             pstmt.setString(2, article.getLevel());
             pstmt.setString(3, article.getGroupIdentifier());
@@ -165,16 +298,26 @@ public class HelpArticleDatabase extends DatabaseModel {
             pstmt.setString(12, article.getSensitiveDescription());
             pstmt.setTimestamp(13, Timestamp.from(article.getCreatedDate()));
             pstmt.setTimestamp(14, Timestamp.from(article.getUpdatedDate()));
-            pstmt.executeUpdate();
+            version = versioned(connection, () -> timer.rows(pstmt.executeUpdate()));
         }
+        cache.invalidate(article.getId());
+        Search.articleChanged(article);
+        written(version);
     }
  
     // Method to store an article in a specific group with its type (General or Special Access)
     public void createGroupArticle(HelpArticle article, String groupName, String groupType, String username, boolean isInstructor) throws SQLException {
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.createGroupArticle")) {
+            storeGroupArticle(article, groupName, groupType, username, isInstructor);
+            timer.rows(1);
+        }
+    }
+
+    private void storeGroupArticle(HelpArticle article, String groupName, String groupType, String username, boolean isInstructor) throws SQLException {
         // Generate a unique ID for the article if not already set
         long uniqueId = article.getId() == 0 ? article.generateUniqueId() : article.getId();
         article.setId(uniqueId); // Ensure the article has an ID
-        System.out.println(username);
+        log.debug("{} is storing article {} in {} group {}", username, uniqueId, groupType, groupName);
 
         // Set initial values for admin rights and viewable users as comma-separated strings
         String adminRights = username; // The user who creates the article is added as an admin
@@ -187,7 +330,8 @@ public class HelpArticleDatabase extends DatabaseModel {
         if ("special_access".equals(groupType) && isInstructor) {
             // Query the group_articles table to check if any instructors already exist
             String checkInstructorQuery = "SELECT isInstructor FROM group_articles WHERE group_name = ? AND group_type = ?";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkInstructorQuery)) {
+            try (Connection connection = borrow();
+                 PreparedStatement checkStmt = connection.prepareStatement(checkInstructorQuery)) {
                 checkStmt.setString(1, groupName);
                 checkStmt.setString(2, groupType);
                 ResultSet rs = checkStmt.executeQuery();
@@ -200,22 +344,25 @@ public class HelpArticleDatabase extends DatabaseModel {
 
         // If the group is special access, store the article with admin rights, viewable rights, and instructor status
         if ("special_access".equals(groupType)) {
-        	System.out.println("HELLO???");
             // Insert into group_articles table to map article to the group
             String query = "INSERT INTO group_articles (article_id, group_name, group_type, adminRights, viewable, isInstructor) VALUES (?, ?, ?, ?, ?, ?)";
 
-            try (PreparedStatement stmt = connection.prepareStatement(query)) {
+            long version;
+            try (Connection connection = borrow();
+                 PreparedStatement stmt = connection.prepareStatement(query)) {
                 stmt.setLong(1, uniqueId);
                 stmt.setString(2, groupName);
                 stmt.setString(3, groupType);
                 stmt.setString(4, adminRights);  // Store admin rights as a comma-separated string
                 stmt.setString(5, viewable);    // Store viewable rights as a comma-separated string
                 stmt.setBoolean(6, isFirstInstructor);  // Set instructor flag if this is the first instructor
-                stmt.executeUpdate();
+                version = versioned(connection, stmt::executeUpdate);
                 
             }
-            
-            
+            // Known to the search indexes before the article is, so it is never found as public
+            Search.specialAccessChanged(uniqueId, groupName);
+            Search.groupAccessChanged(groupName, getGroupAccess(groupName));
+            written(version);
         }
 
         // Insert the article itself into the help_articles table (already done through createHelpArticle)
@@ -225,7 +372,8 @@ public class HelpArticleDatabase extends DatabaseModel {
     
     public void printALL() throws SQLException {
     	String s = "SELECT * FROM group_articles";
-    	try (Statement stmt = connection.createStatement();
+    	try (Connection connection = borrow();
+    	     Statement stmt = connection.createStatement();
             ResultSet rs = stmt.executeQuery(s)) {
            while (rs.next()) {
                System.out.println("Name: " + rs.getString("group_name"));
@@ -237,6 +385,12 @@ public class HelpArticleDatabase extends DatabaseModel {
     }
 
     public List<HelpArticle> getArticlesByGroup(String groupName, String groupType) throws SQLException {
+        validateCache();
+        List<HelpArticle> cached = cache.getGroup(groupName, groupType);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cache.stamp();
         List<HelpArticle> articles = new ArrayList<>();
 
         // Query to get articles that belong to a specific group and group type
@@ -244,7 +398,9 @@ public class HelpArticleDatabase extends DatabaseModel {
                      + "JOIN group_articles ga ON ha.id = ga.article_id "
                      + "WHERE ga.group_name = ? AND ga.group_type = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getArticlesByGroup");
+             Connection connection = borrow();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setString(1, groupName);           // Set the group name
             stmt.setString(2, groupType);           // Set the group type
             ResultSet rs = stmt.executeQuery();
@@ -264,14 +420,38 @@ public class HelpArticleDatabase extends DatabaseModel {
                         rs.getString("sensitiveTitle"),
                         rs.getString("sensitiveDescription")
                 );
-                System.out.println(article.getTitle());
+                withStoredDates(article, rs);
+                log.debug("Loaded article {}", article.getTitle());
                 articles.add(article);
             }
+            timer.rows(articles.size()).bytes(weigh(articles));
         }
 
+        cache.putGroup(groupName, groupType, articles, stamp);
         return articles;
     }
 
+    // Estimated bytes read for a list of articles, for the metrics
+    private static long weigh(List<HelpArticle> articles) {
+        long bytes = 0;
+        for (HelpArticle article : articles) {
+            bytes += ArticleCache.weigh(article);
+        }
+        return bytes;
+    }
+
+    // Replace the construction-time dates of an article with the ones stored in its row
+    private void withStoredDates(HelpArticle article, ResultSet rs) throws SQLException {
+        Timestamp created = rs.getTimestamp("createdDate");
+        Timestamp updated = rs.getTimestamp("updatedDate");
+        if (created != null) {
+            article.setCreatedDate(created.toInstant());
+        }
+        if (updated != null) {
+            article.setUpdatedDate(updated.toInstant());
+        }
+    }
+
     // Helper method to convert SQL Array to String[]
     private String[] convertArrayToStringArray(Array sqlArray) throws SQLException {
         if (sqlArray == null) {
@@ -286,27 +466,34 @@ public class HelpArticleDatabase extends DatabaseModel {
         String query = "SELECT group_name FROM group_articles WHERE 1=1";
         List<String> groupList = new ArrayList<>();
 
-        Statement stmt = connection.createStatement();
-
-        try (ResultSet resultSet = stmt.executeQuery(query)) {
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getAllGroups");
+             Connection connection = borrow();
+             Statement stmt = connection.createStatement();
+             ResultSet resultSet = stmt.executeQuery(query)) {
             while (resultSet.next()) {
                 groupList.add(resultSet.getString("group_name"));
             }
+            timer.rows(groupList.size());
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Could not list groups", e);
         }
 
         return groupList;
     }
     
-    public static boolean isUserAdminInGroup(String groupName) throws SQLException {
-        String username = DatabaseHelper.getUsername();  // Retrieve the current logged-in username
+    /**
+     * @return true if the named user has admin rights in the group
+     */
+    public static boolean isUserAdminInGroup(String groupName, String username) throws SQLException {
         String query = "SELECT adminRights FROM group_articles WHERE group_name = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.isUserAdminInGroup");
+             Connection connection = borrow();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setString(1, groupName);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
+                timer.rows(1);
                 String adminRights = rs.getString("adminRights");
                 // Check if the username is in the adminRights (comma-separated string)
                 return adminRights != null && Arrays.asList(adminRights.split(",")).contains(username);
@@ -315,27 +502,149 @@ public class HelpArticleDatabase extends DatabaseModel {
         return false;
     }
     
-    public static boolean isUserViewableInGroup(String groupName) throws SQLException {
-    	System.out.println("test");
-        String query = "SELECT viewable FROM group_articles WHERE group_name = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+    /**
+     * Matches the user against the comma-separated viewable list in one query. The user is
+     * always named by the caller: several users can have a session flag in the shared store.
+     *
+     * @return true if the named user is on the viewable list of the group
+     */
+    public static boolean isUserViewableInGroup(String groupName, String username) throws SQLException {
+        if (username == null) {
+            return false;
+        }
+        String query = "SELECT 1 FROM group_articles WHERE group_name = ? AND POSITION(',' || LOWER(?) || ',' "
+                     + "IN ',' || LOWER(REPLACE(viewable, ' ', '')) || ',') > 0 LIMIT 1";
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.isUserViewableInGroup");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, groupName);
+            pstmt.setString(2, username);
+            ResultSet rs = pstmt.executeQuery();
+            boolean viewable = rs.next();
+            timer.rows(viewable ? 1 : 0);
+            return viewable;
+        }
+    }
+
+    /**
+     * @return the admins and viewers of a special access group, or null if there is no such group
+     */
+    public GroupAccess getGroupAccess(String groupName) throws SQLException {
+        String query = "SELECT adminRights, viewable FROM group_articles WHERE group_name = ?";
+        GroupAccess access = null;
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getGroupAccess");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, groupName);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                String viewableUsers = rs.getString("viewable");
-                if(viewableUsers != null) {
-                	String[] viewableArray = viewableUsers.split(",");  // Assuming viewable users are stored as a comma-separated string
-                    for (String user : viewableArray) {
-                    	System.out.println(user);
-                        if (user.trim().equalsIgnoreCase(DatabaseHelper.getUsername())) {
-                            return true; // User is in the viewable list
+                // Every article row of the group carries the lists; merge them in case they drifted apart
+                GroupAccess row = GroupAccess.parse(rs.getString("adminRights"), rs.getString("viewable"));
+                access = access == null ? row : access.merge(row);
+                timer.rows(1);
+            }
+        }
+        return access;
+    }
+
+    /**
+     * Replaces the admins and viewers on every article row of the group.
+     */
+    public void setGroupAccess(String groupName, GroupAccess access) throws SQLException {
+        String query = "UPDATE group_articles SET adminRights = ?, viewable = ? WHERE group_name = ?";
+        long version;
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.setGroupAccess");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, access.getAdminRights());
+            pstmt.setString(2, access.getViewable());
+            pstmt.setString(3, groupName);
+            version = versioned(connection, () -> timer.rows(pstmt.executeUpdate()));
+        }
+        Search.groupAccessChanged(groupName, access);
+        written(version);
+    }
+
+    /**
+     * @return the special access group the article belongs to, or null if it is in general groups only
+     */
+    public String getSpecialAccessGroup(long articleId) throws SQLException {
+        String query = "SELECT group_name FROM group_articles WHERE article_id = ? AND group_type = 'special_access' LIMIT 1";
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getSpecialAccessGroup");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setLong(1, articleId);
+            ResultSet rs = pstmt.executeQuery();
+            String group = rs.next() ? rs.getString("group_name") : null;
+            timer.rows(group == null ? 0 : 1);
+            return group;
+        }
+    }
+
+    /**
+     * @return every article in a special access group mapped to that group
+     */
+    public Map<Long, String> getSpecialAccessArticles() throws SQLException {
+        String query = "SELECT article_id, group_name FROM group_articles WHERE group_type = 'special_access'";
+        Map<Long, String> articles = new HashMap<>();
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getSpecialAccessArticles");
+             Connection connection = borrow();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                articles.putIfAbsent(rs.getLong("article_id"), rs.getString("group_name"));
+            }
+            timer.rows(articles.size());
+        }
+        return articles;
+    }
+
+    /**
+     * @return every special access group mapped to its admins and viewers, merged over
+     *         its article rows as getGroupAccess does
+     */
+    public Map<String, GroupAccess> getSpecialAccessGroups() throws SQLException {
+        String query = "SELECT group_name, adminRights, viewable FROM group_articles WHERE group_type = 'special_access'";
+        Map<String, GroupAccess> groups = new HashMap<>();
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getSpecialAccessGroups");
+             Connection connection = borrow();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                GroupAccess row = GroupAccess.parse(rs.getString("adminRights"), rs.getString("viewable"));
+                groups.merge(rs.getString("group_name"), row, GroupAccess::merge);
+            }
+            timer.rows(groups.size());
+        }
+        return groups;
+    }
+
+    /**
+     * @return every group name mapped to its type: general groups come from the articles'
+     *         group identifiers, special access groups from group_articles
+     */
+    public Map<String, String> getGroups() throws SQLException {
+        Map<String, String> groups = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getGroups");
+             Connection connection = borrow();
+             Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT DISTINCT groupIdentifier FROM help_articles WHERE groupIdentifier <> ''")) {
+                while (rs.next()) {
+                    for (String group : rs.getString(1).split(",")) {
+                        if (!group.isBlank()) {
+                            groups.put(group.trim(), "general");
                         }
                     }
                 }
-                
             }
+            try (ResultSet rs = stmt.executeQuery("SELECT DISTINCT group_name FROM group_articles WHERE group_type = 'special_access'")) {
+                while (rs.next()) {
+                    groups.put(rs.getString(1), "special_access");
+                }
+            }
+            timer.rows(groups.size());
         }
-        return false; // User is not in the viewable list
+        return groups;
     }
 
     public String[] userGroupsList(String username) throws SQLException {
@@ -343,7 +652,7 @@ public class HelpArticleDatabase extends DatabaseModel {
         List<String> userGroupsList = new ArrayList<>();
 
         for (int ii = 0; ii < allGroupList.size(); ii++) {
-            if (isUserViewableInGroup(allGroupList.get(ii))) {
+            if (isUserViewableInGroup(allGroupList.get(ii), username)) {
                 userGroupsList.add(allGroupList.get(ii));
             }
         }
@@ -358,11 +667,22 @@ public class HelpArticleDatabase extends DatabaseModel {
 
     // Update an existing help article based on its unique ID
     public void updateHelpArticle(HelpArticle article) throws SQLException {
+        updateHelpArticle(article, Instant.now()); // Set updated date to current time
+    }
+
+    /**
+     * Saves an article with the given update time instead of now, e.g. the time a merged
+     * backup copy was last changed, so later merges compare against its real age.
+     */
+    public void updateHelpArticle(HelpArticle article, Instant updatedDate) throws SQLException {
         String sql = "UPDATE help_articles SET level = ?, groupIdentifier = ?, access = ?, title = ?, " +
                      "shortDescription = ?, keywords = ?, body = ?, referenceLinks = ?, " +
                      "sensitiveTitle = ?, sensitiveDescription = ?, updatedDate = ? WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        long version;
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.updateHelpArticle");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, article.getLevel());
             pstmt.setString(2, article.getGroupIdentifier());
             pstmt.setString(3, article.getAccess());
@@ -384,15 +704,27 @@ public class HelpArticleDatabase extends DatabaseModel {
             pstmt.setString(8, String.join(",", stringReferences)); // Store reference links as a comma-separated string
             pstmt.setString(9, article.getSensitiveTitle());
             pstmt.setString(10, article.getSensitiveDescription());
-            pstmt.setTimestamp(11, Timestamp.from(Instant.now())); // Set updated date to current time
+            pstmt.setTimestamp(11, Timestamp.from(updatedDate));
             pstmt.setLong(12, article.getId()); // Specify which article to update
-            pstmt.executeUpdate();
+            version = versioned(connection, () -> timer.rows(pstmt.executeUpdate()));
+        } finally {
+            cache.invalidate(article.getId()); // Also after a failed update, so no edit outlives it
         }
+        Search.articleChanged(article);
+        written(version);
     }
     
     public HelpArticle fetchArticleByTitle(String title) throws SQLException {
+        validateCache();
+        HelpArticle cached = cache.getByTitle(title);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cache.stamp();
         String sql = "SELECT * FROM help_articles WHERE title = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.fetchArticleByTitle");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, title);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -414,18 +746,29 @@ public class HelpArticleDatabase extends DatabaseModel {
                     String sensitiveTitle = rs.getString("sensitiveTitle");
                     String sensitiveDescription = rs.getString("sensitiveDescription");
 
-                    return new HelpArticle(id, level, groupIdentifier, author, access, title, shortDescription, keywords, body, referenceLinks, sensitiveTitle, sensitiveDescription);
+                    HelpArticle article = new HelpArticle(id, level, groupIdentifier, author, access, title, shortDescription, keywords, body, referenceLinks, sensitiveTitle, sensitiveDescription);
+                    withStoredDates(article, rs);
+                    timer.rows(1).bytes(ArticleCache.weigh(article));
+                    cache.putTitle(title, article, stamp);
+                    return article;
                 }
             }
         }
         return null; // Return null if no article is found
     }
     
+    /**
+     * Reads every article in full. Scans bypass the cache: backups, merges and search
+     * rebuilds read each article once, and caching them would evict the ones read
+     * repeatedly and copy every body into the off-heap store.
+     */
     public List<HelpArticle> getAllArticles() throws SQLException {
         String sql = "SELECT * FROM help_articles";
         List<HelpArticle> articles = new ArrayList<>();
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getAllArticles");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 long id = rs.getLong("id");
@@ -440,33 +783,297 @@ public class HelpArticleDatabase extends DatabaseModel {
                 Object[] referenceLinks = (Object[]) rs.getArray("referenceLinks").getArray();
 
                 // Add the HelpArticle to the list
-                articles.add(new HelpArticle(id, level, groupIdentifier, author, access, 
+                HelpArticle article = new HelpArticle(id, level, groupIdentifier, author, access, 
                     rs.getString("title"), shortDescription, keywords, 
                     rs.getString("body"), referenceLinks, 
-                    rs.getString("sensitiveTitle"), rs.getString("sensitiveDescription")));
+                    rs.getString("sensitiveTitle"), rs.getString("sensitiveDescription"));
+                withStoredDates(article, rs);
+                articles.add(article);
             }
+            timer.rows(articles.size()).bytes(weigh(articles));
         }
         return articles;
     }
 
+    /**
+     * Fetches one article by its ID, from the cache when possible.
+     * @return the article, or null if no article has this ID
+     */
+    public HelpArticle fetchArticleById(long id) throws SQLException {
+        validateCache();
+        HelpArticle cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cache.stamp();
+        String sql = "SELECT * FROM help_articles WHERE id = ?";
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.fetchArticleById");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setLong(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    HelpArticle article = new HelpArticle(id,
+                            rs.getString("level"),
+                            rs.getString("groupIdentifier"),
+                            rs.getString("author"),
+                            rs.getString("access"),
+                            rs.getString("title"),
+                            rs.getString("shortDescription"),
+                            convertArrayToStringArray(rs.getArray("keywords")),
+                            rs.getString("body"),
+                            convertArrayToStringArray(rs.getArray("referenceLinks")),
+                            rs.getString("sensitiveTitle"),
+                            rs.getString("sensitiveDescription"));
+                    withStoredDates(article, rs);
+                    timer.rows(1).bytes(ArticleCache.weigh(article));
+                    cache.put(article, stamp);
+                    return article;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lists every article without its body or reference links. Those are fetched per
+     * article the first time they are read, so pickers and filters only move the small columns.
+     */
+    public List<HelpArticle> getArticleSummaries() throws SQLException {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM help_articles";
+        List<HelpArticle> articles = new ArrayList<>();
+
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getArticleSummaries");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                articles.add(summaryFromRow(rs));
+            }
+            timer.rows(articles.size()).bytes(weigh(articles));
+        }
+        return articles;
+    }
+
+    /**
+     * Lists the summaries of the given articles, in ID order, fetching a few hundred per
+     * query. IDs without an article are left out.
+     */
+    public List<HelpArticle> getArticleSummaries(Collection<Long> ids) throws SQLException {
+        List<Long> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted);
+        List<HelpArticle> articles = new ArrayList<>(sorted.size());
+
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getArticleSummariesById");
+             Connection connection = borrow()) {
+            for (int from = 0; from < sorted.size(); from += IN_LIST_SIZE) {
+                List<Long> chunk = sorted.subList(from, Math.min(from + IN_LIST_SIZE, sorted.size()));
+                String sql = "SELECT " + SUMMARY_COLUMNS + " FROM help_articles WHERE id IN ("
+                        + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY id";
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setLong(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            articles.add(summaryFromRow(rs));
+                        }
+                    }
+                }
+            }
+            timer.rows(articles.size()).bytes(weigh(articles));
+        }
+        return articles;
+    }
+
+    /**
+     * @return the articles version, which every write to help_articles or group_articles
+     *         bumps, here or in another instance sharing the store; one primary key read
+     */
+    public long getArticlesVersion() throws SQLException {
+        String sql = "SELECT version FROM data_version WHERE name = 'articles'";
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getArticlesVersion");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            timer.rows(1);
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Lists the summaries of all articles whose title matches, ignoring case.
+     */
+    public List<HelpArticle> getArticleSummariesByTitle(String title) throws SQLException {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM help_articles WHERE LOWER(title) = LOWER(?)";
+        List<HelpArticle> articles = new ArrayList<>();
+
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getArticleSummariesByTitle");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, title);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    articles.add(summaryFromRow(rs));
+                }
+                timer.rows(articles.size()).bytes(weigh(articles));
+            }
+        }
+        return articles;
+    }
+
+    /**
+     * Fetches only the body of an article.
+     * @return the body, or null if no article has this ID
+     */
+    public String fetchBody(long id) throws SQLException {
+        String sql = "SELECT body FROM help_articles WHERE id = ?";
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.fetchBody");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setLong(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                String body = rs.next() ? rs.getString("body") : null;
+                timer.rows(body == null ? 0 : 1).bytes(body == null ? 0 : 2L * body.length());
+                return body;
+            }
+        }
+    }
+
+    /**
+     * Fetches the body and reference links of an article; used to fill in summaries.
+     * @return the content, or null if no article has this ID
+     */
+    public HelpArticle.Content fetchContent(long id) throws SQLException {
+        String sql = "SELECT body, referenceLinks FROM help_articles WHERE id = ?";
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.fetchContent");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setLong(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    Array referenceLinksArray = rs.getArray("referenceLinks");
+                    Object[] referenceLinks = referenceLinksArray != null ? (Object[]) referenceLinksArray.getArray() : new String[0];
+                    String body = rs.getString("body");
+                    timer.rows(1).bytes(body == null ? 0 : 2L * body.length());
+                    return new HelpArticle.Content(body, referenceLinks);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fills in the bodies and reference links of the summaries that lack them, a few
+     * hundred per query, instead of one query per article on first read.
+     */
+    public void loadContents(List<HelpArticle> articles) throws SQLException {
+        Map<Long, List<HelpArticle>> pending = new HashMap<>();
+        for (HelpArticle article : articles) {
+            if (!article.isContentLoaded()) {
+                pending.computeIfAbsent(article.getId(), id -> new ArrayList<>()).add(article);
+            }
+        }
+        List<Long> ids = new ArrayList<>(pending.keySet());
+        long bytes = 0;
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.loadContents");
+             Connection connection = borrow()) {
+            for (int from = 0; from < ids.size(); from += IN_LIST_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + IN_LIST_SIZE, ids.size()));
+                String sql = "SELECT id, body, referenceLinks FROM help_articles WHERE id IN ("
+                        + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setLong(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            Array referenceLinksArray = rs.getArray("referenceLinks");
+                            Object[] referenceLinks = referenceLinksArray != null ? (Object[]) referenceLinksArray.getArray() : new String[0];
+                            String body = rs.getString("body");
+                            bytes += body == null ? 0 : 2L * body.length();
+                            HelpArticle.Content content = new HelpArticle.Content(body, referenceLinks);
+                            for (HelpArticle article : pending.remove(rs.getLong("id"))) {
+                                article.setContent(content);
+                            }
+                        }
+                    }
+                }
+            }
+            for (List<HelpArticle> deleted : pending.values()) {
+                for (HelpArticle article : deleted) {
+                    article.setContent(null); // Deleted since the summary was read
+                }
+            }
+            timer.rows(ids.size()).bytes(bytes);
+        }
+    }
+
+    // Fetches a body the BodyStore dropped while an article read from the cache was still in use
+    private static HelpArticle.Content fetchCachedContent(long id) throws SQLException {
+        return getInstance().fetchContent(id);
+    }
+
+    // Build a summary article from a row selected with SUMMARY_COLUMNS
+    private HelpArticle summaryFromRow(ResultSet rs) throws SQLException {
+        Timestamp created = rs.getTimestamp("createdDate");
+        Timestamp updated = rs.getTimestamp("updatedDate");
+        return HelpArticle.summary(
+                rs.getLong("id"),
+                rs.getString("level"),
+                rs.getString("groupIdentifier"),
+                rs.getString("author"),
+                rs.getString("access"),
+                rs.getString("title"),
+                rs.getString("shortDescription"),
+                convertArrayToStringArray(rs.getArray("keywords")),
+                rs.getString("sensitiveTitle"),
+                rs.getString("sensitiveDescription"),
+                created != null ? created.toInstant() : Instant.now(),
+                updated != null ? updated.toInstant() : Instant.now(),
+                this::fetchContent);
+    }
+
     public void deleteArticleById(long articleId) throws SQLException {
         String sql = "DELETE FROM help_articles WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        long version;
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.deleteArticleById");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setLong(1, articleId);
-            pstmt.executeUpdate();
+            version = versioned(connection, () -> timer.rows(pstmt.executeUpdate()));
         }
+        cache.invalidate(articleId);
+        Search.articleRemoved(articleId);
+        written(version);
     }
     
     public void removeAllArticles() throws SQLException {
         String sql = "DELETE FROM help_articles"; // Adjust the table name as necessary
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.executeUpdate();
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.removeAllArticles");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            versioned(connection, () -> timer.rows(pstmt.executeUpdate()));
+        }
+        cache.invalidateAll();
+        Search.invalidateIndexes();
+    }
+
+    public void removeAllGroupArticles() throws SQLException {
+        String sql = "DELETE FROM group_articles";
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.removeAllGroupArticles");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            versioned(connection, () -> timer.rows(pstmt.executeUpdate()));
         }
+        cache.invalidateAll();
+        Search.invalidateIndexes();
     }
     
  // Method to read articles from a backup file
  public List<HelpArticle> readArticlesFromFile(File filename) {
-    System.out.println("READING ARTICLES FROM BACKUP FILE");
+    log.info("Reading articles from backup file {}", filename);
 
     List<HelpArticle> articles = new ArrayList<>();
     try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
@@ -494,19 +1101,28 @@ public class HelpArticleDatabase extends DatabaseModel {
 
                 // Optional: Set created and updated date if needed
                 article.setCreatedDate(Instant.parse(fields[11].substring(15))); // Assuming the date is stored as an ISO-8601 string
-                article.setUpdatedDate(Instant.now()); // Set to now or use from file if available
+                article.setUpdatedDate(parseUpdatedDate(fields[12])); // Merges compare this to decide which copy is newer
 
                 articles.add(article);
             }
         }
     } catch (IOException e) {
-        e.printStackTrace(); // Handle file reading errors
+        log.error("Could not read backup file {}", filename, e); // Handle file reading errors
     } catch (NumberFormatException e) {
-        e.printStackTrace(); // Handle number format errors if parsing ID fails
+        log.error("Backup file {} has an invalid article ID", filename, e); // Handle number format errors if parsing ID fails
     }
     return articles; // Return the constructed list of HelpArticle objects
 }
     
+    // Read the "Updated Date: ..." field of a backup line, falling back to now for older backups
+    private static Instant parseUpdatedDate(String field) {
+        try {
+            return Instant.parse(field.substring(field.indexOf(':') + 1).trim());
+        } catch (RuntimeException e) {
+            return Instant.now();
+        }
+    }
+
 public void restoreArticlesFromBackup(File filename) throws SQLException {
     List<HelpArticle> articles = readArticlesFromFile(filename); // Method to read from the file
 
@@ -515,7 +1131,8 @@ public void restoreArticlesFromBackup(File filename) throws SQLException {
         if (!articleExists(article.getId())) {
             // Insert the article into the database
             String sql = "INSERT INTO help_articles (id, title, level, groupIdentifier, access, shortDescription, keywords, body, referenceLinks, sensitiveTitle, sensitiveDescription, createdDate, updatedDate) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (Connection connection = borrow();
+                 PreparedStatement pstmt = connection.prepareStatement(sql)) {
                 pstmt.setLong(1, article.getId());
                 pstmt.setString(2, article.getTitle());
                 pstmt.setString(3, article.getLevel());
@@ -529,20 +1146,25 @@ public void restoreArticlesFromBackup(File filename) throws SQLException {
                 pstmt.setString(11, article.getSensitiveDescription());
                 pstmt.setTimestamp(12, Timestamp.from(article.getCreatedDate()));
                 pstmt.setTimestamp(13, Timestamp.from(article.getUpdatedDate()));
-                pstmt.executeUpdate();
-            } catch(Exception FileNotFoundException) {
-                System.out.println("Cannot find file");
+                versioned(connection, pstmt::executeUpdate);
+            } catch (Exception e) {
+                log.error("Could not restore article {}", article.getId(), e);
             }
         }
     }
+    cache.invalidateAll();
+    Search.invalidateIndexes();
 }
 
     private boolean articleExists(long id) throws SQLException {
         String sql = "SELECT COUNT(*) FROM help_articles WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.articleExists");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setLong(1, id);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
+                    timer.rows(1);
                     return rs.getInt(1) > 0; // If count is greater than 0, the article exists
                 }
             }
@@ -551,38 +1173,104 @@ public void restoreArticlesFromBackup(File filename) throws SQLException {
     }
 
     public void mergeBackupArticles(File filename) throws SQLException, Exception {
+        mergeBackupArticles(filename, MergePolicy.SKIP);
+    }
+
+    /**
+     * Merges a backup file into the current articles, skipping articles whose content is
+     * already present and resolving ID conflicts with the given policy.
+     * @return how many articles were added, replaced and skipped
+     */
+    public ArticleMerger.Result mergeBackupArticles(File filename, MergePolicy policy) throws SQLException {
         List<HelpArticle> articles = readArticlesFromFile(filename); // Read articles from backup
-        System.out.println("MERGING BACKUPS");
+        log.info("Merging backup file {} with policy {}", filename, policy.name());
 
-        for (HelpArticle article : articles) {
-        	System.out.println("CHECKING ARTICLE");
-            // Check if the article with the same ID already exists
-            if (!articleExists(article.getId())) {
-                // Insert the article into the database
-                String sql = "INSERT INTO help_articles (id, title, level, groupIdentifier, access, shortDescription, keywords, body, referenceLinks, sensitiveTitle, sensitiveDescription, createdDate, updatedDate) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                    pstmt.setLong(1, article.getId());
-                    pstmt.setString(2, article.getTitle());
-                    pstmt.setString(3, article.getLevel());
-                    pstmt.setString(4, article.getGroupIdentifier());
-                    pstmt.setString(5, article.getAccess());
-                    pstmt.setString(6, article.getShortDescription());
-                    pstmt.setObject(7, article.getKeywords()); // Adjust this based on how you store keywords
-                    pstmt.setString(8, article.getBody());
-                    pstmt.setObject(9, article.getReferenceLinks()); // Adjust this based on how you store reference links
-                    pstmt.setString(10, article.getSensitiveTitle());
-                    pstmt.setString(11, article.getSensitiveDescription());
-                    pstmt.setTimestamp(12, Timestamp.from(article.getCreatedDate()));
-                    pstmt.setTimestamp(13, Timestamp.from(article.getUpdatedDate()));
-                    pstmt.executeUpdate();
-                } catch(Exception e) {
-                	new Alert(Alert.AlertType.ERROR, "Error inserting articles: " + e.getMessage(), ButtonType.OK);
-                }
-            } else {
-                // Optionally, you can log or print a message indicating that the article was skipped
-                System.out.println("Article with ID " + article.getId() + " already exists, skipping.");
+        // One transaction, so a failure part way leaves the table as it was; the merger's
+        // queries on this thread run on its connection, see borrow()
+        try (Connection connection = DatabaseConfig.get().connect()) {
+            connection.setAutoCommit(false);
+            transaction.set(connection);
+            try {
+                ArticleMerger.Result result = new ArticleMerger(this, policy).merge(articles);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                transaction.remove();
+                connection.setAutoCommit(true);
             }
+        } finally {
+            cache.invalidateAll();
+            Search.invalidateIndexes();
         }
     }
+
+    /**
+     * Inserts many articles with a single batched statement.
+     */
+    public void createHelpArticles(List<HelpArticle> articles) throws SQLException {
+        if (articles.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO help_articles (id, level, groupIdentifier, author, access, title, " +
+                     "shortDescription, keywords, body, referenceLinks, sensitiveTitle, sensitiveDescription, createdDate, updatedDate) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.createHelpArticles");
+             Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (HelpArticle article : articles) {
+                pstmt.setLong(1, article.getId());
+                pstmt.setString(2, article.getLevel());
+                pstmt.setString(3, article.getGroupIdentifier());
+                pstmt.setString(4, article.getAuthor());
+                pstmt.setString(5, article.getAccess());
+                pstmt.setString(6, article.getTitle());
+                pstmt.setString(7, article.getShortDescription());
+                pstmt.setArray(8, connection.createArrayOf("VARCHAR", article.getKeywords()));
+                pstmt.setString(9, article.getBody());
+                pstmt.setArray(10, connection.createArrayOf("VARCHAR", article.getReferenceLinks()));
+                pstmt.setString(11, article.getSensitiveTitle());
+                pstmt.setString(12, article.getSensitiveDescription());
+                pstmt.setTimestamp(13, Timestamp.from(article.getCreatedDate()));
+                pstmt.setTimestamp(14, Timestamp.from(article.getUpdatedDate()));
+                pstmt.addBatch();
+            }
+            versioned(connection, pstmt::executeBatch);
+            timer.rows(articles.size());
+        } finally {
+            cache.invalidateAll();
+            Search.invalidateIndexes();
+        }
+    }
+    /**
+     * Maps many articles into one group with a single batched statement. The first
+     * mapping carries the group's instructor flag, as createGroupArticle sets it.
+     */
+    public void addArticlesToGroup(long[] articleIds, String groupName, String groupType, String adminRights, String viewable) throws SQLException {
+        String query = "INSERT INTO group_articles (article_id, group_name, group_type, adminRights, viewable, isInstructor) VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.addArticlesToGroup");
+             Connection connection = borrow();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
+            for (int i = 0; i < articleIds.length; i++) {
+                stmt.setLong(1, articleIds[i]);
+                stmt.setString(2, groupName);
+                stmt.setString(3, groupType);
+                stmt.setString(4, adminRights);
+                stmt.setString(5, viewable);
+                stmt.setBoolean(6, i == 0);
+                stmt.addBatch();
+            }
+            versioned(connection, stmt::executeBatch);
+            timer.rows(articleIds.length);
+        } finally {
+            cache.invalidateAll();
+            Search.invalidateIndexes();
+        }
+    }
+
     // Additional methods (e.g., update, delete, etc.) can be added here
 }
@@ -20,23 +20,18 @@ import project.account.DatabaseHelper;
  */
 
 public class HelpArticleManagementPage extends TilePane {
-    public HelpArticleManagementPage(Stage stage, HelpArticleDatabase helpArticleDatabase, int num) {
+    /**
+     * @param username the user logged in on this workstation, whose group rights are checked
+     */
+    public HelpArticleManagementPage(Stage stage, HelpArticleDatabase helpArticleDatabase, String username, int num) {
         stage.setTitle("Help Article Management");
 
         // CreateHelpArticlePage Button ------------------------------------------------------------------------------------------
         Button createHelpArticleButton = new Button("Create Help Articles");
         createHelpArticleButton.setOnAction(event -> {
-            // Assuming 'user' is an object that contains the current user's data
-            String username = null;
-			try {
-				username = DatabaseHelper.getUsername();
-			} catch (SQLException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			} 
             boolean isInstructor = false;
 			try {
-				isInstructor = DatabaseHelper.isInstructor();
+				isInstructor = DatabaseHelper.isInstructor(username);
 			} catch (SQLException e) {
 				// TODO Auto-generated catch block
 				e.printStackTrace();
@@ -70,10 +65,10 @@ public class HelpArticleManagementPage extends TilePane {
             // Redirect user to SpecialAccessPage where they can provide group name
             String groupName = getGroupNameFromUser(); // Implement a method to get group name input from user
             try {
-            	if (HelpArticleDatabase.isUserAdminInGroup(groupName)) {
+            	if (HelpArticleDatabase.isUserAdminInGroup(groupName, username)) {
                     // If the user is an admin of the group, redirect them to the SpecialAdminPage
                     new SpecialAdminPage(stage, helpArticleDatabase, groupName);
-                } else if (HelpArticleDatabase.isUserViewableInGroup(groupName)) {
+                } else if (HelpArticleDatabase.isUserViewableInGroup(groupName, username)) {
                     // If the user is viewable in the group, redirect them to the SpecialViewPage
                     new SpecialViewPage(stage, helpArticleDatabase, groupName);
                 } else {
@@ -5,8 +5,9 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import project.util.Back;
+import project.util.BackgroundTasks;
 
-import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.Arrays;
@@ -36,18 +37,21 @@ public class ListArticlesByGroupPage extends ScrollPane {
         	
         });
         
-        try {
-            // Fetch all articles
-            List<HelpArticle> articles = helpArticleDatabase.getAllArticles();
-            vbox.getChildren().clear(); // Clear existing articles
-            vbox.getChildren().add(back);
+        vbox.getChildren().addAll(back, new Label("Loading articles..."));
 
-            // Split the group IDs and trim spaces
-            List<String> groupIdList = Arrays.stream(groupIDs.split(","))
-                                              .map(String::trim)
-                                              .collect(Collectors.toList());
+        // Split the group IDs and trim spaces
+        List<String> groupIdList = Arrays.stream(groupIDs.split(","))
+                                          .map(String::trim)
+                                          .collect(Collectors.toList());
 
-            // Filter articles based on the group IDs
+        // Filter and load on the data-access thread, so the getters below never reach the
+        // database from the FX thread
+        BackgroundTasks.run(() -> {
+            // Fetch article summaries; bodies are loaded only for articles that match
+            List<HelpArticle> articles = helpArticleDatabase.getArticleSummaries();
+
+            // Filter articles based on the group IDs, then fetch the bodies of the matches in batches
+            List<HelpArticle> matches = new ArrayList<>();
             for (HelpArticle article : articles) {
                 String[] articleGroupIds = article.getGroupIdentifierArray(); // Get group IDs for the article
 
@@ -56,47 +60,56 @@ public class ListArticlesByGroupPage extends ScrollPane {
                         .allMatch(groupId -> Arrays.asList(articleGroupIds).contains(groupId));
 
                 if (belongsToAllGroups) {
-                    // Convert Object[] to String for keywords
-                    Object[] keywordsArray = article.getKeywords();
-                    String keywordsString = Arrays.stream(keywordsArray)
-                                                  .map(Object::toString)
-                                                  .collect(Collectors.joining(", "));
-
-                    // Convert Object[] to String for reference links
-                    Object[] referenceLinksArray = article.getReferenceLinks();
-                    String referencesString = Arrays.stream(referenceLinksArray)
-                                                    .map(Object::toString)
-                                                    .collect(Collectors.joining(", "));
-
-                    // Create a formatted string for each article
-                    String articleDetails = String.format(
-                        "Title: %s\nLevel: %s\nGroup Identifier: %s\nShort Description: %s\nKeywords: %s\nBody: %s\nReference Links: %s\n\n",
-                        article.getTitle(),
-                        article.getLevel(),
-                        article.getGroupIdentifier(),
-                        article.getShortDescription(),
-                        keywordsString, // Use the generated keywords string
-                        article.getBody(),
-                        referencesString // Use the generated references string
-                    );
-
-                    // Create a Label for each article
-                    Label articleLabel = new Label(articleDetails);
-                    articleLabel.setWrapText(true); // Enable text wrapping
-                    vbox.getChildren().add(articleLabel); // Add the article label to the VBox
+                    matches.add(article);
                 }
             }
+            helpArticleDatabase.loadContents(matches);
+            return matches;
+        }, matches -> {
+            vbox.getChildren().clear(); // Clear existing articles
+            vbox.getChildren().add(back);
+
+            for (HelpArticle article : matches) {
+                // Convert Object[] to String for keywords
+                Object[] keywordsArray = article.getKeywords();
+                String keywordsString = Arrays.stream(keywordsArray)
+                                              .map(Object::toString)
+                                              .collect(Collectors.joining(", "));
+
+                // Convert Object[] to String for reference links
+                Object[] referenceLinksArray = article.getReferenceLinks();
+                String referencesString = Arrays.stream(referenceLinksArray)
+                                                .map(Object::toString)
+                                                .collect(Collectors.joining(", "));
+
+                // Create a formatted string for each article
+                String articleDetails = String.format(
+                    "Title: %s\nLevel: %s\nGroup Identifier: %s\nShort Description: %s\nKeywords: %s\nBody: %s\nReference Links: %s\n\n",
+                    article.getTitle(),
+                    article.getLevel(),
+                    article.getGroupIdentifier(),
+                    article.getShortDescription(),
+                    keywordsString, // Use the generated keywords string
+                    article.getBody(),
+                    referencesString // Use the generated references string
+                );
+
+                // Create a Label for each article
+                Label articleLabel = new Label(articleDetails);
+                articleLabel.setWrapText(true); // Enable text wrapping
+                vbox.getChildren().add(articleLabel); // Add the article label to the VBox
+            }
 
             // If no articles found for the group IDs
-            if (vbox.getChildren().isEmpty()) {
+            if (vbox.getChildren().size() == 1) {
                 Label noArticlesLabel = new Label("No articles found for group IDs: " + groupIDs);
                 vbox.getChildren().add(noArticlesLabel);
             }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            Alert alert = new Alert(Alert.AlertType.ERROR, "Error loading articles: " + ex.getMessage(), ButtonType.OK);
+        }, error -> {
+            vbox.getChildren().setAll(back);
+            Alert alert = new Alert(Alert.AlertType.ERROR, "Error loading articles: " + error.getMessage(), ButtonType.OK);
             alert.showAndWait();
-        }
+        });
 
         // Add the VBox to the ScrollPane
         setContent(vbox);
@@ -1,17 +1,17 @@
 package project.article;
 
-import java.sql.SQLException;
-
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.TilePane;
 import javafx.stage.Stage;
+import project.service.ArticleService;
 import project.util.Back;
 
 
 public class SelectGroupPage extends TilePane {
     public SelectGroupPage(Stage stage, HelpArticle article, HelpArticleDatabase helpArticleDatabase, String username, boolean isInstructor) {
         stage.setTitle("Select Group Type");
+        ArticleService articles = new ArticleService(helpArticleDatabase);
 
         // Create buttons for group selection
         Button generalGroupButton = new Button("General Group");
@@ -30,16 +30,13 @@ public class SelectGroupPage extends TilePane {
             groupNameDialog.setTitle("General Group");
             groupNameDialog.setHeaderText("Enter the name of the General Group:");
             groupNameDialog.showAndWait().ifPresent(groupName -> {
-                article.setGroupIdentifier(groupName);  // Keep the unique group identifier
-                String groupNameForStorage = groupName; // Store the group name for future retrieval
-
                 try {
                     // Store the article in the specified general group
-                    helpArticleDatabase.createGroupArticle(article, groupNameForStorage, "general", username, isInstructor);
+                    articles.create(article, groupName, ArticleService.GENERAL, username, isInstructor);
 
                     Alert alert = new Alert(Alert.AlertType.INFORMATION, "Article created successfully in General Group!", ButtonType.OK);
                     alert.showAndWait();
-                } catch (SQLException e) {
+                } catch (Exception e) {
                     e.printStackTrace();
                     Alert alert = new Alert(Alert.AlertType.ERROR, "Error creating article: " + e.getMessage(), ButtonType.OK);
                     alert.showAndWait();
@@ -53,16 +50,9 @@ public class SelectGroupPage extends TilePane {
             groupNameDialog.setTitle("Special Access Group");
             groupNameDialog.setHeaderText("Enter the name of the Special Access Group:");
             groupNameDialog.showAndWait().ifPresent(groupName -> {
-                article.setGroupIdentifier(groupName); // Keep the unique group identifier
-                String groupNameForStorage = groupName; // Store the group name for future retrieval
-
                 try {
-                    // Encrypt the body if it's a special access group
-                    String encryptedBody = EncryptionUtil.encrypt(article.getBody());
-                    article.setBody(encryptedBody); // Set the encrypted body
-
-                    // Store the article in the specified special access group
-                    helpArticleDatabase.createGroupArticle(article, groupNameForStorage, "special_access", username, isInstructor);
+                    // Store the article in the specified special access group; the service encrypts its body
+                    articles.create(article, groupName, ArticleService.SPECIAL_ACCESS, username, isInstructor);
 
                     Alert alert = new Alert(Alert.AlertType.INFORMATION, "Article created successfully in Special Access Group!", ButtonType.OK);
                     alert.showAndWait();
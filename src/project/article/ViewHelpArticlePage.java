@@ -5,8 +5,8 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import project.util.Back;
+import project.util.BackgroundTasks;
 
-import java.sql.SQLException;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.Arrays;
@@ -25,8 +25,15 @@ public class ViewHelpArticlePage extends ScrollPane {
         	
         });
 
-        try {
-            List<HelpArticle> articles = helpArticleDatabase.getAllArticles(); // Fetch all articles
+        vbox.getChildren().addAll(back, new Label("Loading articles..."));
+
+        // Fetch the matching articles and their bodies on the data-access thread, so the
+        // getters below never reach the database from the FX thread
+        BackgroundTasks.run(() -> {
+            List<HelpArticle> articles = helpArticleDatabase.getArticleSummariesByTitle(title);
+            helpArticleDatabase.loadContents(articles);
+            return articles;
+        }, articles -> {
             vbox.getChildren().clear(); // Clear existing articles
             vbox.getChildren().add(back);
 
@@ -65,15 +72,15 @@ public class ViewHelpArticlePage extends ScrollPane {
             }
 
             // If no articles found for the title
-            if (vbox.getChildren().isEmpty()) {
+            if (vbox.getChildren().size() == 1) {
                 Label noArticlesLabel = new Label("No articles found with title: " + title);
                 vbox.getChildren().add(noArticlesLabel);
             }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            Alert alert = new Alert(Alert.AlertType.ERROR, "Error loading articles: " + ex.getMessage(), ButtonType.OK);
+        }, error -> {
+            vbox.getChildren().setAll(back);
+            Alert alert = new Alert(Alert.AlertType.ERROR, "Error loading articles: " + error.getMessage(), ButtonType.OK);
             alert.showAndWait();
-        }
+        });
 //        });
 
         // Add components to the VBox
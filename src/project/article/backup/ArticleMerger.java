@@ -0,0 +1,152 @@
+package project.article.backup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import project.article.HelpArticle;
+import project.article.HelpArticleDatabase;
+
+/**
+ * <p> ArticleMerger class </p>
+ *
+ * <p> Description: Merges backed up articles into the database without duplicating
+ * content. The current articles are indexed once by ID and by normalized content
+ * fingerprint, and every incoming article is then resolved against that index in a
+ * single pass. Merging the backups of several departments therefore inserts each
+ * article once, even when the copies were given different IDs. Replaced articles keep
+ * the update time of their backup copy. The caller runs a merge in one transaction. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class ArticleMerger {
+    private final HelpArticleDatabase database;
+    private final MergePolicy policy;
+    private Map<Long, HelpArticle> byFingerprint; // Built on the first merge, kept for later files
+    private Map<Long, HelpArticle> byId;
+
+    public ArticleMerger(HelpArticleDatabase database, MergePolicy policy) {
+        this.database = database;
+        this.policy = policy;
+    }
+
+    /**
+     * Merges one batch of incoming articles. May be called once per backup file; the
+     * index carries over, so duplicates across files are caught too.
+     */
+    public Result merge(List<HelpArticle> incoming) throws SQLException {
+        if (byFingerprint == null) {
+            buildIndex();
+        }
+
+        Result result = new Result();
+        List<HelpArticle> inserts = new ArrayList<>();
+        for (HelpArticle article : incoming) {
+            long fingerprint = article.normalizedFingerprint();
+            HelpArticle sameContent = byFingerprint.get(fingerprint);
+            HelpArticle sameId = byId.get(article.getId());
+
+            if (sameContent != null) {
+                // Already present, possibly under another ID: at most refresh it
+                if (policy == MergePolicy.NEWER_WINS && isNewer(article, sameContent)) {
+                    replace(sameContent, article, fingerprint, inserts);
+                    result.replaced++;
+                } else {
+                    result.skipped++;
+                }
+            } else if (sameId != null) {
+                // Same ID, different content
+                if (policy == MergePolicy.KEEP_BOTH) {
+                    article.setId(article.generateUniqueId());
+                    add(article, fingerprint, inserts);
+                    result.inserted++;
+                } else if (policy == MergePolicy.NEWER_WINS && isNewer(article, sameId)) {
+                    replace(sameId, article, fingerprint, inserts);
+                    result.replaced++;
+                } else {
+                    result.skipped++;
+                }
+            } else {
+                add(article, fingerprint, inserts);
+                result.inserted++;
+            }
+        }
+
+        database.createHelpArticles(inserts);
+        return result;
+    }
+
+    private void buildIndex() throws SQLException {
+        List<HelpArticle> existing = database.getAllArticles();
+        byFingerprint = new HashMap<>(existing.size() * 2);
+        byId = new HashMap<>(existing.size() * 2);
+        for (HelpArticle article : existing) {
+            byFingerprint.putIfAbsent(article.normalizedFingerprint(), article);
+            byId.put(article.getId(), article);
+        }
+    }
+
+    private void add(HelpArticle article, long fingerprint, List<HelpArticle> inserts) {
+        inserts.add(article);
+        byFingerprint.put(fingerprint, article);
+        byId.put(article.getId(), article);
+    }
+
+    // Overwrite the stored article with the incoming one, keeping the stored ID and the incoming date.
+    // A match from earlier in this batch is not in the table yet, so it is swapped in the pending inserts.
+    private void replace(HelpArticle existing, HelpArticle incoming, long fingerprint, List<HelpArticle> inserts) throws SQLException {
+        byFingerprint.remove(existing.normalizedFingerprint());
+        incoming.setId(existing.getId());
+        int pending = indexOf(inserts, existing);
+        if (pending >= 0) {
+            inserts.set(pending, incoming);
+        } else {
+            database.updateHelpArticle(incoming, incoming.getUpdatedDate());
+        }
+        byFingerprint.put(fingerprint, incoming);
+        byId.put(incoming.getId(), incoming);
+    }
+
+    // By identity, the index holds the same instances as the pending list
+    private static int indexOf(List<HelpArticle> inserts, HelpArticle article) {
+        for (int i = 0; i < inserts.size(); i++) {
+            if (inserts.get(i) == article) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isNewer(HelpArticle incoming, HelpArticle existing) {
+        return incoming.getUpdatedDate() != null && existing.getUpdatedDate() != null
+                && incoming.getUpdatedDate().isAfter(existing.getUpdatedDate());
+    }
+
+    /**
+     * Counts of what a merge did with the incoming articles.
+     */
+    public static class Result {
+        private int inserted;
+        private int replaced;
+        private int skipped;
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        public int getReplaced() {
+            return replaced;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        @Override
+        public String toString() {
+            return inserted + " added, " + replaced + " replaced, " + skipped + " skipped";
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package project.article.backup;
 
+import javafx.concurrent.Task;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
@@ -8,14 +9,13 @@ import javafx.stage.FileChooser.ExtensionFilter;
 import project.article.HelpArticle;
 import project.article.HelpArticleDatabase;
 import project.util.Back;
+import project.util.BackgroundTasks;
 import javafx.stage.Stage;
 import java.io.File;
 import java.io.FileWriter;
-import java.io.IOException;
 import java.sql.SQLException;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
 
 
 /**
@@ -49,6 +49,12 @@ public class BackupHelpArticlesPage extends VBox {
             backupFile = fileChooser.showSaveDialog(stage);
         });
 
+        ProgressBar progressBar = new ProgressBar(0);
+
+        // Stops a running backup; the partial file is deleted
+        Button cancelButton = new Button("Cancel");
+        cancelButton.setDisable(true);
+
         // Create a Button to trigger the backup
         Button backupButton = new Button("Backup Articles");
         backupButton.setOnAction(event -> {
@@ -57,7 +63,7 @@ public class BackupHelpArticlesPage extends VBox {
                 Alert alert = new Alert(Alert.AlertType.WARNING, "Please select a file.", ButtonType.OK);
                 alert.showAndWait();
             } else {
-                backupArticles(backupFile);
+                backupArticles(backupFile, backupButton, cancelButton, progressBar);
             }
         });
 
@@ -68,7 +74,7 @@ public class BackupHelpArticlesPage extends VBox {
         });
 
         // Add components to the VBox
-        getChildren().addAll(new Label("Backup Help Articles"), openFileChooserButton, backupButton, back);
+        getChildren().addAll(new Label("Backup Help Articles"), openFileChooserButton, backupButton, progressBar, cancelButton, back);
 
         // Set the scene with the current VBox
         Scene s = new Scene(this, 400, 200);
@@ -77,55 +83,42 @@ public class BackupHelpArticlesPage extends VBox {
         stage.show();
     }
 
-    private void backupArticles(File backupFile) {
-        try {
+    private void backupArticles(File backupFile, Button backupButton, Button cancelButton, ProgressBar progressBar) {
+        backupButton.setDisable(true);
+        // Query and file writing both run on the data-access thread
+        Task<Integer> task = BackgroundTasks.run(progress -> {
             List<HelpArticle> articles = helpArticleDatabase.getAllArticles(); // Fetch all articles
-            FileWriter writer = new FileWriter(backupFile);
-
-            for (HelpArticle article : articles) {
-                writer.write(articleToString(article) + System.lineSeparator());
+            int written = 0;
+            try (FileWriter writer = new FileWriter(backupFile)) {
+                for (; written < articles.size() && !progress.isCancelled(); written++) {
+                    writer.write(BackupWriter.articleToString(articles.get(written)) + System.lineSeparator());
+                    progress.update(written + 1, articles.size());
+                }
+            } finally {
+                if (written < articles.size()) {
+                    backupFile.delete(); // Cancelled or failed part way; never leave a backup that looks complete
+                }
             }
-
-            writer.close();
+            return articles.size();
+        }, count -> {
+            backupButton.setDisable(false);
+            cancelButton.setDisable(true);
             Alert alert = new Alert(Alert.AlertType.INFORMATION, "Backup completed successfully!", ButtonType.OK);
             alert.showAndWait();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            Alert alert = new Alert(Alert.AlertType.ERROR, "Error fetching articles: " + e.getMessage(), ButtonType.OK);
-            alert.showAndWait();
-        } catch (IOException e) {
-            e.printStackTrace();
-            Alert alert = new Alert(Alert.AlertType.ERROR, "Error writing to file: " + e.getMessage(), ButtonType.OK);
+        }, error -> {
+            backupButton.setDisable(false);
+            cancelButton.setDisable(true);
+            if (error instanceof CancellationException) {
+                new Alert(Alert.AlertType.INFORMATION, "Backup cancelled.", ButtonType.OK).showAndWait();
+                return;
+            }
+            String reason = error instanceof SQLException ? "Error fetching articles: " : "Error writing to file: ";
+            Alert alert = new Alert(Alert.AlertType.ERROR, reason + error.getMessage(), ButtonType.OK);
             alert.showAndWait();
-        }
-    }
-
-    private String articleToString(HelpArticle article) {
-        // Convert the HelpArticle object to a String representation
-        String keywordsString = Arrays.stream(article.getKeywords())
-                                      .map(Object::toString)
-                                      .collect(Collectors.joining(", "));
-        String referenceLinksString = Arrays.stream(article.getReferenceLinks())
-                                            .map(Object::toString)
-                                            .collect(Collectors.joining(", "));
-        
-        return String.format("ID: %d; Title: %s; Level: %s; Group Identifier: %s; Access: %s; Short Description: %s; " +
-                             "Keywords: %s; Body: %s; Reference Links: %s; Sensitive Title: %s; " +
-                             "Sensitive Description: %s; Created Date: %s; Updated Date: %s", // all fields seperated by semicolons
-                article.getId(),
-                article.getTitle(),
-                article.getLevel(),
-                article.getGroupIdentifier(),
-                article.getAccess(),
-                article.getShortDescription(),
-                keywordsString,
-                article.getBody(),
-                referenceLinksString,
-                article.getSensitiveTitle(),
-                article.getSensitiveDescription(),
-                article.getCreatedDate().toString(), // Assuming createdDate is not null
-                article.getUpdatedDate().toString()  // Assuming updatedDate is not null
-        );
+        });
+        progressBar.progressProperty().bind(task.progressProperty());
+        cancelButton.setOnAction(event -> task.cancel());
+        cancelButton.setDisable(false);
     }
 
 }
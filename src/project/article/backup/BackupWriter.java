@@ -0,0 +1,61 @@
+package project.article.backup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import project.article.HelpArticle;
+
+/**
+ * <p> BackupWriter class </p>
+ *
+ * <p> Description: Writes help articles in the backup file format, one article per line
+ * with fields separated by semicolons, as read back by
+ * HelpArticleDatabase.readArticlesFromFile. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class BackupWriter {
+
+    private BackupWriter() {
+    }
+
+    /**
+     * Writes every article as one line.
+     */
+    public static void write(List<HelpArticle> articles, Writer writer) throws IOException {
+        for (HelpArticle article : articles) {
+            writer.write(articleToString(article) + System.lineSeparator());
+        }
+    }
+
+    public static String articleToString(HelpArticle article) {
+        // Convert the HelpArticle object to a String representation
+        String keywordsString = Arrays.stream(article.getKeywords())
+                                      .map(Object::toString)
+                                      .collect(Collectors.joining(", "));
+        String referenceLinksString = Arrays.stream(article.getReferenceLinks())
+                                            .map(Object::toString)
+                                            .collect(Collectors.joining(", "));
+        
+        return String.format("ID: %d; Title: %s; Level: %s; Group Identifier: %s; Access: %s; Short Description: %s; " +
+                             "Keywords: %s; Body: %s; Reference Links: %s; Sensitive Title: %s; " +
+                             "Sensitive Description: %s; Created Date: %s; Updated Date: %s", // all fields seperated by semicolons
+                article.getId(),
+                article.getTitle(),
+                article.getLevel(),
+                article.getGroupIdentifier(),
+                article.getAccess(),
+                article.getShortDescription(),
+                keywordsString,
+                article.getBody(),
+                referenceLinksString,
+                article.getSensitiveTitle(),
+                article.getSensitiveDescription(),
+                article.getCreatedDate().toString(), // Assuming createdDate is not null
+                article.getUpdatedDate().toString()  // Assuming updatedDate is not null
+        );
+    }
+}
@@ -6,9 +6,10 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import project.article.HelpArticleDatabase;
 import project.util.Back;
+import project.util.BackgroundTasks;
 
 import java.io.File;
-import java.sql.SQLException;
+import java.util.Optional;
 
 /**
  * <p> MergeCurrRestorePage class </p>
@@ -22,19 +23,28 @@ public class MergeCurrentRestorePage extends VBox {
     public MergeCurrentRestorePage(Stage stage, HelpArticleDatabase helpArticleDatabase, File filename) {
         stage.setTitle("Merge with Current Articles");
 
-        // Load and merge articles from the backup file
-        try {
-            helpArticleDatabase.mergeBackupArticles(filename); // Assuming this method handles the merging logic
-            Alert alert = new Alert(Alert.AlertType.INFORMATION, "Articles merged successfully!", ButtonType.OK);
+        Label statusLabel = new Label("Merging...");
+
+        // Ask how to resolve articles that conflict with existing ones
+        ChoiceDialog<MergePolicy> policyDialog = new ChoiceDialog<>(MergePolicy.SKIP, MergePolicy.values());
+        policyDialog.setTitle("Merge Policy");
+        policyDialog.setHeaderText("When a backed up article conflicts with an existing one:");
+        Optional<MergePolicy> chosen = policyDialog.showAndWait();
+        if (chosen.isEmpty()) {
+            return; // Cancelled: stay on the restore options without merging
+        }
+        MergePolicy policy = chosen.get();
+
+        // Load and merge articles from the backup file on the data-access thread
+        BackgroundTasks.run(() -> helpArticleDatabase.mergeBackupArticles(filename, policy), result -> {
+            statusLabel.setText("Merged! " + result);
+            Alert alert = new Alert(Alert.AlertType.INFORMATION, "Articles merged successfully: " + result, ButtonType.OK);
             alert.showAndWait();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            Alert alert = new Alert(Alert.AlertType.ERROR, "Error merging articles: " + e.getMessage(), ButtonType.OK);
+        }, error -> {
+            statusLabel.setText("Merge failed.");
+            Alert alert = new Alert(Alert.AlertType.ERROR, "Error merging articles: " + error.getMessage(), ButtonType.OK);
             alert.showAndWait();
-        } catch (Exception e) {
-        	Alert alert = new Alert(Alert.AlertType.ERROR, "Error merging articles: " + e.getMessage(), ButtonType.OK);
-            alert.showAndWait();
-		}
+        });
 
         Button back = new Button("Back");
         back.setOnAction(event -> {
@@ -43,7 +53,7 @@ public class MergeCurrentRestorePage extends VBox {
         });
 
         // Add a loading message while the merging is happening
-        getChildren().addAll(new Label("Merged!"), back);
+        getChildren().addAll(statusLabel, back);
 
         Scene s = new Scene(this, 400, 200);
         Back.pushBack(s, "Merge with Current Articles");
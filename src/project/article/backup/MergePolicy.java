@@ -0,0 +1,31 @@
+package project.article.backup;
+
+/**
+ * <p> MergePolicy enum </p>
+ *
+ * <p> Description: Decides what a merge does when an incoming article conflicts with an
+ * existing one, either because it has the same content or because it reuses an ID
+ * for different content. Articles whose content already exists are never inserted
+ * twice, whatever the policy. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public enum MergePolicy {
+    /** Keep the existing article and drop the incoming one. */
+    SKIP("Skip conflicting articles"),
+    /** Keep whichever of the two was updated most recently. */
+    NEWER_WINS("Keep the most recently updated article"),
+    /** Insert the incoming article under a new ID when its content differs. */
+    KEEP_BOTH("Keep both versions of conflicting articles");
+
+    private final String description;
+
+    MergePolicy(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return description; // Shown in the merge policy picker
+    }
+}
@@ -6,9 +6,9 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import project.article.HelpArticleDatabase;
 import project.util.Back;
+import project.util.BackgroundTasks;
 
 import java.io.File;
-import java.sql.SQLException;
 
 /**
  * <p> RemoveExistingAndRestorePage class </p>
@@ -22,21 +22,27 @@ public class RemoveExistingAndRestorePage extends VBox {
     public RemoveExistingAndRestorePage(Stage stage, HelpArticleDatabase helpArticleDatabase, File filename) {
         stage.setTitle("Remove Existing Articles and Restore");
 
+        Label statusLabel = new Label("Restoring articles...");
+
         // Confirmation alert
         Alert confirmationAlert = new Alert(Alert.AlertType.CONFIRMATION, "This will remove all existing articles. Do you want to continue?", ButtonType.YES, ButtonType.NO);
         confirmationAlert.setHeaderText("Confirm Restoration");
         confirmationAlert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.YES) {
-                try {
+                // Clear and restore on the data-access thread; a large backup would otherwise freeze the window
+                BackgroundTasks.run(() -> {
                     helpArticleDatabase.removeAllArticles(); // Clear all existing articles
                     helpArticleDatabase.restoreArticlesFromBackup(filename); // Restore from the backup
+                    return null;
+                }, result -> {
+                    statusLabel.setText("Articles restored!");
                     Alert alert = new Alert(Alert.AlertType.INFORMATION, "Articles restored successfully!", ButtonType.OK);
                     alert.showAndWait();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                    Alert alert = new Alert(Alert.AlertType.ERROR, "Error restoring articles: " + e.getMessage(), ButtonType.OK);
+                }, error -> {
+                    statusLabel.setText("Restore failed.");
+                    Alert alert = new Alert(Alert.AlertType.ERROR, "Error restoring articles: " + error.getMessage(), ButtonType.OK);
                     alert.showAndWait();
-                }
+                });
             } else {
                 stage.close(); // Close if the user selects NO
             }
@@ -49,7 +55,7 @@ public class RemoveExistingAndRestorePage extends VBox {
         });
 
         // Add a loading message while the restoration is happening
-        getChildren().addAll(new Label("Articles restored!"), back);
+        getChildren().addAll(statusLabel, back);
 
         Scene s = new Scene(this, 400, 200);
         Back.pushBack(s, "Remove Existing Articles and Restore");
@@ -0,0 +1,333 @@
+package project.automatedTesting;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import project.account.DatabaseHelper;
+import project.article.EncryptionUtil;
+import project.article.HelpArticle;
+import project.article.HelpArticleDatabase;
+import project.service.MessageInbox;
+
+/**
+ * <p> dataGenerator class </p>
+ *
+ * <p> Description: Fills the databases with large synthetic data sets for load and
+ * soak testing: help articles, users, special access groups and help messages.
+ * The same seed and counts always produce the same rows. Each kind of data draws
+ * from its own random stream, so changing one count leaves the others unchanged.
+ * Rows are written with batched inserts. </p>
+ *
+ * <p> Usage: dataGenerator [--articles=N] [--users=N] [--groups=N] [--messages=N] [--seed=N] [--clear] </p>
+ *
+ * <p> --clear empties help_articles, group_articles, help_messages and users first,
+ * including any real accounts. Use it on test databases only. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class dataGenerator {
+    private static final int BATCH_SIZE = 10_000;
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z"); // Fixed so dates are repeatable
+    private static final long SPAN_SECONDS = 365L * 24 * 60 * 60;               // Rows are dated across one year
+    private static final double SPECIAL_SHARE = 0.10;                          // Share of articles in special access groups
+
+    private static final String[] LEVELS = { "Beginner", "Intermediate", "Advanced", "Expert" };
+    private static final double[] LEVEL_WEIGHTS = { 0.40, 0.30, 0.20, 0.10 };
+    // Role strings as stored in users.roles, and how often each occurs
+    private static final String[] ROLE_MIXES = { "Student", "Instructor", "Instructor,Student", "Admin", "Admin,Instructor" };
+    private static final double[] ROLE_WEIGHTS = { 0.88, 0.07, 0.03, 0.01, 0.01 };
+    private static final String[] GENERAL_GROUPS = { "Eclipse", "IntelliJ", "H2", "JavaFX", "Git", "Maven",
+            "Recursion", "Collections", "Streams", "Threads", "Testing", "Debugging" };
+    private static final String[] WORDS = { "database", "query", "index", "recursion", "loop", "array",
+            "object", "class", "method", "stream", "thread", "lock", "cache", "network", "socket", "compile",
+            "debug", "test", "deploy", "schema", "backup", "restore", "group", "access", "install", "configure",
+            "error", "exception", "variable", "function", "interface", "package", "import", "build", "run" };
+
+    private int articles = 10_000;
+    private int users = 1_000;
+    private int groups = 50;
+    private int messages = 20_000;
+    private long seed = 42L;
+    private boolean clear = false;
+
+    private String[] instructors = new String[0]; // Usernames that may administer special groups
+    private String[] students = new String[0];
+
+    public static void main(String[] args) throws SQLException {
+        dataGenerator generator = new dataGenerator();
+        for (String arg : args) {
+            if (!generator.parse(arg)) {
+                System.out.println("Usage: dataGenerator [--articles=N] [--users=N] [--groups=N] [--messages=N] [--seed=N] [--clear]");
+                return;
+            }
+        }
+        generator.run();
+    }
+
+    private boolean parse(String arg) {
+        try {
+            if (arg.equals("--clear")) {
+                clear = true;
+            } else if (arg.startsWith("--articles=")) {
+                articles = Integer.parseInt(arg.substring(11));
+            } else if (arg.startsWith("--users=")) {
+                users = Integer.parseInt(arg.substring(8));
+            } else if (arg.startsWith("--groups=")) {
+                groups = Integer.parseInt(arg.substring(9));
+            } else if (arg.startsWith("--messages=")) {
+                messages = Integer.parseInt(arg.substring(11));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring(7));
+            } else {
+                return false;
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public void run() throws SQLException {
+        long start = System.currentTimeMillis();
+        HelpArticleDatabase articleDatabase = HelpArticleDatabase.getInstance();
+        try (Connection userConnection = DatabaseHelper.connectToDatabase()) {
+            if (clear) {
+                System.out.println("Clearing existing data...");
+                articleDatabase.removeAllArticles();
+                articleDatabase.removeAllGroupArticles();
+                try (Statement stmt = userConnection.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM help_messages");
+                    stmt.executeUpdate("DELETE FROM users");
+                }
+            }
+
+            generateUsers(userConnection);
+            generateArticles(articleDatabase);
+            generateMessages(userConnection);
+        }
+        new MessageInbox().recount(); // The messages were inserted directly, so count them again
+
+        System.out.println("Finished in " + (System.currentTimeMillis() - start) / 1000.0 + " s");
+    }
+
+    // Users are named user0000001 upwards so other data can refer to them without reading them back
+    private void generateUsers(Connection connection) throws SQLException {
+        Random random = new Random(seed ^ 0x55L);
+        List<String> instructorList = new ArrayList<>();
+        List<String> studentList = new ArrayList<>();
+        String sql = "INSERT INTO users (username, password, email, roles, onetime, onetimeDate, fullName) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < users; i++) {
+                String username = username(i);
+                String roles = ROLE_MIXES[pick(random, ROLE_WEIGHTS)];
+                if (roles.contains("Instructor")) {
+                    instructorList.add(username);
+                }
+                if (roles.contains("Student")) {
+                    studentList.add(username);
+                }
+                pstmt.setString(1, username);
+                pstmt.setString(2, "Password" + i + "!");
+                pstmt.setString(3, username + "@example.edu");
+                pstmt.setString(4, roles);
+                pstmt.setBoolean(5, false);
+                pstmt.setTimestamp(6, Timestamp.from(date(random)));
+                pstmt.setString(7, capitalize(word(random)) + " " + capitalize(word(random)));
+                pstmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                    connection.commit();
+                    System.out.println("Users: " + (i + 1) + "/" + users);
+                }
+            }
+            pstmt.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        instructors = instructorList.toArray(new String[0]);
+        students = studentList.toArray(new String[0]);
+        System.out.println("Users: " + users + " (" + instructors.length + " instructors, " + students.length + " students)");
+    }
+
+    // Articles get IDs 1..N. Every tenth goes to a special access group, spread evenly over the groups.
+    private void generateArticles(HelpArticleDatabase database) throws SQLException {
+        Random random = new Random(seed ^ 0xa7L);
+        int specialCount = groups == 0 ? 0 : (int) (articles * SPECIAL_SHARE);
+        int specialEvery = specialCount == 0 ? Integer.MAX_VALUE : articles / specialCount;
+        List<List<Long>> groupMembers = new ArrayList<>();
+        for (int g = 0; g < groups; g++) {
+            groupMembers.add(new ArrayList<>());
+        }
+
+        List<HelpArticle> batch = new ArrayList<>(BATCH_SIZE);
+        int specialIndex = 0;
+        for (int i = 0; i < articles; i++) {
+            long id = i + 1L;
+            boolean special = i % specialEvery == 0 && specialIndex < specialCount;
+            String group = special ? specialGroupName(specialIndex % groups) : GENERAL_GROUPS[random.nextInt(GENERAL_GROUPS.length)];
+            if (special) {
+                groupMembers.get(specialIndex % groups).add(id);
+                specialIndex++;
+            }
+            batch.add(article(id, group, special, random));
+            if (batch.size() == BATCH_SIZE) {
+                database.createHelpArticles(batch);
+                batch.clear();
+                System.out.println("Articles: " + (i + 1) + "/" + articles);
+            }
+        }
+        database.createHelpArticles(batch);
+        System.out.println("Articles: " + articles + " (" + specialCount + " in special access groups)");
+
+        generateGroups(database, groupMembers, new Random(seed ^ 0x9eL));
+    }
+
+    // Each special group is administered by one instructor and viewable by a few students
+    private void generateGroups(HelpArticleDatabase database, List<List<Long>> groupMembers, Random random) throws SQLException {
+        for (int g = 0; g < groupMembers.size(); g++) {
+            List<Long> members = groupMembers.get(g);
+            if (members.isEmpty()) {
+                continue;
+            }
+            String admin = instructors.length == 0 ? "admin" : instructors[random.nextInt(instructors.length)];
+            StringBuilder viewable = new StringBuilder(admin);
+            int viewers = 1 + random.nextInt(12);
+            for (int v = 0; v < viewers && students.length > 0; v++) {
+                String student = students[random.nextInt(students.length)];
+                if (viewable.length() + student.length() + 1 > 255) {
+                    break; // The viewable column holds at most 255 characters
+                }
+                viewable.append(',').append(student);
+            }
+
+            long[] ids = new long[members.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = members.get(i);
+            }
+            database.addArticlesToGroup(ids, specialGroupName(g), "special_access", admin, viewable.toString());
+        }
+        System.out.println("Special access groups: " + groupMembers.size());
+    }
+
+    private void generateMessages(Connection connection) throws SQLException {
+        if (users == 0) {
+            return;
+        }
+        Random random = new Random(seed ^ 0x3dL);
+        String sql = "INSERT INTO help_messages (username, message, type, created_at) VALUES (?, ?, ?, ?)";
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < messages; i++) {
+                pstmt.setString(1, username(random.nextInt(users)));
+                pstmt.setString(2, text(random, logNormal(random, 200, 0.7, 20, 4000)));
+                pstmt.setString(3, random.nextDouble() < 0.7 ? "generic" : "specific");
+                pstmt.setTimestamp(4, Timestamp.from(date(random)));
+                pstmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                    connection.commit();
+                    System.out.println("Messages: " + (i + 1) + "/" + messages);
+                }
+            }
+            pstmt.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        System.out.println("Messages: " + messages);
+    }
+
+    private HelpArticle article(long id, String group, boolean special, Random random) {
+        String title = capitalize(word(random)) + " " + word(random) + " " + word(random) + " " + id;
+        // Bodies are log-normal around 1.5k characters: mostly short answers, a few long guides
+        String body = text(random, logNormal(random, 1500, 0.9, 80, 60_000));
+        if (special) {
+            body = encrypt(body); // Stored encrypted, as ArticleService does, so the special pages can open it
+        }
+        HelpArticle article = new HelpArticle(id,
+                LEVELS[pick(random, LEVEL_WEIGHTS)],
+                group,
+                instructors.length == 0 ? "admin" : instructors[random.nextInt(instructors.length)],
+                special ? "Special" : "Public",
+                title,
+                text(random, 60 + random.nextInt(120)),
+                new String[] { word(random), word(random), word(random) },
+                body,
+                new String[] { "https://example.edu/help/" + id },
+                special ? "Restricted article " + id : "",
+                special ? "Contents are limited to the group" : "");
+        Instant created = date(random);
+        article.setCreatedDate(created);
+        article.setUpdatedDate(created.plusSeconds(random.nextInt(30 * 24 * 60 * 60)));
+        return article;
+    }
+
+    private static String encrypt(String body) {
+        try {
+            return EncryptionUtil.encrypt(body);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not encrypt a special access body", e);
+        }
+    }
+
+    private static String username(int index) {
+        return String.format("user%07d", index + 1);
+    }
+
+    private static String specialGroupName(int index) {
+        return String.format("special%05d", index + 1);
+    }
+
+    private static int pick(Random random, double[] weights) {
+        double r = random.nextDouble();
+        for (int i = 0; i < weights.length - 1; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static int logNormal(Random random, double median, double sigma, int min, int max) {
+        double value = median * Math.exp(sigma * random.nextGaussian());
+        return (int) Math.max(min, Math.min(max, value));
+    }
+
+    private static Instant date(Random random) {
+        return EPOCH.plusSeconds((long) (random.nextDouble() * SPAN_SECONDS));
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    // Words up to roughly the given length, with no ';' or line breaks so rows survive a backup file
+    private static String text(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            if (text.length() > 0) {
+                text.append(random.nextInt(12) == 0 ? ". " : " ");
+            }
+            text.append(word(random));
+        }
+        return text.toString();
+    }
+}
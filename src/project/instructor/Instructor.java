@@ -53,25 +53,25 @@ public class Instructor extends BorderPane {
         manageHelpArticlesButton.setOnAction(event -> {
         	HelpArticleDatabase h = null;
 			try {
-				h = new HelpArticleDatabase();
+				h = HelpArticleDatabase.getInstance();
 			} catch (SQLException e) {
 				// TODO Auto-generated catch block
 				e.printStackTrace();
 			}
-        	new HelpArticleManagementPage(stage, h, 0);
+        	new HelpArticleManagementPage(stage, h, user.username, 0);
         });
 
         // VIEW HELP ARTICLES -------------------------------------------------
         Button listArticlesButton = new Button("View Help Articles");
         listArticlesButton.setOnAction(event -> {
-        	HelpArticleDatabase h = null;
-			try {
-				h = new HelpArticleDatabase();
-			} catch (SQLException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-			new ArticleHome(stage, user, database, h);
+			// Reuse the article home page if it was already built this session
+			Back.show(stage, "ArticleHome", () -> {
+				try {
+					new ArticleHome(stage, user, database, HelpArticleDatabase.getInstance());
+				} catch (SQLException e) {
+					e.printStackTrace();
+				}
+			});
 		});
 
         // GENERAL GROUP SETTINGS ---------------------------------------------
@@ -36,7 +36,7 @@ public class SpecialGroupSettings extends BorderPane {
         ComboBox<String> specialGroupSelect = new ComboBox<>();
 
         try {
-            HelpArticleDatabase helpArticleDatabase = new HelpArticleDatabase();
+            HelpArticleDatabase helpArticleDatabase = HelpArticleDatabase.getInstance();
             
             try {
                 specialGroupSelect.getItems().addAll(helpArticleDatabase.userGroupsList(user.username));
@@ -0,0 +1,203 @@
+package project.search;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import project.article.HelpArticle;
+import project.article.HelpArticleDatabase;
+import project.util.logging.Logger;
+import project.util.metrics.Metrics;
+
+/**
+ * <p> Autocomplete class </p>
+ *
+ * <p> Description: Suggests search terms while a student types, from memory only. A
+ * PrefixTrie holds the article titles, their keywords and title words, and the
+ * popular past queries that found articles; a suggestion's weight is how many
+ * articles use it (titles counting most) plus how often it was searched in the last
+ * 30 days. A past query is only suggested once it found articles at least
+ * MIN_QUERY_SEARCHES times for more than one user, so one person's searches are
+ * never offered to everyone else. The trie is loaded from the article summaries once, then kept current one
+ * article at a time by HelpArticleDatabase; bulk changes such as a restore mark it
+ * stale and the next load() rebuilds it. Popular queries are refreshed after every
+ * run of SearchAnalytics. Special access articles only suggest their sensitive-free
+ * title, so nobody is offered words from a group they cannot read. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class Autocomplete {
+    private static final Logger log = Logger.get(Autocomplete.class);
+
+    static final long TITLE_WEIGHT = 5;
+    static final long KEYWORD_WEIGHT = 3;
+    static final long WORD_WEIGHT = 1;
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final int POPULAR_QUERIES = 1000;
+    static final long MIN_QUERY_SEARCHES = 3; // Successful searches before a query is suggested
+    static final int MIN_SEARCHERS = 2;       // Different users who must have searched it
+    private static final Duration POPULAR_WINDOW = Duration.ofDays(30);
+
+    private static Autocomplete instance;
+
+    private PrefixTrie trie = new PrefixTrie();
+    private Map<Long, Map<String, Long>> articleTerms = new HashMap<>();
+    private Map<String, Long> queryTerms = new HashMap<>();
+    private boolean stale = true;
+    private long changes;
+
+    public static synchronized Autocomplete get() {
+        if (instance == null) {
+            instance = new Autocomplete();
+        }
+        return instance;
+    }
+
+    /**
+     * @return up to k suggestions starting with what was typed, most used first;
+     *         nothing for blank input
+     */
+    public synchronized List<String> complete(String typed, int k) {
+        try (Metrics.Timer timer = Metrics.time("Autocomplete.complete")) {
+            String prefix = SearchLog.normalize(typed);
+            if (prefix.isEmpty()) {
+                return List.of();
+            }
+            List<String> completions = trie.complete(prefix, k);
+            timer.rows(completions.size());
+            return completions;
+        }
+    }
+
+    /**
+     * Builds the suggestions from the database if they were never loaded or were
+     * marked stale; call it off the FX thread.
+     */
+    public void load(HelpArticleDatabase database) throws SQLException {
+        long seen;
+        synchronized (this) {
+            if (!stale) {
+                return;
+            }
+            seen = changes;
+        }
+        try (Metrics.Timer timer = Metrics.time("Autocomplete.load")) {
+            List<HelpArticle> articles = database.getArticleSummaries();
+            Set<Long> restricted = database.getSpecialAccessArticles().keySet();
+            PrefixTrie built = new PrefixTrie();
+            Map<Long, Map<String, Long>> builtTerms = new HashMap<>();
+            for (HelpArticle article : articles) {
+                Map<String, Long> terms = terms(article, restricted.contains(article.getId()));
+                builtTerms.put(article.getId(), terms);
+                terms.forEach(built::add);
+            }
+            synchronized (this) {
+                queryTerms.forEach(built::add);
+                trie = built;
+                articleTerms = builtTerms;
+                stale = changes != seen; // An article changed while loading; rebuild next time
+            }
+            timer.rows(articles.size());
+            log.debug("Loaded the suggestions of {} articles", articles.size());
+        }
+        refreshQueries();
+    }
+
+    /**
+     * Replaces the popular queries with the latest aggregated ones, keeping only
+     * queries that found something often enough, for enough different users.
+     */
+    public void refreshQueries() throws SQLException {
+        SearchAnalytics analytics = SearchAnalytics.get();
+        Map<String, Long> failed = new HashMap<>();
+        for (SpaceSaving.Entry entry : analytics.topZeroResultQueries(POPULAR_WINDOW, POPULAR_QUERIES)) {
+            failed.put(entry.getItem(), entry.getCount());
+        }
+        Map<String, Long> candidates = new HashMap<>();
+        for (SpaceSaving.Entry entry : analytics.topQueries(POPULAR_WINDOW, POPULAR_QUERIES)) {
+            long found = entry.getCount() - failed.getOrDefault(entry.getItem(), 0L);
+            if (found >= MIN_QUERY_SEARCHES) {
+                candidates.put(entry.getItem(), found);
+            }
+        }
+        Map<String, Integer> searchers = analytics.searchersWhoFound(candidates.keySet(), POPULAR_WINDOW);
+        Map<String, Long> queries = new HashMap<>();
+        candidates.forEach((query, found) -> {
+            if (searchers.getOrDefault(query, 0) >= MIN_SEARCHERS) {
+                queries.put(query, found);
+            }
+        });
+        synchronized (this) {
+            queryTerms.forEach((term, weight) -> trie.add(term, -weight));
+            queryTerms = queries;
+            queryTerms.forEach(trie::add);
+        }
+    }
+
+    /**
+     * Updates the suggestions of an article that was created or changed.
+     */
+    public void articleChanged(HelpArticle article) {
+        Map<String, Long> terms = terms(article, SearchIndex.get().isRestricted(article.getId()));
+        synchronized (this) {
+            remove(article.getId());
+            articleTerms.put(article.getId(), terms);
+            terms.forEach(trie::add);
+            changes++;
+        }
+    }
+
+    /**
+     * Drops the suggestions of a deleted article.
+     */
+    public synchronized void articleRemoved(long id) {
+        remove(id);
+        changes++;
+    }
+
+    /**
+     * Marks the suggestions out of date after a bulk change; the next load() rebuilds them.
+     */
+    public synchronized void invalidate() {
+        stale = true;
+        changes++;
+    }
+
+    private void remove(long id) {
+        Map<String, Long> terms = articleTerms.remove(id);
+        if (terms != null) {
+            terms.forEach((term, weight) -> trie.add(term, -weight));
+        }
+    }
+
+    // The suggestions one article contributes, each with its weight; only the
+    // sensitive-free title of a special access article
+    private static Map<String, Long> terms(HelpArticle article, boolean restricted) {
+        Map<String, Long> terms = new LinkedHashMap<>();
+        String title = SearchLog.normalize(restricted ? article.getSensitiveTitle() : article.getTitle());
+        for (String word : title.split("[^\\p{L}\\p{N}+#]+")) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                terms.merge(word, WORD_WEIGHT, Math::max);
+            }
+        }
+        if (!restricted && article.getKeywords() != null) {
+            for (Object keyword : article.getKeywords()) {
+                // Older rows store the keyword list as one "[a, b]" string
+                for (String part : String.valueOf(keyword).replaceAll("[\\[\\]]", "").split(",")) {
+                    String normalized = SearchLog.normalize(part);
+                    if (!normalized.isEmpty()) {
+                        terms.merge(normalized, KEYWORD_WEIGHT, Math::max);
+                    }
+                }
+            }
+        }
+        if (!title.isEmpty()) {
+            terms.merge(title, TITLE_WEIGHT, Math::max);
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,135 @@
+package project.search;
+
+/**
+ * <p> EditDistance class </p>
+ *
+ * <p> Description: Bounded Levenshtein distance with Myers' bit-parallel algorithm
+ * (in Hyyrö's formulation): one column of the edit-distance table is kept as bit
+ * vectors, so each character of the text costs a handful of word operations instead
+ * of a pass over the pattern. The computation stops as soon as the distance can no
+ * longer be within the bound. Patterns longer than 64 characters fall back to the
+ * two-row table. A Matcher compiles a pattern once for checking it against many
+ * words, as the fuzzy search does with each query word. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public final class EditDistance {
+    private static final int WORD_BITS = 64;
+
+    private EditDistance() {
+    }
+
+    /**
+     * @return the Levenshtein distance between a and b if it is at most max, otherwise max + 1
+     */
+    public static int within(CharSequence a, CharSequence b, int max) {
+        return new Matcher(a).within(b, max);
+    }
+
+    /**
+     * A pattern prepared for bounded distance checks against any number of texts.
+     */
+    public static final class Matcher {
+        private final CharSequence pattern;
+        private final long[] ascii = new long[128]; // The positions of each ASCII character in the pattern
+        private final boolean nonAscii; // Other characters are looked up by a scan
+
+        public Matcher(CharSequence pattern) {
+            this.pattern = pattern;
+            boolean other = false;
+            for (int i = 0; i < Math.min(pattern.length(), WORD_BITS); i++) {
+                char c = pattern.charAt(i);
+                if (c < ascii.length) {
+                    ascii[c] |= 1L << i;
+                } else {
+                    other = true;
+                }
+            }
+            this.nonAscii = other;
+        }
+
+        /**
+         * @return the distance from the pattern to text if it is at most max, otherwise max + 1
+         */
+        public int within(CharSequence text, int max) {
+            if (Math.abs(pattern.length() - text.length()) > max) {
+                return max + 1;
+            }
+            if (pattern.length() == 0) {
+                return text.length();
+            }
+            if (pattern.length() > WORD_BITS) {
+                return table(pattern, text, max);
+            }
+            return myers(text, max);
+        }
+
+        private long matches(char c) {
+            if (c < ascii.length) {
+                return ascii[c];
+            }
+            long mask = 0;
+            if (nonAscii) {
+                for (int i = 0; i < pattern.length(); i++) {
+                    if (pattern.charAt(i) == c) {
+                        mask |= 1L << i;
+                    }
+                }
+            }
+            return mask;
+        }
+
+        private int myers(CharSequence text, int max) {
+            int m = pattern.length();
+            long last = 1L << (m - 1);
+            long pv = m == WORD_BITS ? -1L : (1L << m) - 1;
+            long mv = 0;
+            int score = m;
+            for (int j = 0; j < text.length(); j++) {
+                long eq = matches(text.charAt(j));
+                long xv = eq | mv;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                if ((ph & last) != 0) {
+                    score++;
+                } else if ((mh & last) != 0) {
+                    score--;
+                }
+                // Row 0 of the table grows by one per text character
+                ph = (ph << 1) | 1;
+                mh = mh << 1;
+                pv = mh | ~(xv | ph);
+                mv = ph & xv;
+                if (score - (text.length() - j - 1) > max) {
+                    return max + 1; // Even matching every remaining character cannot get within max
+                }
+            }
+            return score <= max ? score : max + 1;
+        }
+    }
+
+    private static int table(CharSequence a, CharSequence b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int best = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                best = Math.min(best, current[j]);
+            }
+            if (best > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= max ? previous[b.length()] : max + 1;
+    }
+}
@@ -0,0 +1,210 @@
+package project.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import project.article.HelpArticle;
+
+/**
+ * <p> FacetIndex class </p>
+ *
+ * <p> Description: Per-value bitmaps of the article facets level, groupIdentifier and
+ * access. Every indexed article gets a small document number, its bit in the
+ * bitmaps; numbers of deleted articles are reused. A filter is one bitmap and a
+ * facet count is the size of the intersection of a value's bitmap with the hits, so
+ * counting costs about as much as the search that produced the hits, not a rescan.
+ * When the hits are few the count walks the hits instead of the bitmaps. Values are
+ * compared ignoring case, like the search filters, and reported as first seen. Not
+ * thread safe; SearchIndex guards it. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+class FacetIndex {
+    static final String LEVEL = "level";
+    static final String GROUP = "groupIdentifier";
+    static final String ACCESS = "access";
+    static final String[] FACETS = { LEVEL, GROUP, ACCESS };
+
+    private final Map<Long, Integer> docs = new HashMap<>();
+    private final List<Long> ids = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final List<Facet> facets = new ArrayList<>();
+
+    FacetIndex() {
+        for (int i = 0; i < FACETS.length; i++) {
+            facets.add(new Facet());
+        }
+    }
+
+    void put(HelpArticle article) {
+        remove(article.getId());
+        int doc = live.nextClearBit(0);
+        live.set(doc);
+        docs.put(article.getId(), doc);
+        while (ids.size() <= doc) {
+            ids.add(null);
+        }
+        ids.set(doc, article.getId());
+        facets.get(indexOf(LEVEL)).add(doc, new String[] { article.getLevel() });
+        facets.get(indexOf(GROUP)).add(doc, article.getGroupIdentifier() == null ? new String[0] : article.getGroupIdentifierArray());
+        facets.get(indexOf(ACCESS)).add(doc, new String[] { article.getAccess() });
+    }
+
+    void remove(long id) {
+        Integer doc = docs.remove(id);
+        if (doc == null) {
+            return;
+        }
+        live.clear(doc);
+        ids.set(doc, null);
+        for (Facet facet : facets) {
+            facet.remove(doc);
+        }
+    }
+
+    /**
+     * @param missing receives the articles that are not indexed, which are left out
+     * @return the bitmap of the given articles
+     */
+    BitSet docs(Collection<Long> ids, List<Long> missing) {
+        BitSet bits = new BitSet(live.length());
+        for (long id : ids) {
+            Integer doc = docs.get(id);
+            if (doc != null) {
+                bits.set(doc);
+            } else {
+                missing.add(id);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * @return the IDs of every indexed article
+     */
+    Set<Long> ids() {
+        return new HashSet<>(docs.keySet());
+    }
+
+    /**
+     * @return the articles with this value of the facet, not to be modified; null for a
+     *         blank value, which filters nothing
+     */
+    BitSet filter(String facet, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        BitSet bits = facets.get(indexOf(facet)).bitmaps.get(key(value));
+        return bits == null ? new BitSet() : bits;
+    }
+
+    /**
+     * @return the number of hits with each value of the facet, most first
+     */
+    Map<String, Integer> counts(String facet, BitSet hits) {
+        Facet values = facets.get(indexOf(facet));
+        Map<String, Integer> counts = new HashMap<>();
+        int hitCount = hits.cardinality();
+        long bitmapWords = (long) values.bitmaps.size() * (live.length() / 64 + 1);
+        if (hitCount < bitmapWords) {
+            // Few hits: look up the values of each hit
+            for (int doc = hits.nextSetBit(0); doc >= 0; doc = hits.nextSetBit(doc + 1)) {
+                for (String key : values.of(doc)) {
+                    counts.merge(key, 1, Integer::sum);
+                }
+            }
+        } else {
+            for (Map.Entry<String, BitSet> value : values.bitmaps.entrySet()) {
+                BitSet both = (BitSet) value.getValue().clone();
+                both.and(hits);
+                if (!both.isEmpty()) {
+                    counts.put(value.getKey(), both.cardinality());
+                }
+            }
+        }
+        List<Map.Entry<String, Integer>> sorted = new ArrayList<>(counts.entrySet());
+        sorted.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> labelled = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> count : sorted) {
+            labelled.put(values.labels.get(count.getKey()), count.getValue());
+        }
+        return labelled;
+    }
+
+    /**
+     * @return the document number of the article, or null if it is not indexed
+     */
+    Integer doc(long id) {
+        return docs.get(id);
+    }
+
+    long id(int doc) {
+        return ids.get(doc);
+    }
+
+    int size() {
+        return docs.size();
+    }
+
+    private static int indexOf(String facet) {
+        for (int i = 0; i < FACETS.length; i++) {
+            if (FACETS[i].equals(facet)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown facet " + facet);
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // The bitmaps of one facet, and each document's values to clear them again
+    private static class Facet {
+        final Map<String, BitSet> bitmaps = new HashMap<>();
+        final Map<String, String> labels = new HashMap<>();
+        final List<String[]> docValues = new ArrayList<>();
+
+        void add(int doc, String[] values) {
+            List<String> keys = new ArrayList<>();
+            for (String value : values) {
+                if (value == null || value.isBlank() || keys.contains(key(value))) {
+                    continue;
+                }
+                String key = key(value);
+                keys.add(key);
+                labels.putIfAbsent(key, value.trim());
+                bitmaps.computeIfAbsent(key, k -> new BitSet()).set(doc);
+            }
+            while (docValues.size() <= doc) {
+                docValues.add(null);
+            }
+            docValues.set(doc, keys.toArray(new String[0]));
+        }
+
+        void remove(int doc) {
+            for (String key : of(doc)) {
+                BitSet bits = bitmaps.get(key);
+                bits.clear(doc);
+                if (bits.isEmpty()) {
+                    bitmaps.remove(key);
+                    labels.remove(key);
+                }
+            }
+            docValues.set(doc, null);
+        }
+
+        String[] of(int doc) {
+            String[] keys = doc < docValues.size() ? docValues.get(doc) : null;
+            return keys == null ? new String[0] : keys;
+        }
+    }
+}
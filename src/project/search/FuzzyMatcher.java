@@ -0,0 +1,308 @@
+package project.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p> FuzzyMatcher class </p>
+ *
+ * <p> Description: Finds articles whose words are within a few typos of the query
+ * words. Each distinct article word is indexed by its trigrams ("$recursion$" gives
+ * "$re", "rec", ..., "on$"); a query word only checks the words that share enough
+ * trigrams with it to possibly be within the allowed edit distance, since one edit
+ * destroys at most three trigrams. Those few candidates are then verified with
+ * EditDistance. Allowed edits grow with the word: none up to 3 characters, one up to
+ * 7, and two beyond. Not thread safe; SearchIndex guards it. </p>
+ *
+ * <p> The words may come from an IndexSegment read from disk, with the articles
+ * added, changed or deleted since it was written kept in memory on top: a changed
+ * or deleted article's words in the segment are ignored from then on. </p>
+ *
+ * <p> The same trigrams also find the words containing a query word anywhere, for
+ * the exact search stage: "curs" has the inner trigrams "cur" and "urs", and only
+ * the words holding both are checked with String.contains. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+class FuzzyMatcher {
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final Map<Long, Set<String>> articleWords = new HashMap<>();
+    private final IndexSegment base;
+    private final Set<Long> superseded = new HashSet<>(); // Articles of the base changed or deleted since
+
+    FuzzyMatcher() {
+        this(null);
+    }
+
+    /**
+     * @param base the segment holding the words of most articles, or null to keep all in memory
+     */
+    FuzzyMatcher(IndexSegment base) {
+        this.base = base;
+    }
+
+    /**
+     * Indexes the words of an article, replacing any it had before.
+     */
+    void put(long id, String text) {
+        remove(id);
+        Set<String> words = new HashSet<>(tokens(text));
+        articleWords.put(id, words);
+        for (String word : words) {
+            Set<Long> articles = postings.get(word);
+            if (articles == null) {
+                articles = new HashSet<>();
+                postings.put(word, articles);
+                for (String trigram : trigrams(word)) {
+                    trigrams.computeIfAbsent(trigram, t -> new HashSet<>()).add(word);
+                }
+            }
+            articles.add(id);
+        }
+    }
+
+    void remove(long id) {
+        if (base != null && base.doc(id) >= 0) {
+            superseded.add(id);
+        }
+        Set<String> words = articleWords.remove(id);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Set<Long> articles = postings.get(word);
+            articles.remove(id);
+            if (articles.isEmpty()) {
+                postings.remove(word);
+                for (String trigram : trigrams(word)) {
+                    Set<String> indexed = trigrams.get(trigram);
+                    indexed.remove(word);
+                    if (indexed.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the articles that have a close match for every query word, each with the
+     *         sum of the edit distances of its best matches
+     */
+    Map<Long, Integer> match(Collection<String> queryWords) {
+        List<Map<String, Integer>> similar = new ArrayList<>();
+        for (String queryWord : new LinkedHashSet<>(queryWords)) {
+            similar.add(similarWords(queryWord));
+        }
+        Map<String, Set<Long>> articles = new HashMap<>();
+        // Start from the rarest query word, then only probe the articles still left
+        similar.sort(Comparator.comparingLong(words -> postingCount(words, articles)));
+        Map<Long, Integer> found = new HashMap<>();
+        if (similar.isEmpty()) {
+            return found;
+        }
+        for (Map.Entry<String, Integer> word : similar.get(0).entrySet()) {
+            for (Long id : articles.computeIfAbsent(word.getKey(), this::articles)) {
+                found.merge(id, word.getValue(), Math::min);
+            }
+        }
+        for (Map<String, Integer> words : similar.subList(1, similar.size())) {
+            found.entrySet().removeIf(article -> {
+                int best = Integer.MAX_VALUE;
+                for (Map.Entry<String, Integer> word : words.entrySet()) {
+                    if (word.getValue() < best
+                            && articles.computeIfAbsent(word.getKey(), this::articles).contains(article.getKey())) {
+                        best = word.getValue();
+                    }
+                }
+                if (best == Integer.MAX_VALUE) {
+                    return true;
+                }
+                article.setValue(article.getValue() + best);
+                return false;
+            });
+            if (found.isEmpty()) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the articles with a word containing the token, e.g. "curs" in "recursion"
+     */
+    Set<Long> containing(String token) {
+        Set<Long> found = new HashSet<>();
+        for (String word : wordsContaining(token)) {
+            found.addAll(articles(word));
+        }
+        return found;
+    }
+
+    // The indexed words containing the token: those holding all of its inner trigrams,
+    // verified; a token too short to hold a trigram is checked against every word
+    private Set<String> wordsContaining(String token) {
+        Set<String> words = new HashSet<>();
+        if (token.length() < 3) {
+            for (String word : postings.keySet()) {
+                if (word.contains(token)) {
+                    words.add(word);
+                }
+            }
+            for (int term = 0; base != null && term < base.termCount(); term++) {
+                String word = base.term(term);
+                if (word.contains(token)) {
+                    words.add(word);
+                }
+            }
+            return words;
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            grams.add(token.substring(i, i + 3));
+        }
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : grams) {
+            for (String word : trigrams.getOrDefault(trigram, Set.of())) {
+                shared.merge(word, 1, Integer::sum);
+            }
+        }
+        if (base != null) {
+            Map<Integer, Integer> sharedTerms = new HashMap<>();
+            for (String trigram : grams) {
+                base.termsWithTrigram(trigram, term -> sharedTerms.merge(term, 1, Integer::sum));
+            }
+            for (Map.Entry<Integer, Integer> term : sharedTerms.entrySet()) {
+                if (term.getValue() == grams.size()) {
+                    shared.merge(base.term(term.getKey()), term.getValue(), Math::max);
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> word : shared.entrySet()) {
+            if (word.getValue() == grams.size() && word.getKey().contains(token)) {
+                words.add(word.getKey());
+            }
+        }
+        return words;
+    }
+
+    private long postingCount(Map<String, Integer> words, Map<String, Set<Long>> articles) {
+        long count = 0;
+        for (String word : words.keySet()) {
+            count += articles.computeIfAbsent(word, this::articles).size();
+        }
+        return count;
+    }
+
+    // The articles containing the word, in memory or in the base and not superseded
+    private Set<Long> articles(String word) {
+        Set<Long> articles = postings.getOrDefault(word, Set.of());
+        int term = base == null ? -1 : base.term(word);
+        if (term < 0) {
+            return articles;
+        }
+        Set<Long> all = new HashSet<>(articles);
+        base.docs(term, doc -> {
+            long id = base.id(doc);
+            if (!superseded.contains(id)) {
+                all.add(id);
+            }
+        });
+        return all;
+    }
+
+    /**
+     * @return the indexed words within the allowed edit distance of word, with their distances
+     */
+    Map<String, Integer> similarWords(String word) {
+        Map<String, Integer> similar = new HashMap<>();
+        int max = maxEdits(word.length());
+        if (max == 0 || word.length() > SearchLog.MAX_QUERY_LENGTH) {
+            if (postings.containsKey(word) || (base != null && base.term(word) >= 0)) {
+                similar.put(word, 0);
+            }
+            return similar;
+        }
+        Set<String> grams = new LinkedHashSet<>(trigrams(word));
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : grams) {
+            Set<String> words = trigrams.get(trigram);
+            if (words != null) {
+                for (String candidate : words) {
+                    shared.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+        if (base != null) {
+            Map<Integer, Integer> sharedTerms = new HashMap<>();
+            for (String trigram : grams) {
+                base.termsWithTrigram(trigram, term -> sharedTerms.merge(term, 1, Integer::sum));
+            }
+            for (Map.Entry<Integer, Integer> term : sharedTerms.entrySet()) {
+                // Decode only the words that can pass the count filter below
+                if (term.getValue() >= grams.size() - 3 * max) {
+                    shared.merge(base.term(term.getKey()), term.getValue(), Math::max);
+                }
+            }
+        }
+        EditDistance.Matcher matcher = new EditDistance.Matcher(word);
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            String text = candidate.getKey();
+            // Count filter: an edit destroys at most three of the query word's trigrams
+            if (candidate.getValue() < grams.size() - 3 * max || Math.abs(text.length() - word.length()) > max) {
+                continue;
+            }
+            int distance = matcher.within(text, max);
+            if (distance <= max) {
+                similar.put(text, distance);
+            }
+        }
+        return similar;
+    }
+
+    /**
+     * @return the number of distinct words, counting a word in memory and in the base twice
+     */
+    int size() {
+        return postings.size() + (base == null ? 0 : base.termCount());
+    }
+
+    static int maxEdits(int length) {
+        return length <= 3 ? 0 : length <= 7 ? 1 : 2;
+    }
+
+    /**
+     * @return the lower-case words of text, split at anything but letters and digits
+     */
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // A word padded with '$' has exactly one trigram per character
+    static List<String> trigrams(String word) {
+        String padded = "$" + word + "$";
+        List<String> grams = new ArrayList<>(word.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
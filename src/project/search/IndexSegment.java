@@ -0,0 +1,326 @@
+package project.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+import project.util.metrics.Metrics;
+
+/**
+ * <p> IndexSegment class </p>
+ *
+ * <p> Description: An immutable file of the fuzzy search words of every article,
+ * read in place through a memory mapping so that opening it costs a header read and
+ * the operating system's page cache shares it between instances. It holds three
+ * parts, each an offset table followed by its data:
+ * the doc values, article ID and text stamp per document number, sorted by ID;
+ * the term dictionary, the sorted distinct words, each with its postings, the
+ * document numbers containing it; and the trigram dictionary, each trigram with
+ * the term numbers containing it, for the FuzzyMatcher's candidate lookup. Words are
+ * found by binary search, so nothing is decoded up front. A segment is written to a
+ * temporary file and renamed into place, so readers never see a partial one. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+final class IndexSegment {
+    private static final int MAGIC = 0x48534547; // "HSEG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 9 * Integer.BYTES;
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int docCount;
+    private final int termCount;
+    private final int gramCount;
+    private final int ids;
+    private final int stamps;
+    private final int termOffsets;
+    private final int termBytes;
+    private final int postingStarts;
+    private final int postings;
+    private final int gramOffsets;
+    private final int gramBytes;
+    private final int gramStarts;
+    private final int gramTerms;
+
+    private IndexSegment(Path file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a search segment: " + file);
+        }
+        docCount = buffer.getInt(8);
+        termCount = buffer.getInt(12);
+        gramCount = buffer.getInt(16);
+        int termBytesLength = buffer.getInt(20);
+        int postingsLength = buffer.getInt(24);
+        int gramBytesLength = buffer.getInt(28);
+        int gramTermsLength = buffer.getInt(32);
+
+        long position = HEADER_BYTES;
+        ids = (int) position;
+        position += (long) docCount * Long.BYTES;
+        stamps = (int) position;
+        position += (long) docCount * Long.BYTES;
+        termOffsets = (int) position;
+        position += (termCount + 1L) * Integer.BYTES;
+        termBytes = (int) position;
+        position += termBytesLength;
+        postingStarts = (int) position;
+        position += (termCount + 1L) * Integer.BYTES;
+        postings = (int) position;
+        position += (long) postingsLength * Integer.BYTES;
+        gramOffsets = (int) position;
+        position += (gramCount + 1L) * Integer.BYTES;
+        gramBytes = (int) position;
+        position += gramBytesLength;
+        gramStarts = (int) position;
+        position += (gramCount + 1L) * Integer.BYTES;
+        gramTerms = (int) position;
+        position += (long) gramTermsLength * Integer.BYTES;
+        if (docCount < 0 || termCount < 0 || gramCount < 0 || position != buffer.capacity()) {
+            throw new IOException("Truncated search segment: " + file);
+        }
+    }
+
+    /**
+     * Maps a segment file read-only.
+     */
+    static IndexSegment open(Path file) throws IOException {
+        try (Metrics.Timer timer = Metrics.time("IndexSegment.open");
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Search segment too large to map: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            IndexSegment segment = new IndexSegment(file, buffer);
+            timer.rows(segment.docCount).bytes(channel.size());
+            return segment;
+        }
+    }
+
+    /**
+     * Writes the words of the given articles as a new segment file.
+     *
+     * @param ids    the article IDs, ascending
+     * @param stamps the stamp of each article's text, to tell later whether it changed
+     * @param texts  the searchable text of each article
+     */
+    static void write(Path file, long[] ids, long[] stamps, List<String> texts) throws IOException {
+        try (Metrics.Timer timer = Metrics.time("IndexSegment.write")) {
+            TreeMap<String, List<Integer>> terms = new TreeMap<>();
+            for (int doc = 0; doc < ids.length; doc++) {
+                for (String word : new HashSet<>(FuzzyMatcher.tokens(texts.get(doc)))) {
+                    terms.computeIfAbsent(word, w -> new ArrayList<>()).add(doc);
+                }
+            }
+            TreeMap<String, List<Integer>> grams = new TreeMap<>();
+            List<String> words = new ArrayList<>(terms.keySet());
+            for (int term = 0; term < words.size(); term++) {
+                for (String gram : new HashSet<>(FuzzyMatcher.trigrams(words.get(term)))) {
+                    grams.computeIfAbsent(gram, g -> new ArrayList<>()).add(term);
+                }
+            }
+            List<byte[]> termText = encode(terms);
+            List<byte[]> gramText = encode(grams);
+
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "segment-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(ids.length);
+                out.writeInt(terms.size());
+                out.writeInt(grams.size());
+                out.writeInt(length(termText));
+                out.writeInt(count(terms));
+                out.writeInt(length(gramText));
+                out.writeInt(count(grams));
+                for (long id : ids) {
+                    out.writeLong(id);
+                }
+                for (long stamp : stamps) {
+                    out.writeLong(stamp);
+                }
+                writeDictionary(out, termText, terms);
+                writeDictionary(out, gramText, grams);
+                timer.rows(ids.length).bytes(out.size());
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static List<byte[]> encode(Map<String, List<Integer>> dictionary) {
+        List<byte[]> encoded = new ArrayList<>(dictionary.size());
+        for (String key : dictionary.keySet()) {
+            encoded.add(key.getBytes(StandardCharsets.UTF_8));
+        }
+        return encoded;
+    }
+
+    private static int length(List<byte[]> encoded) {
+        int length = 0;
+        for (byte[] bytes : encoded) {
+            length += bytes.length;
+        }
+        return length;
+    }
+
+    private static int count(Map<String, List<Integer>> dictionary) {
+        int count = 0;
+        for (List<Integer> values : dictionary.values()) {
+            count += values.size();
+        }
+        return count;
+    }
+
+    // The key offsets, the keys, the value starts, then the values
+    private static void writeDictionary(DataOutputStream out, List<byte[]> keys, Map<String, List<Integer>> dictionary) throws IOException {
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] key : keys) {
+            offset += key.length;
+            out.writeInt(offset);
+        }
+        for (byte[] key : keys) {
+            out.write(key);
+        }
+        int start = 0;
+        out.writeInt(start);
+        for (List<Integer> values : dictionary.values()) {
+            start += values.size();
+            out.writeInt(start);
+        }
+        for (List<Integer> values : dictionary.values()) {
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    Path file() {
+        return file;
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    long id(int doc) {
+        return buffer.getLong(ids + doc * Long.BYTES);
+    }
+
+    long stamp(int doc) {
+        return buffer.getLong(stamps + doc * Long.BYTES);
+    }
+
+    /**
+     * @return the document number of the article, or -1 if it is not in the segment
+     */
+    int doc(long id) {
+        int low = 0;
+        int high = docCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long found = id(middle);
+            if (found < id) {
+                low = middle + 1;
+            } else if (found > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the term number of the word, or -1 if no article has it
+     */
+    int term(String word) {
+        return find(word, termOffsets, termBytes, termCount);
+    }
+
+    String term(int term) {
+        return key(termOffsets, termBytes, term);
+    }
+
+    /**
+     * @return how many documents contain the term
+     */
+    int frequency(int term) {
+        return start(postingStarts, term + 1) - start(postingStarts, term);
+    }
+
+    /**
+     * Passes every document number containing the term to the consumer.
+     */
+    void docs(int term, IntConsumer consumer) {
+        values(postingStarts, postings, term, consumer);
+    }
+
+    /**
+     * Passes every term number containing the trigram to the consumer.
+     */
+    void termsWithTrigram(String trigram, IntConsumer consumer) {
+        int gram = find(trigram, gramOffsets, gramBytes, gramCount);
+        if (gram >= 0) {
+            values(gramStarts, gramTerms, gram, consumer);
+        }
+    }
+
+    private int start(int table, int index) {
+        return buffer.getInt(table + index * Integer.BYTES);
+    }
+
+    private void values(int starts, int values, int index, IntConsumer consumer) {
+        int end = start(starts, index + 1);
+        for (int i = start(starts, index); i < end; i++) {
+            consumer.accept(buffer.getInt(values + i * Integer.BYTES));
+        }
+    }
+
+    private String key(int offsets, int bytes, int index) {
+        int start = start(offsets, index);
+        byte[] key = new byte[start(offsets, index + 1) - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(bytes + start);
+        view.get(key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    // Binary search of a sorted dictionary; keys are few bytes, so decoding them is cheap
+    private int find(String key, int offsets, int bytes, int count) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int order = key(offsets, bytes, middle).compareTo(key);
+            if (order < 0) {
+                low = middle + 1;
+            } else if (order > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,188 @@
+package project.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * <p> PrefixTrie class </p>
+ *
+ * <p> Description: A weighted prefix trie that returns the k heaviest terms starting
+ * with a prefix. Children are kept in sorted parallel arrays instead of maps, and
+ * every node stores the largest weight below it, so a lookup walks down the prefix
+ * and then expands nodes best-first, touching only about k paths rather than every
+ * completion. Weights are changed in place, so terms can be added and removed one at
+ * a time as articles change. Not thread safe; Autocomplete guards it. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class PrefixTrie {
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Adds delta to the weight of term; a term whose weight drops to zero or below is removed.
+     */
+    public void add(String term, long delta) {
+        if (term.isEmpty() || delta == 0) {
+            return;
+        }
+        Node[] path = new Node[term.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < term.length(); i++) {
+            Node child = node.child(term.charAt(i));
+            if (child == null) {
+                if (delta < 0) {
+                    return; // Not in the trie
+                }
+                child = node.addChild(term.charAt(i));
+            }
+            node = child;
+            path[i + 1] = node;
+        }
+        boolean existed = node.weight > 0;
+        node.weight = Math.max(0, node.weight + delta);
+        node.term = node.weight > 0 ? term : null;
+        size += (node.weight > 0 ? 1 : 0) - (existed ? 1 : 0);
+
+        // Fix the subtree maxima on the way back up, pruning branches left empty
+        for (int i = term.length(); i >= 0; i--) {
+            Node current = path[i];
+            current.max = current.weight;
+            for (Node child : current.children) {
+                current.max = Math.max(current.max, child.max);
+            }
+            if (i > 0 && current.max == 0) {
+                path[i - 1].removeChild(term.charAt(i - 1));
+            }
+        }
+    }
+
+    /**
+     * @return the weight of term, 0 if it is not in the trie
+     */
+    public long weight(String term) {
+        Node node = find(term);
+        return node == null ? 0 : node.weight;
+    }
+
+    /**
+     * @return up to k terms starting with prefix, heaviest first
+     */
+    public List<String> complete(String prefix, int k) {
+        List<String> completions = new ArrayList<>(k);
+        Node start = find(prefix);
+        if (start == null || k <= 0) {
+            return completions;
+        }
+        // A node is queued with its subtree maximum, a finished term with its own weight
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        queue.add(new Candidate(start, start.max, null));
+        while (!queue.isEmpty() && completions.size() < k) {
+            Candidate candidate = queue.poll();
+            if (candidate.term != null) {
+                completions.add(candidate.term);
+                continue;
+            }
+            Node node = candidate.node;
+            if (node.weight > 0) {
+                queue.add(new Candidate(null, node.weight, node.term));
+            }
+            for (Node child : node.children) {
+                queue.add(new Candidate(child, child.max, null));
+            }
+        }
+        return completions;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private static class Node {
+        char[] labels = NO_LABELS;
+        Node[] children = NO_CHILDREN;
+        long weight;
+        long max;
+        String term;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node addChild(char c) {
+            int i = -Arrays.binarySearch(labels, c) - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(labels, i, newLabels, i + 1, labels.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            Node child = new Node();
+            newLabels[i] = c;
+            newChildren[i] = child;
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i < 0) {
+                return;
+            }
+            if (labels.length == 1) {
+                labels = NO_LABELS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(labels, i + 1, newLabels, i, labels.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+    }
+
+    private static class Candidate implements Comparable<Candidate> {
+        final Node node;
+        final long weight;
+        final String term;
+
+        Candidate(Node node, long weight, String term) {
+            this.node = node;
+            this.weight = weight;
+            this.term = term;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byWeight = Long.compare(other.weight, weight);
+            if (byWeight != 0) {
+                return byWeight;
+            }
+            // At equal weight a finished term comes before a node, whose terms are no heavier
+            if ((term == null) != (other.term == null)) {
+                return term != null ? -1 : 1;
+            }
+            return term != null ? term.compareTo(other.term) : 0;
+        }
+    }
+}
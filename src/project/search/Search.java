@@ -1,16 +1,365 @@
 package project.search;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import project.article.FieldDictionary;
+import project.article.GroupAccess;
+import project.article.HelpArticle;
+import project.article.HelpArticleDatabase;
+
 /**
  * <p> Search Class </p>
- * 
- * <p> Description: The class that outlines methods for searching. 
- *                  People can search using: words, names, or phrases in the title, author, or abstract. 
+ *
+ * <p> Description: The class that outlines methods for searching.
+ *                  People can search using: words, names, or phrases in the title, author, or abstract.
  *                  A search can also be performed with the long identifier for an article. </p>
- * 
+ *
+ * <p> Every criterion that is given must match; a blank criterion, or the level "All",
+ *     matches every article. Words match anywhere in the title, author or abstract,
+ *     ignoring case, and "quoted phrases" match as a whole. Searches run on the word
+ *     index of the SearchIndex, and only the summaries of the results are read from
+ *     the database, so no article body is read and no search scans the table. Terms
+ *     without letters or digits, e.g. "c++", cannot be looked up in the word index;
+ *     they are checked against the summaries of the articles the filters leave. </p>
+ *
+ * <p> When the words match no article exactly, a fuzzy stage retries them allowing a
+ *     few typos per word through the SearchIndex, so "recurion" still finds
+ *     "Recursion"; those results come back with the fewest corrected typos first.
+ *     The indexes behind it are kept current through the articleChanged,
+ *     articleRemoved and invalidateIndexes hooks. </p>
+ *
+ * <p> search() also counts the hits by level, group and access, from bitmaps in the
+ *     SearchIndex, for showing facet counts next to the filters. </p>
+ *
+ * <p> Articles in special access groups are matched only by their sensitive-free
+ *     title and description, and dropped from the results of anyone not on the
+ *     group's viewable list before anything is counted; an anonymous search finds
+ *     public articles only. The specialAccessChanged and groupAccessChanged hooks
+ *     keep the access in the SearchIndex current. </p>
+ *
  * @author Group TH 58
- * 
+ *
  * @version 1.00    2024-11-20  Initial
  */
 public class Search {
-    
+
+    private Search() {
+    }
+
+    /**
+     * Searches the summaries of every article in the database that is outside special
+     * access groups.
+     */
+    public static List<HelpArticle> articles(HelpArticleDatabase database, String terms, String level, String group) throws SQLException {
+        return search(database, terms, level, group).getArticles();
+    }
+
+    /**
+     * Searches the summaries of every article in the database the user may read, and
+     * records the search in the SearchLog for the search insights.
+     *
+     * @param username who searched, or null
+     */
+    public static List<HelpArticle> articles(HelpArticleDatabase database, String terms, String level, String group,
+                                             String username) throws SQLException {
+        return search(database, terms, level, group, username).getArticles();
+    }
+
+    /**
+     * Searches the summaries of every article in the database that is outside special
+     * access groups, with the hit counts by level, group and access.
+     */
+    public static Results search(HelpArticleDatabase database, String terms, String level, String group) throws SQLException {
+        return find(database, terms, level, group, null);
+    }
+
+    /**
+     * Searches the summaries of every article in the database the user may read, with
+     * the hit counts by level, group and access, and records the search in the
+     * SearchLog for the search insights.
+     *
+     * @param username who searched; null sees only articles outside special access groups
+     */
+    public static Results search(HelpArticleDatabase database, String terms, String level, String group,
+                                 String username) throws SQLException {
+        Results results = find(database, terms, level, group, username);
+        SearchLog.get().record(username, terms, level, group, results.getArticles().size());
+        return results;
+    }
+
+    // The terms are matched in the word index of the SearchIndex, exactly or else
+    // fuzzily; the visibility, level and group filters and the counts then come from its
+    // bitmaps, and only the summaries of the hits left are read from the database
+    private static Results find(HelpArticleDatabase database, String terms, String level, String group,
+                                String username) throws SQLException {
+        SearchIndex index = SearchIndex.get();
+        index.refresh(database);
+        List<String> words = parseTerms(terms);
+        Long id = parseId(terms);
+        Set<Long> hits = index.containing(words);
+        if (hits == null) {
+            // A word with no letters or digits to look up, e.g. "c++": the candidates are
+            // whatever the visibility, level and group bitmaps leave
+            hits = index.facets(index.containing(List.of()), level, group, username).getIds();
+        }
+        List<HelpArticle> checked = null;
+        if (!words.stream().allMatch(SearchIndex::isPlainWord)) {
+            // Phrases and punctuation: check the candidates against their text
+            Set<Long> restricted = index.restrictedIds();
+            checked = matching(database.getArticleSummaries(hits),
+                    terms, article -> SearchIndex.searchableText(article, restricted.contains(article.getId())));
+            hits = new HashSet<>();
+            for (HelpArticle article : checked) {
+                hits.add(article.getId());
+            }
+        } else if (id != null) {
+            hits.add(id);
+        }
+        Map<Long, Integer> distances = null;
+        if (hits.isEmpty() && id == null && !words.isEmpty()) {
+            distances = index.fuzzy(words(terms));
+            hits = distances.keySet();
+        }
+
+        SearchIndex.Facets facets = index.facets(hits, level, group, username);
+        List<HelpArticle> matches = new ArrayList<>();
+        if (checked != null) {
+            for (HelpArticle article : checked) {
+                if (facets.contains(article.getId())) {
+                    matches.add(article);
+                }
+            }
+        } else if (!facets.getIds().isEmpty()) {
+            List<HelpArticle> summaries = database.getArticleSummaries(facets.getIds());
+            matches = distances == null ? summaries : fuzzy(summaries, distances);
+        }
+        return new Results(matches, facets.getCounts());
+    }
+
+    /**
+     * Builds the in-memory search indexes ahead of the first search; call it off the FX thread.
+     */
+    public static void loadIndexes(HelpArticleDatabase database) throws SQLException {
+        SearchIndex.get().refresh(database);
+        Autocomplete.get().load(database);
+    }
+
+    /**
+     * @param terms words or phrases, or the long identifier of an article
+     * @param level beginner, intermediate, advanced, expert, or "All"
+     * @param group a group identifier the article must carry
+     * @return the matching articles, in the order given
+     */
+    public static List<HelpArticle> articles(List<HelpArticle> articles, String terms, String level, String group) {
+        boolean anyLevel = isBlank(level) || "All".equalsIgnoreCase(level.trim());
+        // Match the few distinct values once, then each article by its FieldDictionary code
+        Predicate<String> levelMatch = value -> level.trim().equalsIgnoreCase(value);
+        Predicate<String> groupMatch = value -> inGroup(value, group.trim());
+        BitSet levels = anyLevel ? null : FieldDictionary.codes(levelMatch);
+        BitSet groups = isBlank(group) ? null : FieldDictionary.codes(groupMatch);
+
+        List<HelpArticle> filtered = new ArrayList<>();
+        for (HelpArticle article : articles) {
+            if (levels != null && !accepts(levels, levelMatch, article.getLevelCode(), article.getLevel())) {
+                continue;
+            }
+            if (groups != null && !accepts(groups, groupMatch, article.getGroupIdentifierCode(), article.getGroupIdentifier())) {
+                continue;
+            }
+            filtered.add(article);
+        }
+        return matching(filtered, terms, article -> SearchIndex.searchableText(article, false));
+    }
+
+    // By code, or by the value itself if the full dictionary left it uncoded
+    private static boolean accepts(BitSet codes, Predicate<String> condition, int code, String value) {
+        return code == FieldDictionary.UNCODED ? condition.test(value) : codes.get(code);
+    }
+
+    // The articles matching the terms, each searched in the text the function gives
+    private static List<HelpArticle> matching(List<HelpArticle> articles, String terms, Function<HelpArticle, String> text) {
+        List<String> words = parseTerms(terms);
+        Long id = parseId(terms);
+        List<HelpArticle> matches = new ArrayList<>();
+        for (HelpArticle article : articles) {
+            if ((id != null && article.getId() == id) || containsAll(text.apply(article), words)) {
+                matches.add(article);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @param distances article IDs with the number of typos corrected, from the SearchIndex
+     * @return the articles found by the fuzzy stage, fewest typos first
+     */
+    static List<HelpArticle> fuzzy(List<HelpArticle> articles, Map<Long, Integer> distances) {
+        List<HelpArticle> matches = new ArrayList<>();
+        if (distances.isEmpty()) {
+            return matches;
+        }
+        for (HelpArticle article : articles) {
+            if (distances.containsKey(article.getId())) {
+                matches.add(article);
+            }
+        }
+        matches.sort(Comparator.comparingInt(article -> distances.get(article.getId())));
+        return matches;
+    }
+
+    /**
+     * Updates the in-memory search indexes after an article was created or changed.
+     */
+    public static void articleChanged(HelpArticle article) {
+        SearchIndex.get().articleChanged(article);
+        Autocomplete.get().articleChanged(article);
+    }
+
+    /**
+     * Updates the in-memory search indexes after an article was deleted.
+     */
+    public static void articleRemoved(long id) {
+        SearchIndex.get().articleRemoved(id);
+        Autocomplete.get().articleRemoved(id);
+    }
+
+    /**
+     * Moves an article in or out of a special access group in the in-memory search
+     * indexes; call it before storing the article so it is never found as public.
+     *
+     * @param group the special access group, or null for none
+     */
+    public static void specialAccessChanged(long id, String group) {
+        SearchIndex.get().specialAccessChanged(id, group);
+        Autocomplete.get().articleRemoved(id); // Suggested again, sensitive-free, when the article is stored
+    }
+
+    /**
+     * Updates who may find the articles of a special access group.
+     */
+    public static void groupAccessChanged(String group, GroupAccess access) {
+        SearchIndex.get().groupAccessChanged(group, access);
+    }
+
+    /**
+     * Records the articles version a write produced, once its other hooks ran.
+     */
+    public static void articlesWritten(long version) {
+        SearchIndex.get().written(version);
+    }
+
+    /**
+     * Marks the in-memory search indexes stale after a bulk change such as a restore.
+     */
+    public static void invalidateIndexes() {
+        SearchIndex.get().invalidate();
+        Autocomplete.get().invalidate();
+    }
+
+    // Every single word of the input, phrases included, for matching word by word
+    private static List<String> words(String terms) {
+        List<String> words = new ArrayList<>();
+        for (String term : parseTerms(terms)) {
+            words.addAll(FuzzyMatcher.tokens(term));
+        }
+        return words;
+    }
+
+    /**
+     * Splits search input into lower-case words, keeping "quoted phrases" together.
+     */
+    static List<String> parseTerms(String terms) {
+        List<String> words = new ArrayList<>();
+        if (terms == null) {
+            return words;
+        }
+        String[] parts = terms.split("\"", -1);
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i].trim().toLowerCase(Locale.ROOT);
+            if (part.isEmpty()) {
+                continue;
+            }
+            if (i % 2 == 1) {
+                words.add(part); // Inside quotes
+            } else {
+                for (String word : part.split("\\s+")) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    private static Long parseId(String terms) {
+        if (isBlank(terms)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(terms.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean containsAll(String text, List<String> words) {
+        if (words.isEmpty()) {
+            return true;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (String word : words) {
+            if (!lower.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean inGroup(String groupIdentifier, String group) {
+        for (String identifier : groupIdentifier.split(",")) {
+            if (identifier.trim().equalsIgnoreCase(group)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The articles a search found, and how many of them each facet value has.
+     */
+    public static class Results {
+        private final List<HelpArticle> articles;
+        private final Map<String, Map<String, Integer>> facets;
+
+        Results(List<HelpArticle> articles, Map<String, Map<String, Integer>> facets) {
+            this.articles = articles;
+            this.facets = facets;
+        }
+
+        public List<HelpArticle> getArticles() {
+            return articles;
+        }
+
+        /**
+         * @return "level", "groupIdentifier" and "access" to each value's hit count,
+         *         most first; a facet's counts ignore its own filter
+         */
+        public Map<String, Map<String, Integer>> getFacets() {
+            return facets;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
 }
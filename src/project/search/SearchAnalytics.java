@@ -0,0 +1,470 @@
+package project.search;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import project.util.config.DatabaseConfig;
+import project.util.logging.Logger;
+import project.util.metrics.Metrics;
+
+/**
+ * <p> SearchAnalytics class </p>
+ *
+ * <p> Description: Tells authors what students search for and do not find, without
+ * scanning the search log. An incremental job folds the search_log rows added since
+ * its last run into hourly buckets: exact counts of searches and zero-result searches
+ * in search_stats, and SpaceSaving sketches of the most frequent queries, zero-result
+ * queries and search terms in search_heavy_hitters, at most project.search.sketchSize
+ * (100) items per bucket and kind. The reports merge the buckets of a rolling window,
+ * so their cost depends on the window, not on how many searches were made. Log rows
+ * are deleted project.search.logRetentionDays (30) after they were aggregated, and
+ * buckets after project.search.statsRetentionDays (365). </p>
+ *
+ * <p> Merged counts are estimates: an item missing from one bucket's sketch counts as
+ * zero there, so rare items may be undercounted across buckets; the frequent ones
+ * the reports are about are kept in every bucket. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class SearchAnalytics {
+    private static final Logger log = Logger.get(SearchAnalytics.class);
+    private static final int READ_BATCH = 10_000;
+    private static final int IN_LIST_SIZE = 500; // Queries per IN (...) list
+
+    static final String QUERIES = "query";
+    static final String ZERO_RESULT_QUERIES = "zero";
+    static final String TERMS = "term";
+
+    private static SearchAnalytics instance;
+
+    private final int sketchSize = Integer.getInteger("project.search.sketchSize", 100);
+    private final int logRetentionDays = Integer.getInteger("project.search.logRetentionDays", 30);
+    private final int statsRetentionDays = Integer.getInteger("project.search.statsRetentionDays", 365);
+    private ScheduledExecutorService scheduler;
+
+    public static synchronized SearchAnalytics get() {
+        if (instance == null) {
+            instance = new SearchAnalytics();
+        }
+        return instance;
+    }
+
+    /**
+     * Runs aggregate() every intervalSeconds on a daemon thread; 0 turns it off.
+     */
+    public synchronized void startScheduled(long intervalSeconds) {
+        if (scheduler != null || intervalSeconds <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "search-analytics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                aggregate();
+                Autocomplete.get().refreshQueries();
+            } catch (SQLException | RuntimeException e) {
+                log.error("Search aggregation failed", e);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Folds the search log rows added since the last run into the hourly buckets, then
+     * drops expired log rows and buckets. Safe to run from several instances sharing a
+     * database: the checkpoint row is locked while a batch is folded in.
+     *
+     * @return how many log rows were aggregated
+     */
+    public synchronized int aggregate() throws SQLException {
+        int total = 0;
+        try (Metrics.Timer timer = Metrics.time("SearchAnalytics.aggregate");
+             Connection connection = DatabaseConfig.get().connect()) {
+            connection.setAutoCommit(false);
+            try {
+                int rows;
+                do {
+                    rows = aggregateBatch(connection);
+                    connection.commit();
+                    total += rows;
+                } while (rows == READ_BATCH);
+                expire(connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            timer.rows(total);
+        }
+        if (total > 0) {
+            log.debug("Aggregated {} searches", total);
+        }
+        return total;
+    }
+
+    private int aggregateBatch(Connection connection) throws SQLException {
+        long lastId = checkpoint(connection);
+        Map<Instant, Bucket> buckets = new TreeMap<>();
+        long maxId = lastId;
+        int rows = 0;
+        String sql = "SELECT id, query, results, searched_at FROM search_log WHERE id > ? ORDER BY id LIMIT ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setLong(1, lastId);
+            pstmt.setInt(2, READ_BATCH);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                    maxId = rs.getLong("id");
+                    Instant hour = rs.getTimestamp("searched_at").toInstant().truncatedTo(ChronoUnit.HOURS);
+                    Bucket bucket = buckets.get(hour);
+                    if (bucket == null) {
+                        bucket = load(connection, hour);
+                        buckets.put(hour, bucket);
+                    }
+                    bucket.add(rs.getString("query"), rs.getInt("results"));
+                }
+            }
+        }
+        for (Map.Entry<Instant, Bucket> bucket : buckets.entrySet()) {
+            save(connection, bucket.getKey(), bucket.getValue());
+        }
+        if (rows > 0) {
+            try (PreparedStatement pstmt = connection.prepareStatement("UPDATE search_aggregation SET last_id = ? WHERE name = 'search_log'")) {
+                pstmt.setLong(1, maxId);
+                pstmt.executeUpdate();
+            }
+        }
+        return rows;
+    }
+
+    // Locks and reads the ID of the last aggregated log row
+    private static long checkpoint(Connection connection) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT last_id FROM search_aggregation WHERE name = 'search_log' FOR UPDATE");
+             ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getLong("last_id");
+            }
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO search_aggregation (name, last_id) VALUES ('search_log', 0)")) {
+            pstmt.executeUpdate();
+        }
+        return 0;
+    }
+
+    private Bucket load(Connection connection, Instant hour) throws SQLException {
+        Bucket bucket = new Bucket(sketchSize);
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT searches, zero_results FROM search_stats WHERE bucket = ?")) {
+            pstmt.setTimestamp(1, Timestamp.from(hour));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    bucket.searches = rs.getLong("searches");
+                    bucket.zeroResults = rs.getLong("zero_results");
+                }
+            }
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT kind, item, hits, error FROM search_heavy_hitters WHERE bucket = ?")) {
+            pstmt.setTimestamp(1, Timestamp.from(hour));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    bucket.sketch(rs.getString("kind")).restore(rs.getString("item"), rs.getLong("hits"), rs.getLong("error"));
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private static void save(Connection connection, Instant hour, Bucket bucket) throws SQLException {
+        Timestamp timestamp = Timestamp.from(hour);
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "MERGE INTO search_stats (bucket, searches, zero_results) KEY (bucket) VALUES (?, ?, ?)")) {
+            pstmt.setTimestamp(1, timestamp);
+            pstmt.setLong(2, bucket.searches);
+            pstmt.setLong(3, bucket.zeroResults);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM search_heavy_hitters WHERE bucket = ?")) {
+            pstmt.setTimestamp(1, timestamp);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO search_heavy_hitters (bucket, kind, item, hits, error) VALUES (?, ?, ?, ?, ?)")) {
+            for (Map.Entry<String, SpaceSaving> sketch : bucket.sketches.entrySet()) {
+                for (SpaceSaving.Entry entry : sketch.getValue().entries()) {
+                    pstmt.setTimestamp(1, timestamp);
+                    pstmt.setString(2, sketch.getKey());
+                    pstmt.setString(3, entry.getItem());
+                    pstmt.setLong(4, entry.getCount());
+                    pstmt.setLong(5, entry.getError());
+                    pstmt.addBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void expire(Connection connection) throws SQLException {
+        Instant now = Instant.now();
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "DELETE FROM search_log WHERE id <= (SELECT last_id FROM search_aggregation WHERE name = 'search_log') AND searched_at < ?")) {
+            pstmt.setTimestamp(1, Timestamp.from(now.minus(Duration.ofDays(logRetentionDays))));
+            pstmt.executeUpdate();
+        }
+        Timestamp statsCutoff = Timestamp.from(now.minus(Duration.ofDays(statsRetentionDays)));
+        for (String table : new String[] { "search_heavy_hitters", "search_stats" }) {
+            try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM " + table + " WHERE bucket < ?")) {
+                pstmt.setTimestamp(1, statsCutoff);
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * @return the exact number of searches and zero-result searches in the window ending now
+     */
+    public Totals totals(Duration window) throws SQLException {
+        Instant to = Instant.now();
+        String sql = "SELECT COALESCE(SUM(searches), 0), COALESCE(SUM(zero_results), 0) FROM search_stats WHERE bucket >= ? AND bucket < ?";
+        try (Metrics.Timer timer = Metrics.time("SearchAnalytics.totals");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, Timestamp.from(start(to, window)));
+            pstmt.setTimestamp(2, Timestamp.from(to));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                timer.rows(1);
+                return new Totals(rs.getLong(1), rs.getLong(2));
+            }
+        }
+    }
+
+    /**
+     * @return the most frequent queries in the window ending now, most frequent first
+     */
+    public List<SpaceSaving.Entry> topQueries(Duration window, int n) throws SQLException {
+        Instant to = Instant.now();
+        return top(merge(QUERIES, start(to, window), to), n);
+    }
+
+    /**
+     * @return the most frequent queries that found nothing in the window ending now,
+     *         i.e. the articles students are missing
+     */
+    public List<SpaceSaving.Entry> topZeroResultQueries(Duration window, int n) throws SQLException {
+        Instant to = Instant.now();
+        return top(merge(ZERO_RESULT_QUERIES, start(to, window), to), n);
+    }
+
+    /**
+     * Counts, for each of the given queries, the different users who searched it and
+     * found something in the window ending now. Read from the search log itself, so the
+     * window should not exceed project.search.logRetentionDays; anonymous searches do not count.
+     *
+     * @return the queries searched by anyone, mapped to their number of searchers
+     */
+    public Map<String, Integer> searchersWhoFound(Collection<String> queries, Duration window) throws SQLException {
+        List<String> items = new ArrayList<>(queries);
+        Map<String, Integer> searchers = new HashMap<>();
+        Timestamp from = Timestamp.from(Instant.now().minus(window));
+        try (Metrics.Timer timer = Metrics.time("SearchAnalytics.searchersWhoFound");
+             Connection connection = DatabaseConfig.get().connect()) {
+            for (int start = 0; start < items.size(); start += IN_LIST_SIZE) {
+                List<String> chunk = items.subList(start, Math.min(start + IN_LIST_SIZE, items.size()));
+                String sql = "SELECT query, COUNT(DISTINCT username) FROM search_log WHERE query IN ("
+                        + String.join(", ", Collections.nCopies(chunk.size(), "?"))
+                        + ") AND results > 0 AND searched_at >= ? GROUP BY query";
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setString(i + 1, chunk.get(i));
+                    }
+                    pstmt.setTimestamp(chunk.size() + 1, from);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            searchers.put(rs.getString(1), rs.getInt(2));
+                        }
+                    }
+                }
+            }
+            timer.rows(searchers.size());
+        }
+        return searchers;
+    }
+
+    /**
+     * Finds the search terms used much more in the recent window than in the baseline
+     * window before it, comparing searches per hour.
+     *
+     * @param minimum the fewest recent searches a term needs to count as trending
+     */
+    public List<Trend> trendingTerms(Duration recent, Duration baseline, int minimum, int n) throws SQLException {
+        Instant to = Instant.now();
+        Instant recentStart = start(to, recent);
+        Instant baselineStart = recentStart.minus(baseline);
+        Map<String, long[]> recentCounts = merge(TERMS, recentStart, to);
+        Map<String, long[]> baselineCounts = merge(TERMS, baselineStart, recentStart);
+        double recentHours = Math.max(1, Duration.between(recentStart, to).toHours());
+        double baselineHours = Math.max(1, baseline.toHours());
+
+        List<Trend> trends = new ArrayList<>();
+        for (Map.Entry<String, long[]> term : recentCounts.entrySet()) {
+            long now = term.getValue()[0];
+            if (now < minimum) {
+                continue;
+            }
+            long[] before = baselineCounts.get(term.getKey());
+            long then = before == null ? 0 : before[0];
+            // Add-one smoothing, so a term new this week scores high but finite
+            double score = (now / recentHours) / ((then + 1) / baselineHours);
+            if (score > 1) {
+                trends.add(new Trend(term.getKey(), now, then, score));
+            }
+        }
+        trends.sort(Comparator.comparingDouble(Trend::getScore).reversed().thenComparing(Trend::getTerm));
+        return trends.size() > n ? new ArrayList<>(trends.subList(0, n)) : trends;
+    }
+
+    // Windows start on an hour, as the buckets do
+    private static Instant start(Instant to, Duration window) {
+        return to.minus(window).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    // Item to {count, error}, summed over the buckets in [from, to)
+    private static Map<String, long[]> merge(String kind, Instant from, Instant to) throws SQLException {
+        Map<String, long[]> merged = new HashMap<>();
+        String sql = "SELECT item, SUM(hits), SUM(error) FROM search_heavy_hitters WHERE kind = ? AND bucket >= ? AND bucket < ? GROUP BY item";
+        try (Metrics.Timer timer = Metrics.time("SearchAnalytics.merge");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, kind);
+            pstmt.setTimestamp(2, Timestamp.from(from));
+            pstmt.setTimestamp(3, Timestamp.from(to));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    merged.put(rs.getString(1), new long[] { rs.getLong(2), rs.getLong(3) });
+                }
+            }
+            timer.rows(merged.size());
+        }
+        return merged;
+    }
+
+    private static List<SpaceSaving.Entry> top(Map<String, long[]> merged, int n) {
+        List<SpaceSaving.Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, long[]> item : merged.entrySet()) {
+            entries.add(new SpaceSaving.Entry(item.getKey(), item.getValue()[0], item.getValue()[1]));
+        }
+        entries.sort(Comparator.comparingLong(SpaceSaving.Entry::getCount).reversed().thenComparing(SpaceSaving.Entry::getItem));
+        return entries.size() > n ? new ArrayList<>(entries.subList(0, n)) : entries;
+    }
+
+    // The counters of one hour while it is being updated
+    private static class Bucket {
+        final int sketchSize;
+        final Map<String, SpaceSaving> sketches = new HashMap<>();
+        long searches;
+        long zeroResults;
+
+        Bucket(int sketchSize) {
+            this.sketchSize = sketchSize;
+        }
+
+        SpaceSaving sketch(String kind) {
+            return sketches.computeIfAbsent(kind, k -> new SpaceSaving(sketchSize));
+        }
+
+        void add(String query, int results) {
+            searches++;
+            sketch(QUERIES).offer(query, 1);
+            if (results == 0) {
+                zeroResults++;
+                sketch(ZERO_RESULT_QUERIES).offer(query, 1);
+            }
+            for (String term : Search.parseTerms(query)) {
+                sketch(TERMS).offer(term, 1);
+            }
+        }
+    }
+
+    /**
+     * The exact search counts of a window.
+     */
+    public static class Totals {
+        private final long searches;
+        private final long zeroResults;
+
+        Totals(long searches, long zeroResults) {
+            this.searches = searches;
+            this.zeroResults = zeroResults;
+        }
+
+        public long getSearches() {
+            return searches;
+        }
+
+        public long getZeroResults() {
+            return zeroResults;
+        }
+
+        public double getZeroResultRate() {
+            return searches == 0 ? 0 : (double) zeroResults / searches;
+        }
+    }
+
+    /**
+     * A search term and how its use changed.
+     */
+    public static class Trend {
+        private final String term;
+        private final long recent;
+        private final long baseline;
+        private final double score;
+
+        Trend(String term, long recent, long baseline, double score) {
+            this.term = term;
+            this.recent = recent;
+            this.baseline = baseline;
+            this.score = score;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public long getRecent() {
+            return recent;
+        }
+
+        public long getBaseline() {
+            return baseline;
+        }
+
+        /**
+         * @return how many times more often per hour the term was searched recently
+         */
+        public double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,502 @@
+package project.search;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import project.article.GroupAccess;
+import project.article.HelpArticle;
+import project.article.HelpArticleDatabase;
+import project.util.logging.Logger;
+import project.util.metrics.Metrics;
+
+/**
+ * <p> SearchIndex class </p>
+ *
+ * <p> Description: The in-memory indexes over the article summaries that answer
+ * searches without reading the articles table: the FuzzyMatcher over the title,
+ * author and abstract words, which finds both the articles containing the search
+ * words and those within a few typos of them, the FacetIndex bitmaps that filter and
+ * count hits by level, group and access, and the VisibilityIndex that hides special
+ * access articles from users not on their group's viewable list. It is built from
+ * the summaries and the special access groups the first time a search needs it,
+ * kept current one article or group at a time by HelpArticleDatabase through Search,
+ * and rebuilt after bulk changes mark it stale. A rebuild happens outside the lock
+ * and is swapped in whole, so searches keep using the old index meanwhile. </p>
+ *
+ * <p> Before each search, refresh() reads the articles version, a counter every write
+ * to the article or group tables bumps in its own transaction, with one primary key
+ * read. The index remembers the version it reflects: a rebuild takes the version read
+ * before it, and a write of this instance that produced the next version moves it
+ * along through written(). Any other version means another instance changed articles
+ * or their access, and the index is rebuilt, so an article moved into a special access
+ * group elsewhere is not found as public meanwhile. </p>
+ *
+ * <p> Special access articles are indexed and matched by their sensitiveTitle and
+ * sensitiveDescription only, so nothing sensitive is kept in the index or suggested
+ * to users. </p>
+ *
+ * <p> The words of the fuzzy stage are saved as an IndexSegment file in the directory
+ * named by -Dproject.search.dir (search-index; empty keeps them in memory only). A
+ * rebuild after a restart maps the newest segment and only re-indexes the articles
+ * whose text stamp changed since it was written; once more than a quarter of them
+ * changed, it writes a new segment and deletes the older ones. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class SearchIndex {
+    private static final Logger log = Logger.get(SearchIndex.class);
+
+    private static final Path DIRECTORY = directory(System.getProperty("project.search.dir", "search-index"));
+    private static final String SEGMENTS = "segment-*.seg";
+    private static final double MAX_CHANGED = 0.25; // Share of changed articles before a new segment is written
+
+    private static SearchIndex instance;
+
+    private FuzzyMatcher fuzzy = new FuzzyMatcher();
+    private FacetIndex facets = new FacetIndex();
+    private VisibilityIndex visibility = new VisibilityIndex();
+    private boolean stale = true;
+    private long changes;
+    private long version = -1; // The articles version the index reflects, -1 if unknown
+
+    public static synchronized SearchIndex get() {
+        if (instance == null) {
+            instance = new SearchIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Rebuilds the index from the summaries of every article and the special access
+     * groups in the database, unless it is current and no other instance changed the
+     * articles or their access since the last check.
+     */
+    public void refresh(HelpArticleDatabase database) throws SQLException {
+        long current = database.getArticlesVersion();
+        synchronized (this) {
+            if (current == version && !stale) {
+                return;
+            }
+            if (!stale) {
+                log.debug("Articles or their access changed in another instance; rebuilding the search index");
+                stale = true;
+            }
+        }
+        // Read after the version, so the rebuilt index holds at least every write up to it
+        rebuild(database.getArticleSummaries(), database.getSpecialAccessArticles(), database.getSpecialAccessGroups(),
+                current);
+    }
+
+    /**
+     * Records the articles version a write of this instance produced, once its hooks
+     * updated the index. Only the version right after the one the index reflects
+     * carries it along; anything else means a write of another instance came in between.
+     */
+    public synchronized void written(long produced) {
+        version = produced == version + 1 && version >= 0 ? produced : -1;
+    }
+
+    /**
+     * Rebuilds the index unless it is current.
+     *
+     * @param specialGroups every special access article ID mapped to its group
+     * @param groupAccess   every special access group with its viewable list
+     */
+    public void refresh(List<HelpArticle> summaries, Map<Long, String> specialGroups,
+                        Map<String, GroupAccess> groupAccess) {
+        rebuild(summaries, specialGroups, groupAccess, -1);
+    }
+
+    // Swaps in an index of the given data, which holds every write up to the given version
+    private void rebuild(List<HelpArticle> summaries, Map<Long, String> specialGroups,
+                         Map<String, GroupAccess> groupAccess, long dataVersion) {
+        long seen;
+        synchronized (this) {
+            if (!stale) {
+                return;
+            }
+            seen = changes;
+        }
+        try (Metrics.Timer timer = Metrics.time("SearchIndex.refresh")) {
+            FuzzyMatcher builtFuzzy = words(summaries, specialGroups);
+            FacetIndex builtFacets = new FacetIndex();
+            VisibilityIndex builtVisibility = new VisibilityIndex();
+            groupAccess.forEach((group, access) -> builtVisibility.setViewers(group, access.getViewers()));
+            for (HelpArticle article : summaries) {
+                builtVisibility.setGroup(article.getId(), specialGroups.get(article.getId()));
+                builtFacets.put(article);
+                builtVisibility.place(article.getId(), builtFacets.doc(article.getId()));
+            }
+            synchronized (this) {
+                fuzzy = builtFuzzy;
+                facets = builtFacets;
+                visibility = builtVisibility;
+                stale = changes != seen; // An article changed while building; rebuild next time
+                version = dataVersion;
+            }
+            timer.rows(summaries.size());
+            log.debug("Indexed {} articles, {} special access, {} distinct words", summaries.size(),
+                    specialGroups.size(), builtFuzzy.size());
+        }
+    }
+
+    // The word index over the summaries: the newest segment with the articles changed
+    // since it was written on top, or a new segment, or without a directory all in memory
+    private static FuzzyMatcher words(List<HelpArticle> summaries, Map<Long, String> specialGroups) {
+        List<HelpArticle> sorted = new ArrayList<>(summaries);
+        sorted.sort(Comparator.comparingLong(HelpArticle::getId));
+        long[] ids = new long[sorted.size()];
+        long[] stamps = new long[sorted.size()];
+        List<String> texts = new ArrayList<>(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            HelpArticle article = sorted.get(i);
+            String text = searchableText(article, specialGroups.containsKey(article.getId()));
+            ids[i] = article.getId();
+            stamps[i] = stamp(text);
+            texts.add(text);
+        }
+        if (DIRECTORY != null) {
+            try {
+                IndexSegment newest = newestSegment();
+                if (newest != null) {
+                    List<Integer> changed = new ArrayList<>();
+                    List<Long> deleted = new ArrayList<>();
+                    compare(newest, ids, stamps, changed, deleted);
+                    if (changed.size() + deleted.size() <= MAX_CHANGED * Math.max(ids.length, newest.docCount())) {
+                        FuzzyMatcher matcher = new FuzzyMatcher(newest);
+                        for (int i : changed) {
+                            matcher.put(ids[i], texts.get(i));
+                        }
+                        deleted.forEach(matcher::remove);
+                        log.debug("Opened search segment {}; {} articles changed and {} deleted since",
+                                newest.file(), changed.size(), deleted.size());
+                        return matcher;
+                    }
+                }
+                Files.createDirectories(DIRECTORY);
+                Path file = DIRECTORY.resolve(String.format("segment-%d-%08x.seg", System.currentTimeMillis(),
+                        ThreadLocalRandom.current().nextInt()));
+                IndexSegment.write(file, ids, stamps, texts);
+                IndexSegment written = IndexSegment.open(file);
+                deleteSegmentsBefore(written);
+                return new FuzzyMatcher(written);
+            } catch (IOException e) {
+                log.warn("Could not use the search segments in {}; indexing in memory", DIRECTORY, e);
+            }
+        }
+        FuzzyMatcher matcher = new FuzzyMatcher();
+        for (int i = 0; i < ids.length; i++) {
+            matcher.put(ids[i], texts.get(i));
+        }
+        return matcher;
+    }
+
+    // Finds the articles that are new or changed since the segment was written, by
+    // index into ids, and the IDs of those deleted since
+    private static void compare(IndexSegment segment, long[] ids, long[] stamps, List<Integer> changed, List<Long> deleted) {
+        BitSet current = new BitSet(segment.docCount());
+        for (int i = 0; i < ids.length; i++) {
+            int doc = segment.doc(ids[i]);
+            if (doc >= 0) {
+                current.set(doc);
+            }
+            if (doc < 0 || segment.stamp(doc) != stamps[i]) {
+                changed.add(i);
+            }
+        }
+        for (int doc = current.nextClearBit(0); doc < segment.docCount(); doc = current.nextClearBit(doc + 1)) {
+            deleted.add(segment.id(doc));
+        }
+    }
+
+    // Segment names start with their creation time, so the newest sorts last
+    private static IndexSegment newestSegment() throws IOException {
+        if (!Files.isDirectory(DIRECTORY)) {
+            return null;
+        }
+        Path newest = null;
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(DIRECTORY, SEGMENTS)) {
+            for (Path segment : segments) {
+                if (newest == null || segment.getFileName().toString().compareTo(newest.getFileName().toString()) > 0) {
+                    newest = segment;
+                }
+            }
+        }
+        return newest == null ? null : IndexSegment.open(newest);
+    }
+
+    // Other instances may still map an older segment; where the OS refuses, a later rebuild retries
+    private static void deleteSegmentsBefore(IndexSegment kept) throws IOException {
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(DIRECTORY, SEGMENTS)) {
+            for (Path segment : segments) {
+                if (!segment.equals(kept.file())) {
+                    try {
+                        Files.deleteIfExists(segment);
+                    } catch (IOException e) {
+                        log.debug("Could not delete old search segment {}: {}", segment, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private static Path directory(String value) {
+        return value == null || value.isBlank() ? null : Paths.get(value.trim());
+    }
+
+    // A 64-bit FNV-1a hash of an article's searchable text, to tell whether its words changed
+    private static long stamp(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    public synchronized boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * @return the IDs of the articles with a close match for every word, each with the
+     *         total number of typos corrected
+     */
+    public synchronized Map<Long, Integer> fuzzy(Collection<String> words) {
+        try (Metrics.Timer timer = Metrics.time("SearchIndex.fuzzy")) {
+            Map<Long, Integer> found = fuzzy.match(words);
+            timer.rows(found.size());
+            return found;
+        }
+    }
+
+    /**
+     * Finds the articles whose searchable text contains every word, from the word index:
+     * a word matches the articles with an indexed word containing each of its runs of
+     * letters and digits. That is exact for plain words; for phrases and words with
+     * punctuation it may include articles the caller must check against their text.
+     *
+     * @param words lower-case words or phrases, as from Search.parseTerms
+     * @return the IDs, every indexed article if there are no words, or null if a word
+     *         has no letters or digits to look up
+     */
+    public synchronized Set<Long> containing(Collection<String> words) {
+        try (Metrics.Timer timer = Metrics.time("SearchIndex.containing")) {
+            Set<Long> found = null;
+            for (String word : words) {
+                List<String> tokens = FuzzyMatcher.tokens(word);
+                if (tokens.isEmpty()) {
+                    return null;
+                }
+                for (String token : tokens) {
+                    Set<Long> articles = fuzzy.containing(token);
+                    if (found == null) {
+                        found = articles;
+                    } else {
+                        found.retainAll(articles);
+                    }
+                    if (found.isEmpty()) {
+                        return found;
+                    }
+                }
+            }
+            if (found == null) {
+                found = facets.ids();
+            }
+            timer.rows(found.size());
+            return found;
+        }
+    }
+
+    /**
+     * @return true if containing() is exact for the word: it is a single run of
+     *         letters and digits
+     */
+    static boolean isPlainWord(String word) {
+        List<String> tokens = FuzzyMatcher.tokens(word);
+        return tokens.size() == 1 && tokens.get(0).equals(word);
+    }
+
+    /**
+     * @return the IDs of the special access articles, which searches match by their
+     *         sensitive-free fields only
+     */
+    public synchronized Set<Long> restrictedIds() {
+        return visibility.restrictedIds();
+    }
+
+    public synchronized boolean isRestricted(long id) {
+        return visibility.isRestricted(id);
+    }
+
+    /**
+     * Drops the hits the user may not see, then applies the level and group filters
+     * with the facet bitmaps and counts the remaining hits by each facet. A facet's
+     * counts leave out its own filter, so they tell how many hits choosing another
+     * value would give. Hits not in the index yet are left out and the index is
+     * marked stale, so the next search sees them once their access is known.
+     *
+     * @param hits     the articles matching the search terms, from the current summaries
+     * @param level    a level, or blank or "All" for any
+     * @param group    a group identifier, or blank for any
+     * @param username who searches; null sees only articles outside special access groups
+     */
+    public Facets facets(List<HelpArticle> hits, String level, String group, String username) {
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (HelpArticle article : hits) {
+            ids.add(article.getId());
+        }
+        return facets(ids, level, group, username);
+    }
+
+    /**
+     * As facets(List, ...), with the hits given by article ID.
+     */
+    public synchronized Facets facets(Collection<Long> hits, String level, String group, String username) {
+        try (Metrics.Timer timer = Metrics.time("SearchIndex.facets")) {
+            List<Long> missing = new ArrayList<>();
+            BitSet all = visibility.visible(facets.docs(hits, missing), username);
+            if (!missing.isEmpty()) {
+                log.debug("{} articles are not indexed yet", missing.size());
+                stale = true; // Created by another instance sharing the database
+            }
+            BitSet levelFilter = "All".equalsIgnoreCase(level == null ? null : level.trim())
+                    ? null : facets.filter(FacetIndex.LEVEL, level);
+            BitSet groupFilter = facets.filter(FacetIndex.GROUP, group);
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            counts.put(FacetIndex.LEVEL, facets.counts(FacetIndex.LEVEL, and(all, groupFilter)));
+            counts.put(FacetIndex.GROUP, facets.counts(FacetIndex.GROUP, and(all, levelFilter)));
+            BitSet matching = and(and(all, levelFilter), groupFilter);
+            counts.put(FacetIndex.ACCESS, facets.counts(FacetIndex.ACCESS, matching));
+
+            Set<Long> ids = new HashSet<>();
+            for (int doc = matching.nextSetBit(0); doc >= 0; doc = matching.nextSetBit(doc + 1)) {
+                ids.add(facets.id(doc));
+            }
+            timer.rows(ids.size());
+            return new Facets(ids, counts);
+        }
+    }
+
+    private static BitSet and(BitSet bits, BitSet filter) {
+        if (filter == null) {
+            return bits;
+        }
+        BitSet both = (BitSet) bits.clone();
+        both.and(filter);
+        return both;
+    }
+
+    public synchronized void articleChanged(HelpArticle article) {
+        long id = article.getId();
+        Integer old = facets.doc(id);
+        if (old != null) {
+            visibility.clear(old);
+        }
+        fuzzy.put(id, searchableText(article, visibility.isRestricted(id)));
+        facets.put(article);
+        visibility.place(id, facets.doc(id));
+        changes++;
+    }
+
+    public synchronized void articleRemoved(long id) {
+        Integer doc = facets.doc(id);
+        if (doc != null) {
+            visibility.clear(doc);
+        }
+        visibility.forget(id);
+        fuzzy.remove(id);
+        facets.remove(id);
+        changes++;
+    }
+
+    /**
+     * Records that an article was put in a special access group; called before the
+     * article itself is stored, so it is never indexed as public.
+     */
+    public synchronized void specialAccessChanged(long id, String group) {
+        Integer doc = facets.doc(id);
+        if (doc != null) {
+            visibility.clear(doc);
+        }
+        visibility.setGroup(id, group);
+        if (doc != null) {
+            visibility.place(id, doc);
+        }
+        changes++;
+    }
+
+    /**
+     * Replaces the viewable list of a special access group.
+     */
+    public synchronized void groupAccessChanged(String group, GroupAccess access) {
+        visibility.setViewers(group, access == null ? List.of() : access.getViewers());
+        changes++;
+    }
+
+    public synchronized void invalidate() {
+        stale = true;
+        changes++;
+    }
+
+    /**
+     * The hits left after the visibility and facet filters, and the hit counts of
+     * every facet value.
+     */
+    public static class Facets {
+        private final Set<Long> ids;
+        private final Map<String, Map<String, Integer>> counts;
+
+        Facets(Set<Long> ids, Map<String, Map<String, Integer>> counts) {
+            this.ids = ids;
+            this.counts = counts;
+        }
+
+        public boolean contains(long id) {
+            return ids.contains(id);
+        }
+
+        /**
+         * @return the IDs of the hits left, in no particular order
+         */
+        public Set<Long> getIds() {
+            return ids;
+        }
+
+        /**
+         * @return facet name (level, groupIdentifier, access) to value to hit count, most first
+         */
+        public Map<String, Map<String, Integer>> getCounts() {
+            return counts;
+        }
+    }
+
+    /**
+     * @return the fields searches match words in: the title, author and abstract, or
+     *         only the sensitive-free title and description of a special access article
+     */
+    static String searchableText(HelpArticle article, boolean restricted) {
+        if (restricted) {
+            return Objects.toString(article.getSensitiveTitle(), "") + "\n"
+                    + Objects.toString(article.getSensitiveDescription(), "");
+        }
+        return Objects.toString(article.getTitle(), "") + "\n" + Objects.toString(article.getAuthor(), "") + "\n"
+                + Objects.toString(article.getShortDescription(), "");
+    }
+}
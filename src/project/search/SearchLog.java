@@ -0,0 +1,191 @@
+package project.search;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import project.util.config.DatabaseConfig;
+import project.util.logging.Logger;
+import project.util.metrics.Metrics;
+
+/**
+ * <p> SearchLog class </p>
+ *
+ * <p> Description: Records every article search that had search terms, with its
+ * filters and how many articles it found, in the search_log table. Searching only
+ * queues the record; a background thread writes queued records in batches, so a
+ * search never waits for the insert. If the queue fills up, records are dropped and
+ * the number dropped is logged. SearchAnalytics turns the log into the insight
+ * reports; starting the log starts that job too. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class SearchLog {
+    private static final Logger log = Logger.get(SearchLog.class);
+    private static final int CAPACITY = 10_000;
+    private static final int BATCH_SIZE = 500;
+    static final int MAX_QUERY_LENGTH = 255;
+
+    private static SearchLog instance;
+
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+
+    private SearchLog() {
+        Thread writer = new Thread(this::writeForever, "search-log");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushQuietly, "search-log-final"));
+        SearchAnalytics.get().startScheduled(Long.getLong("project.search.aggregateSeconds", 60L));
+    }
+
+    /**
+     * @return the log of this process, started on first use
+     */
+    public static synchronized SearchLog get() {
+        if (instance == null) {
+            instance = new SearchLog();
+        }
+        return instance;
+    }
+
+    /**
+     * Queues one search. Searches without terms (browsing by level or group) are not logged.
+     *
+     * @param username who searched, or null
+     * @param results  how many articles the search found
+     */
+    public void record(String username, String terms, String level, String group, int results) {
+        String query = normalize(terms);
+        if (query.isEmpty()) {
+            return;
+        }
+        if (!queue.offer(new Entry(username, query, level, group, results, Instant.now()))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the query as it is logged and counted: lower case, single spaces,
+     *         at most MAX_QUERY_LENGTH characters
+     */
+    static String normalize(String terms) {
+        if (terms == null) {
+            return "";
+        }
+        String query = terms.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return query.length() > MAX_QUERY_LENGTH ? query.substring(0, MAX_QUERY_LENGTH) : query;
+    }
+
+    /**
+     * @return the user's most recent distinct queries, newest first
+     */
+    public List<String> recentQueries(String username, int limit) throws SQLException {
+        flush();
+        Set<String> queries = new LinkedHashSet<>();
+        String sql = "SELECT query FROM search_log WHERE username = ? ORDER BY username, id DESC LIMIT ?";
+        try (Metrics.Timer timer = Metrics.time("SearchLog.recentQueries");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            pstmt.setInt(2, limit * 4); // Repeated queries are folded below
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next() && queries.size() < limit) {
+                    queries.add(rs.getString("query"));
+                    timer.rows(1);
+                }
+            }
+        }
+        return new ArrayList<>(queries);
+    }
+
+    private void writeForever() {
+        while (true) {
+            try {
+                Entry first = queue.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    List<Entry> batch = new ArrayList<>();
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (SQLException | RuntimeException e) {
+                log.error("Could not write the search log", e);
+            }
+        }
+    }
+
+    /**
+     * Writes everything queued so far.
+     */
+    public synchronized void flush() throws SQLException {
+        List<Entry> batch = new ArrayList<>();
+        while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException e) {
+            log.error("Could not write the search log", e);
+        }
+    }
+
+    private synchronized void write(List<Entry> batch) throws SQLException {
+        String sql = "INSERT INTO search_log (username, query, level, group_name, results, searched_at) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Metrics.Timer timer = Metrics.time("SearchLog.write");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Entry entry : batch) {
+                pstmt.setString(1, entry.username);
+                pstmt.setString(2, entry.query);
+                pstmt.setString(3, entry.level);
+                pstmt.setString(4, entry.group);
+                pstmt.setInt(5, entry.results);
+                pstmt.setTimestamp(6, Timestamp.from(entry.searchedAt));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            timer.rows(batch.size());
+        }
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            log.warn("{} searches were not logged, the search log queue was full", lost);
+        }
+    }
+
+    private static class Entry {
+        final String username;
+        final String query;
+        final String level;
+        final String group;
+        final int results;
+        final Instant searchedAt;
+
+        Entry(String username, String query, String level, String group, int results, Instant searchedAt) {
+            this.username = username;
+            this.query = query;
+            this.level = level;
+            this.group = group;
+            this.results = results;
+            this.searchedAt = searchedAt;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package project.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * <p> SpaceSaving class </p>
+ *
+ * <p> Description: Finds the most frequent items of a stream in fixed memory, with the
+ * Space-Saving algorithm (Metwally, Agrawal and El Abbadi). It keeps at most capacity
+ * counters; an item that is not counted yet takes over the counter of the least
+ * frequent one and inherits its count as possible overcount. Every item that occurs
+ * more than total/capacity times is guaranteed to be kept, its count is never too
+ * low, and count - error is never too high. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class SpaceSaving {
+    private static final Comparator<Entry> BY_COUNT = Comparator.comparingLong((Entry e) -> e.count)
+            .thenComparing(e -> e.item);
+
+    private final int capacity;
+    private final Map<String, Entry> counters = new HashMap<>();
+    private final TreeSet<Entry> byCount = new TreeSet<>(BY_COUNT);
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Counts count more occurrences of item.
+     */
+    public void offer(String item, long count) {
+        Entry entry = counters.get(item);
+        if (entry != null) {
+            byCount.remove(entry);
+            entry = new Entry(item, entry.count + count, entry.error);
+        } else if (counters.size() < capacity) {
+            entry = new Entry(item, count, 0);
+        } else {
+            Entry evicted = byCount.pollFirst();
+            counters.remove(evicted.item);
+            entry = new Entry(item, evicted.count + count, evicted.count);
+        }
+        counters.put(item, entry);
+        byCount.add(entry);
+    }
+
+    /**
+     * Puts back a counter saved from an earlier sketch of the same capacity.
+     */
+    public void restore(String item, long count, long error) {
+        Entry old = counters.remove(item);
+        if (old != null) {
+            byCount.remove(old);
+        }
+        Entry entry = new Entry(item, count, error);
+        counters.put(item, entry);
+        byCount.add(entry);
+        while (counters.size() > capacity) {
+            counters.remove(byCount.pollFirst().item);
+        }
+    }
+
+    /**
+     * @return the n most frequent items, most frequent first
+     */
+    public List<Entry> top(int n) {
+        List<Entry> top = new ArrayList<>(Math.min(n, counters.size()));
+        for (Entry entry : byCount.descendingSet()) {
+            if (top.size() == n) {
+                break;
+            }
+            top.add(entry);
+        }
+        return top;
+    }
+
+    /**
+     * @return every counter, in no particular order
+     */
+    public List<Entry> entries() {
+        return new ArrayList<>(counters.values());
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * One counted item.
+     */
+    public static class Entry {
+        private final String item;
+        private final long count;
+        private final long error;
+
+        public Entry(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getItem() {
+            return item;
+        }
+
+        /**
+         * @return the estimated count, never below the true count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return how much getCount() may overcount
+         */
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return item + "=" + count + (error > 0 ? " (±" + error + ")" : "");
+        }
+    }
+}
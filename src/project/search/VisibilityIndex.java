@@ -0,0 +1,117 @@
+package project.search;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p> VisibilityIndex class </p>
+ *
+ * <p> Description: Who may see which special access articles, as bitmaps over the
+ * FacetIndex document numbers: one bitmap of every restricted article and one per
+ * special access group, plus each group's viewable list. A user's visible set is
+ * everything unrestricted plus the bitmaps of the groups listing them, so a search
+ * drops the articles a user may not read before counting or ranking, without asking
+ * the database per hit. This mirrors ArticleService.canRead: admins of a group that
+ * are not on its viewable list do not see its articles either. Not thread safe;
+ * SearchIndex guards it. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+class VisibilityIndex {
+    private final Map<Long, String> groupOf = new HashMap<>();
+    private final BitSet restricted = new BitSet();
+    private final Map<String, BitSet> groupDocs = new HashMap<>();
+    private final Map<String, Set<String>> viewers = new HashMap<>();
+
+    /**
+     * Records the special access group of an article, or null if it has none. Call
+     * place() afterwards to set its bits.
+     */
+    void setGroup(long id, String group) {
+        if (group == null) {
+            groupOf.remove(id);
+        } else {
+            groupOf.put(id, key(group));
+        }
+    }
+
+    boolean isRestricted(long id) {
+        return groupOf.containsKey(id);
+    }
+
+    /**
+     * @return the IDs of every special access article
+     */
+    Set<Long> restrictedIds() {
+        return new HashSet<>(groupOf.keySet());
+    }
+
+    /**
+     * Sets the bits of an article at its document number.
+     */
+    void place(long id, int doc) {
+        String group = groupOf.get(id);
+        if (group != null) {
+            restricted.set(doc);
+            groupDocs.computeIfAbsent(group, g -> new BitSet()).set(doc);
+        }
+    }
+
+    /**
+     * Clears a document number before it is reused.
+     */
+    void clear(int doc) {
+        if (!restricted.get(doc)) {
+            return;
+        }
+        restricted.clear(doc);
+        for (BitSet bits : groupDocs.values()) {
+            bits.clear(doc);
+        }
+    }
+
+    void forget(long id) {
+        groupOf.remove(id);
+    }
+
+    /**
+     * Replaces the viewable list of a special access group.
+     */
+    void setViewers(String group, Collection<String> usernames) {
+        Set<String> keys = new HashSet<>();
+        for (String username : usernames) {
+            keys.add(key(username));
+        }
+        viewers.put(key(group), keys);
+    }
+
+    /**
+     * @return the hits the user may see; a null user sees only unrestricted articles
+     */
+    BitSet visible(BitSet hits, String username) {
+        BitSet visible = (BitSet) hits.clone();
+        visible.andNot(restricted);
+        if (username == null) {
+            return visible;
+        }
+        String user = key(username);
+        for (Map.Entry<String, Set<String>> group : viewers.entrySet()) {
+            BitSet docs = groupDocs.get(group.getKey());
+            if (docs != null && group.getValue().contains(user)) {
+                BitSet allowed = (BitSet) docs.clone();
+                allowed.and(hits);
+                visible.or(allowed);
+            }
+        }
+        return visible;
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,89 @@
+package project.service;
+
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import project.account.DatabaseModel;
+import project.util.config.DatabaseConfig;
+import project.util.metrics.Metrics;
+
+/**
+ * <p> AccountService class </p>
+ *
+ * <p> Description: The account operations behind the login, FAQ and admin pages,
+ * without any JavaFX: checking a username and password, reading roles, and issuing
+ * invitation codes. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class AccountService {
+    private static final String CODE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final SecureRandom random = new SecureRandom();
+
+    private final DatabaseModel database;
+
+    public AccountService(DatabaseModel database) {
+        this.database = database;
+    }
+
+    /**
+     * @return true if a user with this username and password exists
+     */
+    public boolean authenticate(String username, String password) throws SQLException {
+        String query = "SELECT 1 FROM users WHERE username = ? AND password = ?";
+        try (Metrics.Timer timer = Metrics.time("AccountService.authenticate");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, password);
+            ResultSet rs = pstmt.executeQuery();
+            boolean found = rs.next(); // If a record is returned, the user exists with the provided credentials
+            timer.rows(found ? 1 : 0);
+            return found;
+        }
+    }
+
+    public String[] roles(String username) {
+        return database.getUserRoles(username);
+    }
+
+    /**
+     * @return true if the user has the role, e.g. "Admin", "Instructor" or "Student"
+     */
+    public boolean hasRole(String username, String role) {
+        for (String held : database.getUserRoles(username)) {
+            if (held.trim().equalsIgnoreCase(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Registers a new invitation code that grants the given roles.
+     *
+     * @return the code to hand to the invited user
+     */
+    public String invite(String... roles) {
+        if (roles == null || roles.length == 0) {
+            throw new IllegalArgumentException("Please select a role.");
+        }
+        String code = generateCode();
+        database.registerCode(code, roles);
+        return code;
+    }
+
+    /**
+     * @return a random 8-character alphanumeric code
+     */
+    public static String generateCode() {
+        StringBuilder code = new StringBuilder(8);
+        for (int i = 0; i < 8; i++) {
+            code.append(CODE_CHARS.charAt(random.nextInt(CODE_CHARS.length())));
+        }
+        return code.toString();
+    }
+}
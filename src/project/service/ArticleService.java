@@ -0,0 +1,184 @@
+package project.service;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import project.article.EncryptionUtil;
+import project.article.GroupAccess;
+import project.article.HelpArticle;
+import project.article.HelpArticleDatabase;
+import project.search.Search;
+
+/**
+ * <p> ArticleService class </p>
+ *
+ * <p> Description: The article operations behind the article pages, without any JavaFX.
+ * Creating an article in a group, searching, reading with the special access rules,
+ * and editing group access lists all go through here, so the pages and the HTTP API
+ * behave the same. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class ArticleService {
+    public static final String GENERAL = "general";
+    public static final String SPECIAL_ACCESS = "special_access";
+    public static final List<String> LEVELS = List.of("Beginner", "Intermediate", "Advanced", "Expert", "All");
+
+    private final HelpArticleDatabase database;
+
+    public ArticleService(HelpArticleDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Builds a new article from form input, with a fresh ID. Keywords and reference
+     * links are comma-separated.
+     */
+    public static HelpArticle draft(String level, String author, String title, String shortDescription,
+                                    String keywords, String body, String referenceLinks) {
+        HelpArticle article = new HelpArticle(0, level == null ? null : level(level), "", author, "", title, shortDescription,
+                split(keywords), body, split(referenceLinks), "", "");
+        article.setId(article.generateUniqueId());
+        return article;
+    }
+
+    /**
+     * @return the level as the article pages spell it
+     * @throws IllegalArgumentException if it is not one of LEVELS
+     */
+    public static String level(String level) {
+        for (String known : LEVELS) {
+            if (known.equalsIgnoreCase(level.trim())) {
+                return known;
+            }
+        }
+        throw new IllegalArgumentException("Level must be one of " + String.join(", ", LEVELS));
+    }
+
+    private static String[] split(String list) {
+        return list == null ? new String[0] : list.split(",");
+    }
+
+    /**
+     * Stores a new article in a general or special access group. The body of a special
+     * access article is encrypted, and its creator becomes the group's first admin.
+     */
+    public void create(HelpArticle article, String groupName, String groupType, String username, boolean isInstructor) throws Exception {
+        if (!GENERAL.equals(groupType) && !SPECIAL_ACCESS.equals(groupType)) {
+            throw new IllegalArgumentException("Group type must be " + GENERAL + " or " + SPECIAL_ACCESS);
+        }
+        article.setGroupIdentifier(groupName); // Keep the unique group identifier
+        if (SPECIAL_ACCESS.equals(groupType)) {
+            article.setBody(EncryptionUtil.encrypt(article.getBody()));
+        }
+        database.createGroupArticle(article, groupName, groupType, username, isInstructor);
+    }
+
+    /**
+     * @param username who searched, recorded in the search log
+     * @return the matching articles with their level, group and access counts
+     * @see Search#search(HelpArticleDatabase, String, String, String, String)
+     */
+    public Search.Results search(String terms, String level, String group, String username) throws SQLException {
+        return Search.search(database, terms, level, group, username);
+    }
+
+    /**
+     * @return the article, or null if there is none with this ID
+     */
+    public HelpArticle get(long id) throws SQLException {
+        return database.fetchArticleById(id);
+    }
+
+    /**
+     * @return the special access group of the article, or null if it is readable by everyone
+     */
+    public String specialAccessGroup(long id) throws SQLException {
+        return database.getSpecialAccessGroup(id);
+    }
+
+    /**
+     * @return true if the user may read the article: it is not in a special access
+     *         group, or the user is on that group's viewable list
+     */
+    public boolean canRead(long id, String username) throws SQLException {
+        String group = database.getSpecialAccessGroup(id);
+        return group == null || HelpArticleDatabase.isUserViewableInGroup(group, username);
+    }
+
+    /**
+     * @return true if the user administers the special access group of the article,
+     *         or the article is in general groups only
+     */
+    public boolean canEdit(long id, String username) throws SQLException {
+        String group = database.getSpecialAccessGroup(id);
+        return group == null || HelpArticleDatabase.isUserAdminInGroup(group, username);
+    }
+
+    /**
+     * @return the body as the user may read it: decrypted for special access articles
+     */
+    public String readableBody(HelpArticle article) throws Exception {
+        String body = article.getBody();
+        return database.getSpecialAccessGroup(article.getId()) == null ? body : EncryptionUtil.decrypt(body);
+    }
+
+    /**
+     * Saves changes to an article. A new body for a special access article is encrypted.
+     *
+     * @param bodyChanged true if the article's body holds new plain text
+     */
+    public void update(HelpArticle article, boolean bodyChanged) throws Exception {
+        if (bodyChanged && database.getSpecialAccessGroup(article.getId()) != null) {
+            article.setBody(EncryptionUtil.encrypt(article.getBody()));
+        }
+        database.updateHelpArticle(article);
+    }
+
+    public void delete(long id) throws SQLException {
+        database.deleteArticleById(id);
+    }
+
+    /**
+     * @return every group name mapped to general or special_access
+     */
+    public Map<String, String> groups() throws SQLException {
+        return database.getGroups();
+    }
+
+    /**
+     * @return the admins and viewers of a special access group, or null if there is no such group
+     */
+    public GroupAccess access(String groupName) throws SQLException {
+        return database.getGroupAccess(groupName);
+    }
+
+    /**
+     * Lets a user view a special access group, and administer it if admin is true.
+     *
+     * @return the updated access lists, or null if there is no such group
+     */
+    public GroupAccess grant(String groupName, String username, boolean admin) throws SQLException {
+        GroupAccess access = database.getGroupAccess(groupName);
+        if (access != null) {
+            access.grant(username, admin);
+            database.setGroupAccess(groupName, access);
+        }
+        return access;
+    }
+
+    /**
+     * Takes away a user's admin rights in a group, or all access if admin is false.
+     *
+     * @return the updated access lists, or null if there is no such group
+     */
+    public GroupAccess revoke(String groupName, String username, boolean admin) throws SQLException {
+        GroupAccess access = database.getGroupAccess(groupName);
+        if (access != null) {
+            access.revoke(username, admin);
+            database.setGroupAccess(groupName, access);
+        }
+        return access;
+    }
+}
@@ -0,0 +1,391 @@
+package project.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import project.util.config.DatabaseConfig;
+import project.util.metrics.Metrics;
+
+/**
+ * <p> MessageInbox class </p>
+ *
+ * <p> Description: The staff side of the help messages. Messages are read a page at a
+ * time, newest first, with keyset pagination on the (type, created_at, id) index: each
+ * page continues after the last message of the one before instead of skipping rows
+ * with OFFSET, so the thousandth page costs the same as the first. Every staff member
+ * has their own read/unread state, a message can be assigned to one staff member, and
+ * the number of messages, unread, assigned and unassigned ones are kept as counters
+ * in help_message_counts, updated in the same transaction as the change they count,
+ * so the inbox header never counts rows. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class MessageInbox {
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final String TOTAL = "total";
+    private static final String UNASSIGNED = "unassigned";
+    private static final String READ = "read";
+    private static final String ASSIGNED = "assigned";
+    private static final String INBOX = ""; // The staff column of whole-inbox counters
+
+    /**
+     * Which messages a page shows, from one staff member's point of view.
+     */
+    public enum Filter {
+        ALL, UNREAD, ASSIGNED_TO_ME, UNASSIGNED
+    }
+
+    /**
+     * Reads one page of messages of a type, newest first.
+     *
+     * @param staff the staff member whose read state is shown and who "me" is
+     * @param after the cursor of the previous page, or null for the first page
+     * @param limit the page size, at most MAX_PAGE_SIZE
+     */
+    public Page page(String type, String staff, Filter filter, String after, int limit) throws SQLException {
+        MessageService.checkType(type);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Cursor cursor = after == null || after.isEmpty() ? null : Cursor.parse(after);
+
+        StringBuilder sql = new StringBuilder("SELECT m.id, m.username, m.message, m.type, m.created_at, m.assigned_to, r.read_at "
+                + "FROM help_messages m LEFT JOIN help_message_reads r ON r.message_id = m.id AND r.staff = ? "
+                + "WHERE m.type = ?");
+        if (filter == Filter.ASSIGNED_TO_ME) {
+            sql.append(" AND m.assigned_to = ?");
+        } else if (filter == Filter.UNASSIGNED) {
+            sql.append(" AND m.assigned_to IS NULL");
+        } else if (filter == Filter.UNREAD) {
+            sql.append(" AND r.read_at IS NULL");
+        }
+        if (cursor != null) {
+            // The first condition is the index range; the second breaks ties on created_at
+            sql.append(" AND m.created_at <= ? AND (m.created_at < ? OR m.id < ?)");
+        }
+        // Sorting by the leading index columns too, though they are fixed here, lets H2 read
+        // the page straight off the index instead of sorting every message of the type
+        boolean byAssignee = filter == Filter.ASSIGNED_TO_ME || filter == Filter.UNASSIGNED;
+        sql.append(byAssignee ? " ORDER BY m.assigned_to, m.type" : " ORDER BY m.type")
+                .append(", m.created_at DESC, m.id DESC LIMIT ?");
+
+        List<MessageService.Message> messages = new ArrayList<>();
+        try (Metrics.Timer timer = Metrics.time("MessageInbox.page");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql.toString())) {
+            int i = 1;
+            pstmt.setString(i++, staff);
+            pstmt.setString(i++, type);
+            if (filter == Filter.ASSIGNED_TO_ME) {
+                pstmt.setString(i++, staff);
+            }
+            if (cursor != null) {
+                pstmt.setTimestamp(i++, Timestamp.from(cursor.createdAt));
+                pstmt.setTimestamp(i++, Timestamp.from(cursor.createdAt));
+                pstmt.setLong(i++, cursor.id);
+            }
+            pstmt.setInt(i, limit + 1); // One more tells whether there is a next page
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    Timestamp readAt = rs.getTimestamp("read_at");
+                    messages.add(new MessageService.Message(rs.getLong("id"), rs.getString("username"),
+                            rs.getString("message"), rs.getString("type"), createdAt != null ? createdAt.toInstant() : null,
+                            rs.getString("assigned_to"), readAt != null ? readAt.toInstant() : null));
+                }
+            }
+            timer.rows(messages.size());
+        }
+
+        String next = null;
+        if (messages.size() > limit) {
+            messages.remove(limit);
+            MessageService.Message last = messages.get(limit - 1);
+            next = new Cursor(last.getCreatedAt(), last.getId()).toString();
+        }
+        return new Page(messages, next);
+    }
+
+    /**
+     * @return the inbox counters of a type, as seen by one staff member
+     */
+    public Counts counts(String type, String staff) throws SQLException {
+        MessageService.checkType(type);
+        long total = 0;
+        long unassigned = 0;
+        long read = 0;
+        long assigned = 0;
+        String sql = "SELECT staff, counter, amount FROM help_message_counts WHERE type = ? AND staff IN (?, ?)";
+        try (Metrics.Timer timer = Metrics.time("MessageInbox.counts");
+             Connection connection = DatabaseConfig.get().connect();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, type);
+            pstmt.setString(2, INBOX);
+            pstmt.setString(3, staff);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    timer.rows(1);
+                    boolean inbox = INBOX.equals(rs.getString("staff"));
+                    String counter = rs.getString("counter");
+                    long value = rs.getLong("amount");
+                    if (inbox && TOTAL.equals(counter)) {
+                        total = value;
+                    } else if (inbox && UNASSIGNED.equals(counter)) {
+                        unassigned = value;
+                    } else if (!inbox && READ.equals(counter)) {
+                        read = value;
+                    } else if (!inbox && ASSIGNED.equals(counter)) {
+                        assigned = value;
+                    }
+                }
+            }
+        }
+        return new Counts(total, Math.max(0, total - read), assigned, unassigned);
+    }
+
+    /**
+     * Marks a message read or unread for one staff member.
+     *
+     * @return true if that changed its state
+     */
+    public boolean setRead(long messageId, String staff, boolean read) throws SQLException {
+        try (Metrics.Timer timer = Metrics.time("MessageInbox.setRead");
+             Connection connection = DatabaseConfig.get().connect()) {
+            connection.setAutoCommit(false);
+            try {
+                String type = lock(connection, messageId)[0];
+                int changed;
+                if (read) {
+                    String sql = "INSERT INTO help_message_reads (message_id, staff) SELECT ?, ? FROM DUAL "
+                            + "WHERE NOT EXISTS (SELECT 1 FROM help_message_reads WHERE message_id = ? AND staff = ?)";
+                    try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                        pstmt.setLong(1, messageId);
+                        pstmt.setString(2, staff);
+                        pstmt.setLong(3, messageId);
+                        pstmt.setString(4, staff);
+                        changed = pstmt.executeUpdate();
+                    }
+                } else {
+                    try (PreparedStatement pstmt = connection.prepareStatement(
+                            "DELETE FROM help_message_reads WHERE message_id = ? AND staff = ?")) {
+                        pstmt.setLong(1, messageId);
+                        pstmt.setString(2, staff);
+                        changed = pstmt.executeUpdate();
+                    }
+                }
+                timer.rows(changed);
+                if (changed > 0) {
+                    count(connection, type, staff, READ, read ? 1 : -1);
+                }
+                connection.commit();
+                return changed > 0;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Assigns a message to a staff member, or back to nobody.
+     *
+     * @param staff the new assignee, or null to unassign
+     * @return true if that changed the assignment
+     */
+    public boolean assign(long messageId, String staff) throws SQLException {
+        try (Metrics.Timer timer = Metrics.time("MessageInbox.assign");
+             Connection connection = DatabaseConfig.get().connect()) {
+            connection.setAutoCommit(false);
+            try {
+                String[] row = lock(connection, messageId);
+                String type = row[0];
+                String previous = row[1];
+                if (previous == null ? staff == null : previous.equals(staff)) {
+                    connection.rollback();
+                    return false;
+                }
+                try (PreparedStatement pstmt = connection.prepareStatement("UPDATE help_messages SET assigned_to = ? WHERE id = ?")) {
+                    pstmt.setString(1, staff);
+                    pstmt.setLong(2, messageId);
+                    timer.rows(pstmt.executeUpdate());
+                }
+                if (previous == null) {
+                    count(connection, type, INBOX, UNASSIGNED, -1);
+                } else {
+                    count(connection, type, previous, ASSIGNED, -1);
+                }
+                if (staff == null) {
+                    count(connection, type, INBOX, UNASSIGNED, 1);
+                } else {
+                    count(connection, type, staff, ASSIGNED, 1);
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Locks the message row so concurrent changes to it are counted one after another
+    private static String[] lock(Connection connection, long messageId) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT type, assigned_to FROM help_messages WHERE id = ? FOR UPDATE")) {
+            pstmt.setLong(1, messageId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new IllegalArgumentException("No help message " + messageId);
+                }
+                return new String[] { rs.getString("type"), rs.getString("assigned_to") };
+            }
+        }
+    }
+
+    /**
+     * Counts a newly sent message, in the sender's transaction.
+     */
+    static void countSent(Connection connection, String type) throws SQLException {
+        count(connection, type, INBOX, TOTAL, 1);
+        count(connection, type, INBOX, UNASSIGNED, 1);
+    }
+
+    private static void count(Connection connection, String type, String staff, String counter, long delta) throws SQLException {
+        String sql = "MERGE INTO help_message_counts c USING (VALUES (CAST(? AS VARCHAR(50)), CAST(? AS VARCHAR(255)), "
+                + "CAST(? AS VARCHAR(20)), CAST(? AS BIGINT))) d (type, staff, counter, delta) "
+                + "ON c.type = d.type AND c.staff = d.staff AND c.counter = d.counter "
+                + "WHEN MATCHED THEN UPDATE SET amount = c.amount + d.delta "
+                + "WHEN NOT MATCHED THEN INSERT VALUES (d.type, d.staff, d.counter, d.delta)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, type);
+            pstmt.setString(2, staff);
+            pstmt.setString(3, counter);
+            pstmt.setLong(4, delta);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Rebuilds every counter from the messages themselves, for data loaded around
+     * this class, e.g. by the data generator.
+     */
+    public void recount() throws SQLException {
+        try (Metrics.Timer timer = Metrics.time("MessageInbox.recount");
+             Connection connection = DatabaseConfig.get().connect();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            try {
+                statement.executeUpdate("DELETE FROM help_message_counts");
+                timer.rows(statement.executeUpdate("INSERT INTO help_message_counts "
+                        + "SELECT type, '', 'total', COUNT(*) FROM help_messages GROUP BY type"));
+                timer.rows(statement.executeUpdate("INSERT INTO help_message_counts "
+                        + "SELECT type, '', 'unassigned', COUNT(*) FROM help_messages WHERE assigned_to IS NULL GROUP BY type"));
+                timer.rows(statement.executeUpdate("INSERT INTO help_message_counts SELECT type, assigned_to, 'assigned', COUNT(*) "
+                        + "FROM help_messages WHERE assigned_to IS NOT NULL GROUP BY type, assigned_to"));
+                timer.rows(statement.executeUpdate("INSERT INTO help_message_counts SELECT m.type, r.staff, 'read', COUNT(*) "
+                        + "FROM help_message_reads r JOIN help_messages m ON m.id = r.message_id GROUP BY m.type, r.staff"));
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * One page of messages and the cursor of the next page, which is null on the last.
+     */
+    public static class Page {
+        private final List<MessageService.Message> messages;
+        private final String next;
+
+        Page(List<MessageService.Message> messages, String next) {
+            this.messages = messages;
+            this.next = next;
+        }
+
+        public List<MessageService.Message> getMessages() {
+            return messages;
+        }
+
+        public String getNext() {
+            return next;
+        }
+    }
+
+    /**
+     * The inbox counters of one message type for one staff member.
+     */
+    public static class Counts {
+        private final long total;
+        private final long unread;
+        private final long assignedToMe;
+        private final long unassigned;
+
+        Counts(long total, long unread, long assignedToMe, long unassigned) {
+            this.total = total;
+            this.unread = unread;
+            this.assignedToMe = assignedToMe;
+            this.unassigned = unassigned;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getUnread() {
+            return unread;
+        }
+
+        public long getAssignedToMe() {
+            return assignedToMe;
+        }
+
+        public long getUnassigned() {
+            return unassigned;
+        }
+    }
+
+    // The position after a message: its creation time and ID, written as seconds.nanos.id
+    static class Cursor {
+        final Instant createdAt;
+        final long id;
+
+        Cursor(Instant createdAt, long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        static Cursor parse(String text) {
+            String[] parts = text.split("\\.");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Bad page cursor " + text);
+            }
+            try {
+                return new Cursor(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                        Long.parseLong(parts[2]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad page cursor " + text);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return createdAt.getEpochSecond() + "." + createdAt.getNano() + "." + id;
+        }
+    }
+}
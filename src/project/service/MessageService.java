@@ -0,0 +1,119 @@
+package project.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+
+import project.util.config.DatabaseConfig;
+import project.util.metrics.Metrics;
+
+/**
+ * <p> MessageService class </p>
+ *
+ * <p> Description: Stores the help messages students send from the FAQ page,
+ * without any JavaFX. Generic messages are general questions; specific messages
+ * describe an article the student could not find, with their search history. Staff
+ * read them through MessageInbox. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class MessageService {
+    public static final String GENERIC = "generic";
+    public static final String SPECIFIC = "specific";
+
+    /**
+     * Stores a message and counts it in the inbox counters, in one transaction.
+     */
+    public void send(String username, String type, String message) throws SQLException {
+        checkType(type);
+        String query = "INSERT INTO help_messages (username, message, type) VALUES (?, ?, ?)";
+        try (Metrics.Timer timer = Metrics.time("MessageService.send");
+             Connection connection = DatabaseConfig.get().connect()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+                pstmt.setString(1, username);
+                pstmt.setString(2, message);
+                pstmt.setString(3, type);
+                timer.rows(pstmt.executeUpdate());
+                MessageInbox.countSent(connection, type);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    static void checkType(String type) {
+        if (!GENERIC.equals(type) && !SPECIFIC.equals(type)) {
+            throw new IllegalArgumentException("Message type must be " + GENERIC + " or " + SPECIFIC);
+        }
+    }
+
+    /**
+     * One stored help message.
+     */
+    public static class Message {
+        private final long id;
+        private final String username;
+        private final String message;
+        private final String type;
+        private final Instant createdAt;
+        private final String assignedTo;
+        private final Instant readAt;
+
+        public Message(long id, String username, String message, String type, Instant createdAt) {
+            this(id, username, message, type, createdAt, null, null);
+        }
+
+        /**
+         * @param assignedTo the staff member handling it, or null
+         * @param readAt     when the staff member viewing the inbox read it, or null if unread
+         */
+        public Message(long id, String username, String message, String type, Instant createdAt,
+                       String assignedTo, Instant readAt) {
+            this.id = id;
+            this.username = username;
+            this.message = message;
+            this.type = type;
+            this.createdAt = createdAt;
+            this.assignedTo = assignedTo;
+            this.readAt = readAt;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+
+        public String getAssignedTo() {
+            return assignedTo;
+        }
+
+        public Instant getReadAt() {
+            return readAt;
+        }
+
+        public boolean isRead() {
+            return readAt != null;
+        }
+    }
+}
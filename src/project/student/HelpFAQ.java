@@ -1,9 +1,11 @@
 package project.student;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -12,6 +14,7 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
@@ -20,13 +23,17 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
-import project.account.DatabaseHelper;
 import project.account.DatabaseModel;
 import project.account.LoginService;
 import project.account.User;
 import project.article.ArticleHome;
 import project.article.HelpArticleDatabase;
+import project.search.SearchLog;
+import project.service.AccountService;
+import project.service.MessageInbox;
+import project.service.MessageService;
 import project.util.Back;
+import project.util.BackgroundTasks;
 
 /**
  * <p> HelpFAQ Class </p>
@@ -41,15 +48,32 @@ import project.util.Back;
  */
 public class HelpFAQ extends BorderPane {
 
+    private static final int PAGE_SIZE = 50;
+    private static final String OLDER_MESSAGES = "Show older messages...";
+
     private ListView<String> genericMessagesListView;
     // Add a ListView for specific messages
     private ListView<String> specificMessagesListView;
+    private final Label genericCountsLabel = new Label();
+    private final Label specificCountsLabel = new Label();
+
+    private final AccountService accounts;
+    private final MessageService messages = new MessageService();
+    private final MessageInbox inbox = new MessageInbox();
+    private final String viewer;
+    private final boolean staff;
+    // Per message type: the cursor of the next page, and the IDs of the messages listed so far
+    private final Map<String, String> nextPage = new HashMap<>();
+    private final Map<String, List<Long>> listedIds = new HashMap<>();
 
     /**
      * The method that will display all FAQ entries and JavaFX elements
      */
     public HelpFAQ(Stage stage, User user, DatabaseModel database) {
         stage.setTitle("Frequently Asked Questions");
+        accounts = new AccountService(database);
+        viewer = user.username;
+        staff = viewer != null && (accounts.hasRole(viewer, "Admin") || accounts.hasRole(viewer, "Instructor"));
 
         // OPTIONS THAT ARE ALWAYS AVAILABLE --------------------------------------
         // LOG OUT BUTTON -----------------------------------------------------
@@ -78,20 +102,20 @@ public class HelpFAQ extends BorderPane {
         // HELP BUTTON --------------------------------------------------------
         Button helpButton = new Button("Help");
         helpButton.setOnAction(event -> {
-            new HelpFAQ(stage, user, database);
+            Back.show(stage, "HelpFAQ", () -> new HelpFAQ(stage, user, database));
         });
 
         // LIST ARTICLES BUTTON -----------------------------------------------
         Button listArticlesButton = new Button("Articles");
         listArticlesButton.setOnAction(event -> {
-        	HelpArticleDatabase h = null;
-			try {
-				h = new HelpArticleDatabase();
-			} catch (SQLException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-			new ArticleHome(stage, user, database, h);
+			// Reuse the article home page if it was already built this session
+			Back.show(stage, "ArticleHome", () -> {
+				try {
+					new ArticleHome(stage, user, database, HelpArticleDatabase.getInstance());
+				} catch (SQLException e) {
+					e.printStackTrace();
+				}
+			});
         });
 
         // SEND GENERIC MESSAGE BUTTON ----------------------------------------
@@ -126,13 +150,9 @@ public class HelpFAQ extends BorderPane {
 
                         messageDialog.showAndWait().ifPresent(message -> {
                             // Store the generic message
-                            try {
-                                sendGenericMessage(username[0], message);
-                                // After storing, list all generic messages
-                                listGenericMessages();
-                            } catch (SQLException e) {
-                                e.printStackTrace();
-                            }
+                            sendGenericMessage(username[0], message);
+                            // After storing, list all generic messages
+                            listGenericMessages();
                         });
                     } else {
                         // Show error if invalid credentials
@@ -181,6 +201,12 @@ public class HelpFAQ extends BorderPane {
                             TextInputDialog searchHistoryDialog = new TextInputDialog();
                             searchHistoryDialog.setTitle("Search History");
                             searchHistoryDialog.setHeaderText("Enter previous search requests (separated by commas):");
+                            try {
+                                // Prefill with what this user actually searched for, so staff see the real queries
+                                searchHistoryDialog.getEditor().setText(String.join(", ", SearchLog.get().recentQueries(username[0], 10)));
+                            } catch (SQLException e) {
+                                e.printStackTrace();
+                            }
                             
                             searchHistoryDialog.showAndWait().ifPresent(searchHistory -> {
                                 // Store the specific message and search history
@@ -189,12 +215,7 @@ public class HelpFAQ extends BorderPane {
                                 // Store the specific message and search history in the database
                                 sendSpecificMessageWithSearchHistory(username[0], fullMessage);
                                 
-                                try {
-									listSpecificMessages();
-								} catch (SQLException e) {
-									// TODO Auto-generated catch block
-									e.printStackTrace();
-								}
+                                listSpecificMessages();
 
                                 // Optionally, show an alert
                                 Alert alert = new Alert(Alert.AlertType.INFORMATION, 
@@ -214,21 +235,13 @@ public class HelpFAQ extends BorderPane {
         // LIST GENERIC MESSAGES BUTTON ---------------------------------------------
         Button listGenericMessagesButton = new Button("List Generic Messages");
         listGenericMessagesButton.setOnAction(event -> {
-            try {
-                listGenericMessages();  // Display the stored messages
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+            listGenericMessages();  // Display the stored messages
         });
         
         // LIST SPCIFIC MESSAGES BUTTON ---------------------------------------------
         Button listSpecificMessagesButton = new Button("List Specific Messages");
         listSpecificMessagesButton.setOnAction(event -> {
-            try {
-            	listSpecificMessages();  // Display the stored messages
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+            listSpecificMessages();  // Display the stored messages
         });
 
         // STAGE SETUP --------------------------------------------------------
@@ -259,11 +272,15 @@ public class HelpFAQ extends BorderPane {
 
         // Create ListView for generic messages
         genericMessagesListView = new ListView<>();
-        listViewContainer.getChildren().add(genericMessagesListView);
+        genericMessagesListView.setOnMouseClicked(event ->
+                onMessageClicked(MessageService.GENERIC, genericMessagesListView, event.getClickCount()));
+        listViewContainer.getChildren().addAll(genericCountsLabel, genericMessagesListView);
 
         // Create ListView for specific messages
         specificMessagesListView = new ListView<>();
-        listViewContainer.getChildren().add(specificMessagesListView);
+        specificMessagesListView.setOnMouseClicked(event ->
+                onMessageClicked(MessageService.SPECIFIC, specificMessagesListView, event.getClickCount()));
+        listViewContainer.getChildren().addAll(specificCountsLabel, specificMessagesListView);
 
         // Set the VBox with both ListViews to the center
         this.setCenter(listViewContainer);
@@ -279,14 +296,7 @@ public class HelpFAQ extends BorderPane {
      */
     private boolean isValidUser(String username, String password) {
         try {
-            // Replace with actual validation logic, e.g., check against the database
-            String query = "SELECT * FROM users WHERE username = ? AND password = ?";
-            try (PreparedStatement pstmt = DatabaseHelper.getConnection().prepareStatement(query)) {
-                pstmt.setString(1, username);
-                pstmt.setString(2, password);
-                ResultSet rs = pstmt.executeQuery();
-                return rs.next(); // If a record is returned, the user exists with the provided credentials
-            }
+            return accounts.authenticate(username, password);
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -301,14 +311,9 @@ public class HelpFAQ extends BorderPane {
     private void sendGenericMessage(String username, String message) {
         try {
             // Insert the generic message into the database
-            String query = "INSERT INTO help_messages (username, message, type) VALUES (?, ?, 'generic')";
-            try (PreparedStatement pstmt = DatabaseHelper.getConnection().prepareStatement(query)) {
-                pstmt.setString(1, username);
-                pstmt.setString(2, message);
-                pstmt.executeUpdate();
-                Alert alert = new Alert(Alert.AlertType.INFORMATION, "Your generic message has been sent!", ButtonType.OK);
-                alert.showAndWait();
-            }
+            messages.send(username, MessageService.GENERIC, message);
+            Alert alert = new Alert(Alert.AlertType.INFORMATION, "Your generic message has been sent!", ButtonType.OK);
+            alert.showAndWait();
         } catch (SQLException e) {
             e.printStackTrace();
             Alert alert = new Alert(Alert.AlertType.ERROR, "Error sending message: " + e.getMessage(), ButtonType.OK);
@@ -320,23 +325,8 @@ public class HelpFAQ extends BorderPane {
      * Method to list all generic messages from the help system.
      * Displays messages in the ListView in the center of the page.
      */
-    private void listGenericMessages() throws SQLException {
-        String query = "SELECT username, message, created_at FROM help_messages WHERE type = 'generic' ORDER BY created_at";
-        
-        try (PreparedStatement pstmt = DatabaseHelper.getConnection().prepareStatement(query);
-             ResultSet rs = pstmt.executeQuery()) {
-            int count = 1;
-            genericMessagesListView.getItems().clear();  // Clear existing items in ListView
-            while (rs.next()) {
-                String username = rs.getString("username");
-                String message = rs.getString("message");
-                Timestamp createdAt = rs.getTimestamp("created_at");
-
-                // Add messages to ListView with index
-                genericMessagesListView.getItems().add(count + ". " + username + ": " + message + " (Sent on: " + createdAt + ")");
-                count++;
-            }
-        }
+    private void listGenericMessages() {
+        loadMessages(MessageService.GENERIC, genericMessagesListView, false);
     }
 
     /**
@@ -347,14 +337,9 @@ public class HelpFAQ extends BorderPane {
     private void sendSpecificMessage(String username, String query) {
         try {
             // Store the query into the database as a specific message
-            String insertQuery = "INSERT INTO help_messages (username, message, type) VALUES (?, ?, 'specific')";
-            try (PreparedStatement pstmt = DatabaseHelper.getConnection().prepareStatement(insertQuery)) {
-                pstmt.setString(1, username);
-                pstmt.setString(2, query);
-                pstmt.executeUpdate();
-                Alert alert = new Alert(Alert.AlertType.INFORMATION, "Your specific message has been sent!", ButtonType.OK);
-                alert.showAndWait();
-            }
+            messages.send(username, MessageService.SPECIFIC, query);
+            Alert alert = new Alert(Alert.AlertType.INFORMATION, "Your specific message has been sent!", ButtonType.OK);
+            alert.showAndWait();
         } catch (SQLException e) {
             e.printStackTrace();
             Alert alert = new Alert(Alert.AlertType.ERROR, "Error sending message: " + e.getMessage(), ButtonType.OK);
@@ -366,12 +351,7 @@ public class HelpFAQ extends BorderPane {
     private void sendSpecificMessageWithSearchHistory(String username, String message) {
         try {
             // Insert the specific message with search history into the database
-            String query = "INSERT INTO help_messages (username, message, type) VALUES (?, ?, 'specific')";
-            try (PreparedStatement pstmt = DatabaseHelper.getConnection().prepareStatement(query)) {
-                pstmt.setString(1, username);
-                pstmt.setString(2, message);
-                pstmt.executeUpdate();
-            }
+            messages.send(username, MessageService.SPECIFIC, message);
         } catch (SQLException e) {
             e.printStackTrace();
             Alert alert = new Alert(Alert.AlertType.ERROR, "Error sending message: " + e.getMessage(), ButtonType.OK);
@@ -380,22 +360,81 @@ public class HelpFAQ extends BorderPane {
     }
     
     // Method to list all specific messages from the help system
-    private void listSpecificMessages() throws SQLException {
-        String query = "SELECT username, message, created_at FROM help_messages WHERE type = 'specific' ORDER BY created_at";
-        
-        try (PreparedStatement pstmt = DatabaseHelper.getConnection().prepareStatement(query);
-             ResultSet rs = pstmt.executeQuery()) {
-            int count = 1;
-            specificMessagesListView.getItems().clear();  // Clear existing items in ListView
-            while (rs.next()) {
-                String username = rs.getString("username");
-                String message = rs.getString("message");
-                Timestamp createdAt = rs.getTimestamp("created_at");
-
-                // Add messages to ListView with index
-                specificMessagesListView.getItems().add(count + ". " + username + ": " + message + " (Sent on: " + createdAt + ")");
-                count++;
+    private void listSpecificMessages() {
+        loadMessages(MessageService.SPECIFIC, specificMessagesListView, false);
+    }
+
+    /**
+     * Loads a page of messages of the given type, newest first, on the data-access
+     * thread. The first page replaces the list; later pages are appended, with a last
+     * item to click for the next one. Staff see which messages they have not read yet
+     * and the inbox counters above the list.
+     * @param type "generic" or "specific"
+     * @param listView The list to fill.
+     * @param more true to append the next page, false to start over
+     */
+    private void loadMessages(String type, ListView<String> listView, boolean more) {
+        String after = more ? nextPage.get(type) : null;
+        BackgroundTasks.run(() -> inbox.page(type, viewer, MessageInbox.Filter.ALL, after, PAGE_SIZE), page -> {
+            List<Long> ids = more ? listedIds.get(type) : new ArrayList<>();
+            List<String> items = new ArrayList<>(listView.getItems());
+            if (!more) {
+                items.clear();
+            }
+            items.remove(OLDER_MESSAGES);
+            for (MessageService.Message message : page.getMessages()) {
+                ids.add(message.getId());
+                items.add(describe(ids.size(), message, staff && !message.isRead()));
             }
+            if (page.getNext() != null) {
+                items.add(OLDER_MESSAGES);
+            }
+            listedIds.put(type, ids);
+            nextPage.put(type, page.getNext());
+            listView.getItems().setAll(items);
+            loadCounts(type);
+        }, error -> {
+            Alert alert = new Alert(Alert.AlertType.ERROR, "Error loading messages: " + error.getMessage(), ButtonType.OK);
+            alert.showAndWait();
+        });
+    }
+
+    private static String describe(int number, MessageService.Message message, boolean unread) {
+        Timestamp createdAt = message.getCreatedAt() != null ? Timestamp.from(message.getCreatedAt()) : null;
+        return (unread ? "(new) " : "") + number + ". " + message.getUsername() + ": " + message.getMessage()
+                + " (Sent on: " + createdAt + ")";
+    }
+
+    private void loadCounts(String type) {
+        if (!staff) {
+            return;
+        }
+        Label label = MessageService.GENERIC.equals(type) ? genericCountsLabel : specificCountsLabel;
+        BackgroundTasks.run(() -> inbox.counts(type, viewer), counts -> label.setText(type + " messages: "
+                + counts.getTotal() + " total, " + counts.getUnread() + " unread, " + counts.getAssignedToMe()
+                + " assigned to you, " + counts.getUnassigned() + " unassigned"), error -> label.setText(""));
+    }
+
+    /**
+     * Clicking the last item loads older messages; staff double-click a message to mark it read.
+     */
+    private void onMessageClicked(String type, ListView<String> listView, int clicks) {
+        int index = listView.getSelectionModel().getSelectedIndex();
+        String item = listView.getSelectionModel().getSelectedItem();
+        if (item == null) {
+            return;
+        }
+        if (OLDER_MESSAGES.equals(item)) {
+            loadMessages(type, listView, true);
+        } else if (staff && clicks == 2 && item.startsWith("(new) ")) {
+            long id = listedIds.get(type).get(index);
+            BackgroundTasks.run(() -> inbox.setRead(id, viewer, true), changed -> {
+                listView.getItems().set(index, item.substring("(new) ".length()));
+                loadCounts(type);
+            }, error -> {
+                Alert alert = new Alert(Alert.AlertType.ERROR, "Error updating message: " + error.getMessage(), ButtonType.OK);
+                alert.showAndWait();
+            });
         }
     }
 }
@@ -72,20 +72,20 @@ public class Student extends BorderPane {
 		// HELP BUTTON --------------------------------------------------------
 		Button helpButton = new Button("Help");
 		helpButton.setOnAction(event -> {
-			new HelpFAQ(stage, user, database);
+			Back.show(stage, "HelpFAQ", () -> new HelpFAQ(stage, user, database));
 		});
 
 		// LIST ARTICLES BUTTON -----------------------------------------------
 		Button listArticlesButton = new Button("Articles");
 		listArticlesButton.setOnAction(event -> {
-			HelpArticleDatabase h = null;
-			try {
-				h = new HelpArticleDatabase();
-			} catch (SQLException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-			new ArticleHome(stage, user, database, h);
+			// Reuse the article home page if it was already built this session
+			Back.show(stage, "ArticleHome", () -> {
+				try {
+					new ArticleHome(stage, user, database, HelpArticleDatabase.getInstance());
+				} catch (SQLException e) {
+					e.printStackTrace();
+				}
+			});
 		});
             
 		// STAGE SETUP --------------------------------------------------------
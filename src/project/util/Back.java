@@ -1,28 +1,52 @@
 package project.util;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 /**
  * <p> Back class </p>
  * 
- * <p> Description: The handler for the back button
+ * <p> Description: The handler for the back button. It also keeps a small cache of
+ * pages by key so that revisiting a page reuses the scene that was already built.
+ * Both the history and the cache are bounded; a page that falls out of both is
+ * released, and if it implements {@link Disposable}, e.g. ArticleHome, it is told
+ * to stop its background work and close its popups. </p>
  * 
  * @version 1.00 2024-10-30 Initial baseline
+ * @version 1.01 2024-11-20 Bounded history and page cache
  */
 
 
 public class Back {
-	static Stack<SceneTitle> history;
+	private static final int MAX_HISTORY = 32; // Oldest entries are dropped past this depth
+	private static final int MAX_CACHED_PAGES = 8; // Least recently shown pages are evicted past this
+
+	static Deque<SceneTitle> history;
+	static Map<String, SceneTitle> pages;
 	
 	public static void initBack() {
-		history = new Stack<SceneTitle>();
+		history = new ArrayDeque<SceneTitle>();
+		pages = new LinkedHashMap<String, SceneTitle>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, SceneTitle> eldest) {
+				if (size() > MAX_CACHED_PAGES) {
+					release(eldest.getValue(), eldest.getKey()); // Still in the map until this returns
+					return true;
+				}
+				return false;
+			}
+		};
 	}
 	
 	public static void back(Stage stage) {
 		if(history.size() > 1) {
-			history.pop();
+			release(history.pop(), null);
 		}
 
 		SceneTitle s = history.peek();
@@ -31,6 +55,64 @@ public class Back {
 	}
 	
 	public static void pushBack(Scene s, String title) {
+		SceneTitle top = history.peek();
+		if (top != null && top.getScene() == s) {
+			return; // Re-showing the current page must not grow the history
+		}
 		history.push(new SceneTitle(s, title));
+		while (history.size() > MAX_HISTORY) {
+			release(history.removeLast(), null);
+		}
+	}
+
+	/**
+	 * Shows the page cached under the key, or builds it if there is none.
+	 * 
+	 * @param stage the stage to show the page on
+	 * @param key   identifies the page, e.g. "ArticleHome"
+	 * @param build constructs the page; page constructors set the scene and call pushBack
+	 */
+	public static void show(Stage stage, String key, Runnable build) {
+		SceneTitle cached = pages.get(key);
+		if (cached != null) {
+			pushBack(cached.getScene(), cached.getTitle());
+			stage.setScene(cached.getScene());
+			stage.setTitle(cached.getTitle());
+			stage.show();
+			return;
+		}
+
+		SceneTitle before = history.peek();
+		build.run();
+		SceneTitle built = history.peek();
+		if (built != null && built != before) { // Nothing to cache if the page failed to build
+			pages.put(key, built);
+		}
+	}
+
+	/**
+	 * Drops every cached page, e.g. when the user logs out. Pages still reachable
+	 * through the history stay alive until they fall out of it.
+	 */
+	public static void clearCache() {
+		if (pages == null) {
+			return;
+		}
+		for (Iterator<SceneTitle> it = pages.values().iterator(); it.hasNext();) {
+			SceneTitle page = it.next();
+			it.remove();
+			release(page, null);
+		}
+	}
+
+	// Dispose a page once neither the history nor the cache refers to its scene;
+	// evictedKey names the cache entry being evicted, which no longer counts
+	private static void release(SceneTitle page, String evictedKey) {
+		Scene scene = page.getScene();
+		boolean stillReachable = history.stream().anyMatch(p -> p.getScene() == scene)
+				|| pages.entrySet().stream().anyMatch(e -> !e.getKey().equals(evictedKey) && e.getValue().getScene() == scene);
+		if (!stillReachable && scene.getRoot() instanceof Disposable) {
+			((Disposable) scene.getRoot()).dispose();
+		}
 	}
-}
\ No newline at end of file
+}
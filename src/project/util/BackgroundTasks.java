@@ -0,0 +1,114 @@
+package project.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javafx.concurrent.Task;
+import project.util.logging.Logger;
+
+/**
+ * <p> BackgroundTasks class </p>
+ *
+ * <p> Description: Runs database and file work off the JavaFX Application Thread.
+ * All work is queued on one daemon worker thread, so the shared H2 connections are
+ * never driven from two background threads at once, and the window keeps repainting
+ * while a long restore or listing runs. Results, failures and progress are delivered
+ * back on the FX thread. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class BackgroundTasks {
+	private static final Logger log = Logger.get(BackgroundTasks.class);
+	private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "data-access");
+		thread.setDaemon(true); // never keep the JVM alive after the last window closes
+		return thread;
+	});
+
+	/**
+	 * A unit of background work. The progress handle may be used to report how far
+	 * along the work is and to check whether the caller cancelled it.
+	 */
+	@FunctionalInterface
+	public interface Work<T> {
+		T call(Progress progress) throws Exception;
+	}
+
+	/**
+	 * Progress and cancellation handle handed to running work.
+	 */
+	public interface Progress {
+		void update(long done, long total);
+
+		void message(String message);
+
+		boolean isCancelled();
+	}
+
+	/**
+	 * Queues work on the data-access thread.
+	 *
+	 * @param work      the work to run off the FX thread
+	 * @param onSuccess called on the FX thread with the result
+	 * @param onFailure called on the FX thread if the work throws, or with a
+	 *                  CancellationException if the task is cancelled; if null,
+	 *                  failures are logged instead
+	 * @return the running task, which may be cancelled or have its progress bound
+	 */
+	public static <T> Task<T> run(Work<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+		Task<T> task = new Task<T>() {
+			@Override
+			protected T call() throws Exception {
+				Task<T> self = this;
+				return work.call(new Progress() {
+					@Override
+					public void update(long done, long total) {
+						updateProgress(done, total); // Task marshals this onto the FX thread
+					}
+
+					@Override
+					public void message(String message) {
+						updateMessage(message);
+					}
+
+					@Override
+					public boolean isCancelled() {
+						return self.isCancelled();
+					}
+				});
+			}
+		};
+
+		task.setOnSucceeded(event -> {
+			if (onSuccess != null) {
+				onSuccess.accept(task.getValue());
+			}
+		});
+		task.setOnFailed(event -> {
+			Throwable error = task.getException();
+			if (onFailure != null) {
+				onFailure.accept(error);
+			} else {
+				log.error("Background task failed", error); // Nobody else will report it
+			}
+		});
+		task.setOnCancelled(event -> {
+			if (onFailure != null) {
+				onFailure.accept(new CancellationException("Cancelled"));
+			}
+		});
+
+		executor.submit(task);
+		return task;
+	}
+
+	/**
+	 * Queues work that does not report progress.
+	 */
+	public static <T> Task<T> run(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+		return run(progress -> work.call(), onSuccess, onFailure);
+	}
+}
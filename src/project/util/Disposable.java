@@ -0,0 +1,14 @@
+package project.util;
+
+/**
+ * <p> Disposable interface </p>
+ * 
+ * <p> Description: Implemented by pages that hold resources which outlive the
+ * page itself, such as running background tasks or open popup windows. Back calls
+ * dispose once the page can no longer be navigated back to. </p>
+ * 
+ * @version 1.00 2024-11-20 Initial
+ */
+public interface Disposable {
+	void dispose();
+}
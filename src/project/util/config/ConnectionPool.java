@@ -0,0 +1,445 @@
+package project.util.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import project.util.logging.Logger;
+import project.util.metrics.Metrics;
+
+/**
+ * <p> ConnectionPool class </p>
+ *
+ * <p> Description: A bounded pool of database connections. Borrowed connections are
+ * handed out as wrappers whose close() returns the real connection to the pool, so
+ * callers use them like any JDBC connection in a try-with-resources. At most maxSize
+ * connections are open; further borrowers wait up to the borrow timeout. </p>
+ *
+ * <p> When the database cannot be reached, for example while a TCP server restarts
+ * or another instance holds the file lock, opening a connection is retried with
+ * exponential backoff and jitter until the reconnect window runs out. A borrowed
+ * connection that breaks is replaced the next time a statement is created on it,
+ * so the long-lived connections of the data classes survive a server restart.
+ * It is never replaced while the caller has autocommit off: the transaction died
+ * with the old connection, so the error is rethrown for the caller to roll back.
+ * Only once that loss has been reported does setAutoCommit(true) reconnect.
+ * A background health check runs SELECT 1 and logs when the database goes down
+ * or comes back. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class ConnectionPool {
+    private static final Logger log = Logger.get(ConnectionPool.class);
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+    private static final int VALIDATE_SECONDS = 2;
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 1000; // Recently returned connections are trusted
+
+    // H2 error codes worth retrying: connection broken, database in use, I/O errors, database closed
+    private static final Set<Integer> RETRYABLE = Set.of(90067, 90020, 90028, 90031, 90098);
+    // Calls that have no effect on the database, so they can be repeated on a fresh connection
+    private static final Set<String> REOPENABLE = Set.of(
+            "createStatement", "prepareStatement", "prepareCall", "getMetaData", "getAutoCommit", "setAutoCommit");
+
+    /**
+     * Opens a new physical connection.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long reconnectMillis;
+    private final Semaphore permits;
+    private final Deque<Idle> idle = new ArrayDeque<>(); // Most recently returned first
+    private volatile boolean healthy = true;
+    private ScheduledExecutorService healthCheck;
+    private boolean shutdown;
+
+    /**
+     * @param factory             opens the physical connections
+     * @param maxSize             the most connections open at once
+     * @param borrowTimeoutMillis how long borrow() waits for a free connection
+     * @param reconnectMillis     how long opening a connection is retried before giving up
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long borrowTimeoutMillis, long reconnectMillis) {
+        this.factory = factory;
+        this.maxSize = Math.max(1, maxSize);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.reconnectMillis = reconnectMillis;
+        this.permits = new Semaphore(this.maxSize, true);
+    }
+
+    /**
+     * Borrows a connection. Closing it returns it to the pool.
+     *
+     * @throws SQLTransientConnectionException if none became free within the borrow timeout
+     */
+    public Connection borrow() throws SQLException {
+        try (Metrics.Timer timer = Metrics.time("ConnectionPool.borrow")) {
+            try {
+                if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new SQLTransientConnectionException("No database connection free after "
+                            + borrowTimeoutMillis + " ms, all " + maxSize + " are in use");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+            }
+            try {
+                Connection physical = takeIdle();
+                if (physical == null) {
+                    physical = openWithBackoff();
+                }
+                timer.rows(1); // Connections handed out; fewer rows than calls means borrows timed out
+                return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                        new Class<?>[] { Connection.class }, new PooledConnection(physical));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+    }
+
+    // Reuse the most recently returned connection, dropping any that went bad while idle
+    private Connection takeIdle() {
+        while (true) {
+            Idle entry;
+            synchronized (this) {
+                entry = idle.pollFirst();
+            }
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - entry.since < VALIDATE_AFTER_IDLE_MILLIS || isUsable(entry.connection)) {
+                return entry.connection;
+            }
+            closeQuietly(entry.connection);
+        }
+    }
+
+    /**
+     * Opens a connection, retrying with exponential backoff while the failure looks temporary.
+     */
+    Connection openWithBackoff() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(reconnectMillis);
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Connection connection = factory.open();
+                if (!healthy) {
+                    healthy = true;
+                    log.warn("Database reachable again after {} attempts", attempt);
+                }
+                return connection;
+            } catch (SQLException e) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0 || !isRetryable(e)) {
+                    healthy = false;
+                    throw e;
+                }
+                // Full backoff would make every waiting instance retry in lockstep, so sleep a random half to all of it
+                long sleep = Math.min(remainingMillis, backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+                log.warn("Could not connect to the database (attempt {}), retrying in {} ms: {}", attempt, sleep, e.getMessage());
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+            }
+        }
+    }
+
+    private static boolean isRetryable(SQLException e) {
+        return e instanceof SQLTransientException || RETRYABLE.contains(e.getErrorCode())
+                || (e.getSQLState() != null && e.getSQLState().startsWith("08")); // SQL standard connection errors
+    }
+
+    private static boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(VALIDATE_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Could not close a dropped connection: {}", e.getMessage());
+        }
+    }
+
+    // Take back a connection, unless it is broken or the pool is shutting down
+    private void giveBack(Connection physical) {
+        try {
+            if (physical.isClosed()) {
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback(); // Never hand the next borrower someone else's open transaction
+                physical.setAutoCommit(true);
+            }
+            synchronized (this) {
+                if (!shutdown && idle.size() < maxSize) {
+                    idle.addFirst(new Idle(physical, System.currentTimeMillis()));
+                    return;
+                }
+            }
+            closeQuietly(physical);
+        } catch (SQLException e) {
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Borrows a connection and runs SELECT 1 on it.
+     */
+    public Health checkHealth() {
+        long start = System.nanoTime();
+        String error = null;
+        try (Connection connection = borrow(); Statement stmt = connection.createStatement()) {
+            stmt.setQueryTimeout(VALIDATE_SECONDS);
+            stmt.executeQuery("SELECT 1").close();
+        } catch (SQLException e) {
+            error = e.getMessage();
+        }
+        boolean up = error == null;
+        if (up != healthy) {
+            healthy = up;
+            if (up) {
+                log.warn("Database health check passed again");
+            } else {
+                log.error("Database health check failed: {}", error);
+            }
+        }
+        return new Health(up, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), getActive(), getIdle(), error);
+    }
+
+    /**
+     * Runs checkHealth() every interval on a daemon thread, also dropping idle connections that went bad.
+     */
+    public synchronized void startHealthChecks(long intervalSeconds) {
+        if (healthCheck != null || intervalSeconds <= 0) {
+            return;
+        }
+        healthCheck = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthCheck.scheduleWithFixedDelay(() -> {
+            dropBrokenIdle();
+            checkHealth();
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void dropBrokenIdle() {
+        Deque<Idle> checked;
+        synchronized (this) {
+            checked = new ArrayDeque<>(idle);
+            idle.clear();
+        }
+        for (Idle entry : checked) {
+            if (isUsable(entry.connection)) {
+                synchronized (this) {
+                    idle.addLast(entry);
+                }
+            } else {
+                closeQuietly(entry.connection);
+            }
+        }
+    }
+
+    /**
+     * Closes the idle connections and stops the health check. Borrowed connections are
+     * closed when they are returned.
+     */
+    public void shutdown() {
+        Deque<Idle> closing;
+        synchronized (this) {
+            shutdown = true;
+            closing = new ArrayDeque<>(idle);
+            idle.clear();
+            if (healthCheck != null) {
+                healthCheck.shutdownNow();
+            }
+        }
+        for (Idle entry : closing) {
+            closeQuietly(entry.connection);
+        }
+    }
+
+    /**
+     * @return the number of connections currently borrowed
+     */
+    public int getActive() {
+        return maxSize - permits.availablePermits();
+    }
+
+    public synchronized int getIdle() {
+        return idle.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return false from a failed connect or health check until the next successful one
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    private static class Idle {
+        final Connection connection;
+        final long since;
+
+        Idle(Connection connection, long since) {
+            this.connection = connection;
+            this.since = since;
+        }
+    }
+
+    private class PooledConnection implements InvocationHandler {
+        private Connection physical;
+        private boolean returned;
+        private boolean autoCommit = true; // As the caller last set it; every borrow starts in autocommit
+        private boolean lost; // The open transaction died with its connection and the caller was told
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned; // A broken physical connection is replaced on next use instead
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled(" + physical + ")";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection was already returned to the pool");
+            }
+            try {
+                return track(method, args, call(method, args));
+            } catch (SQLException e) {
+                if (autoCommit && !REOPENABLE.contains(method.getName()) || isUsable(physical)) {
+                    throw e;
+                }
+                if (!autoCommit && !(lost && leavesTransaction(method, args))) {
+                    lost = true; // A new connection would silently drop the transaction's earlier writes
+                    throw e;
+                }
+                log.warn("Database connection lost, reconnecting: {}", e.getMessage());
+                closeQuietly(physical);
+                physical = openWithBackoff();
+                return track(method, args, call(method, args));
+            }
+        }
+
+        private Object track(Method method, Object[] args, Object result) {
+            if (method.getName().equals("setAutoCommit")) {
+                autoCommit = (Boolean) args[0];
+                lost &= !autoCommit;
+            }
+            return result;
+        }
+
+        private boolean leavesTransaction(Method method, Object[] args) {
+            return method.getName().equals("setAutoCommit") && Boolean.TRUE.equals(args[0]);
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * The outcome of one health check.
+     */
+    public static class Health {
+        private final boolean up;
+        private final long latencyMicros;
+        private final int active;
+        private final int idle;
+        private final String error;
+
+        Health(boolean up, long latencyMicros, int active, int idle, String error) {
+            this.up = up;
+            this.latencyMicros = latencyMicros;
+            this.active = active;
+            this.idle = idle;
+            this.error = error;
+        }
+
+        public boolean isUp() {
+            return up;
+        }
+
+        public long getLatencyMicros() {
+            return latencyMicros;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        /**
+         * @return why the check failed, or null if it passed
+         */
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return up ? String.format("UP latency=%dus active=%d idle=%d", latencyMicros, active, idle)
+                    : String.format("DOWN (%s) active=%d idle=%d", error, active, idle);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package project.util.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import project.util.logging.Logger;
+import project.util.tracing.QueryTracer;
+
+/**
+ * <p> DatabaseConfig class </p>
+ *
+ * <p> Description: The one place that decides which database the application uses.
+ * Users, messages and articles all live in the store named here, so queries can join
+ * across them. Settings are read from database.properties in the working directory
+ * (or the file named by -Dproject.config), and any of them can be overridden with a
+ * system property of the same name. </p>
+ *
+ * <p> Settings:
+ * project.db.url is the base JDBC URL (jdbc:h2:./database),
+ * project.db.user and project.db.password the credentials (sa and empty).
+ * H2 tuning, each appended to the URL only when set and not already in it:
+ * project.db.cacheSize (CACHE_SIZE, in KB),
+ * project.db.compress (COMPRESS, MVStore chunk compression),
+ * project.db.pageSize (PAGE_SIZE, in bytes, for new databases),
+ * project.db.writeDelay (WRITE_DELAY, in ms),
+ * project.db.retentionTime (RETENTION_TIME, in ms),
+ * project.db.autoCompactFillRate (AUTO_COMPACT_FILL_RATE, in percent),
+ * and project.db.options for any other ;KEY=VALUE settings.
+ * project.db.importLegacy (true) copies the user tables of the old ~/database file into
+ * a new, empty database file on first start (never for mem: or tcp:). </p>
+ *
+ * <p> Deployment, for several instances sharing one database:
+ * project.db.mode=embedded (default) opens the file in this process only;
+ * project.db.mode=auto adds AUTO_SERVER=TRUE, so the first instance to open the file
+ * serves it to the others, which is simplest on a shared drive;
+ * project.db.mode=server hosts the file over TCP on project.db.port (9092), reachable
+ * from other hosts if project.db.allowOthers=true (refused while project.db.password
+ * is empty), and the other instances set project.db.url=jdbc:h2:tcp://host:9092/./database.
+ * Every connection comes from a ConnectionPool of project.db.pool.size (10)
+ * connections, waiting at most project.db.pool.timeoutMillis (30000) for a free one,
+ * retrying an unreachable database for project.db.reconnectMillis (30000), and
+ * checking health every project.db.healthSeconds (30, 0 turns it off).
+ * Each instance sharing the database also needs its own project.node.id (0-1023)
+ * for the article IDs it generates, see ArticleIdGenerator. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class DatabaseConfig {
+    private static final Logger log = Logger.get(DatabaseConfig.class);
+
+    public static final String JDBC_DRIVER = "org.h2.Driver";
+    public static final String DEFAULT_URL = "jdbc:h2:./database";
+
+    // Property name to H2 URL setting, in the order they are appended
+    private static final Map<String, String> TUNING = new LinkedHashMap<>();
+    static {
+        TUNING.put("project.db.cacheSize", "CACHE_SIZE");
+        TUNING.put("project.db.compress", "COMPRESS");
+        TUNING.put("project.db.pageSize", "PAGE_SIZE");
+        TUNING.put("project.db.writeDelay", "WRITE_DELAY");
+        TUNING.put("project.db.retentionTime", "RETENTION_TIME");
+        TUNING.put("project.db.autoCompactFillRate", "AUTO_COMPACT_FILL_RATE");
+    }
+
+    /**
+     * How this instance reaches the database.
+     */
+    public enum Mode {
+        EMBEDDED, AUTO, SERVER
+    }
+
+    private static DatabaseConfig instance;
+
+    private final Properties properties;
+    private final Mode mode;
+    private final String baseUrl;
+    private final String url;
+    private final String user;
+    private final String password;
+    private ConnectionPool pool;
+
+    DatabaseConfig(Properties properties) {
+        this.properties = properties;
+        this.baseUrl = setting(properties, "project.db.url", DEFAULT_URL).trim();
+        this.user = setting(properties, "project.db.user", "sa");
+        this.password = setting(properties, "project.db.password", "");
+        this.mode = parseMode(setting(properties, "project.db.mode", "embedded"));
+
+        StringBuilder builder = new StringBuilder(baseUrl);
+        String upper = baseUrl.toUpperCase(Locale.ROOT);
+        for (Map.Entry<String, String> option : TUNING.entrySet()) {
+            String value = setting(properties, option.getKey(), null);
+            if (value != null && !value.isBlank() && !upper.contains(";" + option.getValue() + "=")) {
+                builder.append(';').append(option.getValue()).append('=').append(value.trim());
+            }
+        }
+        if (mode == Mode.AUTO && isLocalFile() && !upper.contains(";AUTO_SERVER=")) {
+            builder.append(";AUTO_SERVER=TRUE");
+        }
+        String options = setting(properties, "project.db.options", null);
+        if (options != null && !options.isBlank()) {
+            builder.append(options.trim().startsWith(";") ? "" : ";").append(options.trim());
+        }
+        this.url = builder.toString();
+    }
+
+    /**
+     * @return the configuration of this process, read on first use
+     */
+    public static synchronized DatabaseConfig get() {
+        if (instance == null) {
+            instance = new DatabaseConfig(load(Paths.get(System.getProperty("project.config", "database.properties"))));
+        }
+        return instance;
+    }
+
+    // A missing file is fine: everything then comes from system properties and defaults
+    static Properties load(Path file) {
+        Properties properties = new Properties();
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            } catch (IOException e) {
+                log.warn("Could not read {}, using defaults: {}", file, e.getMessage());
+            }
+        }
+        return properties;
+    }
+
+    private static String setting(Properties properties, String name, String fallback) {
+        return System.getProperty(name, properties.getProperty(name, fallback));
+    }
+
+    private int intSetting(String name, int fallback) {
+        String value = setting(properties, name, null);
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("{}={} is not a number, using {}", name, value, fallback);
+            return fallback;
+        }
+    }
+
+    private static Mode parseMode(String value) {
+        try {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown project.db.mode {}, using embedded", value);
+            return Mode.EMBEDDED;
+        }
+    }
+
+    // AUTO_SERVER and the TCP server only make sense for a database file opened by this process
+    /**
+     * @return true if the database is a file this process opens itself, not mem:, tcp: or ssl:
+     */
+    public boolean isLocalFile() {
+        return baseUrl.startsWith("jdbc:h2:") && !baseUrl.startsWith("jdbc:h2:mem:")
+                && !baseUrl.startsWith("jdbc:h2:tcp:") && !baseUrl.startsWith("jdbc:h2:ssl:");
+    }
+
+    /**
+     * Borrows a connection to the configured database from the shared pool, traced
+     * when -Dproject.trace=true, see QueryTracer.
+     * Closing it returns it to the pool.
+     */
+    public Connection connect() throws SQLException {
+        return getPool().borrow();
+    }
+
+    /**
+     * @return the pool every connection comes from, started on first use along with
+     *         the TCP server in server mode
+     */
+    public synchronized ConnectionPool getPool() throws SQLException {
+        if (pool == null) {
+            if (mode == Mode.SERVER) {
+                if (isLocalFile()) {
+                    boolean allowOthers = Boolean.parseBoolean(setting(properties, "project.db.allowOthers", "false"));
+                    if (allowOthers && password.isEmpty()) {
+                        throw new SQLException("project.db.allowOthers=true needs a project.db.password: "
+                                + "with an empty password any host on the network could open the database, "
+                                + "users and passwords included. Set a password or turn allowOthers off.");
+                    }
+                    DatabaseServer.start(intSetting("project.db.port", 9092), allowOthers);
+                } else {
+                    log.warn("project.db.mode=server needs a database file, not {}; not serving it", baseUrl);
+                }
+            }
+            log.info("Connecting to {} ({} mode)", url, mode.name().toLowerCase(Locale.ROOT));
+            pool = new ConnectionPool(this::open, intSetting("project.db.pool.size", 10),
+                    intSetting("project.db.pool.timeoutMillis", 30000), intSetting("project.db.reconnectMillis", 30000));
+            pool.startHealthChecks(intSetting("project.db.healthSeconds", 30));
+        }
+        return pool;
+    }
+
+    /**
+     * Opens a new physical connection, bypassing the pool.
+     */
+    Connection open() throws SQLException {
+        try {
+            Class.forName(JDBC_DRIVER);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("JDBC Driver not found: " + JDBC_DRIVER, e);
+        }
+        return QueryTracer.wrap(DriverManager.getConnection(url, user, password));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return true if other instances may write to the same database, i.e. in auto or
+     *         server mode or when it is reached over TCP
+     */
+    public boolean isShared() {
+        return mode != Mode.EMBEDDED || !baseUrl.startsWith("jdbc:h2:") || baseUrl.startsWith("jdbc:h2:tcp:")
+                || baseUrl.startsWith("jdbc:h2:ssl:");
+    }
+
+    /**
+     * @return the URL as configured, without the tuning settings
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * @return the URL with the tuning settings appended, as passed to the driver
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * @return true if the database is a local file and project.db.importLegacy is not
+     *         false, so the old per-user tables may be imported into it
+     */
+    public boolean isLegacyImport() {
+        return isLocalFile() && Boolean.parseBoolean(setting(properties, "project.db.importLegacy", "true"));
+    }
+
+    /**
+     * @return the project.node.id of this instance, or -1 if it is not set
+     */
+    public int getNodeId() {
+        return intSetting("project.node.id", -1);
+    }
+}
@@ -0,0 +1,66 @@
+package project.util.config;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.h2.tools.Server;
+
+import project.util.logging.Logger;
+
+/**
+ * <p> DatabaseServer class </p>
+ *
+ * <p> Description: Hosts the configured H2 database over TCP from inside this process,
+ * for the server deployment mode. The hosting instance keeps using the database
+ * file directly, while the instances on other workstations connect to it with a
+ * jdbc:h2:tcp:// URL, so none of them fights over the file lock. Clients can only
+ * open databases that already exist on the server. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class DatabaseServer {
+    private static final Logger log = Logger.get(DatabaseServer.class);
+    private static Server tcp;
+
+    private DatabaseServer() {
+    }
+
+    /**
+     * Starts the TCP server unless it is already running. It is stopped when the JVM exits.
+     *
+     * @param port        the port to listen on
+     * @param allowOthers true to accept connections from other hosts, not just localhost;
+     *                    DatabaseConfig refuses this while the database password is empty
+     */
+    public static synchronized void start(int port, boolean allowOthers) throws SQLException {
+        if (tcp != null) {
+            return;
+        }
+        List<String> args = new ArrayList<>(List.of("-tcpPort", String.valueOf(port), "-tcpDaemon"));
+        if (allowOthers) {
+            args.add("-tcpAllowOthers");
+        }
+        tcp = Server.createTcpServer(args.toArray(new String[0])).start();
+        log.warn("Serving the database to other instances at {}", tcp.getURL());
+        Runtime.getRuntime().addShutdownHook(new Thread(DatabaseServer::stop, "db-server-stop"));
+    }
+
+    public static synchronized void stop() {
+        if (tcp != null) {
+            tcp.stop();
+            tcp = null;
+        }
+    }
+
+    public static synchronized boolean isRunning() {
+        return tcp != null && tcp.isRunning(false);
+    }
+
+    /**
+     * @return the tcp:// address clients connect to, or null when not serving
+     */
+    public static synchronized String getUrl() {
+        return tcp == null ? null : tcp.getURL();
+    }
+}
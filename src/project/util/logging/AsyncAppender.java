@@ -0,0 +1,132 @@
+package project.util.logging;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p> AsyncAppender class </p>
+ *
+ * <p> Description: Writes log events on a background thread. Logging threads only put
+ * the event into a RingBuffer, so a database loop that logs never waits for the
+ * console or a file. If the ring fills up, DEBUG and INFO events are dropped rather
+ * than stalling the caller, and the number dropped is reported in the log. WARN and
+ * ERROR events wait for room instead. </p>
+ *
+ * <p> The output is the console, or the file named by -Dproject.log.file. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+class AsyncAppender {
+    private static final int CAPACITY = 8192;
+    private static final long IDLE_PARK_NANOS = 2_000_000; // How long the writer sleeps when the ring is empty
+    private static final long FULL_PARK_NANOS = 50_000;    // How long a WARN or ERROR waits for room before retrying
+
+    private final RingBuffer<Event> ring = new RingBuffer<>(CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Writer out;
+    private final Thread writer;
+
+    AsyncAppender() {
+        out = new BufferedWriter(new OutputStreamWriter(open(System.getProperty("project.log.file")), StandardCharsets.UTF_8));
+        writer = new Thread(this::drainForever, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::drain, "log-writer-final"));
+    }
+
+    private static OutputStream open(String file) {
+        if (file != null) {
+            try {
+                return new FileOutputStream(file, true);
+            } catch (IOException e) {
+                e.printStackTrace(); // Fall back to the console
+            }
+        }
+        return System.out;
+    }
+
+    void append(Level level, String logger, String message, Throwable error) {
+        Event event = new Event(System.currentTimeMillis(), level, Thread.currentThread().getName(), logger, message, error);
+        while (!ring.offer(event)) {
+            if (level.compareTo(Level.WARN) < 0) {
+                dropped.incrementAndGet();
+                return;
+            }
+            // Warnings and errors are never dropped: wake the writer and wait for room
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    private void drainForever() {
+        while (true) {
+            if (!drain()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    // Write everything queued so far; returns false if there was nothing to write
+    private synchronized boolean drain() {
+        boolean wrote = false;
+        try {
+            Event event;
+            while ((event = ring.poll()) != null) {
+                write(event);
+                wrote = true;
+            }
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                out.write(Instant.ofEpochMilli(System.currentTimeMillis()) + " WARN  [log-writer] logging: " + lost + " log messages dropped, the log buffer was full" + System.lineSeparator());
+                wrote = true;
+            }
+            if (wrote) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return wrote;
+    }
+
+    private void write(Event event) throws IOException {
+        out.write(Instant.ofEpochMilli(event.millis).toString());
+        out.write(' ');
+        out.write(String.format("%-5s", event.level));
+        out.write(" [" + event.thread + "] " + event.logger + ": " + event.message);
+        out.write(System.lineSeparator());
+        if (event.error != null) {
+            StringWriter trace = new StringWriter();
+            event.error.printStackTrace(new PrintWriter(trace));
+            out.write(trace.toString());
+        }
+    }
+
+    private static class Event {
+        final long millis;
+        final Level level;
+        final String thread;
+        final String logger;
+        final String message;
+        final Throwable error;
+
+        Event(long millis, Level level, String thread, String logger, String message, Throwable error) {
+            this.millis = millis;
+            this.level = level;
+            this.thread = thread;
+            this.logger = logger;
+            this.message = message;
+            this.error = error;
+        }
+    }
+}
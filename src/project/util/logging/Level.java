@@ -0,0 +1,13 @@
+package project.util.logging;
+
+/**
+ * <p> Level enum </p>
+ *
+ * <p> Description: Logging levels from most to least verbose. A logger set to a level
+ * writes messages of that level and above; OFF writes nothing. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public enum Level {
+    DEBUG, INFO, WARN, ERROR, OFF
+}
@@ -0,0 +1,204 @@
+package project.util.logging;
+
+/**
+ * <p> Logger class </p>
+ *
+ * <p> Description: A named logger with levels and parameterized messages:
+ * <pre>
+ * private static final Logger log = Logger.get(HelpArticleDatabase.class);
+ * log.debug("Loaded article {}", article.getTitle());
+ * log.error("Could not read backup file {}", file, e);
+ * </pre>
+ * Each {} is replaced by the next argument. A Throwable passed as the last argument,
+ * beyond the placeholders, is logged with its stack trace. A message below the
+ * logger's level costs one comparison: nothing is formatted or queued. Enabled
+ * messages are formatted on the calling thread and written by the AsyncAppender. </p>
+ *
+ * <p> The level is WARN unless set with -Dproject.log.level=DEBUG|INFO|WARN|ERROR|OFF,
+ * or for one class with -Dproject.log.level.&lt;class name&gt;=..., e.g.
+ * -Dproject.log.level.project.article.HelpArticleDatabase=DEBUG. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class Logger {
+    private static final Level DEFAULT_LEVEL = parse(System.getProperty("project.log.level"), Level.WARN);
+    private static volatile AsyncAppender appender; // Started by the first enabled message
+
+    private final String name;
+    private final int threshold;
+
+    private Logger(String name, Level level) {
+        this.name = name;
+        this.threshold = level.ordinal();
+    }
+
+    public static Logger get(Class<?> type) {
+        Level level = parse(System.getProperty("project.log.level." + type.getName()), DEFAULT_LEVEL);
+        return new Logger(type.getSimpleName(), level);
+    }
+
+    private static Level parse(String value, Level fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold && level != Level.OFF;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public void debug(String message) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, message, null);
+        }
+    }
+
+    public void debug(String pattern, Object arg) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, pattern, new Object[] { arg });
+        }
+    }
+
+    public void debug(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, pattern, new Object[] { arg1, arg2 });
+        }
+    }
+
+    public void debug(String pattern, Object... args) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, pattern, args);
+        }
+    }
+
+    public void info(String message) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, message, null);
+        }
+    }
+
+    public void info(String pattern, Object arg) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, pattern, new Object[] { arg });
+        }
+    }
+
+    public void info(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, pattern, new Object[] { arg1, arg2 });
+        }
+    }
+
+    public void info(String pattern, Object... args) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, pattern, args);
+        }
+    }
+
+    public void warn(String message) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, message, null);
+        }
+    }
+
+    public void warn(String pattern, Object arg) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, pattern, new Object[] { arg });
+        }
+    }
+
+    public void warn(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, pattern, new Object[] { arg1, arg2 });
+        }
+    }
+
+    public void warn(String pattern, Object... args) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, pattern, args);
+        }
+    }
+
+    public void error(String message) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, message, null);
+        }
+    }
+
+    public void error(String pattern, Object arg) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, pattern, new Object[] { arg });
+        }
+    }
+
+    public void error(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, pattern, new Object[] { arg1, arg2 });
+        }
+    }
+
+    public void error(String pattern, Object... args) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, pattern, args);
+        }
+    }
+
+    private void log(Level level, String pattern, Object[] args) {
+        Throwable error = null;
+        if (args != null && args.length > 0 && args[args.length - 1] instanceof Throwable
+                && args.length > countPlaceholders(pattern)) {
+            error = (Throwable) args[args.length - 1];
+        }
+        appender().append(level, name, format(pattern, args), error);
+    }
+
+    private static AsyncAppender appender() {
+        AsyncAppender current = appender;
+        if (current == null) {
+            synchronized (Logger.class) {
+                if (appender == null) {
+                    appender = new AsyncAppender();
+                }
+                current = appender;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Replaces each {} in the pattern with the next argument.
+     */
+    static String format(String pattern, Object[] args) {
+        if (args == null || args.length == 0) {
+            return pattern;
+        }
+        StringBuilder message = new StringBuilder(pattern.length() + 32);
+        int start = 0;
+        for (Object arg : args) {
+            int placeholder = pattern.indexOf("{}", start);
+            if (placeholder < 0) {
+                break;
+            }
+            message.append(pattern, start, placeholder).append(arg);
+            start = placeholder + 2;
+        }
+        return message.append(pattern, start, pattern.length()).toString();
+    }
+
+    private static int countPlaceholders(String pattern) {
+        int count = 0;
+        for (int i = pattern.indexOf("{}"); i >= 0; i = pattern.indexOf("{}", i + 2)) {
+            count++;
+        }
+        return count;
+    }
+}
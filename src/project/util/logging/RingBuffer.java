@@ -0,0 +1,72 @@
+package project.util.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p> RingBuffer class </p>
+ *
+ * <p> Description: A bounded lock-free queue for many producers and one consumer.
+ * Producers claim a slot with a compare-and-set on the tail and publish the element
+ * by advancing the slot's sequence number. When the ring is full, offer fails
+ * instead of blocking the caller. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+class RingBuffer<E> {
+    private final Object[] slots;
+    private final AtomicLongArray sequences; // Slot i is free for position p when sequence == p, full when p + 1
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // Only the consumer thread touches the head
+
+    RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        slots = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * @return false if the ring is full
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = element;
+                    sequences.set(index, position + 1); // Publishes the element to the consumer
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get(); // Another producer took this slot
+            }
+        }
+    }
+
+    /**
+     * Called by the consumer thread only.
+     * @return the eldest element, or null if the ring is empty
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = (E) slots[index];
+        slots[index] = null;
+        sequences.set(index, head + slots.length); // Frees the slot for the next lap
+        head++;
+        return element;
+    }
+}
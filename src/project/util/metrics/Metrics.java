@@ -0,0 +1,177 @@
+package project.util.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import project.util.logging.Logger;
+
+/**
+ * <p> Metrics class </p>
+ *
+ * <p> Description: The registry of per-method data-access metrics. A data-access method
+ * opens a Timer alongside its statement and reports the rows and bytes it read or
+ * wrote, e.g. timer.rows(pstmt.executeUpdate()) for an update:
+ * <pre>
+ * try (Metrics.Timer timer = Metrics.time("HelpArticleDatabase.getAllArticles");
+ *      PreparedStatement pstmt = connection.prepareStatement(sql)) {
+ *     ...
+ *     timer.rows(articles.size());
+ * }
+ * </pre>
+ * Timers wrap the database work only, so answers served from the ArticleCache are
+ * not counted here; ArticleCache.stats() reports those. </p>
+ *
+ * <p> Snapshots can be exported with system properties:
+ * -Dproject.metrics.file=metrics.txt rewrites the file every
+ * project.metrics.interval seconds (default 60) and on exit, and
+ * -Dproject.metrics.jmx=true registers every method as an MXBean. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class Metrics {
+    private static final Logger log = Logger.get(Metrics.class);
+    private static final ConcurrentHashMap<String, QueryMetrics> registry = new ConcurrentHashMap<>();
+    private static final boolean JMX = Boolean.getBoolean("project.metrics.jmx");
+
+    static {
+        String file = System.getProperty("project.metrics.file");
+        if (file != null) {
+            long interval = Long.getLong("project.metrics.interval", 60L);
+            exportPeriodically(Paths.get(file), interval);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Starts timing one call of the named method.
+     */
+    public static Timer time(String name) {
+        return new Timer(get(name));
+    }
+
+    /**
+     * @return the metrics of the named method, created on first use
+     */
+    public static QueryMetrics get(String name) {
+        QueryMetrics metrics = registry.get(name); // Lock-free on the common path
+        if (metrics == null) {
+            metrics = registry.computeIfAbsent(name, Metrics::create);
+        }
+        return metrics;
+    }
+
+    private static QueryMetrics create(String name) {
+        QueryMetrics metrics = new QueryMetrics(name);
+        if (JMX) {
+            register(metrics);
+        }
+        return metrics;
+    }
+
+    private static void register(QueryMetrics metrics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(metrics, new ObjectName("project.metrics:type=Query,name=" + ObjectName.quote(metrics.getName())));
+        } catch (JMException e) {
+            log.warn("Could not register {} with JMX", metrics.getName(), e);
+        }
+    }
+
+    /**
+     * @return every registered method, slowest total time first
+     */
+    public static List<QueryMetrics> all() {
+        List<QueryMetrics> all = new ArrayList<>(registry.values());
+        all.sort(Comparator.comparingDouble((QueryMetrics m) -> m.getMeanMillis() * m.getCalls()).reversed());
+        return all;
+    }
+
+    public static String snapshot() {
+        StringBuilder text = new StringBuilder("Data-access metrics at " + Instant.now() + System.lineSeparator());
+        for (QueryMetrics metrics : all()) {
+            text.append(metrics).append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes a snapshot to the file, replacing it in one step so readers never see half a snapshot.
+     */
+    public static void writeSnapshot(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        Files.write(temp, snapshot().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void reset() {
+        for (QueryMetrics metrics : registry.values()) {
+            metrics.reset();
+        }
+    }
+
+    private static void exportPeriodically(Path file, long intervalSeconds) {
+        ScheduledExecutorService exporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runnable export = () -> {
+            try {
+                writeSnapshot(file);
+            } catch (IOException e) {
+                log.warn("Could not write metrics to {}", file, e);
+            }
+        };
+        exporter.scheduleAtFixedRate(export, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(export, "metrics-export-final"));
+    }
+
+    /**
+     * Times one call. Closing it records the elapsed time with the rows and bytes reported.
+     */
+    public static class Timer implements AutoCloseable {
+        private final QueryMetrics metrics;
+        private final long start = System.nanoTime();
+        private long rows;
+        private long bytes;
+
+        Timer(QueryMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        public Timer rows(long count) {
+            rows += count;
+            return this;
+        }
+
+        public Timer bytes(long count) {
+            bytes += count;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            metrics.record(System.nanoTime() - start, rows, bytes);
+        }
+    }
+}
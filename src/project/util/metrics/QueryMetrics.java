@@ -0,0 +1,87 @@
+package project.util.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p> QueryMetrics class </p>
+ *
+ * <p> Description: Counters and a latency histogram for one data-access method: how
+ * often it ran, how many rows and bytes it read, and how long it took. Every field
+ * is updated without locks. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class QueryMetrics implements QueryMetricsMXBean {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String name;
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    QueryMetrics(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, long rowCount, long byteCount) {
+        latency.record(nanos);
+        rows.add(rowCount);
+        bytes.add(byteCount);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return latency.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.getValueAtPercentile(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.getValueAtPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        rows.reset();
+        bytes.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-50s calls=%-8d rows=%-10d bytes=%-12d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms",
+                name, getCalls(), getRows(), getBytes(), getMeanMillis(), getP50Millis(), getP99Millis(), getMaxMillis());
+    }
+}
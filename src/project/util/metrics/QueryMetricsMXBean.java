@@ -0,0 +1,27 @@
+package project.util.metrics;
+
+/**
+ * <p> QueryMetricsMXBean interface </p>
+ *
+ * <p> Description: The attributes of one instrumented data-access method as shown in
+ * JConsole or VisualVM, under project.metrics:type=Query,name=&lt;method&gt;. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public interface QueryMetricsMXBean {
+    long getCalls();
+
+    long getRows();
+
+    long getBytes();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
@@ -0,0 +1,35 @@
+package project.util.schema;
+
+/**
+ * <p> Migration class </p>
+ *
+ * <p> Description: One numbered step of a database schema. A migration is applied once,
+ * in version order, and then recorded in the schema_version table. Released
+ * migrations must never be edited; a schema change is a new migration with the next
+ * version number. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class Migration {
+    private final int version;
+    private final String description;
+    private final String[] statements;
+
+    public Migration(int version, String description, String... statements) {
+        this.version = version;
+        this.description = description;
+        this.statements = statements;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String[] getStatements() {
+        return statements;
+    }
+}
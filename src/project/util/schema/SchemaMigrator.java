@@ -0,0 +1,120 @@
+package project.util.schema;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import project.util.logging.Logger;
+
+/**
+ * <p> SchemaMigrator class </p>
+ *
+ * <p> Description: Brings a database schema up to date by applying numbered migrations.
+ * The schema_version table records, per component, which migrations have been
+ * applied. Once a schema is current, migrating costs one indexed version read. The
+ * version is read every time rather than remembered per URL, so an in-memory database
+ * that was dropped and created again, or a database file restored from a copy, is
+ * migrated too. </p>
+ *
+ * <p> H2 commits each DDL statement as it runs, so a migration is not atomic: one that
+ * fails part way keeps the statements before the failure but not its version row, and
+ * is run again from the start next time. Write the statements so they can be repeated,
+ * e.g. with IF NOT EXISTS. </p>
+ *
+ * <p> Each component (e.g. "users", "articles") has its own version sequence, so several
+ * data classes can keep their schemas in the same database. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class SchemaMigrator {
+    private static final Logger log = Logger.get(SchemaMigrator.class);
+    private static final int TABLE_NOT_FOUND = 42102; // H2 error codes for a missing table
+    private static final int TABLE_NOT_FOUND_EMPTY_DATABASE = 42104;
+
+    private static final String VERSION_TABLE = "CREATE TABLE IF NOT EXISTS schema_version ("
+            + "component VARCHAR(64) NOT NULL, "
+            + "version INT NOT NULL, "
+            + "description VARCHAR(255), "
+            + "applied_at TIMESTAMP, "
+            + "PRIMARY KEY (component, version))";
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Applies the migrations of the component that this database does not have yet.
+     *
+     * @param migrations every migration of the component, in ascending version order
+     * @return the schema version after migrating
+     */
+    public static int migrate(Connection connection, String component, List<Migration> migrations) throws SQLException {
+        int latest = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+        int version = readVersion(connection, component);
+        if (version >= latest) {
+            return version;
+        }
+
+        synchronized (SchemaMigrator.class) {
+            version = readVersion(connection, component); // Another thread may have migrated meanwhile
+            for (Migration migration : migrations) {
+                if (migration.getVersion() > version) {
+                    apply(connection, component, migration);
+                    version = migration.getVersion();
+                }
+            }
+            return version;
+        }
+    }
+
+    /**
+     * @return the highest applied version of the component, or 0 for a new database
+     */
+    public static int readVersion(Connection connection, String component) throws SQLException {
+        String query = "SELECT MAX(version) FROM schema_version WHERE component = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, component);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() != TABLE_NOT_FOUND && e.getErrorCode() != TABLE_NOT_FOUND_EMPTY_DATABASE) {
+                throw e;
+            }
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(VERSION_TABLE);
+            }
+            return 0;
+        }
+    }
+
+    // The data statements and the version row commit together; DDL commits on its own, see the class comment
+    private static void apply(Connection connection, String component, Migration migration) throws SQLException {
+        log.info("Applying {} migration {}: {}", component, migration.getVersion(), migration.getDescription());
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : migration.getStatements()) {
+                stmt.execute(sql);
+            }
+            String record = "INSERT INTO schema_version (component, version, description, applied_at) VALUES (?, ?, ?, ?)";
+            try (PreparedStatement pstmt = connection.prepareStatement(record)) {
+                pstmt.setString(1, component);
+                pstmt.setInt(2, migration.getVersion());
+                pstmt.setString(3, migration.getDescription());
+                pstmt.setTimestamp(4, Timestamp.from(Instant.now()));
+                pstmt.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
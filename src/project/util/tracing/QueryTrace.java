@@ -0,0 +1,79 @@
+package project.util.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p> QueryTrace class </p>
+ *
+ * <p> Description: What one statement execution did: its SQL text, the types of its bind
+ * parameters, how long it took to execute and to fetch its rows, and how many rows it
+ * returned or changed. The bound values are kept only so a slow query can be
+ * re-run under EXPLAIN ANALYZE; they are never written to the log. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class QueryTrace {
+    private final String sql;
+    private final List<String> shapes;
+    private final List<Object> values;
+    private final long executeNanos;
+    private long fetchNanos;
+    private long rows;
+
+    QueryTrace(String sql, List<String> shapes, List<Object> values, long executeNanos, long rows) {
+        this.sql = sql;
+        this.shapes = new ArrayList<>(shapes);
+        this.values = new ArrayList<>(values);
+        this.executeNanos = executeNanos;
+        this.rows = rows;
+    }
+
+    void fetched(long nanos, boolean row) {
+        fetchNanos += nanos;
+        if (row) {
+            rows++;
+        }
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return the bind parameter types in order, e.g. "(String, Long)"
+     */
+    public String getShape() {
+        return "(" + String.join(", ", shapes) + ")";
+    }
+
+    List<Object> getValues() {
+        return values;
+    }
+
+    public long getExecuteNanos() {
+        return executeNanos;
+    }
+
+    public long getFetchNanos() {
+        return fetchNanos;
+    }
+
+    public long getTotalNanos() {
+        return executeNanos + fetchNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public boolean isQuery() {
+        return sql.trim().regionMatches(true, 0, "SELECT", 0, 6);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f ms (execute %.1f ms, fetch %.1f ms) rows=%d %s params=%s",
+                getTotalNanos() / 1e6, executeNanos / 1e6, fetchNanos / 1e6, rows, sql.replaceAll("\\s+", " "), getShape());
+    }
+}
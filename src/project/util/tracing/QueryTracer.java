@@ -0,0 +1,231 @@
+package project.util.tracing;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p> QueryTracer class </p>
+ *
+ * <p> Description: Wraps a JDBC Connection so every statement it creates is traced.
+ * The wrapper records the SQL text, the types of the bound parameters, the time
+ * spent executing, the time spent fetching rows through the ResultSet, and the row
+ * count. A finished trace goes to the SlowQueryLog if it took longer than the
+ * threshold. The wrappers are dynamic proxies, so the database classes keep using
+ * the plain JDBC interfaces. </p>
+ *
+ * <p> Tracing is off unless asked for: every JDBC call on a traced connection, down to
+ * each ResultSet getter, goes through a reflective proxy, and the log is written
+ * relative to the working directory. Without it, wrap() hands back the connection
+ * itself and no log file is created. </p>
+ *
+ * <p> Configured with system properties:
+ * -Dproject.trace=true turns tracing on,
+ * -Dproject.trace.slowMillis=200 sets the threshold,
+ * -Dproject.trace.explain=true adds EXPLAIN ANALYZE plans for slow SELECTs,
+ * -Dproject.trace.file=slow-queries.log names the log, which rotates at
+ * project.trace.maxBytes (10 MB) and keeps project.trace.files (5) old copies. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class QueryTracer {
+    private static final boolean ENABLED = Boolean.getBoolean("project.trace");
+    private static final SlowQueryLog slowLog = ENABLED ? new SlowQueryLog(
+            new File(System.getProperty("project.trace.file", "slow-queries.log")),
+            Long.getLong("project.trace.slowMillis", 200L),
+            Boolean.getBoolean("project.trace.explain"),
+            Long.getLong("project.trace.maxBytes", 10L * 1024 * 1024),
+            Integer.getInteger("project.trace.files", 5)) : null;
+
+    private QueryTracer() {
+    }
+
+    /**
+     * @return a traced view of the connection, or the connection itself if tracing is off
+     */
+    public static Connection wrap(Connection connection) {
+        if (!ENABLED || connection == null || Proxy.isProxyClass(connection.getClass())) {
+            return connection;
+        }
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(QueryTracer.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    // Call through to the real JDBC object, rethrowing what it threw rather than the reflection wrapper
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryTracer.invoke(connection, method, args);
+            if (result instanceof PreparedStatement && method.getName().equals("prepareStatement")) {
+                return proxy(PreparedStatement.class, new StatementHandler((Statement) result, (String) args[0], connection));
+            }
+            if (result instanceof Statement && method.getName().equals("createStatement")) {
+                return proxy(Statement.class, new StatementHandler((Statement) result, null, connection));
+            }
+            return result;
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String preparedSql; // Null for plain statements, which pass SQL to each execute
+        private final Connection connection;
+        private final List<String> shapes = new ArrayList<>();
+        private final List<Object> values = new ArrayList<>();
+        private ResultHandler openResult;
+
+        StatementHandler(Statement statement, String preparedSql, Connection connection) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bind((Integer) args[0], name, args[1]);
+            } else if (name.equals("clearParameters")) {
+                shapes.clear();
+                values.clear();
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            } else if (name.equals("getResultSet") && openResult != null && openResult.resultSet == null) {
+                return traceResult((ResultSet) QueryTracer.invoke(statement, method, args));
+            } else if (name.equals("close")) {
+                finishResult();
+            }
+            return QueryTracer.invoke(statement, method, args);
+        }
+
+        private void bind(int index, String setter, Object value) {
+            while (shapes.size() < index) {
+                shapes.add("?");
+                values.add(null);
+            }
+            String shape = setter.substring(3);
+            if (setter.equals("setObject") && value != null) {
+                shape = value.getClass().getSimpleName();
+            } else if (setter.equals("setNull")) {
+                value = null;
+            }
+            shapes.set(index - 1, shape);
+            values.set(index - 1, value);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finishResult();
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : "?";
+            long start = System.nanoTime();
+            Object result = QueryTracer.invoke(statement, method, args);
+            long elapsed = System.nanoTime() - start;
+
+            QueryTrace trace = new QueryTrace(sql, shapes, values, elapsed, rowsChanged(result));
+            if (result instanceof ResultSet) {
+                openResult = new ResultHandler((ResultSet) result, trace, connection);
+                return proxy(ResultSet.class, openResult);
+            }
+            if (method.getName().equals("execute") && Boolean.TRUE.equals(result)) {
+                openResult = new ResultHandler(null, trace, connection); // Rows come later via getResultSet
+            } else {
+                slowLog.record(trace, connection);
+            }
+            return result;
+        }
+
+        // Attach the rows of an execute() that returned a result set to its trace
+        private ResultSet traceResult(ResultSet resultSet) {
+            if (resultSet == null) {
+                return null;
+            }
+            openResult = new ResultHandler(resultSet, openResult.trace, connection);
+            return proxy(ResultSet.class, openResult);
+        }
+
+        private static long rowsChanged(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                return ((Number) result).longValue();
+            }
+            if (result instanceof int[]) {
+                long total = 0;
+                for (int count : (int[]) result) {
+                    total += Math.max(0, count);
+                }
+                return total;
+            }
+            return 0;
+        }
+
+        private void finishResult() {
+            if (openResult != null) {
+                openResult.finish();
+                openResult = null;
+            }
+        }
+    }
+
+    private static class ResultHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final QueryTrace trace;
+        private final Connection connection;
+        private boolean finished;
+
+        ResultHandler(ResultSet resultSet, QueryTrace trace, Connection connection) {
+            this.resultSet = resultSet;
+            this.trace = trace;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("next")) {
+                long start = System.nanoTime();
+                boolean row = (Boolean) QueryTracer.invoke(resultSet, method, args);
+                trace.fetched(System.nanoTime() - start, row);
+                if (!row) {
+                    finish();
+                }
+                return row;
+            }
+            if (method.getName().equals("close")) {
+                finish();
+            }
+            return QueryTracer.invoke(resultSet, method, args);
+        }
+
+        // Log once, when the rows run out or the result set or its statement is closed
+        void finish() {
+            if (!finished) {
+                finished = true;
+                slowLog.record(trace, connection);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package project.util.tracing;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+
+import project.util.logging.Logger;
+
+/**
+ * <p> SlowQueryLog class </p>
+ *
+ * <p> Description: Appends statements that ran longer than a threshold to a log file.
+ * When the file passes its size limit it is renamed to .1, the older files move up
+ * one number, and the oldest is deleted. With EXPLAIN enabled, slow SELECTs are run
+ * again under H2's EXPLAIN ANALYZE and the plan, including the rows each index or
+ * table scan read, is logged under the statement. </p>
+ *
+ * @version 1.00 2024-11-20 Initial
+ */
+public class SlowQueryLog {
+    private static final Logger log = Logger.get(SlowQueryLog.class);
+
+    private final File file;
+    private final long thresholdNanos;
+    private final boolean explain;
+    private final long maxBytes;
+    private final int maxFiles;
+
+    /**
+     * @param file          the current log file; rotated copies get .1, .2, ... appended
+     * @param thresholdMillis statements at or above this duration are logged
+     * @param explain       whether to append the EXPLAIN ANALYZE plan of slow SELECTs
+     * @param maxBytes      size at which the file is rotated
+     * @param maxFiles      how many rotated files to keep
+     */
+    public SlowQueryLog(File file, long thresholdMillis, boolean explain, long maxBytes, int maxFiles) {
+        this.file = file;
+        this.thresholdNanos = thresholdMillis * 1_000_000;
+        this.explain = explain;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    boolean isSlow(QueryTrace trace) {
+        return trace.getTotalNanos() >= thresholdNanos;
+    }
+
+    /**
+     * Logs the trace if it was slow.
+     * @param connection the unwrapped connection, used to run EXPLAIN ANALYZE
+     */
+    void record(QueryTrace trace, Connection connection) {
+        if (!isSlow(trace)) {
+            return;
+        }
+        String plan = explain && trace.isQuery() ? explain(trace, connection) : null;
+        write(Instant.now() + " " + trace + System.lineSeparator()
+                + (plan == null ? "" : plan.replaceAll("(?m)^", "    ") + System.lineSeparator()));
+    }
+
+    // Re-run the query with its original values under EXPLAIN ANALYZE
+    private String explain(QueryTrace trace, Connection connection) {
+        try (PreparedStatement pstmt = connection.prepareStatement("EXPLAIN ANALYZE " + trace.getSql())) {
+            for (int i = 0; i < trace.getValues().size(); i++) {
+                pstmt.setObject(i + 1, trace.getValues().get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1));
+                }
+                return plan.toString();
+            }
+        } catch (SQLException e) {
+            return "EXPLAIN ANALYZE failed: " + e.getMessage();
+        }
+    }
+
+    private synchronized void write(String entry) {
+        try {
+            if (file.length() + entry.length() > maxBytes) {
+                rotate();
+            }
+            try (Writer writer = new FileWriter(file, true)) {
+                writer.write(entry);
+            }
+        } catch (IOException e) {
+            log.warn("Could not write the slow query log {}", file, e);
+        }
+    }
+
+    private void rotate() {
+        new File(file.getPath() + "." + maxFiles).delete();
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            File older = new File(file.getPath() + "." + i);
+            if (older.exists()) {
+                older.renameTo(new File(file.getPath() + "." + (i + 1)));
+            }
+        }
+        file.renameTo(new File(file.getPath() + ".1"));
+    }
+}